@@ -0,0 +1,233 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.data.aggregation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.knime.base.data.aggregation.general.ConcatenateOperator;
+import org.knime.base.data.aggregation.general.CountOperator;
+import org.knime.base.data.aggregation.general.FirstOperator;
+import org.knime.base.data.aggregation.general.LastOperator;
+import org.knime.base.data.aggregation.general.MaxOperator;
+import org.knime.base.data.aggregation.general.MinOperator;
+import org.knime.base.data.aggregation.general.PercentOperator;
+import org.knime.base.data.aggregation.general.SetCellOperator;
+import org.knime.base.data.aggregation.general.UniqueConcatenateOperator;
+import org.knime.base.data.aggregation.general.UniqueCountOperator;
+import org.knime.base.data.aggregation.numerical.GeometricStdDeviationOperator;
+import org.knime.base.data.aggregation.numerical.MeanOperator;
+import org.knime.base.data.aggregation.numerical.PSquarePercentileOperator;
+import org.knime.base.data.aggregation.numerical.StdDeviationOperator;
+import org.knime.base.data.aggregation.numerical.SumOperator;
+import org.knime.base.data.aggregation.numerical.VarianceOperator;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.node.NodeSettings;
+
+/**
+ * Checks that merging the partial states of {@link AggregationOperator}s yields the same result as aggregating all
+ * values with a single operator and that the state survives saving and loading.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class AggregationOperatorMergeTest {
+
+    private static final DataColumnSpec COL_SPEC = new DataColumnSpecCreator("value", IntCell.TYPE).createSpec();
+
+    private static final GlobalSettings GLOBAL_SETTINGS = GlobalSettings.builder().setNoOfRows(10).build();
+
+    private static final DataCell[] VALUES = new DataCell[]{new IntCell(3), new IntCell(1), new IntCell(4),
+        DataType.getMissingCell(), new IntCell(1), new IntCell(5), new IntCell(9), new IntCell(2), new IntCell(6),
+        new IntCell(5)};
+
+    private static AggregationOperator create(final AggregationOperator template,
+        final GlobalSettings globalSettings) {
+        return template.createInstance(globalSettings, new OperatorColumnSettings(false, COL_SPEC));
+    }
+
+    private static void compute(final AggregationOperator operator, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            operator.compute(new DefaultRow(RowKey.createRowKey((long)i), VALUES[i]), 0);
+        }
+    }
+
+    private static void assertResult(final DataCell expected, final DataCell actual) {
+        if (expected instanceof DoubleValue && !(expected instanceof IntCell)) {
+            assertEquals(((DoubleValue)expected).getDoubleValue(), ((DoubleValue)actual).getDoubleValue(), 1e-10);
+        } else {
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Aggregates all values with one operator and compares the result with the merged result of the given partitions.
+     */
+    private static void assertMerge(final AggregationOperator template, final GlobalSettings globalSettings,
+        final int... splits) throws Exception {
+        final AggregationOperator expected = create(template, globalSettings);
+        assertTrue(template.getLabel() + " not mergeable", expected.isMergeable());
+        compute(expected, 0, VALUES.length);
+        final AggregationOperator merged = create(template, globalSettings);
+        int from = 0;
+        for (int i = 0; i <= splits.length; i++) {
+            final int to = i < splits.length ? splits[i] : VALUES.length;
+            final AggregationOperator partial = create(template, globalSettings);
+            compute(partial, from, to);
+            merged.merge(partial);
+            from = to;
+        }
+        assertEquals(template.getLabel(), expected.isSkipped(), merged.isSkipped());
+        assertEquals(template.getLabel(), expected.getMissingValuesCount(), merged.getMissingValuesCount());
+        assertResult(expected.getResult(), merged.getResult());
+
+        final NodeSettings state = new NodeSettings("state");
+        merged.saveState(state);
+        final AggregationOperator loaded = create(template, globalSettings);
+        compute(loaded, 0, 2);
+        loaded.loadState(state);
+        assertEquals(template.getLabel(), merged.getMissingValuesCount(), loaded.getMissingValuesCount());
+        assertResult(merged.getResult(), loaded.getResult());
+    }
+
+    private static void assertMerge(final AggregationOperator template) throws Exception {
+        assertMerge(template, GLOBAL_SETTINGS, 4);
+        assertMerge(template, GLOBAL_SETTINGS, 0, 3, 7, 7);
+    }
+
+    /**
+     * Tests the numerical operators.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testNumericalOperators() throws Exception {
+        final OperatorColumnSettings colSettings = OperatorColumnSettings.DEFAULT_EXCL_MISSING;
+        assertMerge(new SumOperator(GlobalSettings.DEFAULT, colSettings));
+        assertMerge(new MeanOperator(GlobalSettings.DEFAULT, colSettings));
+        assertMerge(new VarianceOperator(GlobalSettings.DEFAULT, colSettings));
+        assertMerge(new StdDeviationOperator(GlobalSettings.DEFAULT, colSettings));
+    }
+
+    /**
+     * Tests the general operators.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testGeneralOperators() throws Exception {
+        final OperatorColumnSettings colSettings = OperatorColumnSettings.DEFAULT_EXCL_MISSING;
+        assertMerge(new MinOperator(GlobalSettings.DEFAULT, colSettings));
+        assertMerge(new MaxOperator(GlobalSettings.DEFAULT, colSettings));
+        assertMerge(new CountOperator(GlobalSettings.DEFAULT, colSettings));
+        assertMerge(new PercentOperator(GlobalSettings.DEFAULT, colSettings));
+        assertMerge(new FirstOperator(GlobalSettings.DEFAULT, colSettings));
+        assertMerge(new LastOperator(GlobalSettings.DEFAULT, colSettings));
+        assertMerge(new SetCellOperator(GlobalSettings.DEFAULT, colSettings));
+        assertMerge(new UniqueCountOperator(GlobalSettings.DEFAULT, colSettings));
+        assertMerge(new UniqueConcatenateOperator(GlobalSettings.DEFAULT, colSettings));
+        assertMerge(new ConcatenateOperator(GlobalSettings.DEFAULT, colSettings));
+    }
+
+    /**
+     * A group that exceeds the maximum number of unique values only after merging must be skipped.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testUniqueValuesLimit() throws Exception {
+        final GlobalSettings globalSettings = GlobalSettings.builder().setMaxUniqueValues(4).build();
+        assertMerge(new UniqueCountOperator(GlobalSettings.DEFAULT, OperatorColumnSettings.DEFAULT_EXCL_MISSING),
+            globalSettings, 4);
+        final AggregationOperator first = create(new SetCellOperator(GlobalSettings.DEFAULT,
+            OperatorColumnSettings.DEFAULT_EXCL_MISSING), globalSettings);
+        final AggregationOperator second = create(first, globalSettings);
+        compute(first, 0, 4);
+        compute(second, 6, VALUES.length);
+        assertFalse(first.isSkipped());
+        assertFalse(second.isSkipped());
+        first.merge(second);
+        assertTrue(first.isSkipped());
+        assertTrue(first.getResult().isMissing());
+    }
+
+    /**
+     * Operators that can not be merged and subclasses that change the computation must not be mergeable.
+     */
+    @Test
+    public void testNotMergeable() {
+        final OperatorColumnSettings colSettings = OperatorColumnSettings.DEFAULT_EXCL_MISSING;
+        assertFalse(create(new PSquarePercentileOperator(GlobalSettings.DEFAULT, colSettings), GLOBAL_SETTINGS)
+            .isMergeable());
+        assertFalse(create(new GeometricStdDeviationOperator(GlobalSettings.DEFAULT, colSettings), GLOBAL_SETTINGS)
+            .isMergeable());
+    }
+
+    /**
+     * Merging a not mergeable operator fails.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testMergeNotMergeable() {
+        final AggregationOperator operator = create(
+            new PSquarePercentileOperator(GlobalSettings.DEFAULT, OperatorColumnSettings.DEFAULT_EXCL_MISSING),
+            GLOBAL_SETTINGS);
+        operator.merge(create(operator, GLOBAL_SETTINGS));
+    }
+
+    /**
+     * Merging operators of different classes fails.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeDifferentOperators() {
+        final OperatorColumnSettings colSettings = OperatorColumnSettings.DEFAULT_EXCL_MISSING;
+        create(new VarianceOperator(GlobalSettings.DEFAULT, colSettings), GLOBAL_SETTINGS)
+            .merge(create(new StdDeviationOperator(GlobalSettings.DEFAULT, colSettings), GLOBAL_SETTINGS));
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.data.aggregation.numerical;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.knime.base.data.aggregation.AggregationOperator;
+import org.knime.base.data.aggregation.GlobalSettings;
+import org.knime.base.data.aggregation.OperatorColumnSettings;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+
+/**
+ * Tests the primitive median computation of {@link MedianOperator} and {@link DoubleSelection}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class MedianOperatorTest {
+
+    /** Creates operators with the given method for even groups. */
+    private static final class MedianOperatorFactory extends MedianOperator {
+        MedianOperatorFactory(final int methodIdx) {
+            super(GlobalSettings.DEFAULT, OperatorColumnSettings.DEFAULT_EXCL_MISSING);
+            //the default methods are lower middle value, mean of middle values and upper middle value
+            setMedianMethod(getMedianMethodDescriptions()[methodIdx].getActionCommand());
+        }
+
+        AggregationOperator create(final int maxValues) {
+            return createInstance(GlobalSettings.builder().setMaxUniqueValues(maxValues).build(),
+                new OperatorColumnSettings(false, new DataColumnSpecCreator("value", DoubleCell.TYPE).createSpec()));
+        }
+    }
+
+    private static double[] createValues(final Random random, final int size) {
+        final double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            switch (random.nextInt(10)) {
+                case 0:
+                    //many duplicates
+                    values[i] = random.nextInt(3);
+                    break;
+                case 1:
+                    values[i] = random.nextBoolean() ? -0.0 : Double.NaN;
+                    break;
+                default:
+                    values[i] = random.nextGaussian();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Compares the selected values with the ones of a sorted array.
+     */
+    @Test
+    public void testSelect() {
+        final Random random = new Random(42);
+        for (int size = 1; size < 200; size++) {
+            final double[] values = createValues(random, size);
+            final double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            for (int k = 0; k < size; k++) {
+                final double[] work = values.clone();
+                final double selected = DoubleSelection.select(work, size, k);
+                assertEquals(Double.doubleToLongBits(sorted[k]), Double.doubleToLongBits(selected));
+                for (int i = 0; i < size; i++) {
+                    final int comp = Double.compare(work[i], selected);
+                    assertTrue(i < k ? comp <= 0 : i > k ? comp >= 0 : comp == 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorted, reversed and constant input must not degrade the selection.
+     */
+    @Test
+    public void testSelectSpecialOrders() {
+        final int size = 100001;
+        final double[] ascending = new double[size];
+        final double[] constant = new double[size];
+        final double[] organPipe = new double[size];
+        for (int i = 0; i < size; i++) {
+            ascending[i] = i;
+            constant[i] = 7;
+            organPipe[i] = Math.min(i, size - i);
+        }
+        final double[] descending = new double[size];
+        for (int i = 0; i < size; i++) {
+            descending[i] = ascending[size - 1 - i];
+        }
+        assertEquals(size / 2, DoubleSelection.select(ascending, size, size / 2), 0);
+        assertEquals(size / 2, DoubleSelection.select(descending, size, size / 2), 0);
+        assertEquals(7, DoubleSelection.select(constant, size, size / 2), 0);
+        final double[] sorted = organPipe.clone();
+        Arrays.sort(sorted);
+        assertEquals(sorted[size / 3], DoubleSelection.select(organPipe, size, size / 3), 0);
+    }
+
+    private static DataCell computeMedian(final AggregationOperator operator, final DataCell... cells) {
+        for (final DataCell cell : cells) {
+            operator.compute(new DefaultRow(RowKey.createRowKey(0L), cell), 0);
+        }
+        return operator.getResult();
+    }
+
+    /**
+     * Compares the median of the operator for all even list methods with the one of a sorted array.
+     */
+    @Test
+    public void testMedian() {
+        final Random random = new Random(7);
+        for (int methodIdx = 0; methodIdx < 3; methodIdx++) {
+            final AggregationOperator operator = new MedianOperatorFactory(methodIdx).create(1000);
+            assertTrue(computeMedian(operator).isMissing());
+            for (int size = 1; size < 100; size++) {
+                operator.reset();
+                final double[] values = createValues(random, size);
+                final DataCell[] cells = new DataCell[size];
+                for (int i = 0; i < size; i++) {
+                    cells[i] = new DoubleCell(values[i]);
+                }
+                final double[] sorted = values.clone();
+                Arrays.sort(sorted);
+                final double expected;
+                if (size % 2 == 1) {
+                    expected = sorted[size / 2];
+                } else if (methodIdx == 0) {
+                    expected = sorted[size / 2 - 1];
+                } else if (methodIdx == 1) {
+                    expected = (sorted[size / 2 - 1] + sorted[size / 2]) / 2;
+                } else {
+                    expected = sorted[size / 2];
+                }
+                assertEquals(new DoubleCell(expected), computeMedian(operator, cells));
+            }
+        }
+    }
+
+    /**
+     * Groups that contain other cells than double cells are computed based on the cells.
+     */
+    @Test
+    public void testMixedCells() {
+        final AggregationOperator operator = new MedianOperatorFactory(1).create(1000);
+        final DataCell median = computeMedian(operator, new DoubleCell(5.5), new DoubleCell(-1), new IntCell(3),
+            new DoubleCell(2), new IntCell(8), new DoubleCell(4));
+        assertEquals(3.5, ((DoubleValue)median).getDoubleValue(), 0);
+        operator.reset();
+        assertEquals(new DoubleCell(2), computeMedian(operator, new DoubleCell(3), new DoubleCell(1),
+            new DoubleCell(2)));
+    }
+
+    /**
+     * Groups with more values than allowed are skipped.
+     */
+    @Test
+    public void testMaxValues() {
+        final AggregationOperator operator = new MedianOperatorFactory(1).create(3);
+        assertEquals(new DoubleCell(2.5), computeMedian(operator, new DoubleCell(3), new DoubleCell(2)));
+        assertEquals(DataType.getMissingCell(), computeMedian(operator, new DoubleCell(1), new DoubleCell(4)));
+        assertTrue(operator.isSkipped());
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.io.filereader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowIterator;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+
+import junit.framework.TestCase;
+
+/**
+ * Compares the rows of the {@link ChunkedFileRowIterator} with the ones of the
+ * sequential {@link FileRowIterator}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ChunkedFileRowIteratorTest extends TestCase {
+
+    private static final DataTableSpec SPEC = new DataTableSpec(
+            new DataColumnSpecCreator("s", StringCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("i", IntCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("d", DoubleCell.TYPE).createSpec());
+
+    /**
+     * Reads a file spanning multiple chunks, with skipped lines, column
+     * headers, comments, quotes, empty lines and duplicate or missing row IDs.
+     *
+     * @throws IOException if the temp file can't be written
+     */
+    public void testSameRowsAsSequential() throws IOException {
+        File file = writeTempFile(-1);
+        try {
+            FileReaderSettings settings = createSettings(file);
+            compare(settings);
+            // records spanning lines can't be split at line feeds
+            settings.allowLFinQuotes(true);
+            assertFalse(ChunkedFileRowIterator.isApplicable(settings));
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Checks that a parse error in a later chunk is reported like the
+     * sequential iterator reports it, after the same rows.
+     *
+     * @throws IOException if the temp file can't be written
+     */
+    public void testErrorInLaterChunk() throws IOException {
+        File file = writeTempFile(150000);
+        try {
+            compare(createSettings(file));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void compare(final FileReaderSettings settings)
+            throws IOException {
+        boolean[] skip = new boolean[SPEC.getNumColumns()];
+        FileRowIterator expIt = new FileRowIterator(
+                new FileReaderSettings(settings), SPEC, skip, null);
+        ChunkedFileRowIterator it = new ChunkedFileRowIterator(
+                new FileReaderSettings(settings), SPEC, skip, null);
+        try {
+            long rowCount = 0;
+            while (true) {
+                String expError = null;
+                DataRow expRow = null;
+                try {
+                    expRow = next(expIt);
+                } catch (FileReaderException fre) {
+                    expError = fre.getMessage();
+                }
+                String error = null;
+                DataRow row = null;
+                try {
+                    row = next(it);
+                } catch (FileReaderException fre) {
+                    error = fre.getMessage();
+                }
+                assertEquals("Error after " + rowCount + " rows", expError,
+                        error);
+                if (expError != null || expRow == null) {
+                    assertNull(row);
+                    break;
+                }
+                assertNotNull("Missing row " + rowCount, row);
+                assertEquals(expRow.getKey(), row.getKey());
+                assertEquals(expRow.getNumCells(), row.getNumCells());
+                for (int c = 0; c < expRow.getNumCells(); c++) {
+                    DataCell expCell = expRow.getCell(c);
+                    assertEquals(expCell, row.getCell(c));
+                }
+                rowCount++;
+            }
+            assertTrue(rowCount > 0);
+        } finally {
+            expIt.dispose();
+            it.close();
+        }
+    }
+
+    private static DataRow next(final RowIterator it) {
+        return it.hasNext() ? it.next() : null;
+    }
+
+    private static FileReaderSettings createSettings(final File file)
+            throws IOException {
+        FileReaderSettings settings = new FileReaderSettings();
+        settings.setDataFileLocationAndUpdateTableName(
+                file.toURI().toURL());
+        settings.setCharsetName("UTF-8");
+        settings.addDelimiterPattern(",", false, false, false);
+        settings.addRowDelimiter("\n", true);
+        settings.addQuotePattern("\"", "\"");
+        settings.addSingleLineCommentPattern("#", false, false);
+        settings.setIgnoreEmptyLines(true);
+        settings.setSkipFirstLines(2);
+        settings.setFileHasColumnHeaders(true);
+        settings.setFileHasRowHeaders(true);
+        settings.setUniquifyRowIDs(true);
+        return settings;
+    }
+
+    /* writes a file of about three chunks, with a bad line if errorLine >= 0 */
+    private static File writeTempFile(final int errorLine) throws IOException {
+        File file = File.createTempFile("knime_chunkedreader_test_", ".csv");
+        file.deleteOnExit();
+        Random rand = new Random(4711);
+        try (Writer out = new OutputStreamWriter(
+                Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            out.write("skipped line, with, too, many, columns\n");
+            out.write("# another skipped line\n");
+            out.write("rowID,s,i,d\n");
+            long size = 0;
+            for (int l = 0; size < 3L * ChunkedFileRowIterator.CHUNK_SIZE;
+                    l++) {
+                StringBuilder line = new StringBuilder();
+                switch (rand.nextInt(50)) {
+                    case 0:
+                        line.append("# comment \"with\" quotes");
+                        break;
+                    case 1:
+                        // empty line
+                        break;
+                    case 2:
+                        // missing row ID
+                        line.append(",\u00e4\u20ac,").append(l).append(",1.5");
+                        break;
+                    case 3:
+                        // duplicate row ID
+                        line.append("dup,x,").append(l).append(",?");
+                        break;
+                    default:
+                        line.append("Row").append(l).append(",\"q, ")
+                            .append(rand.nextInt()).append("\",")
+                            .append(rand.nextInt(1000)).append(',')
+                            .append(rand.nextDouble());
+                }
+                if (l == errorLine) {
+                    line.append(",surplus,columns");
+                }
+                line.append('\n');
+                out.write(line.toString());
+                size += line.length();
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.mine.cluster.hierarchical;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.knime.base.node.mine.cluster.hierarchical.HierarchicalClusterNodeModel.Linkage;
+import org.knime.base.util.HalfFloatMatrix;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Compares the fusions of the {@link NearestNeighborChain} with the ones of the
+ * naive algorithm that merges the two closest clusters in each step.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class NearestNeighborChainTest {
+
+    /**
+     * Clusters random points (without ties) with all linkages.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testSameFusionsAsNaive() throws Exception {
+        Random rand = new Random(42);
+        for (int run = 0; run < 50; run++) {
+            int n = 2 + rand.nextInt(60);
+            double[][] points = new double[n][3];
+            for (double[] p : points) {
+                for (int d = 0; d < p.length; d++) {
+                    p[d] = rand.nextDouble();
+                }
+            }
+            for (Linkage linkage : Linkage.values()) {
+                HalfFloatMatrix matrix = new HalfFloatMatrix(n, false);
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < i; j++) {
+                        matrix.set(i, j, dist(points[i], points[j]));
+                    }
+                }
+                NearestNeighborChain.Merge[] merges = NearestNeighborChain
+                        .cluster(matrix, n, linkage, new ExecutionMonitor());
+                float[] expected = naiveFusionDistances(points, linkage);
+                assertEquals(n - 1, merges.length);
+                boolean[] unused = new boolean[n];
+                for (int s = 0; s < merges.length; s++) {
+                    NearestNeighborChain.Merge merge = merges[s];
+                    assertFalse(unused[merge.getFirst()]);
+                    assertFalse(unused[merge.getSecond()]);
+                    unused[merge.getSecond()] = true;
+                    assertEquals(linkage + ", step " + s, expected[s],
+                            merge.getDistance(), 1e-5);
+                }
+            }
+        }
+    }
+
+    private static float dist(final double[] p1, final double[] p2) {
+        double sum = 0;
+        for (int d = 0; d < p1.length; d++) {
+            sum += (p1[d] - p2[d]) * (p1[d] - p2[d]);
+        }
+        return (float)Math.sqrt(sum);
+    }
+
+    /* merges the two closest clusters until one is left */
+    private static float[] naiveFusionDistances(final double[][] points,
+            final Linkage linkage) {
+        List<List<double[]>> clusters = new ArrayList<List<double[]>>();
+        for (double[] p : points) {
+            List<double[]> c = new ArrayList<double[]>();
+            c.add(p);
+            clusters.add(c);
+        }
+        float[] result = new float[points.length - 1];
+        for (int s = 0; s < result.length; s++) {
+            double best = Double.MAX_VALUE;
+            int best1 = -1;
+            int best2 = -1;
+            for (int i = 0; i < clusters.size(); i++) {
+                for (int j = i + 1; j < clusters.size(); j++) {
+                    double d = linkage == Linkage.SINGLE ? Double.MAX_VALUE : 0;
+                    for (double[] p1 : clusters.get(i)) {
+                        for (double[] p2 : clusters.get(j)) {
+                            float pd = dist(p1, p2);
+                            if (linkage == Linkage.SINGLE) {
+                                d = Math.min(d, pd);
+                            } else if (linkage == Linkage.COMPLETE) {
+                                d = Math.max(d, pd);
+                            } else {
+                                d += pd;
+                            }
+                        }
+                    }
+                    if (linkage == Linkage.AVERAGE) {
+                        d /= clusters.get(i).size() * clusters.get(j).size();
+                    }
+                    if (d < best) {
+                        best = d;
+                        best1 = i;
+                        best2 = j;
+                    }
+                }
+            }
+            result[s] = (float)best;
+            clusters.get(best1).addAll(clusters.remove(best2));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.mine.cluster.kmeans;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.workflow.SingleNodeContainer;
+
+/**
+ * Compares the {@link KMeansClusterer} with a plain single-threaded Lloyd iteration. All values are integers so that
+ * the sums of the centers are exact, independent of the order in which the blocks are added up; the results must
+ * therefore be identical.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class KMeansClustererTest {
+
+    /** The second column is not used for clustering. */
+    private static final DataTableSpec SPEC = new DataTableSpec(new String[]{"x", "name", "y", "z"},
+        new DataType[]{DoubleCell.TYPE, StringCell.TYPE, DoubleCell.TYPE, DoubleCell.TYPE});
+
+    private static final int[] USED_COLUMNS = {0, 2, 3};
+
+    private static ExecutionContext EXEC_CONTEXT;
+
+    /**
+     * @throws Exception if the execution context can't be created
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final NodeFactory<NodeModel> factory = (NodeFactory)new ClusterNodeFactory2();
+        EXEC_CONTEXT = new ExecutionContext(new DefaultNodeProgressMonitor(), new Node(factory),
+            SingleNodeContainer.MemoryPolicy.CacheSmallInMemory, new HashMap<Integer, ContainerTable>());
+    }
+
+    /** @return the values of the used columns, <code>null</code> rows are added as missing cells */
+    private static BufferedDataTable createTable(final double[][] values) {
+        final BufferedDataContainer dc = EXEC_CONTEXT.createDataContainer(SPEC);
+        for (int i = 0; i < values.length; i++) {
+            final double[] v = values[i];
+            final DataCell[] cells = new DataCell[SPEC.getNumColumns()];
+            cells[1] = new StringCell("r" + i);
+            for (int p = 0; p < USED_COLUMNS.length; p++) {
+                cells[USED_COLUMNS[p]] = v == null ? DataType.getMissingCell() : new DoubleCell(v[p]);
+            }
+            dc.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), cells));
+        }
+        dc.close();
+        return dc.getTable();
+    }
+
+    /**
+     * @param rowCount the number of rows
+     * @param range the values are integers in [0, range)
+     * @param nanProbability the probability of a NaN value
+     */
+    private static double[][] createValues(final Random random, final int rowCount, final int range,
+        final double nanProbability) {
+        final double[][] values = new double[rowCount][USED_COLUMNS.length];
+        for (int i = 0; i < rowCount; i++) {
+            for (int p = 0; p < USED_COLUMNS.length; p++) {
+                values[i][p] = random.nextDouble() < nanProbability ? Double.NaN : random.nextInt(range);
+            }
+        }
+        return values;
+    }
+
+    /** The same distance as the original k-Means node: squared Euclidean distance ignoring NaN differences. */
+    private static int closest(final double[] row, final double[][] centers) {
+        int winner = -1;
+        double winnerDistance = Double.MAX_VALUE;
+        for (int c = 0; c < centers.length; c++) {
+            double distance = 0;
+            for (int p = 0; p < row.length; p++) {
+                final double d = centers[c][p] - row[p];
+                if (!Double.isNaN(d)) {
+                    distance += d * d;
+                }
+            }
+            if (distance < winnerDistance) {
+                winner = c;
+                winnerDistance = distance;
+            }
+        }
+        return winner;
+    }
+
+    private static double[][] copy(final double[][] centers) {
+        final double[][] copy = new double[centers.length][];
+        for (int c = 0; c < centers.length; c++) {
+            copy[c] = centers[c].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Runs the clusterer and a brute-force Lloyd iteration from the same initial centers and compares the centers,
+     * the number of iterations, the coverage of the last iteration and the final assignment of each row.
+     */
+    private static void assertLloyd(final double[][] values, final double[][] initialCenters,
+        final int maxIterations, final int blockSize) throws Exception {
+        final int k = initialCenters.length;
+        final int dim = USED_COLUMNS.length;
+        final double[][] expectedCenters = copy(initialCenters);
+        int[] expectedCoverage = new int[k];
+        int expectedIterations = 0;
+        boolean finished = false;
+        while (!finished && expectedIterations < maxIterations) {
+            final double[][] sums = new double[k][dim];
+            expectedCoverage = new int[k];
+            for (final double[] row : values) {
+                final int winner = closest(row, expectedCenters);
+                for (int p = 0; p < dim; p++) {
+                    sums[winner][p] += row[p];
+                }
+                expectedCoverage[winner]++;
+            }
+            finished = true;
+            for (int c = 0; c < k; c++) {
+                if (expectedCoverage[c] > 0) {
+                    for (int p = 0; p < dim; p++) {
+                        final double newValue = sums[c][p] / expectedCoverage[c];
+                        if (Math.abs(expectedCenters[c][p] - newValue) > 1e-10) {
+                            finished = false;
+                        }
+                        expectedCenters[c][p] = newValue;
+                    }
+                }
+            }
+            expectedIterations++;
+        }
+
+        final double[][] centers = copy(initialCenters);
+        final KMeansClusterer clusterer =
+            new KMeansClusterer(createTable(values), USED_COLUMNS, centers, blockSize);
+        clusterer.run(maxIterations, EXEC_CONTEXT);
+        final String msg = "block size " + blockSize;
+        assertEquals(msg + ", iterations", expectedIterations, clusterer.getIterations());
+        assertArrayEquals(msg + ", coverage", expectedCoverage, clusterer.getClusterCoverage());
+        for (int c = 0; c < k; c++) {
+            assertArrayEquals(msg + ", center " + c, expectedCenters[c], centers[c], 0);
+        }
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(msg + ", row " + i, closest(values[i], expectedCenters), clusterer.getCluster(i));
+        }
+    }
+
+    /** The first k rows are the initial centers, as in the node. */
+    private static double[][] firstRows(final double[][] values, final int k) {
+        final double[][] centers = new double[k][];
+        for (int c = 0; c < k; c++) {
+            centers[c] = values[c].clone();
+        }
+        return centers;
+    }
+
+    /** Random data in a single block. */
+    @Test
+    public void testSingleBlock() throws Exception {
+        final double[][] values = createValues(new Random(1), 500, 100, 0);
+        assertLloyd(values, firstRows(values, 5), 99, KMeansClusterer.BLOCK_SIZE);
+    }
+
+    /** The rows span several blocks, including a last block that is not full. */
+    @Test
+    public void testSeveralBlocks() throws Exception {
+        final double[][] values = createValues(new Random(2), 1003, 1000, 0);
+        for (final int blockSize : new int[]{1, 7, 64, 1000, 1003}) {
+            assertLloyd(values, firstRows(values, 8), 99, blockSize);
+        }
+    }
+
+    /** Few distinct values result in many rows that are equally distant to several centers. */
+    @Test
+    public void testTies() throws Exception {
+        final Random random = new Random(3);
+        for (int run = 0; run < 20; run++) {
+            final double[][] values = createValues(random, 300, 3, 0);
+            final int k = 2 + run % 5;
+            assertLloyd(values, firstRows(values, k), 99, 1 + run * 5);
+        }
+    }
+
+    /** Identical initial centers, the one with the higher index never gets any row and keeps its position. */
+    @Test
+    public void testEqualInitialCenters() throws Exception {
+        final double[][] values = createValues(new Random(4), 200, 10, 0);
+        final double[][] centers = {values[0].clone(), values[0].clone(), values[1].clone(), values[0].clone()};
+        assertLloyd(values, centers, 99, 16);
+    }
+
+    /** NaN values are ignored in the distance, hence bounds can't be used. */
+    @Test
+    public void testNaN() throws Exception {
+        final double[][] values = createValues(new Random(5), 400, 20, 0.05);
+        for (final int blockSize : new int[]{13, 400}) {
+            assertLloyd(values, firstRows(values, 4), 99, blockSize);
+        }
+    }
+
+    /** Stopping before the centers are stable. */
+    @Test
+    public void testMaxIterations() throws Exception {
+        final double[][] values = createValues(new Random(6), 600, 1000, 0);
+        for (final int maxIterations : new int[]{1, 2, 3}) {
+            assertLloyd(values, firstRows(values, 10), maxIterations, 50);
+        }
+    }
+
+    /** Missing values are not supported. */
+    @Test
+    public void testMissingValues() throws Exception {
+        final double[][] values = createValues(new Random(7), 100, 10, 0);
+        values[77] = null;
+        final KMeansClusterer clusterer =
+            new KMeansClusterer(createTable(values), USED_COLUMNS, firstRows(values, 3), 10);
+        try {
+            clusterer.run(10, EXEC_CONTEXT);
+            fail("Missing values must not be accepted");
+        } catch (Exception e) {
+            assertEquals("Missing Values not (yet) allowed in k-Means.", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.preproc.groupby;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.knime.base.data.aggregation.ColumnAggregator;
+import org.knime.base.data.aggregation.GlobalSettings;
+import org.knime.base.data.aggregation.GlobalSettings.GlobalSettingsBuilder;
+import org.knime.base.data.aggregation.OperatorColumnSettings;
+import org.knime.base.data.aggregation.general.ConcatenateOperator;
+import org.knime.base.data.aggregation.general.CountOperator;
+import org.knime.base.data.aggregation.general.MinOperator;
+import org.knime.base.data.aggregation.general.UniqueCountOperator;
+import org.knime.base.data.aggregation.numerical.SumOperator;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.workflow.SingleNodeContainer;
+
+/**
+ * Test fixture shared by the {@link GroupByTable} tests: an execution context, an input table with missing values and
+ * aggregators of different kinds.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public abstract class AbstractGroupByTableTest {
+
+    /** Spec of the input table. */
+    static final DataTableSpec SPEC = new DataTableSpec(new String[]{"group", "subgroup", "value", "text"},
+        new DataType[]{StringCell.TYPE, IntCell.TYPE, IntCell.TYPE, StringCell.TYPE});
+
+    /** The group columns, the first columns of the result. */
+    static final List<String> GROUP_COLS = Arrays.asList("group", "subgroup");
+
+    static ExecutionContext EXEC_CONTEXT;
+
+    /**
+     * @throws Exception if the execution context can't be created
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final NodeFactory<NodeModel> factory = (NodeFactory)new GroupByNodeFactory();
+        EXEC_CONTEXT = new ExecutionContext(new DefaultNodeProgressMonitor(), new Node(factory),
+            SingleNodeContainer.MemoryPolicy.CacheSmallInMemory, new HashMap<Integer, ContainerTable>());
+    }
+
+    /**
+     * Creates a table of {@link #SPEC} with some 150 groups; group and value cells are missing in some rows.
+     *
+     * @param rowCount the number of rows
+     * @return the table
+     */
+    static BufferedDataTable createTable(final int rowCount) {
+        final BufferedDataContainer dc = EXEC_CONTEXT.createDataContainer(SPEC);
+        for (int i = 0; i < rowCount; i++) {
+            final DataCell group = i % 97 == 0 ? DataType.getMissingCell() : new StringCell("g" + (i * 31) % 53);
+            final DataCell value = i % 11 == 0 ? DataType.getMissingCell() : new IntCell(i % 17);
+            dc.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), group, new IntCell(i % 3), value,
+                new StringCell("t" + i)));
+        }
+        dc.close();
+        return dc.getTable();
+    }
+
+    /**
+     * @param table the input table
+     * @return a builder of the settings for grouping the table by {@link #GROUP_COLS}
+     */
+    static GlobalSettingsBuilder createGlobalSettingsBuilder(final BufferedDataTable table) {
+        return GlobalSettings.builder().setGroupColNames(GROUP_COLS).setDataTableSpec(table.getDataTableSpec())
+            .setNoOfRows(table.size());
+    }
+
+    /** @return mergeable aggregators on the value and text columns */
+    static ColumnAggregator[] createAggregators() {
+        final GlobalSettings settings = GlobalSettings.DEFAULT;
+        final OperatorColumnSettings colSettings = OperatorColumnSettings.DEFAULT_EXCL_MISSING;
+        return new ColumnAggregator[]{
+            new ColumnAggregator(SPEC.getColumnSpec("value"), new SumOperator(settings, colSettings)),
+            new ColumnAggregator(SPEC.getColumnSpec("value"), new CountOperator(settings, colSettings)),
+            new ColumnAggregator(SPEC.getColumnSpec("value"), new MinOperator(settings, colSettings)),
+            new ColumnAggregator(SPEC.getColumnSpec("value"), new UniqueCountOperator(settings, colSettings)),
+            new ColumnAggregator(SPEC.getColumnSpec("text"), new ConcatenateOperator(settings, colSettings))};
+    }
+
+    /**
+     * Asserts that both tables contain the same rows in the same order.
+     *
+     * @param expected the expected table
+     * @param actual the table to check
+     * @param compareKeys whether the row keys must be equal, too
+     */
+    static void assertSameRows(final BufferedDataTable expected, final BufferedDataTable actual,
+        final boolean compareKeys) {
+        assertEquals(expected.size(), actual.size());
+        final Iterator<DataRow> expectedIt = expected.iterator();
+        for (final DataRow row : actual) {
+            final DataRow expectedRow = expectedIt.next();
+            if (compareKeys) {
+                assertEquals(expectedRow.getKey(), row.getKey());
+            }
+            for (int i = 0; i < row.getNumCells(); i++) {
+                assertEquals(expectedRow.getCell(i), row.getCell(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.preproc.groupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.knime.base.data.aggregation.ColumnAggregator;
+import org.knime.base.data.aggregation.GlobalSettings;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.util.memory.MemoryAlertSystem.MemoryActionIndicator;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+
+/**
+ * Compares the result of {@link HashGroupByTable} with the one of {@link MemoryGroupByTable}, with and without spilling
+ * groups to disk.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class HashGroupByTableTest extends AbstractGroupByTableTest {
+
+    /** Number of passes, i.e. calls to {@link HashGroupByTable#createMemoryIndicator()}. */
+    private static final AtomicInteger PASS_COUNT = new AtomicInteger();
+
+    /** Always reports low memory, hence only one group is kept in memory per pass. */
+    private static final class SpillingGroupByTable extends HashGroupByTable {
+        SpillingGroupByTable(final ExecutionContext exec, final BufferedDataTable inDataTable,
+            final ColumnAggregator[] colAggregators, final boolean retainOrder) throws CanceledExecutionException {
+            super(exec, inDataTable, GROUP_COLS, colAggregators, createGlobalSettings(inDataTable), true,
+                ColumnNamePolicy.getDefault(), retainOrder);
+        }
+
+        @Override
+        MemoryActionIndicator createMemoryIndicator() {
+            PASS_COUNT.incrementAndGet();
+            return () -> true;
+        }
+    }
+
+    private static GlobalSettings createGlobalSettings(final BufferedDataTable table) {
+        return createGlobalSettingsBuilder(table).build();
+    }
+
+    /** Maps the group values to the aggregated values and number of hilited rows of each group. */
+    private static Map<List<DataCell>, List<Object>> toMap(final GroupByTable groupByTable) {
+        final Map<List<DataCell>, List<Object>> result = new HashMap<>();
+        final Map<RowKey, Set<RowKey>> hiliteMapping = groupByTable.getHiliteMapping();
+        for (final DataRow row : groupByTable.getBufferedTable()) {
+            final List<DataCell> group = Arrays.asList(row.getCell(0), row.getCell(1));
+            final Set<RowKey> origKeys = hiliteMapping.get(row.getKey());
+            assertNotNull("No hilite mapping for " + row.getKey(), origKeys);
+            final List<Object> values = new ArrayList<>();
+            for (int i = GROUP_COLS.size(); i < row.getNumCells(); i++) {
+                values.add(row.getCell(i));
+            }
+            values.add(origKeys.size());
+            assertTrue("Duplicate group " + group, result.put(group, values) == null);
+        }
+        return result;
+    }
+
+    private static Map<List<DataCell>, List<Object>> createExpected(final BufferedDataTable table)
+        throws CanceledExecutionException {
+        return toMap(new MemoryGroupByTable(EXEC_CONTEXT, table, GROUP_COLS, createAggregators(),
+            createGlobalSettings(table), true, ColumnNamePolicy.getDefault(), false));
+    }
+
+    /**
+     * Aggregates a table whose groups all fit into memory.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testInMemory() throws Exception {
+        final BufferedDataTable table = createTable(5000);
+        final HashGroupByTable hashTable = new HashGroupByTable(EXEC_CONTEXT, table, GROUP_COLS, createAggregators(),
+            createGlobalSettings(table), true, ColumnNamePolicy.getDefault(), false);
+        assertEquals(createExpected(table), toMap(hashTable));
+    }
+
+    /**
+     * Aggregates a table while spilling all but one group per pass, which exercises the recursive partitioning down
+     * to {@link HashGroupByTable#MAX_DEPTH}.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testSpilling() throws Exception {
+        final BufferedDataTable table = createTable(5000);
+        PASS_COUNT.set(0);
+        final HashGroupByTable hashTable = new SpillingGroupByTable(EXEC_CONTEXT, table, createAggregators(), false);
+        assertTrue("Table not partitioned", PASS_COUNT.get() > 1);
+        assertEquals(createExpected(table), toMap(hashTable));
+    }
+
+    /**
+     * Checks that the original row order of the groups is retained if requested.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testSpillingRetainOrder() throws Exception {
+        final BufferedDataTable table = createTable(2000);
+        final HashGroupByTable hashTable = new SpillingGroupByTable(EXEC_CONTEXT, table, createAggregators(), true);
+        final BufferedDataTable expected = new MemoryGroupByTable(EXEC_CONTEXT, table, GROUP_COLS,
+            createAggregators(), createGlobalSettings(table), false, ColumnNamePolicy.getDefault(), true)
+                .getBufferedTable();
+        assertSameRows(expected, hashTable.getBufferedTable(), false);
+    }
+
+    /** Each level of partitioning must use different hash bits. */
+    @Test
+    public void testPartitionsDifferPerLevel() {
+        int sameOnAllLevels = 0;
+        for (int i = 0; i < 1000; i++) {
+            final GroupKey key = new GroupKey(new DataCell[]{new StringCell("g" + i), new IntCell(i % 7)});
+            final int partition = HashGroupByTable.getPartition(key, 0);
+            boolean same = true;
+            for (int depth = 1; depth < HashGroupByTable.MAX_DEPTH; depth++) {
+                same &= HashGroupByTable.getPartition(key, depth) == partition;
+            }
+            if (same) {
+                sameOnAllLevels++;
+            }
+        }
+        assertTrue("Too many keys in same partition on all levels: " + sameOnAllLevels, sameOnAllLevels < 20);
+    }
+}
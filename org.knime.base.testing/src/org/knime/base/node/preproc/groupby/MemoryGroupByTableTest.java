@@ -0,0 +1,145 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.preproc.groupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.knime.base.data.aggregation.ColumnAggregator;
+import org.knime.base.data.aggregation.GlobalSettings;
+import org.knime.base.data.aggregation.OperatorColumnSettings;
+import org.knime.base.data.aggregation.numerical.PSquarePercentileOperator;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Compares the result of {@link MemoryGroupByTable} when aggregating partitions of the input table concurrently with
+ * the result of aggregating the rows one after another.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class MemoryGroupByTableTest extends AbstractGroupByTableTest {
+
+    /** Less than the number of rows of most groups, hence some groups are skipped. */
+    private static final int MAX_UNIQUE_VALUES = 15;
+
+    /** Aggregates partitions of only a few rows. */
+    private static final class PartitionedGroupByTable extends MemoryGroupByTable {
+        /** Set while the super constructor creates the table, hence it must not have an initializer. */
+        private boolean m_partitioned;
+
+        PartitionedGroupByTable(final BufferedDataTable inDataTable, final ColumnAggregator[] colAggregators)
+            throws CanceledExecutionException {
+            super(EXEC_CONTEXT, inDataTable, GROUP_COLS, colAggregators, createGlobalSettings(inDataTable), true,
+                ColumnNamePolicy.getDefault(), false);
+        }
+
+        @Override
+        int getPartitionSize() {
+            return 7;
+        }
+
+        @Override
+        void aggregatePartitions(final ExecutionMonitor exec, final BufferedDataTable dataTable,
+            final int[] groupColIdx) throws CanceledExecutionException {
+            m_partitioned = true;
+            super.aggregatePartitions(exec, dataTable, groupColIdx);
+        }
+    }
+
+    /** Never uses partitions. */
+    private static final class SequentialGroupByTable extends MemoryGroupByTable {
+        SequentialGroupByTable(final BufferedDataTable inDataTable, final ColumnAggregator[] colAggregators)
+            throws CanceledExecutionException {
+            super(EXEC_CONTEXT, inDataTable, GROUP_COLS, colAggregators, createGlobalSettings(inDataTable), true,
+                ColumnNamePolicy.getDefault(), false);
+        }
+
+        @Override
+        int getPartitionSize() {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private static GlobalSettings createGlobalSettings(final BufferedDataTable table) {
+        return createGlobalSettingsBuilder(table).setMaxUniqueValues(MAX_UNIQUE_VALUES).build();
+    }
+
+    private static void assertSameResult(final GroupByTable expected, final GroupByTable actual) {
+        assertSameRows(expected.getBufferedTable(), actual.getBufferedTable(), true);
+        assertEquals(expected.getHiliteMapping(), actual.getHiliteMapping());
+        assertEquals(expected.getSkippedGroupsByColName(), actual.getSkippedGroupsByColName());
+    }
+
+    /**
+     * Groups, their order, the aggregated values, skipped groups and the hilite mapping must not change when
+     * aggregating partitions.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testPartitions() throws Exception {
+        final BufferedDataTable table = createTable(3000);
+        final PartitionedGroupByTable partitioned = new PartitionedGroupByTable(table, createAggregators());
+        assertTrue(partitioned.m_partitioned);
+        assertSameResult(new SequentialGroupByTable(table, createAggregators()), partitioned);
+    }
+
+    /**
+     * Operators that are not mergeable are aggregated one row after another.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testNotMergeable() throws Exception {
+        final BufferedDataTable table = createTable(1000);
+        final ColumnAggregator[] aggregators = new ColumnAggregator[]{new ColumnAggregator(SPEC.getColumnSpec("value"),
+            new PSquarePercentileOperator(GlobalSettings.DEFAULT, OperatorColumnSettings.DEFAULT_EXCL_MISSING))};
+        final PartitionedGroupByTable partitioned = new PartitionedGroupByTable(table, aggregators);
+        assertFalse(partitioned.m_partitioned);
+        assertSameResult(new SequentialGroupByTable(table, aggregators), partitioned);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.base.node.mine.treeensemble2.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.commons.math.random.RandomData;
+import org.junit.Test;
+import org.knime.base.node.mine.treeensemble2.data.memberships.DataMemberships;
+import org.knime.base.node.mine.treeensemble2.data.memberships.DefaultDataIndexManager;
+import org.knime.base.node.mine.treeensemble2.data.memberships.RootDataMemberships;
+import org.knime.base.node.mine.treeensemble2.learner.SplitCandidate;
+import org.knime.base.node.mine.treeensemble2.model.AbstractTreeEnsembleModel.TreeType;
+import org.knime.base.node.mine.treeensemble2.model.TreeNodeNumericCondition;
+import org.knime.base.node.mine.treeensemble2.node.learner.TreeEnsembleLearnerConfiguration;
+import org.knime.base.node.mine.treeensemble2.node.learner.TreeEnsembleLearnerConfiguration.ColumnSamplingMode;
+import org.knime.core.node.InvalidSettingsException;
+
+/**
+ * Tests {@link TreeBinnedNumericColumnData}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class TreeBinnedNumericColumnDataTest {
+
+    private static TreeEnsembleLearnerConfiguration createConfig() throws InvalidSettingsException {
+        TreeEnsembleLearnerConfiguration config = new TreeEnsembleLearnerConfiguration(true);
+        config.setNrModels(1);
+        config.setDataSelectionWithReplacement(false);
+        config.setUseDifferentAttributesAtEachNode(false);
+        config.setDataFractionPerTree(1.0);
+        config.setColumnSamplingMode(ColumnSamplingMode.None);
+        return config;
+    }
+
+    private static SplitCandidate calcRootSplit(final TreeEnsembleLearnerConfiguration config,
+        final TreeNumericColumnData attribute, final TreeTargetNumericColumnData target) {
+        TreeData data = new TreeData(new TreeAttributeColumnData[]{attribute}, target, TreeType.Ordinary);
+        double[] weights = new double[target.getNrRows()];
+        Arrays.fill(weights, 1.0);
+        DataMemberships rootMem = new RootDataMemberships(weights, data, new DefaultDataIndexManager(data));
+        RandomData rd = config.createRandomData();
+        return attribute.calcBestSplitRegression(rootMem, target.getPriors(rootMem, config), target, rd);
+    }
+
+    private static double getSplitValue(final SplitCandidate split) {
+        return ((TreeNodeNumericCondition)split.getChildConditions()[0]).getSplitValue();
+    }
+
+    /**
+     * With fewer distinct values than bins every value gets its own bin and the split equals the exact one.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testBinPerDistinctValue() throws Exception {
+        TreeEnsembleLearnerConfiguration config = createConfig();
+        TestDataGenerator dataGen = new TestDataGenerator(config);
+        TreeTargetNumericColumnData target =
+            TestDataGenerator.createNumericTargetColumn("1,5,4,4.3,6.5,6.5,4,3,3,4");
+        TreeOrdinaryNumericColumnData exact = dataGen.createNumericAttributeColumn("1,2,3,4,5,6,7,8,9,10", "col", 0);
+        TreeBinnedNumericColumnData binned = TreeBinnedNumericColumnData.create(exact, 16);
+        assertEquals(10, binned.getNrBins());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(exact.getSorted(i), binned.getSorted(i), 0.0);
+        }
+
+        SplitCandidate exactSplit = calcRootSplit(config, exact, target);
+        SplitCandidate binnedSplit = calcRootSplit(config, binned, target);
+        assertEquals(exactSplit.getGainValue(), binnedSplit.getGainValue(), 1e-10);
+        assertEquals(1.5, getSplitValue(binnedSplit), 0.0);
+    }
+
+    /**
+     * Quantile bins must hold roughly the same number of values and splits are placed between two bins.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testQuantileBins() throws Exception {
+        TreeEnsembleLearnerConfiguration config = createConfig();
+        TestDataGenerator dataGen = new TestDataGenerator(config);
+        final int nrRows = 1000;
+        double[] values = IntStream.range(0, nrRows).mapToDouble(i -> i).toArray();
+        TreeTargetNumericColumnData target = TestDataGenerator.createNumericTargetColumn(
+            IntStream.range(0, nrRows).mapToObj(i -> i < 500 ? "0" : "1").collect(Collectors.joining(",")));
+        TreeOrdinaryNumericColumnData exact = dataGen.createNumericAttributeColumnData(values, "col", 0);
+        TreeBinnedNumericColumnData binned = TreeBinnedNumericColumnData.create(exact, 10);
+        assertEquals(10, binned.getNrBins());
+        assertEquals(nrRows, binned.getLengthNonMissing());
+        // each bin is represented by its largest value
+        assertEquals(99.0, binned.getSorted(0), 0.0);
+        assertEquals(99.0, binned.getSorted(99), 0.0);
+        assertEquals(199.0, binned.getSorted(100), 0.0);
+        assertEquals(999.0, binned.getSorted(nrRows - 1), 0.0);
+
+        SplitCandidate exactSplit = calcRootSplit(config, exact, target);
+        SplitCandidate binnedSplit = calcRootSplit(config, binned, target);
+        assertEquals(exactSplit.getGainValue(), binnedSplit.getGainValue(), 1e-10);
+        // between the largest value of the left bin and the smallest of the right bin, as for the exact column
+        assertEquals(getSplitValue(exactSplit), getSplitValue(binnedSplit), 0.0);
+    }
+
+    /**
+     * Equal values must not be spread over several bins and missing values are kept at the end.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testTiesAndMissingValues() throws Exception {
+        TreeEnsembleLearnerConfiguration config = createConfig();
+        TestDataGenerator dataGen = new TestDataGenerator(config);
+        double[] values = new double[]{1, 1, 1, 1, 1, 1, 2, 3, 4, 5, Double.NaN, Double.NaN};
+        TreeOrdinaryNumericColumnData exact = dataGen.createNumericAttributeColumnData(values, "col", 0);
+        TreeBinnedNumericColumnData binned = TreeBinnedNumericColumnData.create(exact, 3);
+        assertTrue(binned.containsMissingValues());
+        assertEquals(10, binned.getLengthNonMissing());
+        assertTrue(binned.getNrBins() <= 3);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(1.0, binned.getSorted(i), 0.0);
+        }
+        assertTrue(binned.getSorted(6) > 1.0);
+        assertEquals(5.0, binned.getSorted(9), 0.0);
+        assertTrue(Double.isNaN(binned.getSorted(10)));
+        assertTrue(Double.isNaN(binned.getSorted(11)));
+    }
+}
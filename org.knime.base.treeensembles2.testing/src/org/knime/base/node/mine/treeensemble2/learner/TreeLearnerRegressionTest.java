@@ -0,0 +1,131 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.base.node.mine.treeensemble2.learner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.knime.base.node.mine.treeensemble2.data.TestDataGenerator;
+import org.knime.base.node.mine.treeensemble2.data.TreeAttributeColumnData;
+import org.knime.base.node.mine.treeensemble2.data.TreeData;
+import org.knime.base.node.mine.treeensemble2.data.TreeTargetNumericColumnData;
+import org.knime.base.node.mine.treeensemble2.data.memberships.DefaultDataIndexManager;
+import org.knime.base.node.mine.treeensemble2.model.AbstractTreeEnsembleModel.TreeType;
+import org.knime.base.node.mine.treeensemble2.model.TreeModelRegression;
+import org.knime.base.node.mine.treeensemble2.node.learner.TreeEnsembleLearnerConfiguration;
+import org.knime.base.node.mine.treeensemble2.node.learner.TreeEnsembleLearnerConfiguration.ColumnSamplingMode;
+import org.knime.base.node.mine.treeensemble2.sample.row.DefaultRowSample;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Tests {@link TreeLearnerRegression}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class TreeLearnerRegressionTest {
+
+    private static final int NR_ROWS = 500;
+
+    private static final int NR_COLS = 8;
+
+    private static TreeEnsembleLearnerConfiguration createConfig(final boolean parallel) throws Exception {
+        TreeEnsembleLearnerConfiguration config = new TreeEnsembleLearnerConfiguration(true);
+        config.setSeed(42L);
+        config.setNrModels(1);
+        config.setMaxLevels(6);
+        config.setDataSelectionWithReplacement(false);
+        config.setUseDifferentAttributesAtEachNode(false);
+        config.setDataFractionPerTree(1.0);
+        config.setColumnSamplingMode(ColumnSamplingMode.None);
+        config.setUseParallelSplitSearch(parallel);
+        return config;
+    }
+
+    private static TreeData createData(final TreeEnsembleLearnerConfiguration config) {
+        final Random random = new Random(1);
+        final double[][] columns = new double[NR_COLS][NR_ROWS];
+        final double[] target = new double[NR_ROWS];
+        for (int r = 0; r < NR_ROWS; r++) {
+            for (int c = 0; c < NR_COLS; c++) {
+                columns[c][r] = random.nextDouble();
+            }
+            target[r] = 3 * columns[0][r] - 2 * columns[3][r] * columns[5][r] + 0.1 * random.nextGaussian();
+        }
+        TestDataGenerator dataGen = new TestDataGenerator(config);
+        TreeAttributeColumnData[] attributes = new TreeAttributeColumnData[NR_COLS];
+        for (int c = 0; c < NR_COLS; c++) {
+            attributes[c] = dataGen.createNumericAttributeColumnData(columns[c], "col" + c, c);
+        }
+        TreeTargetNumericColumnData targetColumn = TestDataGenerator.createNumericTargetColumn(
+            IntStream.range(0, NR_ROWS).mapToObj(r -> Double.toString(target[r])).collect(Collectors.joining(",")));
+        return new TreeData(attributes, targetColumn, TreeType.Ordinary);
+    }
+
+    private static TreeModelRegression learnTree(final boolean parallel) throws Exception {
+        TreeEnsembleLearnerConfiguration config = createConfig(parallel);
+        TreeData data = createData(config);
+        TreeLearnerRegression learner = new TreeLearnerRegression(config, data, new DefaultDataIndexManager(data),
+            new TreeNodeSignatureFactory(), config.createRandomData(), new DefaultRowSample(NR_ROWS));
+        return learner.learnSingleTree(new ExecutionMonitor(), config.createRandomData());
+    }
+
+    /**
+     * Evaluating the columns of a node in parallel must yield the same tree as the sequential search.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testParallelSplitSearchEqualsSequential() throws Exception {
+        final String sequential = learnTree(false).getRootNode().toStringRecursion("");
+        final String parallel = learnTree(true).getRootNode().toStringRecursion("");
+        assertEquals(sequential, parallel);
+    }
+
+}
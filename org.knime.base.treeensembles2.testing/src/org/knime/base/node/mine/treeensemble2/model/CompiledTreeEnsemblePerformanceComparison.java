@@ -0,0 +1,238 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * ---------------------------------------------------------------------
+ */
+package org.knime.base.node.mine.treeensemble2.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.knime.base.node.mine.treeensemble2.data.PredictorRecord;
+import org.knime.base.node.mine.treeensemble2.data.TestDataGenerator;
+import org.knime.base.node.mine.treeensemble2.data.TreeAttributeColumnMetaData;
+import org.knime.base.node.mine.treeensemble2.data.TreeMetaData;
+import org.knime.base.node.mine.treeensemble2.data.TreeNumericColumnMetaData;
+import org.knime.base.node.mine.treeensemble2.data.TreeTargetNumericColumnMetaData;
+import org.knime.base.node.mine.treeensemble2.model.AbstractTreeEnsembleModel.TreeType;
+import org.knime.base.node.mine.treeensemble2.model.TreeNodeNumericCondition.NumericOperator;
+import org.knime.base.node.mine.treeensemble2.node.learner.TreeEnsembleLearnerConfiguration;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+
+/**
+ * Compares scoring a random forest via {@link PredictorRecord} and the object tree with scoring via
+ * {@link PrimitiveRowConverter} and {@link CompiledTreeEnsemble}. The test case runs on a small random forest and
+ * only asserts that both paths yield the same predictions; use the main method for meaningful numbers.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class CompiledTreeEnsemblePerformanceComparison {
+
+    private final int m_nrAttributes;
+
+    private final TreeNumericColumnMetaData[] m_attributes;
+
+    private final TreeTargetNumericColumnMetaData m_target;
+
+    private final DataTableSpec m_learnSpec;
+
+    private final Random m_random;
+
+    /** Creates a comparison with 10 attributes, used by the test case. */
+    public CompiledTreeEnsemblePerformanceComparison() {
+        this(10, 42L);
+    }
+
+    CompiledTreeEnsemblePerformanceComparison(final int nrAttributes, final long seed) {
+        final TestDataGenerator dataGen = new TestDataGenerator(new TreeEnsembleLearnerConfiguration(false));
+        m_nrAttributes = nrAttributes;
+        m_attributes = new TreeNumericColumnMetaData[nrAttributes];
+        final DataColumnSpec[] colSpecs = new DataColumnSpec[nrAttributes];
+        for (int i = 0; i < nrAttributes; i++) {
+            m_attributes[i] = dataGen.createNumericAttributeColumn("0,1", "att" + i, i).getMetaData();
+            colSpecs[i] = new DataColumnSpecCreator("att" + i, DoubleCell.TYPE).createSpec();
+        }
+        m_target = TestDataGenerator.createNumericTargetColumn("0,1").getMetaData();
+        m_learnSpec = new DataTableSpec(colSpecs);
+        m_random = new Random(seed);
+    }
+
+    /**
+     * @param nrTrees number of trees
+     * @param depth maximum depth of each tree
+     * @return a random regression forest with numeric splits
+     */
+    TreeEnsembleModel createForest(final int nrTrees, final int depth) {
+        final TreeMetaData metaData = TreeMetaData.createTreeMetaData(m_attributes, m_target);
+        final AbstractTreeModel[] trees = new AbstractTreeModel[nrTrees];
+        for (int t = 0; t < nrTrees; t++) {
+            trees[t] = new TreeModelRegression(createNode(depth));
+        }
+        return new TreeEnsembleModel(metaData, trees, TreeType.Ordinary, false);
+    }
+
+    private TreeNodeRegression createNode(final int remainingDepth) {
+        final double mean = m_random.nextGaussian();
+        if (remainingDepth == 0 || m_random.nextInt(10) == 0) {
+            return new TreeNodeRegression(m_target, TreeNodeSignature.ROOT_SIGNATURE, mean, 1.0, 0.0);
+        }
+        final TreeNumericColumnMetaData attribute = m_attributes[m_random.nextInt(m_nrAttributes)];
+        final double split = m_random.nextGaussian();
+        final boolean leftAcceptsMissings = m_random.nextBoolean();
+        final TreeNodeRegression left = createNode(remainingDepth - 1);
+        left.setTreeNodeCondition(
+            new TreeNodeNumericCondition(attribute, split, NumericOperator.LessThanOrEqual, leftAcceptsMissings));
+        final TreeNodeRegression right = createNode(remainingDepth - 1);
+        right.setTreeNodeCondition(
+            new TreeNodeNumericCondition(attribute, split, NumericOperator.LargerThan, !leftAcceptsMissings));
+        return new TreeNodeRegression(m_target, TreeNodeSignature.ROOT_SIGNATURE, mean, 1.0, 0.0,
+            new TreeNodeRegression[]{left, right});
+    }
+
+    /**
+     * @param nrRows number of rows
+     * @return random rows with about 5% missing values
+     */
+    DataRow[] createRows(final int nrRows) {
+        final DataRow[] rows = new DataRow[nrRows];
+        for (int r = 0; r < nrRows; r++) {
+            final DataCell[] cells = new DataCell[m_nrAttributes];
+            for (int i = 0; i < m_nrAttributes; i++) {
+                cells[i] =
+                    m_random.nextInt(20) == 0 ? DataType.getMissingCell() : new DoubleCell(m_random.nextGaussian());
+            }
+            rows[r] = new DefaultRow(RowKey.createRowKey((long)r), cells);
+        }
+        return rows;
+    }
+
+    /**
+     * Predicts all rows using the record based tree walk.
+     *
+     * @param model the forest
+     * @param rows the rows
+     * @return the mean prediction of each row
+     */
+    double[] predictRecords(final TreeEnsembleModel model, final DataRow[] rows) {
+        final double[] result = new double[rows.length];
+        final int nrTrees = model.getNrModels();
+        for (int r = 0; r < rows.length; r++) {
+            final PredictorRecord record = model.createPredictorRecord(rows[r], m_learnSpec);
+            double sum = 0.0;
+            for (int t = 0; t < nrTrees; t++) {
+                sum += model.getTreeModelRegression(t).findMatchingNode(record).getMean();
+            }
+            result[r] = sum / nrTrees;
+        }
+        return result;
+    }
+
+    /**
+     * Predicts all rows using the compiled ensemble.
+     *
+     * @param model the forest
+     * @param rows the rows
+     * @return the mean prediction of each row
+     */
+    double[] predictCompiled(final TreeEnsembleModel model, final DataRow[] rows) {
+        final double[] result = new double[rows.length];
+        final PrimitiveRowConverter converter = new PrimitiveRowConverter(model, m_learnSpec);
+        final CompiledTreeEnsemble compiled = model.getCompiledEnsemble();
+        for (int r = 0; r < rows.length; r++) {
+            result[r] = compiled.sumNodeValues(converter.convert(rows[r])) / compiled.getNrTrees();
+        }
+        return result;
+    }
+
+    /** Both paths predict the same values on a small forest. */
+    @Test
+    public void testComparePredictions() {
+        final TreeEnsembleModel model = createForest(20, 8);
+        final DataRow[] rows = createRows(2000);
+        final double[] expected = predictRecords(model, rows);
+        final double[] actual = predictCompiled(model, rows);
+        for (int r = 0; r < rows.length; r++) {
+            assertEquals("Wrong prediction for row " + r, expected[r], actual[r], 0.0);
+        }
+    }
+
+    /**
+     * Runs the comparison on a larger forest, prints results to stdout.
+     *
+     * @param args optional number of trees, tree depth, number of rows and number of attributes
+     */
+    public static void main(final String[] args) {
+        final int nrTrees = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        final int depth = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+        final int nrRows = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+        final int nrAttributes = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        final CompiledTreeEnsemblePerformanceComparison comparison =
+            new CompiledTreeEnsemblePerformanceComparison(nrAttributes, 42L);
+        final TreeEnsembleModel model = comparison.createForest(nrTrees, depth);
+        final DataRow[] rows = comparison.createRows(nrRows);
+        long time = System.currentTimeMillis();
+        model.getCompiledEnsemble();
+        System.out.println("Compiling " + nrTrees + " trees: " + (System.currentTimeMillis() - time) + " ms");
+        for (int pass = 0; pass < 3; pass++) {
+            time = System.currentTimeMillis();
+            comparison.predictRecords(model, rows);
+            final long recordMillis = System.currentTimeMillis() - time;
+            time = System.currentTimeMillis();
+            comparison.predictCompiled(model, rows);
+            final long compiledMillis = System.currentTimeMillis() - time;
+            System.out.println(String.format("Pass %d (%,d rows): record %,d ms, compiled %,d ms", pass, nrRows,
+                recordMillis, compiledMillis));
+        }
+    }
+}
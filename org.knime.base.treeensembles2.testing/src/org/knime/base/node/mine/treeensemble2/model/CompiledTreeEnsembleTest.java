@@ -0,0 +1,249 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * ---------------------------------------------------------------------
+ */
+package org.knime.base.node.mine.treeensemble2.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.knime.base.node.mine.treeensemble2.data.NominalValueRepresentation;
+import org.knime.base.node.mine.treeensemble2.data.PredictorRecord;
+import org.knime.base.node.mine.treeensemble2.data.TestDataGenerator;
+import org.knime.base.node.mine.treeensemble2.data.TreeAttributeColumnMetaData;
+import org.knime.base.node.mine.treeensemble2.data.TreeMetaData;
+import org.knime.base.node.mine.treeensemble2.data.TreeNominalColumnMetaData;
+import org.knime.base.node.mine.treeensemble2.data.TreeNumericColumnMetaData;
+import org.knime.base.node.mine.treeensemble2.data.TreeTargetNumericColumnMetaData;
+import org.knime.base.node.mine.treeensemble2.model.AbstractTreeEnsembleModel.TreeType;
+import org.knime.base.node.mine.treeensemble2.model.TreeNodeNumericCondition.NumericOperator;
+import org.knime.base.node.mine.treeensemble2.node.learner.TreeEnsembleLearnerConfiguration;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Tests that {@link CompiledTreeEnsemble} and {@link PrimitiveRowConverter} find the same nodes as the record based
+ * tree walk.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class CompiledTreeEnsembleTest {
+
+    private static final double[] NUMERIC_VALUES = {0.5, 1.0, 2.5, 3.0, 7.0, Double.NaN};
+
+    private static final String[] NOMINAL_VALUES = {"A", "B", "C", "unknown", null};
+
+    /**
+     * Compares the compiled tree walk with {@link AbstractTreeModel#findMatchingNode(PredictorRecord)} for all
+     * combinations of values, including missing and unknown values.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMatchesRecordPrediction() throws Exception {
+        final TreeEnsembleLearnerConfiguration config = new TreeEnsembleLearnerConfiguration(false);
+        final TestDataGenerator dataGen = new TestDataGenerator(config);
+        final TreeNumericColumnMetaData numMeta =
+            dataGen.createNumericAttributeColumn("1,2,3,4", "num", 0).getMetaData();
+        final TreeNominalColumnMetaData nomMeta = dataGen.createNominalAttributeColumn("A,B,C,A", "nom", 1)
+            .getMetaData();
+        final TreeTargetNumericColumnMetaData targetMeta =
+            TestDataGenerator.createNumericTargetColumn("1,2,3,4").getMetaData();
+        final TreeMetaData metaData =
+            TreeMetaData.createTreeMetaData(new TreeAttributeColumnMetaData[]{numMeta, nomMeta}, targetMeta);
+
+        final int a = indexOf(nomMeta, "A");
+        final int b = indexOf(nomMeta, "B");
+        final int c = indexOf(nomMeta, "C");
+        final BigInteger bc = BigInteger.ZERO.setBit(b).setBit(c);
+
+        // tree 1: numeric split, then nominal splits that reject missing values (walk stops at inner node)
+        final TreeNodeRegression tree1Inner = node(targetMeta, 10.0, node(targetMeta, 2.0),
+            node(targetMeta, 3.0));
+        tree1Inner.getChild(0).setTreeNodeCondition(new TreeNodeNominalCondition(nomMeta, a, false));
+        tree1Inner.getChild(1).setTreeNodeCondition(new TreeNodeNominalBinaryCondition(nomMeta, bc, true, false));
+        final TreeNodeRegression tree1 = node(targetMeta, 0.0, node(targetMeta, 1.0), tree1Inner);
+        tree1.getChild(0).setTreeNodeCondition(
+            new TreeNodeNumericCondition(numMeta, 2.5, NumericOperator.LessThanOrEqual, false));
+        tree1Inner.setTreeNodeCondition(
+            new TreeNodeNumericCondition(numMeta, 2.5, NumericOperator.LargerThanOrMissing, true));
+
+        // tree 2: surrogate split with default direction and a catch-all sibling
+        final TreeNodeRegression tree2 = node(targetMeta, 0.0, node(targetMeta, 5.0), node(targetMeta, 6.0));
+        tree2.getChild(0).setTreeNodeCondition(new TreeNodeSurrogateCondition(new TreeNodeColumnCondition[]{
+            new TreeNodeNominalBinaryCondition(nomMeta, BigInteger.ZERO.setBit(a), false, false),
+            new TreeNodeNumericCondition(numMeta, 1.0, NumericOperator.LessThanOrEqual, false)}, true));
+        tree2.getChild(1).setTreeNodeCondition(TreeNodeTrueCondition.INSTANCE);
+
+        final TreeEnsembleModel model = new TreeEnsembleModel(metaData,
+            new AbstractTreeModel[]{new TreeModelRegression(tree1), new TreeModelRegression(tree2)},
+            TreeType.Ordinary, false);
+        final CompiledTreeEnsemble compiled = model.getCompiledEnsemble();
+        assertEquals("Wrong number of trees", 2, compiled.getNrTrees());
+        assertEquals("Wrong number of nodes", 8, compiled.getNrNodes());
+
+        final DataTableSpec learnSpec = new DataTableSpec(
+            new DataColumnSpecCreator("num", DoubleCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("nom", StringCell.TYPE).createSpec());
+        final PrimitiveRowConverter converter = new PrimitiveRowConverter(model, learnSpec);
+        int rowIndex = 0;
+        for (double num : NUMERIC_VALUES) {
+            for (String nom : NOMINAL_VALUES) {
+                final DataRow row = new DefaultRow(RowKey.createRowKey((long)rowIndex++),
+                    Double.isNaN(num) ? DataType.getMissingCell() : new DoubleCell(num),
+                    nom == null ? DataType.getMissingCell() : new StringCell(nom));
+                final PredictorRecord record = model.createPredictorRecord(row, learnSpec);
+                final double[] values = converter.convert(row);
+                assertNotNull("Row could not be converted", values);
+                double sum = 0.0;
+                for (int t = 0; t < model.getNrModels(); t++) {
+                    final TreeNodeRegression expected = model.getTreeModelRegression(t).findMatchingNode(record);
+                    final int nodeIndex = compiled.findMatchingNode(t, values);
+                    assertEquals("Wrong node in tree " + t + " for " + row, expected, compiled.getNode(nodeIndex));
+                    assertEquals("Wrong node value in tree " + t + " for " + row, expected.getMean(),
+                        compiled.getNodeValue(nodeIndex), 0.0);
+                    sum += expected.getMean();
+                }
+                assertEquals("Wrong sum for " + row, sum, compiled.sumNodeValues(values), 0.0);
+            }
+        }
+    }
+
+    /**
+     * Compares {@link GradientBoostedTreesModel#predict(double[])} with the record based prediction. The initial value
+     * is large compared to the coefficients so that a different order of the additions would change the result.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testGradientBoostedTreesMatchesRecordPrediction() throws Exception {
+        final TreeEnsembleLearnerConfiguration config = new TreeEnsembleLearnerConfiguration(false);
+        final TestDataGenerator dataGen = new TestDataGenerator(config);
+        final TreeNumericColumnMetaData[] numMetas = new TreeNumericColumnMetaData[3];
+        for (int i = 0; i < numMetas.length; i++) {
+            numMetas[i] = dataGen.createNumericAttributeColumn("0,0.25,0.5,0.75,1", "num" + i, i).getMetaData();
+        }
+        final TreeTargetNumericColumnMetaData targetMeta =
+            TestDataGenerator.createNumericTargetColumn("1,2,3,4,5").getMetaData();
+        final TreeMetaData metaData = TreeMetaData.createTreeMetaData(numMetas, targetMeta);
+
+        final Random random = new Random(4711);
+        final int nrTrees = 50;
+        final TreeModelRegression[] trees = new TreeModelRegression[nrTrees];
+        final List<Map<TreeNodeSignature, Double>> coefficientMaps = new ArrayList<Map<TreeNodeSignature, Double>>();
+        for (int t = 0; t < nrTrees; t++) {
+            final Map<TreeNodeSignature, Double> coefficients = new HashMap<TreeNodeSignature, Double>();
+            trees[t] = new TreeModelRegression(
+                randomSplit(targetMeta, numMetas, TreeNodeSignature.ROOT_SIGNATURE, 3, random, coefficients));
+            coefficientMaps.add(coefficients);
+        }
+        final GradientBoostedTreesModel model =
+            new GradientBoostedTreesModel(metaData, trees, TreeType.Ordinary, 1234.5678, coefficientMaps);
+
+        final DataTableSpec learnSpec = new DataTableSpec(
+            new DataColumnSpecCreator("num0", DoubleCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("num1", DoubleCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("num2", DoubleCell.TYPE).createSpec());
+        final PrimitiveRowConverter converter = new PrimitiveRowConverter(model, learnSpec);
+        for (int r = 0; r < 500; r++) {
+            final DataRow row = new DefaultRow(RowKey.createRowKey((long)r), new DoubleCell(random.nextDouble()),
+                new DoubleCell(random.nextDouble()), new DoubleCell(random.nextDouble()));
+            final double[] values = converter.convert(row);
+            assertNotNull("Row could not be converted", values);
+            assertEquals("Wrong prediction for " + row, model.predict(model.createPredictorRecord(row, learnSpec)),
+                model.predict(values), 0.0);
+        }
+    }
+
+    /** Creates a tree of random numeric splits with the given depth and a random coefficient for each leaf. */
+    private static TreeNodeRegression randomSplit(final TreeTargetNumericColumnMetaData targetMeta,
+        final TreeNumericColumnMetaData[] numMetas, final TreeNodeSignature signature, final int depth,
+        final Random random, final Map<TreeNodeSignature, Double> coefficients) {
+        if (depth == 0) {
+            coefficients.put(signature, random.nextGaussian() * Math.pow(10, -random.nextInt(6)));
+            return new TreeNodeRegression(targetMeta, signature, 0.0, 1.0, 0.0);
+        }
+        final TreeNodeRegression left = randomSplit(targetMeta, numMetas, signature.createChildSignature((byte)0),
+            depth - 1, random, coefficients);
+        final TreeNodeRegression right = randomSplit(targetMeta, numMetas, signature.createChildSignature((byte)1),
+            depth - 1, random, coefficients);
+        final TreeNumericColumnMetaData numMeta = numMetas[random.nextInt(numMetas.length)];
+        final double threshold = random.nextDouble();
+        left.setTreeNodeCondition(new TreeNodeNumericCondition(numMeta, threshold, NumericOperator.LessThanOrEqual,
+            false));
+        right.setTreeNodeCondition(new TreeNodeNumericCondition(numMeta, threshold, NumericOperator.LargerThan,
+            false));
+        return new TreeNodeRegression(targetMeta, signature, 0.0, 1.0, 0.0,
+            new TreeNodeRegression[]{left, right});
+    }
+
+    private static TreeNodeRegression node(final TreeTargetNumericColumnMetaData targetMeta, final double mean,
+        final TreeNodeRegression... children) {
+        return new TreeNodeRegression(targetMeta, TreeNodeSignature.ROOT_SIGNATURE, mean, 1.0, 0.0, children);
+    }
+
+    private static int indexOf(final TreeNominalColumnMetaData meta, final String value) {
+        for (NominalValueRepresentation rep : meta.getValues()) {
+            if (rep.getNominalValue().equals(value)) {
+                return rep.getAssignedInteger();
+            }
+        }
+        throw new IllegalArgumentException("Unknown value " + value);
+    }
+}
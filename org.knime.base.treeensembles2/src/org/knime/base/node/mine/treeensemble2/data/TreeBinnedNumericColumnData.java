@@ -0,0 +1,215 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.mine.treeensemble2.data;
+
+import java.util.Arrays;
+
+import org.knime.base.node.mine.treeensemble2.node.learner.TreeEnsembleLearnerConfiguration;
+
+/**
+ * Numeric attribute column whose values are discretized into at most
+ * {@link TreeEnsembleLearnerConfiguration#MAX_NR_HISTOGRAM_BINS} quantile bins. Each value is stored as the (unsigned)
+ * byte index of its bin and {@link #getSorted(int)} returns the largest value of that bin, hence the split search only
+ * considers bin boundaries. If the column has no more distinct values than bins, each value gets its own bin and the
+ * learned splits are identical to the ones of {@link TreeOrdinaryNumericColumnData}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.6
+ */
+public class TreeBinnedNumericColumnData extends TreeNumericColumnData {
+
+    private final byte[] m_sortedBins;
+
+    private final double[] m_binMin;
+
+    private final double[] m_binMax;
+
+    private final int m_length;
+
+    private final boolean m_containsMissingValues;
+
+    /**
+     * @param metaData the meta data of the column
+     * @param configuration the learner configuration
+     * @param sortedBins the bin index of each non missing value in sorted order
+     * @param binMin the smallest value of each bin
+     * @param binMax the largest value of each bin, ascending
+     * @param orginalIndexInColumnList the original index for each position in the sorted column (including missings)
+     * @param containsMissingValues whether the column contains missing values
+     */
+    TreeBinnedNumericColumnData(final TreeNumericColumnMetaData metaData,
+        final TreeEnsembleLearnerConfiguration configuration, final byte[] sortedBins, final double[] binMin,
+        final double[] binMax, final int[] orginalIndexInColumnList, final boolean containsMissingValues) {
+        super(metaData, configuration, orginalIndexInColumnList);
+        m_sortedBins = sortedBins;
+        m_binMin = binMin;
+        m_binMax = binMax;
+        m_length = orginalIndexInColumnList.length;
+        m_containsMissingValues = containsMissingValues;
+    }
+
+    /**
+     * Discretizes the non missing values of <b>column</b> into at most <b>maxBins</b> bins of (roughly) equal
+     * frequency. Equal values always end up in the same bin; if there are not more distinct values than bins each
+     * value has its own bin.
+     *
+     * @param column the exact column
+     * @param maxBins the maximum number of bins, at most {@link TreeEnsembleLearnerConfiguration#MAX_NR_HISTOGRAM_BINS}
+     * @return the binned column, sharing meta data and original indices with <b>column</b>
+     */
+    static TreeBinnedNumericColumnData create(final TreeOrdinaryNumericColumnData column, final int maxBins) {
+        assert maxBins >= 2 && maxBins <= TreeEnsembleLearnerConfiguration.MAX_NR_HISTOGRAM_BINS;
+        final float[] sortedData = column.getSortedData();
+        final int numNonMissing = column.getLengthNonMissing();
+        int nrDistinct = numNonMissing > 0 ? 1 : 0;
+        for (int i = 1; i < numNonMissing; i++) {
+            if (sortedData[i] != sortedData[i - 1]) {
+                nrDistinct++;
+            }
+        }
+        final boolean binPerValue = nrDistinct <= maxBins;
+        final byte[] sortedBins = new byte[numNonMissing];
+        final double[] binMin = new double[Math.min(nrDistinct, maxBins)];
+        final double[] binMax = new double[binMin.length];
+        int bin = 0;
+        boolean binStarts = true;
+        for (int i = 0; i < numNonMissing; i++) {
+            if (binStarts) {
+                binMin[bin] = sortedData[i];
+                binStarts = false;
+            }
+            sortedBins[i] = (byte)bin;
+            binMax[bin] = sortedData[i];
+            final boolean valueChanges = i + 1 < numNonMissing && sortedData[i + 1] != sortedData[i];
+            // close the bin once it holds its share of the values (the last bin is never closed early)
+            if (valueChanges && (binPerValue || i + 1 >= (long)(bin + 1) * numNonMissing / maxBins)) {
+                bin++;
+                binStarts = true;
+            }
+        }
+        final int nrBins = numNonMissing > 0 ? bin + 1 : 0;
+        return new TreeBinnedNumericColumnData(column.getMetaData(), column.getConfiguration(), sortedBins,
+            Arrays.copyOf(binMin, nrBins), Arrays.copyOf(binMax, nrBins), column.getOriginalIndicesInColumnList(),
+            column.containsMissingValues());
+    }
+
+    /**
+     * @return the number of bins
+     */
+    public int getNrBins() {
+        return m_binMax.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getSorted(final int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("A negative index is not allowed.");
+        } else if (index >= m_length) {
+            throw new IndexOutOfBoundsException("The index is too large.");
+        } else if (index >= m_sortedBins.length) {
+            return Double.NaN;
+        }
+        return m_binMax[m_sortedBins[index] & 0xFF];
+    }
+
+    /**
+     * Places the split between the largest value of the left bin and the smallest value of the right bin if average
+     * split points are used, otherwise on the largest value of the left bin.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    protected double getSplitValue(final double lastSeenValue, final double value) {
+        if (!getConfiguration().isUseAverageSplitPoints()) {
+            return lastSeenValue;
+        }
+        final int rightBin = Arrays.binarySearch(m_binMax, value);
+        assert rightBin >= 0 : "Not a bin value: " + value;
+        return lastSeenValue + 0.5 * (m_binMin[rightBin] - lastSeenValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getFirstIndexWithValue(final double value) {
+        int bin = Arrays.binarySearch(m_binMax, value);
+        if (bin < 0) {
+            bin = -bin - 1;
+        }
+        // lower bound of the bin in the sorted bin indices (compared unsigned)
+        int low = 0;
+        int high = m_sortedBins.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if ((m_sortedBins[mid] & 0xFF) < bin) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLengthNonMissing() {
+        return m_sortedBins.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsMissingValues() {
+        return m_containsMissingValues;
+    }
+
+}
@@ -246,10 +246,16 @@ public int compare(final DataRow arg0, final DataRow arg1) {
         }
         TreeAttributeColumnData[] columns = new TreeAttributeColumnData[nrLearnAttributes];
         int learnAttributeIndex = 0;
+        final int nrHistogramBins = configuration.getNrHistogramBins();
         for (int i = 0; i < m_attrColCreators.length; i++) {
             TreeAttributeColumnDataCreator creator = m_attrColCreators[i];
             for (int a = 0; a < creator.getNrAttributes(); a++) {
-                final TreeAttributeColumnData columnData = creator.createColumnData(a, configuration);
+                TreeAttributeColumnData columnData = creator.createColumnData(a, configuration);
+                if (nrHistogramBins != TreeEnsembleLearnerConfiguration.NR_HISTOGRAM_BINS_EXACT
+                    && columnData instanceof TreeOrdinaryNumericColumnData) {
+                    columnData = TreeBinnedNumericColumnData.create((TreeOrdinaryNumericColumnData)columnData,
+                        nrHistogramBins);
+                }
                 columnData.getMetaData().setAttributeIndex(learnAttributeIndex);
                 columns[learnAttributeIndex++] = columnData;
             }
@@ -112,7 +112,6 @@ public NumericSplitCandidate calcBestSplitClassification(final DataMemberships d
         final ClassificationPriors targetPriors, final TreeTargetNominalColumnData targetColumn, final RandomData rd) {
         final TreeEnsembleLearnerConfiguration config = getConfiguration();
         final NominalValueRepresentation[] targetVals = targetColumn.getMetaData().getValues();
-        final boolean useAverageSplitPoints = config.isUseAverageSplitPoints();
         final int minChildNodeSize = config.getMinChildSize();
 
         // distribution of target for each attribute value
@@ -279,7 +278,7 @@ public NumericSplitCandidate calcBestSplitClassification(final DataMemberships d
                         bestGainValueForSplit =
                             impurityCriterion.getGain(priorImpurity, postSplitImpurity, tempArray2, totalSumWeight);
                         bestGain = gain;
-                        bestSplit = useAverageSplitPoints ? getCenter(lastSeenValue, value) : lastSeenValue;
+                        bestSplit = getSplitValue(lastSeenValue, value);
                         // Go with the majority if there are no missing values during training this is because we should
                         // still provide a missing direction for the case that there are missing values during prediction
                         missingsGoLeft = branchContainsMissingValues ? tempMissingsGoLeft
@@ -323,7 +322,6 @@ public NumericSplitCandidate calcBestSplitClassification(final DataMemberships d
     public SplitCandidate calcBestSplitRegression(final DataMemberships dataMemberships,
         final RegressionPriors targetPriors, final TreeTargetNumericColumnData targetColumn, final RandomData rd) {
         final TreeEnsembleLearnerConfiguration config = getConfiguration();
-        final boolean useAverageSplitPoints = config.isUseAverageSplitPoints();
         final int minChildNodeSize = config.getMinChildSize();
 
         // get columnMemberships
@@ -422,7 +420,7 @@ public SplitCandidate calcBestSplitRegression(final DataMemberships dataMembersh
                     boolean randomTieBreaker = criterion == bestImprovement ? rd.nextInt(0, 1) == 1 : false;
                     if (criterion > bestImprovement || randomTieBreaker) {
                         bestImprovement = criterion;
-                        bestSplit = useAverageSplitPoints ? getCenter(lastSeenValue, value) : lastSeenValue;
+                        bestSplit = getSplitValue(lastSeenValue, value);
                         // if there are no missing values go with majority
                         missingsGoLeft = branchContainsMissingValues ? tempMissingsGoLeft : nrRecordsLeft >= nrRecordsRight;
                     }
@@ -457,6 +455,20 @@ public SplitCandidate calcBestSplitRegression(final DataMemberships dataMembersh
      */
     abstract protected int getFirstIndexWithValue(double value);
 
+    /**
+     * Determines the split value between two adjacent values of the sorted column. Subclasses that represent a range
+     * of values by a single value (e.g. histogram bins) may override this in order to place the split between the
+     * actual ranges.
+     *
+     * @param lastSeenValue the largest value that goes to the left child
+     * @param value the smallest value that goes to the right child
+     * @return the split value
+     * @since 3.6
+     */
+    protected double getSplitValue(final double lastSeenValue, final double value) {
+        return getConfiguration().isUseAverageSplitPoints() ? getCenter(lastSeenValue, value) : lastSeenValue;
+    }
+
     private static boolean areApproximatelyEqual(final double d1, final double d2) {
         return MathUtils.equals(d1, d2, 0.0001);
     }
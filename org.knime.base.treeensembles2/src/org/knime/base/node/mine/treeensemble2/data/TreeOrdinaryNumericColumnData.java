@@ -93,6 +93,11 @@ public double getSorted(final int index) {
         return m_sortedData[index];
     }
 
+    /** @return the sorted values, missing values (NaN) at the end; not a copy */
+    float[] getSortedData() {
+        return m_sortedData;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -49,7 +49,7 @@
 package org.knime.base.node.mine.treeensemble2.data.memberships;
 
 import java.util.BitSet;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *
@@ -59,12 +59,13 @@ public class BitSetDescendantDataMemberships implements DataMemberships {
 
     private final RootDataMemberships m_root;
     private final BitSet m_included;
-    private final HashMap<Integer, ColumnMemberships> m_cachedColumnMemberships;
+    // concurrent because the columns of a tree node may be evaluated in parallel
+    private final ConcurrentHashMap<Integer, ColumnMemberships> m_cachedColumnMemberships;
 
     public BitSetDescendantDataMemberships(final RootDataMemberships root, final BitSet included) {
         m_root = root;
         m_included = included;
-        m_cachedColumnMemberships = new HashMap<Integer, ColumnMemberships>();
+        m_cachedColumnMemberships = new ConcurrentHashMap<Integer, ColumnMemberships>();
     }
 
     /**
@@ -95,12 +96,8 @@ public double[] getRowWeights() {
      */
     @Override
     public ColumnMemberships getColumnMemberships(final int index) {
-        ColumnMemberships colMem = m_cachedColumnMemberships.get(index);
-        if (colMem == null) {
-            colMem = m_root.descendantGetColumnMemberships(index, m_included);
-            m_cachedColumnMemberships.put(index, colMem);
-        }
-        return colMem;
+        return m_cachedColumnMemberships.computeIfAbsent(index,
+            i -> m_root.descendantGetColumnMemberships(i, m_included));
     }
 
     /**
@@ -47,15 +47,29 @@
  */
 package org.knime.base.node.mine.treeensemble2.learner;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.apache.commons.math.random.RandomData;
+import org.knime.base.node.mine.treeensemble2.data.TreeAttributeColumnData;
 import org.knime.base.node.mine.treeensemble2.data.TreeData;
 import org.knime.base.node.mine.treeensemble2.data.memberships.IDataIndexManager;
 import org.knime.base.node.mine.treeensemble2.model.AbstractTreeModel;
 import org.knime.base.node.mine.treeensemble2.node.learner.TreeEnsembleLearnerConfiguration;
+import org.knime.base.node.mine.treeensemble2.sample.column.ColumnSample;
 import org.knime.base.node.mine.treeensemble2.sample.column.ColumnSampleStrategy;
 import org.knime.base.node.mine.treeensemble2.sample.row.RowSample;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.util.ThreadPool;
 
 /**
  *
@@ -139,6 +153,143 @@ final TreeNodeSignatureFactory getSignatureFactory() {
         return m_signatureFactory;
     }
 
+    /**
+     * Calculates the best split of every column in <b>columnSample</b> that is not contained in
+     * <b>forbiddenColumnSet</b>. If {@link TreeEnsembleLearnerConfiguration#isUseParallelSplitSearch()} is set, the
+     * columns are evaluated concurrently: the calling thread processes columns itself and additionally hands work to
+     * idle threads of the global thread pool, so it never waits for a task that has not been started (no dead lock if
+     * the pool is saturated, e.g. by the trees of a random forest). In that case each column uses its own
+     * {@link RandomData} (for tie breaking) that is seeded in column order, which keeps the result deterministic.
+     * Otherwise the columns are evaluated lazily during iteration, i.e. the random data of the learner is used in the
+     * same order as by a plain loop over the column sample.
+     *
+     * @param columnSample the columns to evaluate
+     * @param forbiddenColumnSet the columns to skip
+     * @param splitFunction computes the best split of a single column
+     * @return the split candidates in the order of <b>columnSample</b>, columns without a valid split are omitted
+     * @throws CanceledExecutionException if the calling thread is interrupted while waiting for other threads
+     */
+    final Iterable<SplitCandidate> calcColumnSplits(final ColumnSample columnSample, final BitSet forbiddenColumnSet,
+        final ColumnSplitFunction splitFunction) throws CanceledExecutionException {
+        final List<TreeAttributeColumnData> columns = new ArrayList<TreeAttributeColumnData>(columnSample.getNumCols());
+        for (TreeAttributeColumnData col : columnSample) {
+            if (!forbiddenColumnSet.get(col.getMetaData().getAttributeIndex())) {
+                columns.add(col);
+            }
+        }
+        final int nrColumns = columns.size();
+        final int nrHelpers = Math.min(nrColumns, Runtime.getRuntime().availableProcessors()) - 1;
+        if (!m_config.isUseParallelSplitSearch() || nrHelpers <= 0) {
+            return () -> new LazyColumnSplitIterator(columns.iterator(), splitFunction, m_randomData);
+        }
+
+        final RandomData[] columnRandomData = new RandomData[nrColumns];
+        for (int i = 0; i < nrColumns; i++) {
+            columnRandomData[i] = TreeEnsembleLearnerConfiguration
+                .createRandomData(m_randomData.nextLong(Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+        final SplitCandidate[] splits = new SplitCandidate[nrColumns];
+        final AtomicInteger nextColumn = new AtomicInteger();
+        final CountDownLatch remainingColumns = new CountDownLatch(nrColumns);
+        final AtomicReference<Throwable> throwableRef = new AtomicReference<Throwable>();
+        final Runnable worker = () -> {
+            int i;
+            while ((i = nextColumn.getAndIncrement()) < nrColumns) {
+                try {
+                    if (throwableRef.get() == null) {
+                        splits[i] = splitFunction.calcBestSplit(columns.get(i), columnRandomData[i]);
+                    }
+                } catch (Throwable t) {
+                    throwableRef.compareAndSet(null, t);
+                } finally {
+                    remainingColumns.countDown();
+                }
+            }
+        };
+        final ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL;
+        final List<Future<?>> helpers = new ArrayList<Future<?>>(nrHelpers);
+        for (int h = 0; h < nrHelpers; h++) {
+            final Future<?> helper = pool.trySubmit(worker);
+            if (helper == null) {
+                // no idle thread, the remaining columns are processed by the threads already working
+                break;
+            }
+            helpers.add(helper);
+        }
+        worker.run();
+        try {
+            // only columns that were picked up by a running thread are outstanding
+            remainingColumns.await();
+        } catch (InterruptedException e) {
+            helpers.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new CanceledExecutionException("Split search interrupted");
+        }
+        final Throwable t = throwableRef.get();
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException)t;
+        } else if (t instanceof Error) {
+            throw (Error)t;
+        } else if (t != null) {
+            throw new RuntimeException(t);
+        }
+        final List<SplitCandidate> result = new ArrayList<SplitCandidate>(nrColumns);
+        for (SplitCandidate split : splits) {
+            if (split != null) {
+                result.add(split);
+            }
+        }
+        return result;
+    }
+
+    /** Calculates the splits of the columns one after another while being iterated, skipping columns without one. */
+    private static final class LazyColumnSplitIterator implements Iterator<SplitCandidate> {
+
+        private final Iterator<TreeAttributeColumnData> m_columns;
+
+        private final ColumnSplitFunction m_splitFunction;
+
+        private final RandomData m_rd;
+
+        private SplitCandidate m_next;
+
+        LazyColumnSplitIterator(final Iterator<TreeAttributeColumnData> columns,
+            final ColumnSplitFunction splitFunction, final RandomData rd) {
+            m_columns = columns;
+            m_splitFunction = splitFunction;
+            m_rd = rd;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (m_next == null && m_columns.hasNext()) {
+                m_next = m_splitFunction.calcBestSplit(m_columns.next(), m_rd);
+            }
+            return m_next != null;
+        }
+
+        @Override
+        public SplitCandidate next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final SplitCandidate next = m_next;
+            m_next = null;
+            return next;
+        }
+    }
+
+    /** Calculates the best split of a single column, see {@link AbstractTreeLearner#calcColumnSplits}. */
+    @FunctionalInterface
+    interface ColumnSplitFunction {
+        /**
+         * @param column the column to evaluate
+         * @param rd the random data to use for tie breaking
+         * @return the best split of the column or <code>null</code> if there is none
+         */
+        SplitCandidate calcBestSplit(TreeAttributeColumnData column, RandomData rd);
+    }
+
     /**
      * Learns a single decision tree model
      *
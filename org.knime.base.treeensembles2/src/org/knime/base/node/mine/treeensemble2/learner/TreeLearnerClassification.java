@@ -204,7 +204,7 @@ private TreeNodeClassification buildTreeNode(final ExecutionMonitor exec, final
      */
     private SplitCandidate[] findBestSplitsClassification(final int currentDepth, final DataMemberships dataMemberships,
         final ColumnSample columnSample, final TreeNodeSignature treeNodeSignature,
-        final ClassificationPriors targetPriors, final BitSet forbiddenColumnSet) {
+        final ClassificationPriors targetPriors, final BitSet forbiddenColumnSet) throws CanceledExecutionException {
         final TreeData data = getData();
         final RandomData rd = getRandomData();
         //        final ColumnSampleStrategy colSamplingStrategy = getColSamplingStrategy();
@@ -242,15 +242,9 @@ public int compare(final SplitCandidate o1, final SplitCandidate o2) {
 
         };
         ArrayList<SplitCandidate> candidates = new ArrayList<SplitCandidate>(columnSample.getNumCols());
-        for (TreeAttributeColumnData col : columnSample) {
-            if (forbiddenColumnSet.get(col.getMetaData().getAttributeIndex())) {
-                continue;
-            }
-            SplitCandidate currentColSplit =
-                col.calcBestSplitClassification(dataMemberships, targetPriors, targetColumn, rd);
-            if (currentColSplit != null) {
-                candidates.add(currentColSplit);
-            }
+        for (SplitCandidate currentColSplit : calcColumnSplits(columnSample, forbiddenColumnSet,
+            (col, colRd) -> col.calcBestSplitClassification(dataMemberships, targetPriors, targetColumn, colRd))) {
+            candidates.add(currentColSplit);
         }
         if (candidates.isEmpty()) {
             return null;
@@ -261,7 +255,7 @@ public int compare(final SplitCandidate o1, final SplitCandidate o2) {
 
     private SplitCandidate findBestSplitClassification(final int currentDepth, final DataMemberships dataMemberships,
         final ColumnSample columnSample, final TreeNodeSignature treeNodeSignature,
-        final ClassificationPriors targetPriors, final BitSet forbiddenColumnSet) {
+        final ClassificationPriors targetPriors, final BitSet forbiddenColumnSet) throws CanceledExecutionException {
         final TreeData data = getData();
         final RandomData rd = getRandomData();
         //        final ColumnSampleStrategy colSamplingStrategy = getColSamplingStrategy();
@@ -288,19 +282,13 @@ private SplitCandidate findBestSplitClassification(final int currentDepth, final
             return rootColumn.calcBestSplitClassification(dataMemberships, targetPriors, targetColumn, rd);
         }
         double bestGainValue = 0.0;
-        for (TreeAttributeColumnData col : columnSample) {
-            if (forbiddenColumnSet.get(col.getMetaData().getAttributeIndex())) {
-                continue;
-            }
-            final SplitCandidate currentColSplit =
-                col.calcBestSplitClassification(dataMemberships, targetPriors, targetColumn, rd);
-            if (currentColSplit != null) {
-                final double currentGain = currentColSplit.getGainValue();
-                final boolean tiebreaker = currentGain == bestGainValue ? (rd.nextInt(0, 1) == 0) : false;
-                if (currentColSplit.getGainValue() > bestGainValue || tiebreaker) {
-                    splitCandidate = currentColSplit;
-                    bestGainValue = currentGain;
-                }
+        for (SplitCandidate currentColSplit : calcColumnSplits(columnSample, forbiddenColumnSet,
+            (col, colRd) -> col.calcBestSplitClassification(dataMemberships, targetPriors, targetColumn, colRd))) {
+            final double currentGain = currentColSplit.getGainValue();
+            final boolean tiebreaker = currentGain == bestGainValue ? (rd.nextInt(0, 1) == 0) : false;
+            if (currentColSplit.getGainValue() > bestGainValue || tiebreaker) {
+                splitCandidate = currentColSplit;
+                bestGainValue = currentGain;
             }
         }
         return splitCandidate;
@@ -134,7 +134,7 @@ public TreeModelRegression learnSingleTree(final ExecutionMonitor exec, final Ra
 
     private SplitCandidate findBestSplitRegression(final int currentDepth, final DataMemberships dataMemberships, final ColumnSample columnSample,
         final RegressionPriors targetPriors,
-        final BitSet forbiddenColumnSet) {
+        final BitSet forbiddenColumnSet) throws CanceledExecutionException {
         final TreeData data = getData();
         final RandomData rd = getRandomData();
         final TreeEnsembleLearnerConfiguration config = getConfig();
@@ -159,18 +159,12 @@ private SplitCandidate findBestSplitRegression(final int currentDepth, final Dat
             return rootColumn.calcBestSplitRegression(dataMemberships, targetPriors, targetColumn, rd);
         } else {
             double bestGainValue = 0.0;
-            for (TreeAttributeColumnData col : columnSample) {
-                if (forbiddenColumnSet.get(col.getMetaData().getAttributeIndex())) {
-                    continue;
-                }
-                SplitCandidate currentColSplit =
-                    col.calcBestSplitRegression(dataMemberships, targetPriors, targetColumn, rd);
-                if (currentColSplit != null) {
-                    double gainValue = currentColSplit.getGainValue();
-                    if (gainValue > bestGainValue) {
-                        bestGainValue = gainValue;
-                        splitCandidate = currentColSplit;
-                    }
+            for (SplitCandidate currentColSplit : calcColumnSplits(columnSample, forbiddenColumnSet,
+                (col, colRd) -> col.calcBestSplitRegression(dataMemberships, targetPriors, targetColumn, colRd))) {
+                double gainValue = currentColSplit.getGainValue();
+                if (gainValue > bestGainValue) {
+                    bestGainValue = gainValue;
+                    splitCandidate = currentColSplit;
                 }
             }
             return splitCandidate;
@@ -179,7 +173,7 @@ private SplitCandidate findBestSplitRegression(final int currentDepth, final Dat
 
     private SplitCandidate[] findBestSplitsRegression(final int currentDepth, final DataMemberships dataMemberships, final ColumnSample columnSample,
         final RegressionPriors targetPriors,
-        final BitSet forbiddenColumnSet) {
+        final BitSet forbiddenColumnSet) throws CanceledExecutionException {
         final TreeData data = getData();
         final RandomData rd = getRandomData();
         final TreeEnsembleLearnerConfiguration config = getConfig();
@@ -205,15 +199,9 @@ private SplitCandidate[] findBestSplitsRegression(final int currentDepth, final
                 rootColumn.calcBestSplitRegression(dataMemberships, targetPriors, targetColumn, rd)};
         } else {
             splitCandidates = new ArrayList<SplitCandidate>(columnSample.getNumCols());
-            for (TreeAttributeColumnData col : columnSample) {
-                if (forbiddenColumnSet.get(col.getMetaData().getAttributeIndex())) {
-                    continue;
-                }
-                SplitCandidate currentColSplit =
-                    col.calcBestSplitRegression(dataMemberships, targetPriors, targetColumn, rd);
-                if (currentColSplit != null) {
-                    splitCandidates.add(currentColSplit);
-                }
+            for (SplitCandidate currentColSplit : calcColumnSplits(columnSample, forbiddenColumnSet,
+                (col, colRd) -> col.calcBestSplitRegression(dataMemberships, targetPriors, targetColumn, colRd))) {
+                splitCandidates.add(currentColSplit);
             }
         }
         Comparator<SplitCandidate> comp = new Comparator<SplitCandidate>() {
@@ -99,6 +99,14 @@ public boolean testCondition(final PredictorRecord record) {
         return m_defaultResponse;
     }
 
+    /**
+     * @return the response if the values of all column conditions are missing
+     * @since 3.6
+     */
+    public boolean getDefaultResponse() {
+        return m_defaultResponse;
+    }
+
     /**
      * @return the first condition (corresponding to the best split determined during training)
      */
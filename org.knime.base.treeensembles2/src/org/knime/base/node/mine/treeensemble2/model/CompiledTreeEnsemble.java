@@ -0,0 +1,399 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.mine.treeensemble2.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.knime.base.node.mine.treeensemble2.data.PredictorRecord;
+import org.knime.base.node.mine.treeensemble2.model.TreeNodeNumericCondition.NumericOperator;
+
+/**
+ * Flattened, array based representation of the trees of an ensemble that is used for fast scoring. The nodes of all
+ * trees are stored in breadth first order so that the children of a node occupy a contiguous range of indices; the
+ * split conditions are stored as primitive arrays indexed by node. Rows are passed as <code>double[]</code> (see
+ * {@link PrimitiveRowConverter}) in which missing values are represented by {@link Double#NaN}, nominal values by
+ * their assigned integer and bits by 0 or 1.
+ *
+ * <p>
+ * The tree walk is equivalent to {@link AbstractTreeModel#findMatchingNode(PredictorRecord)}: the first child whose
+ * condition accepts the row is followed and the walk stops at a node without matching child.
+ *
+ * <p>
+ * Instances are immutable and can be used concurrently.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.6
+ */
+public final class CompiledTreeEnsemble {
+
+    /**
+     * Computes the value associated with a node of a tree, e.g. its mean or its coefficient in a boosting model.
+     */
+    @FunctionalInterface
+    public interface LeafValueFunction {
+        /**
+         * @param treeIndex the index of the tree in the ensemble
+         * @param node a node of that tree
+         * @return the value of <b>node</b> or {@link Double#NaN} if it has none
+         */
+        double getValue(int treeIndex, AbstractTreeNode node);
+    }
+
+    private static final byte TRUE = 0;
+
+    private static final byte NUMERIC_LE = 1;
+
+    private static final byte NUMERIC_GT = 2;
+
+    private static final byte NOMINAL_EQ = 3;
+
+    private static final byte NOMINAL_SET = 4;
+
+    private static final byte BIT = 5;
+
+    private static final byte SURROGATE = 6;
+
+    private final int[] m_treeRoots;
+
+    private final int[] m_childStart;
+
+    private final int[] m_childCount;
+
+    private final double[] m_nodeValues;
+
+    private final AbstractTreeNode[] m_nodes;
+
+    /* Conditions; the condition of node i is at index i, surrogate column conditions follow all nodes. */
+    private final byte[] m_condType;
+
+    private final int[] m_condAttribute;
+
+    /** split value, value index or bit value; for nominal sets the result for indices outside the mask */
+    private final double[] m_condValue;
+
+    /** accepts missing values; for surrogates the default response */
+    private final boolean[] m_condMissing;
+
+    /** start into {@link #m_masks} or, for surrogates, index of the first column condition */
+    private final int[] m_condAux;
+
+    /** number of mask words or, for surrogates, number of column conditions */
+    private final int[] m_condAuxLength;
+
+    private final long[] m_masks;
+
+    private CompiledTreeEnsemble(final int[] treeRoots, final List<AbstractTreeNode> nodes,
+        final int nrSurrogateConditions, final LeafValueFunction leafValue) {
+        m_treeRoots = treeRoots;
+        final int nrNodes = nodes.size();
+        final int nrConditions = nrNodes + nrSurrogateConditions;
+        m_nodes = nodes.toArray(new AbstractTreeNode[nrNodes]);
+        m_childStart = new int[nrNodes];
+        m_childCount = new int[nrNodes];
+        m_nodeValues = new double[nrNodes];
+        m_condType = new byte[nrConditions];
+        m_condAttribute = new int[nrConditions];
+        m_condValue = new double[nrConditions];
+        m_condMissing = new boolean[nrConditions];
+        m_condAux = new int[nrConditions];
+        m_condAuxLength = new int[nrConditions];
+
+        // children were appended in breadth first order, hence the first child of node i follows
+        // the children of all nodes before i
+        int nextChild = 0;
+        int tree = -1;
+        final List<long[]> masks = new ArrayList<long[]>();
+        int maskLength = 0;
+        int nextSurrogate = nrNodes;
+        for (int i = 0; i < nrNodes; i++) {
+            if (tree + 1 < treeRoots.length && treeRoots[tree + 1] == i) {
+                tree++;
+                nextChild = i + 1;
+            }
+            final AbstractTreeNode node = m_nodes[i];
+            m_childStart[i] = nextChild;
+            m_childCount[i] = node.getNrChildren();
+            nextChild += node.getNrChildren();
+            m_nodeValues[i] = leafValue.getValue(tree, node);
+
+            final TreeNodeCondition condition = node.getCondition();
+            if (condition instanceof AbstractTreeNodeSurrogateCondition) {
+                final AbstractTreeNodeSurrogateCondition surrogate = (AbstractTreeNodeSurrogateCondition)condition;
+                final int nrColumnConditions = surrogate.getNumSurrogates() + 1;
+                m_condType[i] = SURROGATE;
+                m_condMissing[i] = surrogate.getDefaultResponse();
+                m_condAux[i] = nextSurrogate;
+                m_condAuxLength[i] = nrColumnConditions;
+                for (int s = 0; s < nrColumnConditions; s++) {
+                    maskLength += compileColumnCondition(nextSurrogate++, surrogate.getColumnCondition(s), masks,
+                        maskLength);
+                }
+            } else if (condition instanceof TreeNodeColumnCondition) {
+                maskLength += compileColumnCondition(i, (TreeNodeColumnCondition)condition, masks, maskLength);
+            } else if (condition == null || condition instanceof TreeNodeTrueCondition) {
+                m_condType[i] = TRUE;
+            } else {
+                throw new IllegalStateException(
+                    "Unsupported condition type: " + condition.getClass().getSimpleName());
+            }
+        }
+        assert nextSurrogate == nrConditions;
+        m_masks = new long[maskLength];
+        int offset = 0;
+        for (long[] mask : masks) {
+            System.arraycopy(mask, 0, m_masks, offset, mask.length);
+            offset += mask.length;
+        }
+    }
+
+    /** Fills condition slot <b>c</b> and returns the number of mask words it added. */
+    private int compileColumnCondition(final int c, final TreeNodeColumnCondition condition,
+        final List<long[]> masks, final int maskStart) {
+        m_condAttribute[c] = condition.getColumnMetaData().getAttributeIndex();
+        m_condMissing[c] = condition.acceptsMissings();
+        if (condition instanceof TreeNodeNumericCondition) {
+            final TreeNodeNumericCondition numeric = (TreeNodeNumericCondition)condition;
+            final NumericOperator operator = numeric.getNumericOperator();
+            switch (operator) {
+                case LessThanOrEqual:
+                case LessThanOrEqualOrMissing:
+                    m_condType[c] = NUMERIC_LE;
+                    break;
+                case LargerThan:
+                case LargerThanOrMissing:
+                    m_condType[c] = NUMERIC_GT;
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported operator: " + operator);
+            }
+            m_condValue[c] = numeric.getSplitValue();
+        } else if (condition instanceof TreeNodeNominalBinaryCondition) {
+            final TreeNodeNominalBinaryCondition binary = (TreeNodeNominalBinaryCondition)condition;
+            final int nrValues = binary.getColumnMetaData().getValues().length;
+            final long[] mask = new long[(nrValues + 63) >>> 6];
+            for (int v = 0; v < nrValues; v++) {
+                if (binary.testCondition(v)) {
+                    mask[v >>> 6] |= 1L << v;
+                }
+            }
+            m_condType[c] = NOMINAL_SET;
+            m_condValue[c] = binary.testCondition(nrValues) ? 1.0 : 0.0;
+            m_condAux[c] = maskStart;
+            m_condAuxLength[c] = mask.length;
+            masks.add(mask);
+            return mask.length;
+        } else if (condition instanceof TreeNodeNominalCondition) {
+            m_condType[c] = NOMINAL_EQ;
+            m_condValue[c] = ((TreeNodeNominalCondition)condition).getValueIndex();
+        } else if (condition instanceof TreeNodeBitCondition) {
+            m_condType[c] = BIT;
+            m_condValue[c] = ((TreeNodeBitCondition)condition).getValue() ? 1.0 : 0.0;
+        } else {
+            throw new IllegalStateException("Unsupported condition type: " + condition.getClass().getSimpleName());
+        }
+        return 0;
+    }
+
+    /**
+     * Compiles the given trees.
+     *
+     * @param trees the trees of the ensemble
+     * @param leafValue computes the value stored for each node, see {@link #getNodeValue(int)}
+     * @return the compiled ensemble
+     */
+    public static CompiledTreeEnsemble compile(final AbstractTreeModel<?>[] trees, final LeafValueFunction leafValue) {
+        final int[] treeRoots = new int[trees.length];
+        final List<AbstractTreeNode> nodes = new ArrayList<AbstractTreeNode>();
+        int nrSurrogateConditions = 0;
+        for (int t = 0; t < trees.length; t++) {
+            treeRoots[t] = nodes.size();
+            nodes.add(trees[t].getRootNode());
+            // breadth first: the children of a node are appended as a contiguous block
+            for (int i = treeRoots[t]; i < nodes.size(); i++) {
+                final AbstractTreeNode node = nodes.get(i);
+                for (int c = 0; c < node.getNrChildren(); c++) {
+                    final AbstractTreeNode child = node.getChild(c);
+                    nodes.add(child);
+                    final TreeNodeCondition condition = child.getCondition();
+                    if (condition instanceof AbstractTreeNodeSurrogateCondition) {
+                        nrSurrogateConditions += ((AbstractTreeNodeSurrogateCondition)condition).getNumSurrogates() + 1;
+                    }
+                }
+            }
+        }
+        return new CompiledTreeEnsemble(treeRoots, nodes, nrSurrogateConditions, leafValue);
+    }
+
+    /**
+     * @return the number of trees
+     */
+    public int getNrTrees() {
+        return m_treeRoots.length;
+    }
+
+    /**
+     * @return the total number of nodes in all trees
+     */
+    public int getNrNodes() {
+        return m_nodes.length;
+    }
+
+    /**
+     * Finds the node in tree <b>treeIndex</b> that matches <b>row</b>.
+     *
+     * @param treeIndex the index of the tree
+     * @param row the attribute values, missing values are NaN
+     * @return the index of the matching node
+     */
+    public int findMatchingNode(final int treeIndex, final double[] row) {
+        int node = m_treeRoots[treeIndex];
+        descend: while (true) {
+            final int end = m_childStart[node] + m_childCount[node];
+            for (int child = m_childStart[node]; child < end; child++) {
+                if (testCondition(child, row)) {
+                    node = child;
+                    continue descend;
+                }
+            }
+            return node;
+        }
+    }
+
+    /**
+     * @param nodeIndex the index of a node as returned by {@link #findMatchingNode(int, double[])}
+     * @return the node object
+     */
+    public AbstractTreeNode getNode(final int nodeIndex) {
+        return m_nodes[nodeIndex];
+    }
+
+    /**
+     * @param nodeIndex the index of a node as returned by {@link #findMatchingNode(int, double[])}
+     * @return the value computed for the node at compile time
+     */
+    public double getNodeValue(final int nodeIndex) {
+        return m_nodeValues[nodeIndex];
+    }
+
+    /**
+     * Sums up the values of the matching nodes of all trees (in tree order).
+     *
+     * @param row the attribute values, missing values are NaN
+     * @return the sum of the node values
+     */
+    public double sumNodeValues(final double[] row) {
+        return sumNodeValues(row, 0.0);
+    }
+
+    /**
+     * Adds the values of the matching nodes of all trees (in tree order) to the given start value. Unlike
+     * <code>start + sumNodeValues(row)</code> this adds the values in the same order as a loop that starts with
+     * <b>start</b>, which yields bit-identical results.
+     *
+     * @param row the attribute values, missing values are NaN
+     * @param start the value to add the node values to, e.g. the initial value of a boosting model
+     * @return the sum of the start value and the node values
+     */
+    public double sumNodeValues(final double[] row, final double start) {
+        double sum = start;
+        for (int t = 0; t < m_treeRoots.length; t++) {
+            sum += m_nodeValues[findMatchingNode(t, row)];
+        }
+        return sum;
+    }
+
+    private boolean testCondition(final int c, final double[] row) {
+        final byte type = m_condType[c];
+        if (type == TRUE) {
+            return true;
+        }
+        if (type == SURROGATE) {
+            final int end = m_condAux[c] + m_condAuxLength[c];
+            for (int s = m_condAux[c]; s < end; s++) {
+                final double value = row[m_condAttribute[s]];
+                if (!Double.isNaN(value)) {
+                    return testValue(s, value);
+                }
+            }
+            return m_condMissing[c];
+        }
+        final double value = row[m_condAttribute[c]];
+        if (Double.isNaN(value)) {
+            return m_condMissing[c];
+        }
+        return testValue(c, value);
+    }
+
+    private boolean testValue(final int c, final double value) {
+        switch (m_condType[c]) {
+            case NUMERIC_LE:
+                return value <= m_condValue[c];
+            case NUMERIC_GT:
+                return value > m_condValue[c];
+            case NOMINAL_EQ:
+            case BIT:
+                return value == m_condValue[c];
+            case NOMINAL_SET:
+                final int index = (int)value;
+                final int word = index >>> 6;
+                if (index < 0 || word >= m_condAuxLength[c]) {
+                    return m_condValue[c] != 0.0;
+                }
+                return (m_masks[m_condAux[c] + word] & (1L << index)) != 0L;
+            default:
+                throw new IllegalStateException("Unexpected condition type " + m_condType[c]);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Compiled ensemble with " + getNrTrees() + " trees, " + getNrNodes() + " nodes and "
+            + (m_condType.length - m_nodes.length) + " surrogate conditions";
+    }
+}
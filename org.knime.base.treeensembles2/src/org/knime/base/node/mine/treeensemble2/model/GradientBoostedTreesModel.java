@@ -121,6 +121,26 @@ public double predict(final PredictorRecord record) {
         return prediction;
     }
 
+    /**
+     * Predicts a row given as attribute values using the {@link #getCompiledEnsemble() compiled ensemble}.
+     *
+     * @param row the attribute values as created by a {@link PrimitiveRowConverter}
+     * @return the prediction
+     * @since 3.6
+     */
+    public double predict(final double[] row) {
+        return getCompiledEnsemble().sumNodeValues(row, getInitialValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double getCompiledNodeValue(final int treeIndex, final AbstractTreeNode node) {
+        final Double coefficient = m_coefficientMaps.get(treeIndex).get(node.getSignature());
+        return coefficient == null ? Double.NaN : coefficient.doubleValue();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -208,6 +208,17 @@ public int getNrLevels() {
         return getNrModels() / m_numClasses;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double getCompiledNodeValue(final int treeIndex, final AbstractTreeNode node) {
+        // trees are stored level by level, see createMultiClassGradientBoostedTreesModel
+        final Double coefficient =
+            getCoefficientMap(treeIndex / m_numClasses, treeIndex % m_numClasses).get(node.getSignature());
+        return coefficient == null ? Double.NaN : coefficient.doubleValue();
+    }
+
     /**
      * {@inheritDoc}
      */
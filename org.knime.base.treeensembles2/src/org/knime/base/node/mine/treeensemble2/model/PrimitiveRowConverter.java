@@ -0,0 +1,224 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.mine.treeensemble2.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.knime.base.node.mine.treeensemble2.data.NominalValueRepresentation;
+import org.knime.base.node.mine.treeensemble2.data.TreeAttributeColumnMetaData;
+import org.knime.base.node.mine.treeensemble2.data.TreeNominalColumnMetaData;
+import org.knime.base.node.mine.treeensemble2.model.AbstractTreeEnsembleModel.TreeType;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.NominalValue;
+import org.knime.core.data.vector.bitvector.BitVectorValue;
+import org.knime.core.data.vector.bytevector.ByteVectorValue;
+import org.knime.core.data.vector.doublevector.DoubleVectorValue;
+
+/**
+ * Converts (filtered) rows into the <code>double[]</code> representation used by {@link CompiledTreeEnsemble}. This
+ * is the primitive counterpart of {@link AbstractTreeEnsembleModel#createPredictorRecord(DataRow, DataTableSpec)}:
+ * missing values and values unknown to the model become {@link Double#NaN}, nominal values are replaced by their
+ * assigned integer and bits by 0 or 1. The lookup tables for nominal values are built once per converter.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.6
+ */
+public final class PrimitiveRowConverter {
+
+    private static final byte NUMERIC = 0;
+
+    private static final byte NOMINAL = 1;
+
+    private static final byte UNSUPPORTED = 2;
+
+    private final TreeType m_type;
+
+    private final int m_nrAttributes;
+
+    private final DataTableSpec m_learnSpec;
+
+    private final byte[] m_columnKinds;
+
+    private final Map<String, Integer>[] m_nominalValues;
+
+    /**
+     * @param model the model whose meta data describes the attributes
+     * @param learnSpec the spec of the learn columns, the rows passed to {@link #convert(DataRow)} are expected to
+     *            have the same layout
+     */
+    @SuppressWarnings("unchecked")
+    public PrimitiveRowConverter(final AbstractTreeEnsembleModel model, final DataTableSpec learnSpec) {
+        m_type = model.getType();
+        m_nrAttributes = model.getMetaData().getNrAttributes();
+        m_learnSpec = learnSpec;
+        if (m_type == TreeType.Ordinary) {
+            final int nrCols = learnSpec.getNumColumns();
+            m_columnKinds = new byte[nrCols];
+            m_nominalValues = new Map[nrCols];
+            for (int i = 0; i < nrCols; i++) {
+                final DataType colType = learnSpec.getColumnSpec(i).getType();
+                if (colType.isCompatible(NominalValue.class)) {
+                    m_columnKinds[i] = NOMINAL;
+                    final TreeAttributeColumnMetaData meta = model.getMetaData().getAttributeMetaData(i);
+                    final NominalValueRepresentation[] nomVals = ((TreeNominalColumnMetaData)meta).getValues();
+                    final Map<String, Integer> map = new HashMap<String, Integer>((int)(nomVals.length / 0.75 + 1));
+                    for (NominalValueRepresentation nomVal : nomVals) {
+                        // first occurrence wins, like the linear search in createPredictorRecord
+                        map.putIfAbsent(nomVal.getNominalValue(), nomVal.getAssignedInteger());
+                    }
+                    m_nominalValues[i] = map;
+                } else if (colType.isCompatible(DoubleValue.class)) {
+                    m_columnKinds[i] = NUMERIC;
+                } else {
+                    m_columnKinds[i] = UNSUPPORTED;
+                }
+            }
+        } else {
+            m_columnKinds = null;
+            m_nominalValues = null;
+        }
+    }
+
+    /**
+     * @param filterRow the row containing only the learn columns
+     * @return the attribute values or <code>null</code> if the (vector) cell is missing
+     * @throws IllegalArgumentException if a vector has the wrong length
+     * @throws IllegalStateException if a column has an unexpected type
+     */
+    public double[] convert(final DataRow filterRow) {
+        switch (m_type) {
+            case Ordinary:
+                return convertNominalNumeric(filterRow);
+            case BitVector:
+                return convertBitVector(filterRow);
+            case ByteVector:
+                return convertByteVector(filterRow);
+            case DoubleVector:
+                return convertDoubleVector(filterRow);
+            default:
+                throw new IllegalStateException("Unknown tree type (not implemented): " + m_type);
+        }
+    }
+
+    private double[] convertNominalNumeric(final DataRow filterRow) {
+        final int nrCols = m_columnKinds.length;
+        final double[] result = new double[nrCols];
+        for (int i = 0; i < nrCols; i++) {
+            final DataCell cell = filterRow.getCell(i);
+            if (cell.isMissing()) {
+                result[i] = Double.NaN;
+            } else if (m_columnKinds[i] == NOMINAL) {
+                final Integer assignedInteger = m_nominalValues[i].get(cell.toString());
+                // values not known to the model are treated as missing
+                result[i] = assignedInteger == null ? Double.NaN : assignedInteger.intValue();
+            } else if (m_columnKinds[i] == NUMERIC) {
+                // NaN is a missing value anyway (AP-7169)
+                result[i] = ((DoubleValue)cell).getDoubleValue();
+            } else {
+                final String colName = m_learnSpec.getColumnSpec(i).getName();
+                throw new IllegalStateException("Expected nominal or numeric column type for column \"" + colName
+                    + "\" but got \"" + m_learnSpec.getColumnSpec(i).getType() + "\"");
+            }
+        }
+        return result;
+    }
+
+    private double[] convertDoubleVector(final DataRow filterRow) {
+        assert filterRow.getNumCells() == 1 : "Expected one cell as double vector data";
+        final DataCell c = filterRow.getCell(0);
+        if (c.isMissing()) {
+            return null;
+        }
+        final DoubleVectorValue dv = (DoubleVectorValue)c;
+        checkLength(filterRow, "double", dv.getLength());
+        final double[] result = new double[m_nrAttributes];
+        for (int i = 0; i < m_nrAttributes; i++) {
+            result[i] = dv.getValue(i);
+        }
+        return result;
+    }
+
+    private double[] convertByteVector(final DataRow filterRow) {
+        assert filterRow.getNumCells() == 1 : "Expected one cell as byte vector data";
+        final DataCell c = filterRow.getCell(0);
+        if (c.isMissing()) {
+            return null;
+        }
+        final ByteVectorValue bv = (ByteVectorValue)c;
+        checkLength(filterRow, "byte", bv.length());
+        final double[] result = new double[m_nrAttributes];
+        for (int i = 0; i < m_nrAttributes; i++) {
+            result[i] = bv.get(i);
+        }
+        return result;
+    }
+
+    private double[] convertBitVector(final DataRow filterRow) {
+        assert filterRow.getNumCells() == 1 : "Expected one cell as bit vector data";
+        final DataCell c = filterRow.getCell(0);
+        if (c.isMissing()) {
+            return null;
+        }
+        final BitVectorValue bv = (BitVectorValue)c;
+        checkLength(filterRow, "bit", bv.length());
+        final double[] result = new double[m_nrAttributes];
+        for (int i = 0; i < m_nrAttributes; i++) {
+            result[i] = bv.get(i) ? 1.0 : 0.0;
+        }
+        return result;
+    }
+
+    private void checkLength(final DataRow filterRow, final String vectorType, final long length) {
+        if (length != m_nrAttributes) {
+            throw new IllegalArgumentException("The " + vectorType + "-vector in " + filterRow.getKey().getString()
+                + " has the wrong length. (" + length + " instead of " + m_nrAttributes + ")");
+        }
+    }
+}
@@ -82,6 +82,9 @@ public class TreeEnsembleModel extends AbstractTreeEnsembleModel {
      */
     private final boolean m_containsClassDistribution;
 
+    /** Lazily created array representation of the trees used for scoring, see {@link #getCompiledEnsemble()}. */
+    private volatile CompiledTreeEnsemble m_compiledEnsemble;
+
     /**
      * @param models
      */
@@ -133,6 +136,36 @@ public int getNrModels() {
         return m_models.length;
     }
 
+    /**
+     * Returns the trees compiled into a flat array representation for fast scoring. The ensemble is created on first
+     * access (concurrent first calls may compile it more than once, which is harmless as it's immutable).
+     *
+     * @return the compiled ensemble
+     * @since 3.6
+     */
+    public CompiledTreeEnsemble getCompiledEnsemble() {
+        CompiledTreeEnsemble compiled = m_compiledEnsemble;
+        if (compiled == null) {
+            compiled = CompiledTreeEnsemble.compile(m_models, this::getCompiledNodeValue);
+            m_compiledEnsemble = compiled;
+        }
+        return compiled;
+    }
+
+    /**
+     * Computes the value stored for a node in the {@link #getCompiledEnsemble() compiled ensemble}. The default is
+     * the mean of regression nodes and NaN otherwise; subclasses may override it, e.g. to return a boosting
+     * coefficient.
+     *
+     * @param treeIndex the index of the tree
+     * @param node a node of that tree
+     * @return the value for <b>node</b>
+     * @since 3.6
+     */
+    protected double getCompiledNodeValue(final int treeIndex, final AbstractTreeNode node) {
+        return node instanceof TreeNodeRegression ? ((TreeNodeRegression)node).getMean() : Double.NaN;
+    }
+
 
 
     public DecisionTree createDecisionTree(final int modelIndex, final DataTable sampleForHiliting) {
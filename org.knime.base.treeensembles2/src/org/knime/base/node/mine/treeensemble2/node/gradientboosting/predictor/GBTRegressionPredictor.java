@@ -9,6 +9,7 @@
 import org.knime.base.node.mine.treeensemble2.model.GradientBoostedTreesModel;
 import org.knime.base.node.mine.treeensemble2.node.predictor.AbstractPredictor;
 import org.knime.base.node.mine.treeensemble2.node.predictor.RegressionPrediction;
+import org.knime.base.node.mine.treeensemble2.node.predictor.TreeEnsemblePredictionUtil;
 import org.knime.core.data.DataRow;
 
 /**
@@ -18,6 +19,8 @@ public class GBTRegressionPredictor extends AbstractPredictor<RegressionPredicti
 
     private final GradientBoostedTreesModel m_model;
 
+    private final Function<DataRow, double[]> m_primitiveRowConverter;
+
     /**
      * Constructor for a {@link GBTRegressionPredictor}.
      *
@@ -26,8 +29,39 @@ public class GBTRegressionPredictor extends AbstractPredictor<RegressionPredicti
      */
     public GBTRegressionPredictor(final GradientBoostedTreesModel model,
         final Function<DataRow, PredictorRecord> rowConverter) {
+        this(model, rowConverter, r -> null);
+    }
+
+    /**
+     * Constructor for a {@link GBTRegressionPredictor} that predicts rows using the
+     * {@link GradientBoostedTreesModel#getCompiledEnsemble() compiled ensemble} of the model.
+     *
+     * @param model the gbt model
+     * @param rowConverter converts input {@link DataRow rows} into {@link PredictorRecord records}, used if
+     *            <b>primitiveRowConverter</b> returns <code>null</code>
+     * @param primitiveRowConverter converts input {@link DataRow rows} into attribute values, see
+     *            {@link TreeEnsemblePredictionUtil#createPrimitiveRowConverter}
+     * @since 3.6
+     */
+    public GBTRegressionPredictor(final GradientBoostedTreesModel model,
+        final Function<DataRow, PredictorRecord> rowConverter,
+        final Function<DataRow, double[]> primitiveRowConverter) {
         super(rowConverter);
         m_model = model;
+        m_primitiveRowConverter = primitiveRowConverter;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RegressionPrediction predict(final DataRow row) {
+        final double[] values = m_primitiveRowConverter.apply(row);
+        if (values == null) {
+            return super.predict(row);
+        }
+        double prediction = m_model.predict(values);
+        return () -> prediction;
     }
 
     /* (non-Javadoc)
@@ -7,10 +7,12 @@
 import java.util.function.Function;
 
 import org.knime.base.node.mine.treeensemble2.data.PredictorRecord;
+import org.knime.base.node.mine.treeensemble2.model.CompiledTreeEnsemble;
 import org.knime.base.node.mine.treeensemble2.model.MultiClassGradientBoostedTreesModel;
 import org.knime.base.node.mine.treeensemble2.model.TreeNodeRegression;
 import org.knime.base.node.mine.treeensemble2.node.predictor.AbstractPredictor;
 import org.knime.base.node.mine.treeensemble2.node.predictor.ClassificationPrediction;
+import org.knime.base.node.mine.treeensemble2.node.predictor.TreeEnsemblePredictionUtil;
 import org.knime.core.data.DataRow;
 
 /**
@@ -22,6 +24,8 @@ public class LKGradientBoostedTreesPredictor extends AbstractPredictor<Classific
 
     private final boolean m_calculateProbabilities;
 
+    private final Function<DataRow, double[]> m_primitiveRowConverter;
+
     /**
      * Constructor for classification gbt predictors.
      *
@@ -31,9 +35,40 @@ public class LKGradientBoostedTreesPredictor extends AbstractPredictor<Classific
      */
     public LKGradientBoostedTreesPredictor(final MultiClassGradientBoostedTreesModel model,
         final boolean calculateProbabilities, final Function<DataRow, PredictorRecord> rowConverter) {
+        this(model, calculateProbabilities, rowConverter, r -> null);
+    }
+
+    /**
+     * Constructor for classification gbt predictors that predict rows using the
+     * {@link MultiClassGradientBoostedTreesModel#getCompiledEnsemble() compiled ensemble} of the model.
+     *
+     * @param model the gradient boosted trees model
+     * @param calculateProbabilities indicates whether probabilities should be calculated
+     * @param rowConverter converts input {@link DataRow rows} into {@link PredictorRecord records}, used if
+     *            <b>primitiveRowConverter</b> returns <code>null</code>
+     * @param primitiveRowConverter converts input {@link DataRow rows} into attribute values, see
+     *            {@link TreeEnsemblePredictionUtil#createPrimitiveRowConverter}
+     * @since 3.6
+     */
+    public LKGradientBoostedTreesPredictor(final MultiClassGradientBoostedTreesModel model,
+        final boolean calculateProbabilities, final Function<DataRow, PredictorRecord> rowConverter,
+        final Function<DataRow, double[]> primitiveRowConverter) {
         super(rowConverter);
         m_model = model;
         m_calculateProbabilities = calculateProbabilities;
+        m_primitiveRowConverter = primitiveRowConverter;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ClassificationPrediction predict(final DataRow row) {
+        final double[] values = m_primitiveRowConverter.apply(row);
+        if (values == null) {
+            return super.predict(row);
+        }
+        return createPrediction(calculateLogits(values));
     }
 
     /* (non-Javadoc)
@@ -41,7 +76,10 @@ public LKGradientBoostedTreesPredictor(final MultiClassGradientBoostedTreesModel
      */
     @Override
     public ClassificationPrediction predictRecord(final PredictorRecord record) {
-        double[] logits = calculateLogits(record);
+        return createPrediction(calculateLogits(record));
+    }
+
+    private ClassificationPrediction createPrediction(final double[] logits) {
         if (m_calculateProbabilities) {
             transformToProbabilities(logits);
             return new LKGBTPrediction(argmax(logits), logits);
@@ -64,6 +102,19 @@ private double[] calculateLogits(final PredictorRecord record) {
         return logits;
     }
 
+    private double[] calculateLogits(final double[] values) {
+        final CompiledTreeEnsemble compiled = m_model.getCompiledEnsemble();
+        final int nrClasses = m_model.getNrClasses();
+        final int nrTrees = compiled.getNrTrees();
+        final double[] logits = new double[nrClasses];
+        Arrays.fill(logits, m_model.getInitialValue());
+        // trees are ordered level by level, i.e. tree t belongs to class t % nrClasses
+        for (int t = 0; t < nrTrees; t++) {
+            logits[t % nrClasses] += compiled.getNodeValue(compiled.findMatchingNode(t, values));
+        }
+        return logits;
+    }
+
     private void transformToProbabilities(final double[] logits) {
         double[] probabilities = logits;
         double expSum = 0;
@@ -164,14 +164,16 @@ private PredictionRearrangerCreator createRearrangerCreator(final DataTableSpec
         if (m_isRegression) {
             prc = new PredictionRearrangerCreator(predictSpec,
                 new GBTRegressionPredictor((GradientBoostedTreesModel)model,
-                TreeEnsemblePredictionUtil.createRowConverter(modelSpec, model, predictSpec)));
+                TreeEnsemblePredictionUtil.createRowConverter(modelSpec, model, predictSpec),
+                TreeEnsemblePredictionUtil.createPrimitiveRowConverter(modelSpec, model, predictSpec)));
             prc.addRegressionPrediction(m_configuration.getPredictionColumnName());
         } else {
             MultiClassGradientBoostedTreesModel gbt = (MultiClassGradientBoostedTreesModel)model;
             prc = new PredictionRearrangerCreator(predictSpec,
                 new LKGradientBoostedTreesPredictor(gbt,
                     m_configuration.isAppendClassConfidences() || m_configuration.isAppendPredictionConfidence(),
-                TreeEnsemblePredictionUtil.createRowConverter(modelSpec, model, predictSpec)));
+                TreeEnsemblePredictionUtil.createRowConverter(modelSpec, model, predictSpec),
+                TreeEnsemblePredictionUtil.createPrimitiveRowConverter(modelSpec, model, predictSpec)));
             TreeEnsemblePredictionUtil.setupRearrangerCreatorGBT(m_pre36, prc, modelSpec, gbt, m_configuration);
         }
         return prc;
@@ -122,7 +122,8 @@ private PredictionRearrangerCreator createRearrangerCreator(final DataTableSpec
         throws InvalidSettingsException {
         PredictionRearrangerCreator prc = new PredictionRearrangerCreator(predictSpec,
             new GBTRegressionPredictor(model,
-            TreeEnsemblePredictionUtil.createRowConverter(modelSpec, model, predictSpec)));
+            TreeEnsemblePredictionUtil.createRowConverter(modelSpec, model, predictSpec),
+            TreeEnsemblePredictionUtil.createPrimitiveRowConverter(modelSpec, model, predictSpec)));
         prc.addRegressionPrediction(m_configuration.getPredictionColumnName());
         return prc;
     }
@@ -147,6 +147,10 @@ public class TreeEnsembleLearnerConfiguration {
 
     private static final String KEY_ROW_SAMPLING_MODE = "rowSamplingMode";
 
+    private static final String KEY_NR_HISTOGRAM_BINS = "nrHistogramBins";
+
+    private static final String KEY_USE_PARALLEL_SPLIT_SEARCH = "useParallelSplitSearch";
+
     public enum MissingValueHandling {
             /**
              * Use surrogates to handle missing values
@@ -287,6 +291,34 @@ public enum ColumnSamplingMode {
 
     private static final MissingValueHandling DEF_MISSING_VALUE_HANDLING = MissingValueHandling.XGBoost;
 
+    /**
+     * Value for {@link #getNrHistogramBins()} that disables binning, i.e. numeric columns are searched exhaustively.
+     *
+     * @since 3.6
+     */
+    public static final int NR_HISTOGRAM_BINS_EXACT = 0;
+
+    /**
+     * Largest supported number of histogram bins (one unsigned byte per value).
+     *
+     * @since 3.6
+     */
+    public static final int MAX_NR_HISTOGRAM_BINS = 256;
+
+    /**
+     * Default for the number of histogram bins, binning is disabled.
+     *
+     * @since 3.6
+     */
+    public static final int DEF_NR_HISTOGRAM_BINS = NR_HISTOGRAM_BINS_EXACT;
+
+    /**
+     * Default for the parallel evaluation of columns within a tree node.
+     *
+     * @since 3.6
+     */
+    public static final boolean DEF_USE_PARALLEL_SPLIT_SEARCH = false;
+
     private String m_targetColumn;
 
     private Long m_seed = System.currentTimeMillis();
@@ -336,6 +368,10 @@ public enum ColumnSamplingMode {
 
     private RowSamplingMode m_rowSamplingMode = DEF_ROW_SAMPLING_MODE;
 
+    private int m_nrHistogramBins = DEF_NR_HISTOGRAM_BINS;
+
+    private boolean m_useParallelSplitSearch = DEF_USE_PARALLEL_SPLIT_SEARCH;
+
     /**
      * @param isRegression
      */
@@ -791,6 +827,52 @@ public void setRowSamplingMode(final RowSamplingMode mode) {
         m_rowSamplingMode = mode;
     }
 
+    /**
+     * The number of quantile bins numeric attribute columns are discretized into before learning. Split points are
+     * then only searched at bin boundaries, which makes split search independent of the number of distinct values and
+     * reduces the memory of a column to one byte per value. {@link #NR_HISTOGRAM_BINS_EXACT} disables binning.
+     *
+     * @return the number of histogram bins or {@link #NR_HISTOGRAM_BINS_EXACT}
+     * @since 3.6
+     */
+    public int getNrHistogramBins() {
+        return m_nrHistogramBins;
+    }
+
+    /**
+     * @param nrHistogramBins the number of histogram bins, see {@link #getNrHistogramBins()}
+     * @throws InvalidSettingsException if the value is neither {@link #NR_HISTOGRAM_BINS_EXACT} nor in [2,
+     *             {@link #MAX_NR_HISTOGRAM_BINS}]
+     * @since 3.6
+     */
+    public void setNrHistogramBins(final int nrHistogramBins) throws InvalidSettingsException {
+        if (nrHistogramBins != NR_HISTOGRAM_BINS_EXACT
+            && (nrHistogramBins < 2 || nrHistogramBins > MAX_NR_HISTOGRAM_BINS)) {
+            throw new InvalidSettingsException("Invalid number of histogram bins: " + nrHistogramBins
+                + " (must be " + NR_HISTOGRAM_BINS_EXACT + " or in [2, " + MAX_NR_HISTOGRAM_BINS + "])");
+        }
+        m_nrHistogramBins = nrHistogramBins;
+    }
+
+    /**
+     * Whether the attribute columns of a single tree node are evaluated concurrently. This is independent of the
+     * parallelization across trees and mostly helps learners that build one tree at a time (e.g. gradient boosting).
+     *
+     * @return that property
+     * @since 3.6
+     */
+    public boolean isUseParallelSplitSearch() {
+        return m_useParallelSplitSearch;
+    }
+
+    /**
+     * @param useParallelSplitSearch see {@link #isUseParallelSplitSearch()}
+     * @since 3.6
+     */
+    public void setUseParallelSplitSearch(final boolean useParallelSplitSearch) {
+        m_useParallelSplitSearch = useParallelSplitSearch;
+    }
+
     /**
      * Saves the settings.
      *
@@ -823,6 +905,8 @@ public void save(final NodeSettingsWO settings) {
         settings.addInt(KEY_NR_HILITE_PATTERNS, m_nrHilitePatterns);
         settings.addBoolean(KEY_SAVE_TARGET_DISTRIBUTION_IN_NODES, m_saveTargetDistributionInNodes);
         settings.addString(KEY_ROW_SAMPLING_MODE, m_rowSamplingMode.name());
+        settings.addInt(KEY_NR_HISTOGRAM_BINS, m_nrHistogramBins);
+        settings.addBoolean(KEY_USE_PARALLEL_SPLIT_SEARCH, m_useParallelSplitSearch);
     }
 
     /**
@@ -911,6 +995,9 @@ public void loadInModel(final NodeSettingsRO settings) throws InvalidSettingsExc
 
         setRowSamplingMode(
             RowSamplingMode.valueOf(settings.getString(KEY_ROW_SAMPLING_MODE, DEF_ROW_SAMPLING_MODE.name())));
+        // added in 3.6, be backward compatible (exact, sequential split search)
+        setNrHistogramBins(settings.getInt(KEY_NR_HISTOGRAM_BINS, DEF_NR_HISTOGRAM_BINS));
+        setUseParallelSplitSearch(settings.getBoolean(KEY_USE_PARALLEL_SPLIT_SEARCH, DEF_USE_PARALLEL_SPLIT_SEARCH));
     }
 
     /**
@@ -1109,6 +1196,12 @@ public void loadInDialog(final NodeSettingsRO settings, final DataTableSpec inSp
 
         setRowSamplingMode(
             RowSamplingMode.valueOf(settings.getString(KEY_ROW_SAMPLING_MODE, DEF_ROW_SAMPLING_MODE.name())));
+        try {
+            setNrHistogramBins(settings.getInt(KEY_NR_HISTOGRAM_BINS, DEF_NR_HISTOGRAM_BINS));
+        } catch (InvalidSettingsException e) {
+            m_nrHistogramBins = DEF_NR_HISTOGRAM_BINS;
+        }
+        m_useParallelSplitSearch = settings.getBoolean(KEY_USE_PARALLEL_SPLIT_SEARCH, DEF_USE_PARALLEL_SPLIT_SEARCH);
     }
 
     /**
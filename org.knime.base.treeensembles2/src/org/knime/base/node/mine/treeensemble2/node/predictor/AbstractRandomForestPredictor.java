@@ -9,6 +9,7 @@
 import org.knime.base.data.filter.column.FilterColumnRow;
 import org.knime.base.node.mine.treeensemble2.data.PredictorRecord;
 import org.knime.base.node.mine.treeensemble2.data.TreeTargetColumnData;
+import org.knime.base.node.mine.treeensemble2.model.PrimitiveRowConverter;
 import org.knime.base.node.mine.treeensemble2.model.TreeEnsembleModel;
 import org.knime.base.node.mine.treeensemble2.model.TreeEnsembleModelPortObjectSpec;
 import org.knime.base.node.mine.treeensemble2.sample.row.RowSample;
@@ -33,6 +34,8 @@
 
     private final int[] m_filterIndices;
 
+    private final PrimitiveRowConverter m_rowConverter;
+
     /**
      * @param model
      * @param modelSpec
@@ -44,6 +47,8 @@ public AbstractRandomForestPredictor(final TreeEnsembleModel model, final TreeEn
         m_model = model;
         m_filterIndices = modelSpec.calculateFilterIndices(predictSpec);
         m_learnSpec = modelSpec.getLearnTableSpec();
+        // the model is not available during configure
+        m_rowConverter = model == null ? null : new PrimitiveRowConverter(model, m_learnSpec);
     }
 
     /**
@@ -67,6 +72,10 @@ public AbstractRandomForestPredictor(final TreeEnsembleModel model, final TreeEn
     @Override
     public P predict(final DataRow row) {
         FilterColumnRow filterRow = new FilterColumnRow(row, m_filterIndices);
+        final double[] values = m_rowConverter == null ? null : m_rowConverter.convert(filterRow);
+        if (values != null) {
+            return predictRow(values, row.getKey());
+        }
         return predictRecord(m_model.createPredictorRecord(filterRow, m_learnSpec), row.getKey());
     }
 
@@ -77,6 +86,16 @@ public P predict(final DataRow row) {
      */
     protected abstract P predictRecord(PredictorRecord record, RowKey key);
 
+    /**
+     * Predicts a row using the {@link TreeEnsembleModel#getCompiledEnsemble() compiled ensemble}.
+     *
+     * @param values the attribute values as created by a {@link PrimitiveRowConverter}
+     * @param key the row key to access out of bag information
+     * @return the prediction
+     * @since 3.6
+     */
+    protected abstract P predictRow(double[] values, RowKey key);
+
     private void setOutofBagFilter(final RowSample[] modelRowSamples, final TreeTargetColumnData targetColumnData) {
         if (modelRowSamples == null || targetColumnData == null) {
             throw new NullPointerException("Argument must not be null.");
@@ -13,6 +13,7 @@
 import org.knime.base.node.mine.treeensemble2.data.TreeTargetColumnData;
 import org.knime.base.node.mine.treeensemble2.model.AbstractTreeEnsembleModel;
 import org.knime.base.node.mine.treeensemble2.model.MultiClassGradientBoostedTreesModel;
+import org.knime.base.node.mine.treeensemble2.model.PrimitiveRowConverter;
 import org.knime.base.node.mine.treeensemble2.model.TreeEnsembleModel;
 import org.knime.base.node.mine.treeensemble2.model.TreeEnsembleModelPortObjectSpec;
 import org.knime.base.node.mine.treeensemble2.node.predictor.classification.HardVotingFactory;
@@ -54,6 +55,31 @@ public static Function<DataRow, PredictorRecord> createRowConverter(final TreeEn
         return r -> model.createPredictorRecord(new FilterColumnRow(r, filterIndices), learnSpec);
     }
 
+    /**
+     * Creates a converter from rows to the attribute values used by the
+     * {@link TreeEnsembleModel#getCompiledEnsemble() compiled ensemble} of a model. The converter returns
+     * <code>null</code> for rows that can't be represented that way (and for all rows if <b>model</b> is null), in
+     * which case the {@link #createRowConverter(TreeEnsembleModelPortObjectSpec, AbstractTreeEnsembleModel,
+     * DataTableSpec) record converter} is to be used.
+     *
+     * @param modelSpec the spec of the model
+     * @param model the actual model (may be null)
+     * @param tableSpec the table on which to predict
+     * @return a row converter
+     * @throws InvalidSettingsException if columns required by <b>modelSpec</b> are not present in <b>tableSpec</b>
+     * @since 3.6
+     */
+    public static Function<DataRow, double[]> createPrimitiveRowConverter(
+        final TreeEnsembleModelPortObjectSpec modelSpec, final AbstractTreeEnsembleModel model,
+        final DataTableSpec tableSpec) throws InvalidSettingsException {
+        int[] filterIndices = modelSpec.calculateFilterIndices(tableSpec);
+        if (model == null) {
+            return r -> null;
+        }
+        PrimitiveRowConverter converter = new PrimitiveRowConverter(model, modelSpec.getLearnTableSpec());
+        return r -> converter.convert(new FilterColumnRow(r, filterIndices));
+    }
+
     /**
      * Setups the PredictionRearrangerCreator for classification gbts.
      *
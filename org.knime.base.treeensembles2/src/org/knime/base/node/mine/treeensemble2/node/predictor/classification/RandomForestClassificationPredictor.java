@@ -3,11 +3,13 @@
  */
 package org.knime.base.node.mine.treeensemble2.node.predictor.classification;
 
+import java.util.function.IntFunction;
+
 import org.knime.base.node.mine.treeensemble2.data.PredictorRecord;
 import org.knime.base.node.mine.treeensemble2.data.TreeTargetColumnData;
+import org.knime.base.node.mine.treeensemble2.model.CompiledTreeEnsemble;
 import org.knime.base.node.mine.treeensemble2.model.TreeEnsembleModel;
 import org.knime.base.node.mine.treeensemble2.model.TreeEnsembleModelPortObjectSpec;
-import org.knime.base.node.mine.treeensemble2.model.TreeModelClassification;
 import org.knime.base.node.mine.treeensemble2.model.TreeNodeClassification;
 import org.knime.base.node.mine.treeensemble2.node.predictor.AbstractRandomForestPredictor;
 import org.knime.base.node.mine.treeensemble2.node.predictor.RandomForestClassificationPrediction;
@@ -60,23 +62,37 @@ public RandomForestClassificationPredictor(final TreeEnsembleModel model,
      */
     @Override
     protected RandomForestClassificationPrediction predictRecord(final PredictorRecord record, final RowKey key) {
-        return new RFClassificationPrediction(record, key, hasOutOfBagFilter());
+        return new RFClassificationPrediction(i -> m_model.getTreeModelClassification(i).findMatchingNode(record),
+            key, hasOutOfBagFilter());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected RandomForestClassificationPrediction predictRow(final double[] values, final RowKey key) {
+        final CompiledTreeEnsemble compiled = m_model.getCompiledEnsemble();
+        return new RFClassificationPrediction(
+            i -> (TreeNodeClassification)compiled.getNode(compiled.findMatchingNode(i, values)), key,
+            hasOutOfBagFilter());
     }
 
     private class RFClassificationPrediction implements RandomForestClassificationPrediction {
 
         private final Voting m_voting;
 
-        RFClassificationPrediction(final PredictorRecord record, final RowKey key, final boolean hasOutOfBagFilter) {
+        /**
+         * @param matchingNode returns the matching node for a tree index
+         */
+        RFClassificationPrediction(final IntFunction<TreeNodeClassification> matchingNode, final RowKey key,
+            final boolean hasOutOfBagFilter) {
             m_voting = m_votingFactory.createVoting();
             final int nrModels = m_model.getNrModels();
             for (int i = 0; i < nrModels; i++) {
                 if (hasOutOfBagFilter && isRowPartOfTrainingData(key, i)) {
                     // ignore, row was used to train the model
                 } else {
-                    TreeModelClassification m = m_model.getTreeModelClassification(i);
-                    TreeNodeClassification match = m.findMatchingNode(record);
-                    m_voting.addVote(match);
+                    m_voting.addVote(matchingNode.apply(i));
                 }
             }
         }
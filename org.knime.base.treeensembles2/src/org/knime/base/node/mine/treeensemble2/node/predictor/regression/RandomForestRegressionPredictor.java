@@ -3,14 +3,15 @@
  */
 package org.knime.base.node.mine.treeensemble2.node.predictor.regression;
 
+import java.util.function.IntToDoubleFunction;
+
 import org.apache.commons.math.stat.descriptive.moment.Mean;
 import org.apache.commons.math.stat.descriptive.moment.Variance;
 import org.knime.base.node.mine.treeensemble2.data.PredictorRecord;
 import org.knime.base.node.mine.treeensemble2.data.TreeTargetColumnData;
+import org.knime.base.node.mine.treeensemble2.model.CompiledTreeEnsemble;
 import org.knime.base.node.mine.treeensemble2.model.TreeEnsembleModel;
 import org.knime.base.node.mine.treeensemble2.model.TreeEnsembleModelPortObjectSpec;
-import org.knime.base.node.mine.treeensemble2.model.TreeModelRegression;
-import org.knime.base.node.mine.treeensemble2.model.TreeNodeRegression;
 import org.knime.base.node.mine.treeensemble2.node.predictor.AbstractRandomForestPredictor;
 import org.knime.base.node.mine.treeensemble2.node.predictor.RandomForestRegressionPrediction;
 import org.knime.base.node.mine.treeensemble2.sample.row.RowSample;
@@ -55,7 +56,18 @@ public RandomForestRegressionPredictor(final TreeEnsembleModel model,
      */
     @Override
     protected RandomForestRegressionPrediction predictRecord(final PredictorRecord record, final RowKey key) {
-        return new RFRegressionPrediction(record, key, hasOutOfBagFilter());
+        return new RFRegressionPrediction(i -> m_model.getTreeModelRegression(i).findMatchingNode(record).getMean(),
+            key, hasOutOfBagFilter());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected RandomForestRegressionPrediction predictRow(final double[] values, final RowKey key) {
+        final CompiledTreeEnsemble compiled = m_model.getCompiledEnsemble();
+        return new RFRegressionPrediction(i -> compiled.getNodeValue(compiled.findMatchingNode(i, values)), key,
+            hasOutOfBagFilter());
     }
 
     private class RFRegressionPrediction implements RandomForestRegressionPrediction {
@@ -67,9 +79,10 @@ private class RFRegressionPrediction implements RandomForestRegressionPrediction
         private final int m_modelCount;
 
         /**
-         *
+         * @param matchingNodeMean returns the mean of the matching node for a tree index
          */
-        RFRegressionPrediction(final PredictorRecord record, final RowKey key, final boolean hasOutOfBagFilter) {
+        RFRegressionPrediction(final IntToDoubleFunction matchingNodeMean, final RowKey key,
+            final boolean hasOutOfBagFilter) {
             Mean mean = new Mean();
             Variance variance = new Variance();
             final int nrModels = m_model.getNrModels();
@@ -77,9 +90,7 @@ private class RFRegressionPrediction implements RandomForestRegressionPrediction
                 if (hasOutOfBagFilter && isRowPartOfTrainingData(key, i)) {
                     // ignore, row was used to train the model
                 } else {
-                    TreeModelRegression m = m_model.getTreeModelRegression(i);
-                    TreeNodeRegression match = m.findMatchingNode(record);
-                    double nodeMean = match.getMean();
+                    double nodeMean = matchingNodeMean.applyAsDouble(i);
                     mean.increment(nodeMean);
                     variance.increment(nodeMean);
                 }
@@ -104,6 +104,12 @@
 public abstract class AggregationOperator implements AggregationMethod {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(AggregationOperator.class);
+
+    private static final String CFG_STATE_SKIPPED = "skipped";
+
+    private static final String CFG_STATE_SKIP_MSG = "skipMessage";
+
+    private static final String CFG_STATE_MISSING_COUNT = "missingValuesCount";
     /**If the aggregator should be skipped.*/
     private boolean m_skipped;
     private String m_skipMsg = "";
@@ -449,6 +455,131 @@ public final void reset() {
      */
     protected abstract void resetInternal();
 
+    /**
+     * Override this method and return <code>true</code> if the operator implements
+     * {@link #mergeInternal(AggregationOperator)}, {@link #saveStateInternal(NodeSettingsWO)} and
+     * {@link #loadStateInternal(NodeSettingsRO)}. Mergeable operators can aggregate disjoint partitions of a group
+     * independently e.g. in different threads and combine the partial results afterwards.
+     * Implementations should return <code>false</code> for subclasses that change the computation since the merge
+     * contract is not inherited automatically.
+     *
+     * @return <code>true</code> if the intermediate state of this operator can be merged with the state of another
+     * instance of the same class
+     * @see #merge(AggregationOperator)
+     * @since 3.6
+     */
+    public boolean isMergeable() {
+        return false;
+    }
+
+    /**
+     * Merges the intermediate state of the given operator into this operator. Afterwards this operator returns the
+     * same result as if it had seen all values of both operators, first its own values and then the values of the
+     * given operator. The given operator is not altered.
+     *
+     * @param other the operator to merge into this operator. Must be an instance of the same class.
+     * @throws UnsupportedOperationException if this operator is not {@link #isMergeable() mergeable}
+     * @throws IllegalArgumentException if the given operator is not an instance of the same class
+     * @since 3.6
+     */
+    public final void merge(final AggregationOperator other) {
+        if (other == null) {
+            throw new NullPointerException("operator must not be null");
+        }
+        checkMergeable(other);
+        m_missingValuesCount += other.m_missingValuesCount;
+        if (m_skipped) {
+            return;
+        }
+        if (other.m_skipped) {
+            m_skipped = true;
+            m_skipMsg = other.m_skipMsg;
+            return;
+        }
+        m_skipped = mergeInternal(other);
+    }
+
+    private void checkMergeable(final AggregationOperator other) {
+        if (!isMergeable()) {
+            throw new UnsupportedOperationException("Operator '" + getLabel() + "' does not support merging");
+        }
+        if (other != null && getClass() != other.getClass()) {
+            throw new IllegalArgumentException("Operator '" + getLabel() + "' can not be merged with operator '"
+                + other.getLabel() + "'");
+        }
+    }
+
+    /**
+     * Override this method if the operator is {@link #isMergeable() mergeable}. The given operator is always an
+     * instance of the same class as this operator and neither operator is skipped.
+     *
+     * @param other the operator whose state should be merged into this operator
+     * @return <code>true</code> if this column should be skipped in further calculations
+     * @see #merge(AggregationOperator)
+     * @since 3.6
+     */
+    protected boolean mergeInternal(final AggregationOperator other) {
+        throw new UnsupportedOperationException("Operator '" + getLabel() + "' does not support merging");
+    }
+
+    /**
+     * Saves the intermediate state of this operator e.g. to transfer a partial aggregation to another process.
+     *
+     * @param settings the settings object to write the state to
+     * @throws UnsupportedOperationException if this operator is not {@link #isMergeable() mergeable}
+     * @see #loadState(NodeSettingsRO)
+     * @since 3.6
+     */
+    public final void saveState(final NodeSettingsWO settings) {
+        checkMergeable(null);
+        settings.addBoolean(CFG_STATE_SKIPPED, m_skipped);
+        settings.addString(CFG_STATE_SKIP_MSG, m_skipMsg);
+        settings.addLong(CFG_STATE_MISSING_COUNT, m_missingValuesCount);
+        saveStateInternal(settings);
+    }
+
+    /**
+     * Replaces the current state of this operator with the intermediate state that was written by
+     * {@link #saveState(NodeSettingsWO)} of an instance of the same class.
+     *
+     * @param settings the settings object to read the state from
+     * @throws InvalidSettingsException if the state can not be read
+     * @throws UnsupportedOperationException if this operator is not {@link #isMergeable() mergeable}
+     * @since 3.6
+     */
+    public final void loadState(final NodeSettingsRO settings) throws InvalidSettingsException {
+        checkMergeable(null);
+        reset();
+        m_skipped = settings.getBoolean(CFG_STATE_SKIPPED);
+        m_skipMsg = settings.getString(CFG_STATE_SKIP_MSG);
+        m_missingValuesCount = settings.getLong(CFG_STATE_MISSING_COUNT);
+        loadStateInternal(settings);
+    }
+
+    /**
+     * Override this method if the operator is {@link #isMergeable() mergeable}.
+     *
+     * @param settings the settings object to write the operator specific state to
+     * @see #saveState(NodeSettingsWO)
+     * @since 3.6
+     */
+    protected void saveStateInternal(final NodeSettingsWO settings) {
+        throw new UnsupportedOperationException("Operator '" + getLabel() + "' does not support merging");
+    }
+
+    /**
+     * Override this method if the operator is {@link #isMergeable() mergeable}. The operator has been reset prior
+     * calling this method.
+     *
+     * @param settings the settings object to read the operator specific state from
+     * @throws InvalidSettingsException if the state can not be read
+     * @see #loadState(NodeSettingsRO)
+     * @since 3.6
+     */
+    protected void loadStateInternal(final NodeSettingsRO settings) throws InvalidSettingsException {
+        throw new UnsupportedOperationException("Operator '" + getLabel() + "' does not support merging");
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -53,6 +53,9 @@
 import org.knime.core.data.DataType;
 import org.knime.core.data.DataValue;
 import org.knime.core.data.def.StringCell;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
 
 /**
  * Returns the all values concatenated per group.
@@ -61,6 +64,10 @@
  */
 public class ConcatenateOperator extends AggregationOperator {
 
+    private static final String CFG_EMPTY = "empty";
+
+    private static final String CFG_VALUES = "values";
+
     private final DataType m_type = StringCell.TYPE;
 
     private final StringBuilder m_buf = new StringBuilder();
@@ -143,6 +150,54 @@ protected void resetInternal() {
         m_first = true;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public boolean isMergeable() {
+        return getClass() == ConcatenateOperator.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected boolean mergeInternal(final AggregationOperator other) {
+        final ConcatenateOperator op = (ConcatenateOperator)other;
+        if (op.m_first) {
+            return false;
+        }
+        if (m_first) {
+            m_first = false;
+        } else {
+            m_buf.append(getValueDelimiter());
+        }
+        m_buf.append(op.m_buf);
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void saveStateInternal(final NodeSettingsWO settings) {
+        settings.addBoolean(CFG_EMPTY, m_first);
+        settings.addString(CFG_VALUES, m_buf.toString());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void loadStateInternal(final NodeSettingsRO settings) throws InvalidSettingsException {
+        m_first = settings.getBoolean(CFG_EMPTY);
+        m_buf.append(settings.getString(CFG_VALUES));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -52,6 +52,9 @@
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataType;
 import org.knime.core.data.DataValue;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
 
 /**
  * Returns the first element per group.
@@ -60,6 +63,8 @@
  */
 public class FirstOperator extends AggregationOperator {
 
+    private static final String CFG_FIRST = "firstCell";
+
     private DataCell m_firstCell = null;
 
     /**Constructor for class FirstOperator.
@@ -131,6 +136,45 @@ protected void resetInternal() {
         m_firstCell = null;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public boolean isMergeable() {
+        return getClass() == FirstOperator.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected boolean mergeInternal(final AggregationOperator other) {
+        if (m_firstCell == null) {
+            m_firstCell = ((FirstOperator)other).m_firstCell;
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void saveStateInternal(final NodeSettingsWO settings) {
+        settings.addDataCell(CFG_FIRST, m_firstCell);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void loadStateInternal(final NodeSettingsRO settings) throws InvalidSettingsException {
+        m_firstCell = settings.getDataCell(CFG_FIRST);
+    }
+
     /**
      * {@inheritDoc}
      */
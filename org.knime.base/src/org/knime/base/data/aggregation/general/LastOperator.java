@@ -54,6 +54,10 @@
 import org.knime.base.data.aggregation.OperatorColumnSettings;
 import org.knime.base.data.aggregation.OperatorData;
 
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+
 /**
  * Returns the last element per group.
  *
@@ -61,6 +65,8 @@
  */
 public class LastOperator extends AggregationOperator {
 
+    private static final String CFG_LAST = "lastCell";
+
     private DataCell m_lastCell = null;
 
     /**Constructor for class FirstOperator.
@@ -130,6 +136,46 @@ protected void resetInternal() {
         m_lastCell = null;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public boolean isMergeable() {
+        return getClass() == LastOperator.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected boolean mergeInternal(final AggregationOperator other) {
+        final DataCell otherCell = ((LastOperator)other).m_lastCell;
+        if (otherCell != null) {
+            m_lastCell = otherCell;
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void saveStateInternal(final NodeSettingsWO settings) {
+        settings.addDataCell(CFG_LAST, m_lastCell);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void loadStateInternal(final NodeSettingsRO settings) throws InvalidSettingsException {
+        m_lastCell = settings.getDataCell(CFG_LAST);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -54,6 +54,9 @@
 import org.knime.core.data.DataValue;
 import org.knime.core.data.DataValueComparator;
 import org.knime.core.data.def.DoubleCell;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
 
 /**
  * Returns the maximum per group.
@@ -62,6 +65,8 @@
  */
 public class MaxOperator extends AggregationOperator {
 
+    private static final String CFG_MAX = "max";
+
     private DataCell m_maxVal = null;
 
     private final DataValueComparator m_comparator;
@@ -147,6 +152,46 @@ protected void resetInternal() {
         m_maxVal = null;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public boolean isMergeable() {
+        return getClass() == MaxOperator.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected boolean mergeInternal(final AggregationOperator other) {
+        final DataCell otherVal = ((MaxOperator)other).m_maxVal;
+        if (otherVal != null && (m_maxVal == null || m_comparator.compare(otherVal, m_maxVal) > 0)) {
+            m_maxVal = otherVal;
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void saveStateInternal(final NodeSettingsWO settings) {
+        settings.addDataCell(CFG_MAX, m_maxVal);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void loadStateInternal(final NodeSettingsRO settings) throws InvalidSettingsException {
+        m_maxVal = settings.getDataCell(CFG_MAX);
+    }
+
     /**
      * {@inheritDoc}
      */
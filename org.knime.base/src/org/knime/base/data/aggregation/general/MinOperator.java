@@ -54,6 +54,9 @@
 import org.knime.core.data.DataValue;
 import org.knime.core.data.DataValueComparator;
 import org.knime.core.data.def.DoubleCell;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
 
 /**
  * Returns the minimum per group.
@@ -62,6 +65,8 @@
  */
 public class MinOperator extends AggregationOperator {
 
+    private static final String CFG_MIN = "min";
+
     private DataCell m_minVal = null;
     private final DataValueComparator m_comparator;
 
@@ -146,6 +151,46 @@ protected void resetInternal() {
         m_minVal = null;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public boolean isMergeable() {
+        return getClass() == MinOperator.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected boolean mergeInternal(final AggregationOperator other) {
+        final DataCell otherVal = ((MinOperator)other).m_minVal;
+        if (otherVal != null && (m_minVal == null || m_comparator.compare(otherVal, m_minVal) < 0)) {
+            m_minVal = otherVal;
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void saveStateInternal(final NodeSettingsWO settings) {
+        settings.addDataCell(CFG_MIN, m_minVal);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void loadStateInternal(final NodeSettingsRO settings) throws InvalidSettingsException {
+        m_minVal = settings.getDataCell(CFG_MIN);
+    }
+
     /**
      * {@inheritDoc}
      */
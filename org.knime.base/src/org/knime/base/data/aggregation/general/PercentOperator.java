@@ -122,6 +122,16 @@ protected DataCell getResultInternal() {
         return new DoubleCell(percentage);
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public boolean isMergeable() {
+        //only the result differs from the count operator
+        return getClass() == PercentOperator.class;
+    }
+
     /**
      * {@inheritDoc}
      */
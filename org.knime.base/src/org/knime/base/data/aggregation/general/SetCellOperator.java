@@ -57,6 +57,9 @@
 import org.knime.core.data.DataValue;
 import org.knime.core.data.collection.CollectionCellFactory;
 import org.knime.core.data.collection.SetCell;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
 
 /**
  * Returns all values as a {@link SetCell} per group.
@@ -65,6 +68,8 @@
  */
 public class SetCellOperator extends AggregationOperator {
 
+    private static final String CFG_CELLS = "cells";
+
     private final Set<DataCell> m_cells;
 
     /**Constructor for class SetCellOperator.
@@ -151,6 +156,54 @@ protected void resetInternal() {
         m_cells.clear();
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public boolean isMergeable() {
+        return getClass() == SetCellOperator.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected boolean mergeInternal(final AggregationOperator other) {
+        for (final DataCell cell : ((SetCellOperator)other).m_cells) {
+            if (m_cells.contains(cell)) {
+                continue;
+            }
+            if (m_cells.size() >= getMaxUniqueValues()) {
+                setSkipMessage("Group contains too many unique values");
+                return true;
+            }
+            m_cells.add(cell);
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void saveStateInternal(final NodeSettingsWO settings) {
+        settings.addDataCellArray(CFG_CELLS, m_cells.toArray(new DataCell[m_cells.size()]));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void loadStateInternal(final NodeSettingsRO settings) throws InvalidSettingsException {
+        for (final DataCell cell : settings.getDataCellArray(CFG_CELLS)) {
+            m_cells.add(cell);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
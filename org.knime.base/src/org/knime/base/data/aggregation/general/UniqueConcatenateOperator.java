@@ -118,6 +118,16 @@ protected DataCell getResultInternal() {
         return new StringCell(buf.toString());
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public boolean isMergeable() {
+        //only the result differs from the set operator
+        return getClass() == UniqueConcatenateOperator.class;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -110,6 +110,16 @@ protected DataCell getResultInternal() {
         return new IntCell(getGroupMembers().size());
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public boolean isMergeable() {
+        //only the result differs from the set operator
+        return getClass() == UniqueCountOperator.class;
+    }
+
     /**
      * {@inheritDoc}
      */
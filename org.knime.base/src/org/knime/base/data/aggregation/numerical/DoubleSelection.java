@@ -0,0 +1,166 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.data.aggregation.numerical;
+
+import java.util.Arrays;
+
+/**
+ * Selects the k-th smallest value of a primitive double array in linear time using introselect, i.e. quickselect
+ * with median of three pivots and three way partitioning that falls back to sorting if the partitions shrink too
+ * slowly. Values are ordered as by {@link Double#compare(double, double)}, which is also the order of the
+ * {@link org.knime.core.data.DoubleValueComparator}, thus <code>-0.0</code> is smaller than <code>0.0</code> and
+ * <code>NaN</code> is greater than all other values.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class DoubleSelection {
+
+    /** Ranges of at most this size are sorted by insertion sort. */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private DoubleSelection() {
+        //utility class
+    }
+
+    /**
+     * Reorders the first <b>size</b> values of the array such that the value at index <b>k</b> is the one that would
+     * be there if the values were sorted, all values before it are smaller or equal and all values after it are
+     * greater or equal.
+     *
+     * @param values the values to select from, the first <b>size</b> values are reordered
+     * @param size the number of values to consider
+     * @param k the index of the value to select
+     * @return the k-th smallest value (zero based)
+     */
+    static double select(final double[] values, final int size, final int k) {
+        if (k < 0 || k >= size || size > values.length) {
+            throw new IndexOutOfBoundsException("Index " + k + " out of range [0, " + size + ")");
+        }
+        int from = 0;
+        int to = size - 1;
+        //quickselect with good pivots needs about log2(size) iterations
+        int depthLimit = 2 * (Integer.SIZE - Integer.numberOfLeadingZeros(size));
+        while (to - from >= INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                Arrays.sort(values, from, to + 1);
+                return values[k];
+            }
+            final double pivot = medianOf3(values[from], values[(from + to) >>> 1], values[to]);
+            //values[from, lt) < pivot, values[lt, i) == pivot, values(gt, to] > pivot
+            int lt = from;
+            int i = from;
+            int gt = to;
+            while (i <= gt) {
+                final int comp = Double.compare(values[i], pivot);
+                if (comp < 0) {
+                    swap(values, lt++, i++);
+                } else if (comp > 0) {
+                    swap(values, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (k < lt) {
+                to = lt - 1;
+            } else if (k > gt) {
+                from = gt + 1;
+            } else {
+                return values[k];
+            }
+        }
+        insertionSort(values, from, to);
+        return values[k];
+    }
+
+    /**
+     * @param values the values
+     * @param from the first index (inclusive)
+     * @param to the last index (exclusive)
+     * @return the smallest value in the given range
+     */
+    static double min(final double[] values, final int from, final int to) {
+        if (from >= to) {
+            throw new IndexOutOfBoundsException("Empty range [" + from + ", " + to + ")");
+        }
+        double min = values[from];
+        for (int i = from + 1; i < to; i++) {
+            if (Double.compare(values[i], min) < 0) {
+                min = values[i];
+            }
+        }
+        return min;
+    }
+
+    private static double medianOf3(final double a, final double b, final double c) {
+        if (Double.compare(a, b) <= 0) {
+            if (Double.compare(b, c) <= 0) {
+                return b;
+            }
+            return Double.compare(a, c) <= 0 ? c : a;
+        }
+        if (Double.compare(a, c) <= 0) {
+            return a;
+        }
+        return Double.compare(b, c) <= 0 ? c : b;
+    }
+
+    private static void insertionSort(final double[] values, final int from, final int to) {
+        for (int i = from + 1; i <= to; i++) {
+            final double value = values[i];
+            int j = i - 1;
+            while (j >= from && Double.compare(values[j], value) > 0) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    private static void swap(final double[] values, final int i, final int j) {
+        final double tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+}
@@ -53,6 +53,9 @@
 import org.knime.core.data.DataType;
 import org.knime.core.data.DoubleValue;
 import org.knime.core.data.def.DoubleCell;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
 
 /**
  * Returns the mean per group.
@@ -61,6 +64,10 @@
  */
 public class MeanOperator extends AggregationOperator {
 
+    private static final String CFG_COUNT = "count";
+
+    private static final String CFG_MEAN = "mean";
+
     private final DataType m_type = DoubleCell.TYPE;
     private int m_count = 0;
     private double m_mean = 0;
@@ -136,6 +143,51 @@ protected void resetInternal() {
         m_count = 0;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public boolean isMergeable() {
+        return getClass() == MeanOperator.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected boolean mergeInternal(final AggregationOperator other) {
+        final MeanOperator op = (MeanOperator)other;
+        if (op.m_count == 0) {
+            return false;
+        }
+        final int count = m_count + op.m_count;
+        m_mean = m_mean * ((double)m_count / count) + op.m_mean * ((double)op.m_count / count);
+        m_count = count;
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void saveStateInternal(final NodeSettingsWO settings) {
+        settings.addInt(CFG_COUNT, m_count);
+        settings.addDouble(CFG_MEAN, m_mean);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void loadStateInternal(final NodeSettingsRO settings) throws InvalidSettingsException {
+        m_count = settings.getInt(CFG_COUNT);
+        m_mean = settings.getDouble(CFG_MEAN);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -45,6 +45,7 @@
 
 package org.knime.base.data.aggregation.numerical;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.knime.base.data.aggregation.AggregationOperator;
@@ -60,7 +61,8 @@
 
 
 /**
- * Computes the median of a list of numbers.
+ * Computes the median of a list of numbers. As long as a group only contains {@link DoubleCell}s their values are
+ * kept in a primitive array and the median is selected in linear time, otherwise the cells are collected and sorted.
  * @author Tobias Koetter, University of Konstanz
  * @author Marcel Wiedenmann, KNIME.com, Konstanz, Germany
  * @since 3.4
@@ -69,6 +71,16 @@ public class MedianOperator extends AbstractMedianOperator {
 
     private static final DataType TYPE = DoubleCell.TYPE;
 
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The values of the group if it only contains {@link DoubleCell}s, only the first m_nrValues are valid. */
+    private double[] m_values;
+
+    private int m_nrValues = 0;
+
+    /** <code>true</code> if the group contains other cells than {@link DoubleCell}s. */
+    private boolean m_cellBased = false;
+
     private static EvenListMedianMethod createCustomMeanMedianMethod() {
         return new EvenListMedianMethod() {
 
@@ -126,6 +138,76 @@ public AggregationOperator createInstance(
         return operator;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean computeInternal(final DataCell cell) {
+        if (!m_cellBased) {
+            if (cell.getClass() == DoubleCell.class) {
+                return addValue(((DoubleCell)cell).getDoubleValue());
+            }
+            //fall back to the cell based computation which supports all kind of cells
+            m_cellBased = true;
+            for (int i = 0; i < m_nrValues; i++) {
+                super.computeInternal(new DoubleCell(m_values[i]));
+            }
+            m_nrValues = 0;
+        }
+        return super.computeInternal(cell);
+    }
+
+    private boolean addValue(final double value) {
+        if (m_nrValues >= getMaxUniqueValues()) {
+            setSkipMessage("Group contains too many values");
+            return true;
+        }
+        if (m_values == null || m_nrValues == m_values.length) {
+            //ensure that the array size never exceeds the maximum number of unique values
+            final int capacity = m_values == null ? INITIAL_CAPACITY : 2 * m_values.length;
+            try {
+                m_values = m_values == null ? new double[Math.min(capacity, getMaxUniqueValues())]
+                    : Arrays.copyOf(m_values, (int)Math.min(capacity, getMaxUniqueValues()));
+            } catch (final OutOfMemoryError e) {
+                setSkipMessage("Group requires too much storage");
+                return true;
+            }
+        }
+        m_values[m_nrValues++] = value;
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected DataCell getResultInternal() {
+        if (m_cellBased) {
+            return super.getResultInternal();
+        }
+        if (m_nrValues == 0) {
+            return DataType.getMissingCell();
+        }
+        final int middle = m_nrValues / 2;
+        if (m_nrValues % 2 == 1) {
+            return new DoubleCell(DoubleSelection.select(m_values, m_nrValues, middle));
+        }
+        //all values after the lower middle value are greater or equal after the selection
+        final double lower = DoubleSelection.select(m_values, m_nrValues, middle - 1);
+        final double upper = DoubleSelection.min(m_values, middle, m_nrValues);
+        return getResultInternal(Arrays.<DataCell> asList(new DoubleCell(lower), new DoubleCell(upper)), 0, 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void resetInternal() {
+        super.resetInternal();
+        m_nrValues = 0;
+        m_cellBased = false;
+    }
+
     /**
      * {@inheritDoc}
      */
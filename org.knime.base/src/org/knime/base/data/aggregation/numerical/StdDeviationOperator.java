@@ -106,6 +106,16 @@ protected DataCell getResultInternal() {
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public boolean isMergeable() {
+        //only the result differs from the variance operator
+        return getClass() == StdDeviationOperator.class;
+    }
+
     /**
      * {@inheritDoc}
      */
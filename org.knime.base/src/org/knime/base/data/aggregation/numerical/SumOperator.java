@@ -58,6 +58,9 @@
 import org.knime.core.data.def.DoubleCell;
 import org.knime.core.data.def.IntCell;
 import org.knime.core.data.def.LongCell;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
 
 /**
  * Returns the sum per group.
@@ -66,6 +69,10 @@
  */
 public class SumOperator extends AggregationOperator {
 
+    private static final String CFG_VALID = "valid";
+
+    private static final String CFG_SUM = "sum";
+
     private final DataType m_type;
     private boolean m_valid = false;
     private double m_sum = 0;
@@ -176,6 +183,49 @@ protected void resetInternal() {
         m_sum = 0;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public boolean isMergeable() {
+        return getClass() == SumOperator.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected boolean mergeInternal(final AggregationOperator other) {
+        final SumOperator op = (SumOperator)other;
+        if (op.m_valid) {
+            m_valid = true;
+            m_sum += op.m_sum;
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void saveStateInternal(final NodeSettingsWO settings) {
+        settings.addBoolean(CFG_VALID, m_valid);
+        settings.addDouble(CFG_SUM, m_sum);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void loadStateInternal(final NodeSettingsRO settings) throws InvalidSettingsException {
+        m_valid = settings.getBoolean(CFG_VALID);
+        m_sum = settings.getDouble(CFG_SUM);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -53,6 +53,9 @@
 import org.knime.core.data.DataType;
 import org.knime.core.data.DoubleValue;
 import org.knime.core.data.def.DoubleCell;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
 
 /**
  * Returns the variance per group.
@@ -61,6 +64,12 @@
  */
 public class VarianceOperator extends AggregationOperator {
 
+    private static final String CFG_SUM_SQUARE = "sumSquare";
+
+    private static final String CFG_SUM = "sum";
+
+    private static final String CFG_VALID_COUNT = "validCount";
+
     private final DataType m_type = DoubleCell.TYPE;
 
     private double m_sumSquare = 0;
@@ -151,6 +160,50 @@ protected void resetInternal() {
         m_validCount = 0;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public boolean isMergeable() {
+        return getClass() == VarianceOperator.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected boolean mergeInternal(final AggregationOperator other) {
+        final VarianceOperator op = (VarianceOperator)other;
+        m_validCount += op.m_validCount;
+        m_sum += op.m_sum;
+        m_sumSquare += op.m_sumSquare;
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void saveStateInternal(final NodeSettingsWO settings) {
+        settings.addDouble(CFG_SUM_SQUARE, m_sumSquare);
+        settings.addDouble(CFG_SUM, m_sum);
+        settings.addInt(CFG_VALID_COUNT, m_validCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    protected void loadStateInternal(final NodeSettingsRO settings) throws InvalidSettingsException {
+        m_sumSquare = settings.getDouble(CFG_SUM_SQUARE);
+        m_sum = settings.getDouble(CFG_SUM);
+        m_validCount = settings.getInt(CFG_VALID_COUNT);
+    }
+
     /**
      * {@inheritDoc}
      */
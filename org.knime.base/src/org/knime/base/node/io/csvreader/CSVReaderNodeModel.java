@@ -56,6 +56,8 @@
 import org.knime.base.node.io.filereader.FileReaderNodeSettings;
 import org.knime.base.node.io.filereader.FileTable;
 import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.node.BufferedDataContainer;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
@@ -127,8 +129,15 @@ protected BufferedDataTable[] execute(final BufferedDataTable[] inData,
 
         FileTable fTable = createFileTable(exec);
         try {
-            BufferedDataTable table = exec.createBufferedDataTable(fTable, exec.createSubExecutionContext(0.0));
-            return new BufferedDataTable[] {table};
+            // parses the file concurrently if possible, progress is reported by the iterator
+            CloseableRowIterator it = fTable.concurrentIterator();
+            BufferedDataContainer cont = exec.createDataContainer(fTable.getDataTableSpec());
+            while (it.hasNext()) {
+                exec.checkCanceled();
+                cont.addRowToTable(it.next());
+            }
+            cont.close();
+            return new BufferedDataTable[] {cont.getTable()};
         } finally {
             // fix AP-6127
             fTable.dispose();
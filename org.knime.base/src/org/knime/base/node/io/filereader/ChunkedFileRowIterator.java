@@ -0,0 +1,564 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.io.filereader;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.knime.base.node.util.BufferedFileReader;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.FileUtil;
+import org.knime.core.util.ThreadPool;
+import org.knime.core.util.tokenizer.Comment;
+import org.knime.core.util.tokenizer.Delimiter;
+import org.knime.core.util.tokenizer.Quote;
+
+/**
+ * Row iterator for the {@link FileTable} that splits an uncompressed local
+ * file into chunks of complete lines and parses these chunks concurrently.
+ * Each chunk is parsed by its own {@link FileRowIterator}; this iterator
+ * returns the rows in file order and assigns the same row IDs the sequential
+ * iterator would assign.
+ * <p>
+ * Chunks can only be cut at line feeds if a line feed always ends a record,
+ * see {@link #isApplicable(FileReaderSettings)}. If parsing a chunk fails the
+ * remainder of the file is read with a sequential {@link FileRowIterator}, so
+ * errors are reported with the correct line number.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ChunkedFileRowIterator extends CloseableRowIterator {
+
+    private static final NodeLogger LOGGER =
+            NodeLogger.getLogger(ChunkedFileRowIterator.class);
+
+    /** The (approximate) number of bytes parsed by one task. */
+    static final int CHUNK_SIZE = 1 << 22;
+
+    /** The number of threads used to parse the chunks. */
+    private static final int PARALLELISM = Math.max(1, Math.min(
+            Runtime.getRuntime().availableProcessors(),
+            KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads()));
+
+    private static final byte LF = '\n';
+
+    private final FileReaderSettings m_frSettings;
+
+    private final DataTableSpec m_tableSpec;
+
+    private final boolean[] m_skipColumns;
+
+    private final ExecutionContext m_exec;
+
+    private final File m_file;
+
+    private final Charset m_charset;
+
+    private final long m_fileSize;
+
+    /* position of the first byte after the lines to skip */
+    private final long m_dataStart;
+
+    private final int m_numChunks;
+
+    /* the row ID prefix, null if the row IDs are read from the file */
+    private final String m_rowHeaderPrefix;
+
+    private final Map<String, Number> m_rowIDhash;
+
+    private final ThreadPool m_threadPool;
+
+    /* chunks submitted but not yet consumed, in file order */
+    private final ArrayDeque<Future<Chunk>> m_pending;
+
+    private int m_nextChunkToSubmit;
+
+    private Chunk m_currentChunk;
+
+    private int m_currentIndex;
+
+    /* the number of rows returned so far */
+    private long m_rowCount;
+
+    /* sequential iterator used after a chunk failed, null before */
+    private FileRowIterator m_fallback;
+
+    private volatile boolean m_closed;
+
+    /**
+     * Creates a new iterator. The caller must have verified the settings with
+     * {@link #isApplicable(FileReaderSettings)}.
+     *
+     * @param frSettings object containing the hows to read the data
+     * @param tableSpec the spec defining the structure of the rows to create
+     * @param skipColumns array with the element set to true if the
+     *            corresponding column should be skipped
+     * @param exec the execution context to report the progress to, can be
+     *            null
+     * @throws IOException if the data file can't be read
+     */
+    ChunkedFileRowIterator(final FileReaderSettings frSettings,
+            final DataTableSpec tableSpec, final boolean[] skipColumns,
+            final ExecutionContext exec) throws IOException {
+        m_frSettings = frSettings;
+        m_tableSpec = tableSpec;
+        m_skipColumns = skipColumns;
+        m_exec = exec;
+        m_file = getLocalFile(frSettings);
+        if (m_file == null) {
+            throw new IOException("Not a local file: "
+                    + frSettings.getDataFileLocation());
+        }
+        m_charset = getCharset(frSettings);
+        m_fileSize = m_file.length();
+        m_dataStart = findDataStart(frSettings.getSkipFirstLines());
+        m_numChunks = (int)Math.max(1,
+                (m_fileSize - m_dataStart + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        if (frSettings.getFileHasRowHeaders()) {
+            m_rowHeaderPrefix = null;
+        } else if (frSettings.getRowHeaderPrefix() != null) {
+            m_rowHeaderPrefix = frSettings.getRowHeaderPrefix();
+        } else {
+            m_rowHeaderPrefix = FileReaderSettings.DEF_ROWPREFIX;
+        }
+        m_rowIDhash = new HashMap<String, Number>();
+        m_threadPool =
+                KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(PARALLELISM);
+        m_pending = new ArrayDeque<Future<Chunk>>();
+        m_nextChunkToSubmit = 0;
+        submitChunks();
+    }
+
+    /**
+     * Checks whether a file described by the settings can be split at line
+     * feeds. This requires an uncompressed local file of at least two chunks,
+     * a charset that encodes the line feed as single byte that doesn't occur
+     * in other characters, a line feed as only row delimiter and no way for a
+     * record or comment to span multiple lines (quotes with line feeds,
+     * escape characters, line continuation, block comments). Also, there must
+     * be no limit on the number of rows to read.
+     *
+     * @param frSettings the settings to check
+     * @return true if the file can be read with this iterator
+     */
+    static boolean isApplicable(final FileReaderSettings frSettings) {
+        if (PARALLELISM < 2
+                || frSettings.getMaximumNumberOfRowsToRead() >= 0
+                || frSettings.getLineContinuationCharacter() != null
+                || frSettings.allowLFinQuotes()
+                || frSettings.getAllWhiteSpaces().contains("\n")) {
+            return false;
+        }
+        boolean hasLFRowDelimiter = false;
+        for (Delimiter d : frSettings.getAllDelimiters()) {
+            String pattern = d.getDelimiter();
+            boolean isRowDelim = frSettings.isRowDelimiter(pattern, false);
+            if (isRowDelim && !pattern.equals("\n")) {
+                return false;
+            }
+            if (pattern.indexOf('\n') >= 0) {
+                if (!isRowDelim) {
+                    return false;
+                }
+                // combined empty lines are only equivalent to skipped ones
+                if ((d.combineConsecutiveDelims()
+                        || frSettings.getCombineMultipleDelimiters())
+                        && !frSettings.getIgnoreEmtpyLines()) {
+                    return false;
+                }
+                hasLFRowDelimiter = true;
+            }
+        }
+        if (!hasLFRowDelimiter) {
+            return false;
+        }
+        for (Quote q : frSettings.getAllQuotes()) {
+            if (q.hasEscapeChar() || q.getLeft().indexOf('\n') >= 0
+                    || q.getRight().indexOf('\n') >= 0) {
+                return false;
+            }
+        }
+        for (Comment c : frSettings.getAllComments()) {
+            if (!"\n".equals(c.getEnd())) {
+                return false;
+            }
+        }
+        Charset cs;
+        try {
+            cs = getCharset(frSettings);
+        } catch (IllegalArgumentException iae) {
+            return false;
+        }
+        if (!cs.equals(StandardCharsets.UTF_8)
+                && !cs.equals(StandardCharsets.US_ASCII)
+                && !cs.equals(StandardCharsets.ISO_8859_1)) {
+            // other single byte charsets might work, but UTF-16 and friends
+            // don't - be conservative
+            return false;
+        }
+        File file = getLocalFile(frSettings);
+        if (file == null || !file.isFile()
+                || file.length() < 2L * CHUNK_SIZE) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            byte[] magic = new byte[4];
+            int read = 0;
+            while (read < magic.length) {
+                int r = in.read(magic, read, magic.length - read);
+                if (r < 0) {
+                    break;
+                }
+                read += r;
+            }
+            boolean gzip = read >= 2 && magic[0] == (byte)0x1f
+                    && magic[1] == (byte)0x8b;
+            boolean zip = read >= 4 && magic[0] == 'P' && magic[1] == 'K'
+                    && magic[2] == 3 && magic[3] == 4;
+            return !gzip && !zip;
+        } catch (IOException ioe) {
+            return false;
+        }
+    }
+
+    private static File getLocalFile(final FileReaderSettings frSettings) {
+        if (frSettings.getDataFileLocation() == null) {
+            return null;
+        }
+        try {
+            File file = FileUtil.getFileFromURL(frSettings.getDataFileLocation());
+            return (file != null && file.isFile()) ? file : null;
+        } catch (Exception e) {
+            // not a local file (or not resolvable)
+            return null;
+        }
+    }
+
+    private static Charset getCharset(final FileReaderSettings frSettings) {
+        String name = frSettings.getCharsetName();
+        return name == null ? Charset.defaultCharset() : Charset.forName(name);
+    }
+
+    /* returns the position after the specified number of line feeds */
+    private long findDataStart(final long linesToSkip) throws IOException {
+        if (linesToSkip <= 0) {
+            return 0;
+        }
+        long skipped = 0;
+        try (FileChannel channel =
+                FileChannel.open(m_file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+            long pos = 0;
+            while (true) {
+                buf.clear();
+                int read = channel.read(buf, pos);
+                if (read < 0) {
+                    return m_fileSize;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buf.get(i) == LF && ++skipped == linesToSkip) {
+                        return pos + i + 1;
+                    }
+                }
+                pos += read;
+            }
+        }
+    }
+
+    /* returns the start of the first line starting at or after pos */
+    private long findLineStart(final FileChannel channel, final long pos)
+            throws IOException {
+        if (pos <= m_dataStart) {
+            return m_dataStart;
+        }
+        if (pos >= m_fileSize) {
+            return m_fileSize;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(1 << 13);
+        // the line starts at pos if the previous byte is a line feed
+        long offset = pos - 1;
+        while (true) {
+            buf.clear();
+            int read = channel.read(buf, offset);
+            if (read < 0) {
+                return m_fileSize;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buf.get(i) == LF) {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    private void submitChunks() {
+        while (!m_closed && m_nextChunkToSubmit < m_numChunks
+                && m_pending.size() < 2 * PARALLELISM) {
+            final int chunkIndex = m_nextChunkToSubmit++;
+            m_pending.add(m_threadPool.enqueue(() -> readChunk(chunkIndex)));
+        }
+    }
+
+    /* parses the lines of the specified chunk, called concurrently */
+    private Chunk readChunk(final int chunkIndex) throws IOException {
+        long start;
+        long end;
+        byte[] bytes;
+        try (FileChannel channel =
+                FileChannel.open(m_file.toPath(), StandardOpenOption.READ)) {
+            start = findLineStart(channel,
+                    m_dataStart + (long)chunkIndex * CHUNK_SIZE);
+            end = chunkIndex == m_numChunks - 1 ? m_fileSize
+                    : findLineStart(channel,
+                            m_dataStart + (chunkIndex + 1L) * CHUNK_SIZE);
+            if (end - start > Integer.MAX_VALUE - 8) {
+                return new Chunk(new ArrayList<DataRow>(), new BitSet(), end,
+                        new IllegalStateException("Line too long"));
+            }
+            bytes = new byte[(int)(end - start)];
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, start + buf.position()) < 0) {
+                    throw new IOException("Unexpected end of file '"
+                            + m_file.getAbsolutePath() + "'");
+                }
+            }
+        }
+
+        FileReaderSettings chunkSettings = new FileReaderSettings(m_frSettings);
+        chunkSettings.setSkipFirstLines(0);
+        chunkSettings.setUniquifyRowIDs(false);
+        chunkSettings.setFileHasColumnHeaders(chunkIndex == 0
+                && m_frSettings.getFileHasColumnHeaders());
+
+        List<DataRow> rows = new ArrayList<DataRow>();
+        BitSet missingHeaders = new BitSet();
+        FileRowIterator it = null;
+        try {
+            it = new FileRowIterator(chunkSettings, m_tableSpec, m_skipColumns,
+                    null, BufferedFileReader.createNewReader(
+                            new ByteArrayInputStream(bytes), m_charset));
+            while (!m_closed && it.hasNext()) {
+                DataRow row = it.next();
+                if (it.lastRowHeaderWasMissing()) {
+                    missingHeaders.set(rows.size());
+                }
+                rows.add(row);
+            }
+        } catch (RuntimeException e) {
+            return new Chunk(rows, missingHeaders, end, e);
+        } finally {
+            if (it != null) {
+                it.dispose();
+            }
+        }
+        return new Chunk(rows, missingHeaders, end, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        if (m_fallback != null) {
+            return m_fallback.hasNext();
+        }
+        while (m_currentChunk == null
+                || m_currentIndex >= m_currentChunk.m_rows.size()) {
+            if (m_currentChunk != null && m_currentChunk.m_error != null) {
+                startFallback(m_currentChunk.m_error);
+                return m_fallback.hasNext();
+            }
+            if (m_closed || m_pending.isEmpty()) {
+                return false;
+            }
+            m_currentChunk = waitFor(m_pending.poll());
+            m_currentIndex = 0;
+            submitChunks();
+            if (m_exec != null) {
+                m_exec.setProgress(
+                        (double)m_currentChunk.m_end / Math.max(1, m_fileSize));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException(
+                    "The row iterator proceeded beyond the last line of '"
+                            + m_frSettings.getDataFileLocation().toString()
+                            + "'.");
+        }
+        if (m_fallback != null) {
+            return m_fallback.next();
+        }
+        DataRow row = m_currentChunk.m_rows.set(m_currentIndex, null);
+        String rowHeader;
+        if (m_rowHeaderPrefix != null) {
+            rowHeader = m_rowHeaderPrefix + m_rowCount;
+        } else {
+            if (m_currentChunk.m_missingHeaders.get(m_currentIndex)) {
+                rowHeader = DataType.getMissingCell().toString() + m_rowCount;
+            } else {
+                rowHeader = row.getKey().getString();
+            }
+            if (m_frSettings.uniquifyRowIDs()) {
+                rowHeader = FileRowIterator.uniquifyRowHeader(rowHeader,
+                        m_rowIDhash);
+            }
+        }
+        m_currentIndex++;
+        m_rowCount++;
+        return new DefaultRow(rowHeader, row);
+    }
+
+    /* continues with a sequential iterator after the rows returned so far */
+    private void startFallback(final RuntimeException error) {
+        LOGGER.debug("Concurrent parsing of '"
+                + m_frSettings.getDataFileLocation()
+                + "' failed, continuing sequentially: " + error.getMessage());
+        cancelPending();
+        FileRowIterator fallback;
+        try {
+            fallback = new FileRowIterator(m_frSettings, m_tableSpec,
+                    m_skipColumns, m_exec);
+        } catch (IOException ioe) {
+            throw error;
+        }
+        for (long i = 0; i < m_rowCount; i++) {
+            fallback.next();
+        }
+        m_fallback = fallback;
+    }
+
+    private static Chunk waitFor(final Future<Chunk> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                    "Interrupted while reading the data file", ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new FileReaderException(cause.getMessage());
+        }
+    }
+
+    private void cancelPending() {
+        for (Future<Chunk> f : m_pending) {
+            f.cancel(true);
+        }
+        m_pending.clear();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        m_closed = true;
+        cancelPending();
+        m_currentChunk = null;
+        if (m_fallback != null) {
+            m_fallback.dispose();
+        }
+    }
+
+    /** The rows parsed from one chunk of the file. */
+    private static final class Chunk {
+
+        private final List<DataRow> m_rows;
+
+        /* indices of the rows whose row header was missing in the file */
+        private final BitSet m_missingHeaders;
+
+        /* the position after the last byte of the chunk */
+        private final long m_end;
+
+        /* the exception thrown while parsing, rows after it are missing */
+        private final RuntimeException m_error;
+
+        Chunk(final List<DataRow> rows, final BitSet missingHeaders,
+                final long end, final RuntimeException error) {
+            m_rows = rows;
+            m_missingHeaders = missingHeaders;
+            m_end = end;
+            m_error = error;
+        }
+    }
+}
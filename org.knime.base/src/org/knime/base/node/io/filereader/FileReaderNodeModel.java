@@ -54,6 +54,7 @@
 
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.container.CloseableRowIterator;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
@@ -190,11 +191,14 @@ public void runFinal(final PortInput[] inputs, final PortOutput[] outputs, final
                 RowOutput rowOutput = (RowOutput)outputs[0]; // data output port
 
                 int row = 0;
-                FileRowIterator it = fTable.iterator();
+                // parses the file concurrently if possible
+                CloseableRowIterator it = fTable.concurrentIterator();
+                // zip entries and row limits are only supported sequentially
+                FileRowIterator seqIt = it instanceof FileRowIterator ? (FileRowIterator)it : null;
                 try {
-                    if (it.getZipEntryName() != null) {
+                    if (seqIt != null && seqIt.getZipEntryName() != null) {
                         // seems we are reading a ZIP archive.
-                        LOGGER.info("Reading entry '" + it.getZipEntryName()
+                        LOGGER.info("Reading entry '" + seqIt.getZipEntryName()
                                 + "' from the specified ZIP archive.");
                     }
 
@@ -208,7 +212,7 @@ public void runFinal(final PortInput[] inputs, final PortOutput[] outputs, final
                     }
                     rowOutput.close();
 
-                    if (it.zippedSourceHasMoreEntries()) {
+                    if (seqIt != null && seqIt.zippedSourceHasMoreEntries()) {
                         // after reading til the end of the file this returns a valid
                         // result
                         setWarningMessage("Source is a ZIP archive with multiple "
@@ -225,7 +229,7 @@ public void runFinal(final PortInput[] inputs, final PortOutput[] outputs, final
                     throw newDKE;
                 }
                 // user settings allow for truncating the table
-                if (it.iteratorEndedEarly()) {
+                if (seqIt != null && seqIt.iteratorEndedEarly()) {
                     setWarningMessage("Data was truncated due to user settings.");
                 }
                 // closes all sources.
@@ -46,6 +46,7 @@
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 import org.knime.base.node.util.BufferedFileReader;
@@ -119,6 +120,9 @@ class FileRowIterator extends CloseableRowIterator {
     /* counts the progress reports */
     private long m_lastReport;
 
+    /* true if the row header of the last row was missing in the file */
+    private boolean m_lastRowHeaderMissing;
+
     /**
      * The RowIterator for the FileTable.
      *
@@ -137,6 +141,27 @@ class FileRowIterator extends CloseableRowIterator {
     FileRowIterator(final FileReaderSettings frSettings,
             final DataTableSpec tableSpec, final boolean[] skipColumns,
             final ExecutionContext exec) throws IOException {
+        this(frSettings, tableSpec, skipColumns, exec,
+                frSettings.createNewInputReader());
+    }
+
+    /**
+     * The RowIterator reading from the specified source instead of the data
+     * file location of the settings.
+     *
+     * @param frSettings object containing the hows to read the data
+     * @param tableSpec the spec defining the structure of the rows to create
+     * @param skipColumns array with the element set to true if the
+     *            corresponding column should be skipped
+     * @param exec the execution context to report the progress to, can be
+     *            null
+     * @param source the reader to read the data from
+     * @see #FileRowIterator(FileReaderSettings, DataTableSpec, boolean[],
+     *      ExecutionContext)
+     */
+    FileRowIterator(final FileReaderSettings frSettings,
+            final DataTableSpec tableSpec, final boolean[] skipColumns,
+            final ExecutionContext exec, final BufferedFileReader source) {
 
         if (skipColumns.length < tableSpec.getNumColumns()) {
             throw new IllegalArgumentException("The number of columns can't"
@@ -160,8 +185,9 @@ class FileRowIterator extends CloseableRowIterator {
         m_exec = exec;
         m_lastReport = 0;
 
-        m_source = m_frSettings.createNewInputReader();
-        m_tokenizer = new Tokenizer(m_source);
+        m_source = source;
+        // nobody else reads from the source, the tokenizer can read ahead
+        m_tokenizer = new Tokenizer(m_source, true);
 
         // set the tokenizer related settings in the tokenizer
         m_tokenizer.setSettings(frSettings);
@@ -553,6 +579,7 @@ private String createRowHeader(final int rowNumber) {
         // if there is a row header in the file we must read it - independend
         // of if we are going to use it or not.
         String fileHeader = null;
+        m_lastRowHeaderMissing = false;
         if (m_frSettings.getFileHasRowHeaders()) {
             // read it away.
             fileHeader = m_tokenizer.nextToken();
@@ -574,13 +601,14 @@ private String createRowHeader(final int rowNumber) {
             if (fileHeader.equals("") && !m_tokenizer.lastTokenWasQuoted()) {
                 // seems we got a missing row delimiter. Let's build one.
                 newRowHeader = DataType.getMissingCell().toString() + rowNumber;
+                m_lastRowHeaderMissing = true;
             } else {
                 newRowHeader = fileHeader;
             }
 
             if (m_frSettings.uniquifyRowIDs()) {
                 // see if it's unique - and if not make it unique.
-                newRowHeader = uniquifyRowHeader(newRowHeader);
+                newRowHeader = uniquifyRowHeader(newRowHeader, m_rowIDhash);
             }
 
             return newRowHeader;
@@ -598,9 +626,10 @@ private String createRowHeader(final int rowNumber) {
      * unique row header, which could be the same than the one passed in (and
      * adds any rowheader returned to the hash set).
      */
-    private String uniquifyRowHeader(final String newRowHeader) {
+    static String uniquifyRowHeader(final String newRowHeader,
+            final Map<String, Number> rowIDhash) {
 
-        Number oldSuffix = m_rowIDhash.put(newRowHeader, NOSUFFIX);
+        Number oldSuffix = rowIDhash.put(newRowHeader, NOSUFFIX);
 
         if (oldSuffix == null) {
             // haven't seen the rowID so far.
@@ -620,17 +649,17 @@ private String uniquifyRowHeader(final String newRowHeader) {
             if (oldSuffix.equals(NOSUFFIX)) {
                 // until now the NOSUFFIX placeholder was in the hash
                 assert idx - 1 == NOSUFFIX.intValue();
-                m_rowIDhash.put(result, new MutableInteger(idx));
+                rowIDhash.put(result, new MutableInteger(idx));
             } else {
                 assert oldSuffix instanceof MutableInteger;
                 ((MutableInteger)oldSuffix).inc();
                 assert idx == oldSuffix.intValue();
                 // put back the old (incr.) suffix (overridden with NOSUFFIX).
-                m_rowIDhash.put(result, oldSuffix);
+                rowIDhash.put(result, oldSuffix);
             }
 
             result = result + "_" + idx;
-            oldSuffix = m_rowIDhash.put(result, NOSUFFIX);
+            oldSuffix = rowIDhash.put(result, NOSUFFIX);
 
         }
 
@@ -685,6 +714,15 @@ public boolean iteratorEndedEarly() {
         return m_fileWasNotCompletelyRead;
     }
 
+    /**
+     * @return true, if the file contained no row header for the row returned
+     *         by the last call to {@link #next()} and the row header was
+     *         created from the row number
+     */
+    boolean lastRowHeaderWasMissing() {
+        return m_lastRowHeaderMissing;
+    }
+
     /**
      * If the source read was a ZIP archive this method tests if there are more
      * than one entry in the archive. If the source was not compressed or a gzip
@@ -58,6 +58,7 @@
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.DataType;
 import org.knime.core.data.RowIterator;
+import org.knime.core.data.container.CloseableRowIterator;
 import org.knime.core.data.def.DoubleCell;
 import org.knime.core.data.def.IntCell;
 import org.knime.core.data.def.StringCell;
@@ -93,7 +94,7 @@ public class FileTable implements DataTable {
     private final boolean[] m_skipColums;
 
     // list of all iterators to close the source, when the table is disposed of
-    private final LinkedList<WeakReference<FileRowIterator>> m_iterators;
+    private final LinkedList<WeakReference<CloseableRowIterator>> m_iterators;
 
     /**
      * Creates a new file table with the structure defined in tableSpec and
@@ -151,7 +152,7 @@ public FileTable(final DataTableSpec tableSpec,
                     + "include is different from the number of columns in the"
                     + " table spec.");
         }
-        m_iterators = new LinkedList<WeakReference<FileRowIterator>>();
+        m_iterators = new LinkedList<WeakReference<CloseableRowIterator>>();
         m_tableSpec = tableSpec;
         m_frSettings = frSettings;
         m_skipColums = skipColumns;
@@ -178,10 +179,10 @@ protected void finalize() throws Throwable {
      */
     public void dispose() {
         synchronized (m_iterators) {
-            for (WeakReference<FileRowIterator> w : m_iterators) {
-                FileRowIterator i = w.get();
+            for (WeakReference<CloseableRowIterator> w : m_iterators) {
+                CloseableRowIterator i = w.get();
                 if (i != null) {
-                    i.dispose();
+                    i.close();
                 }
             }
             m_iterators.clear();
@@ -203,7 +204,7 @@ public FileRowIterator iterator() {
                 FileRowIterator i =
                         new FileRowIterator(m_frSettings, m_tableSpec,
                                 m_skipColums, m_exec);
-                m_iterators.add(new WeakReference<FileRowIterator>(i));
+                m_iterators.add(new WeakReference<CloseableRowIterator>(i));
                 return i;
 
             }
@@ -215,6 +216,37 @@ public FileRowIterator iterator() {
         return null;
     }
 
+    /**
+     * Returns an iterator that parses the file with multiple threads if the
+     * file and the settings allow it (an uncompressed local file with one
+     * record per line, no row limit). Rows and row IDs are the same as the
+     * ones returned by {@link #iterator()}, which is also returned if the file
+     * can't be read concurrently. The iterator must be closed (or the table
+     * disposed) if it isn't read to the end.
+     *
+     * @return an iterator over the rows of the file, null if the file can't
+     *         be opened
+     * @since 3.6
+     */
+    public CloseableRowIterator concurrentIterator() {
+        if (!ChunkedFileRowIterator.isApplicable(m_frSettings)) {
+            return iterator();
+        }
+        try {
+            synchronized (m_iterators) {
+                ChunkedFileRowIterator i = new ChunkedFileRowIterator(
+                        m_frSettings, m_tableSpec, m_skipColums, m_exec);
+                m_iterators.add(new WeakReference<CloseableRowIterator>(i));
+                return i;
+            }
+        } catch (IOException ioe) {
+            LOGGER.debug("Unable to read '"
+                    + m_frSettings.getDataFileLocation().toString()
+                    + "' concurrently: " + ioe.getMessage(), ioe);
+        }
+        return iterator();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -241,7 +241,7 @@ void addTable(final RowInput table, final ExecutionContext exec) throws Interrup
                 //change row key
                 row = new BlobSupportDataRow(m_rowKeyCreator.apply(row.getKey()),row);
             }
-            m_duplicateChecker.addKey(row.getKey().toString());
+            m_duplicateChecker.addKey(row.getKey());
 
             //add additional iteration column if desired
             if(m_addIterationColumn) {
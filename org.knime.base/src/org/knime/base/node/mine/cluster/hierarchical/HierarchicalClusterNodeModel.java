@@ -50,7 +50,9 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.knime.base.node.mine.cluster.hierarchical.distfunctions.DistanceFunction;
 import org.knime.base.node.mine.cluster.hierarchical.distfunctions.EuclideanDist;
@@ -236,18 +238,44 @@ protected BufferedDataTable[] execute(final BufferedDataTable[] data,
         DataContainer fusionCont = exec.createDataContainer(createFusionSpec());
         int iterationStep = 0;
 
-        final HalfFloatMatrix cache;
+        // the number of clusters at the beginning is equal to the number
+        // of data rows (each row is a cluster)
+        int numberDataRows = clusters.size();
+
         if (m_cacheDistances.getBooleanValue()) {
-            cache = new HalfFloatMatrix((int) inputData.size(), false);
-            cache.fill(Float.NaN);
-        } else {
-            cache = null;
+            // compute all distances once and derive the cluster distances
+            HalfFloatMatrix distances = NearestNeighborChain.createDistanceMatrix(
+                    clusters, m_distFunction, selectedColIndices,
+                    exec.createSubProgress(0.5));
+            NearestNeighborChain.Merge[] merges = NearestNeighborChain.cluster(
+                    distances, numberDataRows,
+                    Linkage.valueOf(m_linkageType.getStringValue()),
+                    exec.createSubProgress(0.4));
+
+            // replay the fusions in order of increasing distance; the
+            // remaining clusters are kept in the same order as below
+            ClusterNode[] slots = clusters.toArray(new ClusterNode[numberDataRows]);
+            Set<ClusterNode> remaining = new LinkedHashSet<ClusterNode>(clusters);
+            for (NearestNeighborChain.Merge merge : merges) {
+                if (m_numClustersForOutput.getIntValue() == remaining.size()) {
+                    outputData = createResultTable(inputData,
+                            new ArrayList<ClusterNode>(remaining), exec);
+                }
+                exec.checkCanceled();
+                iterationStep++;
+                ClusterNode newNode = new ClusterNode(slots[merge.getFirst()],
+                        slots[merge.getSecond()], merge.getDistance());
+                remaining.remove(slots[merge.getFirst()]);
+                remaining.remove(slots[merge.getSecond()]);
+                remaining.add(newNode);
+                slots[merge.getFirst()] = newNode;
+                slots[merge.getSecond()] = null;
+                addFusionStep(fusionCont, remaining.size(), newNode);
+            }
+            clusters = new ArrayList<ClusterNode>(remaining);
         }
 
         double max = inputData.size();
-        // the number of clusters at the beginning is equal to the number
-        // of data rows (each row is a cluster)
-        int numberDataRows = clusters.size();
 
         while (clusters.size() > 1) {
             // checks if number clusters to generate output table is reached
@@ -281,13 +309,13 @@ protected BufferedDataTable[] execute(final BufferedDataTable[] data,
                     // between two clusters. At the moment is single linkage
                     // and average linkage supported.
                     if (m_linkageType.getStringValue().equals(Linkage.SINGLE.name())) {
-                        dist = calculateSingleLinkageDist(node1, node2, cache,
+                        dist = calculateSingleLinkageDist(node1, node2,
                                 selectedColIndices);
                     } else if (m_linkageType.getStringValue().equals(Linkage.AVERAGE.name())) {
-                        dist = calculateAverageLinkageDist(node1, node2, cache,
+                        dist = calculateAverageLinkageDist(node1, node2,
                                 selectedColIndices);
                     } else {
-                        dist = calculateCompleteLinkageDist(node1, node2, cache,
+                        dist = calculateCompleteLinkageDist(node1, node2,
                                 selectedColIndices);
                     }
 
@@ -309,13 +337,7 @@ protected BufferedDataTable[] execute(final BufferedDataTable[] data,
             clusters.add(newNode);
 
             // store the distance per each fusion step
-            fusionCont.addRowToTable(new DefaultRow(
-            // row key
-                    Integer.toString(clusters.size()),
-                    // x-axis scatter plotter
-                    new IntCell(clusters.size()),
-                    // y-axis scatter plotter
-                    new DoubleCell(newNode.getDist())));
+            addFusionStep(fusionCont, clusters.size(), newNode);
 
             // // print number clusters and their data points
             // LOGGER.debug("Iteration " + iterationStep + ":");
@@ -342,6 +364,18 @@ protected BufferedDataTable[] execute(final BufferedDataTable[] data,
                 exec)};
     }
 
+    /* stores the distance of a fusion step */
+    private static void addFusionStep(final DataContainer fusionCont,
+            final int numClusters, final ClusterNode newNode) {
+        fusionCont.addRowToTable(new DefaultRow(
+        // row key
+                Integer.toString(numClusters),
+                // x-axis scatter plotter
+                new IntCell(numClusters),
+                // y-axis scatter plotter
+                new DoubleCell(newNode.getDist())));
+    }
+
     private DataTableSpec createFusionSpec() {
         DataColumnSpecCreator creatorX =
                 new DataColumnSpecCreator("Nr. of Clusters", IntCell.TYPE);
@@ -368,31 +402,16 @@ public final void reset() {
      *
      */
     private float calculateSingleLinkageDist(final ClusterNode node1,
-            final ClusterNode node2, final HalfFloatMatrix cache,
-            final int[] selectedColIndices) {
+            final ClusterNode node2, final int[] selectedColIndices) {
         float minDist = Float.MAX_VALUE;
 
         for (ClusterNode node1Leaf : node1.leafs()) {
             final DataRow row1 = node1Leaf.getLeafDataPoint();
-            final int row1Index = node1Leaf.getRowIndex();
             for (ClusterNode node2Leaf : node2.leafs()) {
                 final DataRow row2 = node2Leaf.getLeafDataPoint();
-                final int row2Index = node2Leaf.getRowIndex();
-
-                float f = Float.NaN;
-                if (cache != null) {
-                    f = cache.get(row1Index, row2Index);
-                    if (Float.isNaN(f)) {
-                        f =
-                                (float)m_distFunction.calcDistance(row1, row2,
-                                        selectedColIndices);
-                        cache.set(row1Index, row2Index, f);
-                    }
-                } else {
-                    f =
-                            (float)m_distFunction.calcDistance(row1, row2,
-                                    selectedColIndices);
-                }
+
+                final float f = (float)m_distFunction.calcDistance(row1, row2,
+                        selectedColIndices);
                 minDist = Math.min(minDist, f);
             }
         }
@@ -406,31 +425,16 @@ private float calculateSingleLinkageDist(final ClusterNode node1,
      *
      */
     private float calculateCompleteLinkageDist(final ClusterNode node1,
-            final ClusterNode node2, final HalfFloatMatrix cache,
-            final int[] selectedColIndices) {
+            final ClusterNode node2, final int[] selectedColIndices) {
         float maxDist = 0;
 
         for (ClusterNode node1Leaf : node1.leafs()) {
             final DataRow row1 = node1Leaf.getLeafDataPoint();
-            final int row1Index = node1Leaf.getRowIndex();
             for (ClusterNode node2Leaf : node2.leafs()) {
                 final DataRow row2 = node2Leaf.getLeafDataPoint();
-                final int row2Index = node2Leaf.getRowIndex();
-
-                float f = Float.NaN;
-                if (cache != null) {
-                    f = cache.get(row1Index, row2Index);
-                    if (Float.isNaN(f)) {
-                        f =
-                                (float)m_distFunction.calcDistance(row1, row2,
-                                        selectedColIndices);
-                        cache.set(row1Index, row2Index, f);
-                    }
-                } else {
-                    f =
-                            (float)m_distFunction.calcDistance(row1, row2,
-                                    selectedColIndices);
-                }
+
+                final float f = (float)m_distFunction.calcDistance(row1, row2,
+                        selectedColIndices);
                 maxDist = Math.max(maxDist, f);
             }
         }
@@ -444,29 +448,16 @@ private float calculateCompleteLinkageDist(final ClusterNode node1,
      * data rows.
      */
     private float calculateAverageLinkageDist(final ClusterNode node1,
-            final ClusterNode node2, final HalfFloatMatrix cache,
-            final int[] selectedColIndices) {
+            final ClusterNode node2, final int[] selectedColIndices) {
         float sumDist = 0;
 
         for (ClusterNode node1Leaf : node1.leafs()) {
             final DataRow row1 = node1Leaf.getLeafDataPoint();
-            final int row1Index = node1Leaf.getRowIndex();
             for (ClusterNode node2Leaf : node2.leafs()) {
                 final DataRow row2 = node2Leaf.getLeafDataPoint();
-                final int row2Index = node2Leaf.getRowIndex();
-
-                float f = Float.NaN;
-                if (cache != null) {
-                    f = cache.get(row1Index, row2Index);
-                    if (Float.isNaN(f)) {
-                        f = (float)m_distFunction.calcDistance(row1, row2,
-                                        selectedColIndices);
-                        cache.set(row1Index, row2Index, f);
-                    }
-                } else {
-                    f = (float)m_distFunction.calcDistance(row1, row2,
-                                    selectedColIndices);
-                }
+
+                final float f = (float)m_distFunction.calcDistance(row1, row2,
+                        selectedColIndices);
                 sumDist += f;
             }
         }
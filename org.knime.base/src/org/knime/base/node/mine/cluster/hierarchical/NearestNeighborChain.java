@@ -0,0 +1,303 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.mine.cluster.hierarchical;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.knime.base.node.mine.cluster.hierarchical.HierarchicalClusterNodeModel.Linkage;
+import org.knime.base.node.mine.cluster.hierarchical.distfunctions.DistanceFunction;
+import org.knime.base.util.HalfFloatMatrix;
+import org.knime.core.data.DataRow;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.ProgressCounter;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Agglomerative clustering on a precomputed distance matrix using the
+ * nearest-neighbor-chain algorithm. The distances between a merged cluster and
+ * the remaining clusters are derived from the distances of its two parts
+ * (Lance-Williams update), so each fusion takes linear time and the whole
+ * clustering quadratic time. This is exact for single, average and complete
+ * linkage since these linkages are reducible.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class NearestNeighborChain {
+
+    /** Number of matrix rows computed by one task. */
+    private static final int ROWS_PER_TASK = 64;
+
+    private NearestNeighborChain() {
+    }
+
+    /**
+     * Fusion of two clusters. A cluster is identified by the index of the slot
+     * it occupies in the distance matrix, the merged cluster takes the slot of
+     * the first cluster.
+     */
+    static final class Merge {
+        private final int m_first;
+
+        private final int m_second;
+
+        private final float m_dist;
+
+        private Merge(final int first, final int second, final float dist) {
+            m_first = first;
+            m_second = second;
+            m_dist = dist;
+        }
+
+        /** @return the slot of the first cluster, also used by the merged one */
+        int getFirst() {
+            return m_first;
+        }
+
+        /** @return the slot of the second cluster, unused afterwards */
+        int getSecond() {
+            return m_second;
+        }
+
+        /** @return the distance between the two clusters */
+        float getDistance() {
+            return m_dist;
+        }
+    }
+
+    /**
+     * Computes the distances between all leafs, using multiple threads.
+     *
+     * @param leafs the leaf nodes, their index in the list is their index in
+     *            the matrix
+     * @param distFunction the distance function
+     * @param selectedColIndices the columns used for the distance
+     * @param exec to report progress to and check for cancellation
+     * @return the distance matrix (without diagonal)
+     * @throws CanceledExecutionException if the user canceled
+     */
+    static HalfFloatMatrix createDistanceMatrix(final List<ClusterNode> leafs,
+            final DistanceFunction distFunction,
+            final int[] selectedColIndices, final ExecutionMonitor exec)
+            throws CanceledExecutionException {
+        final int n = leafs.size();
+        final HalfFloatMatrix matrix = new HalfFloatMatrix(n, false);
+        final DataRow[] rows = new DataRow[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = leafs.get(i).getLeafDataPoint();
+        }
+        final int parallelism = Math.max(1, Math.min(
+                Runtime.getRuntime().availableProcessors(),
+                KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads()));
+        final ThreadPool pool =
+                KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(parallelism);
+        final long pairCount = Math.max(1, n * (n - 1L) / 2);
+
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        try (ProgressCounter pairsDone =
+                exec.createProgressCounter(pairCount, null)) {
+            for (int start = 1; start < n; start += ROWS_PER_TASK) {
+                final int from = start;
+                final int to = Math.min(n, start + ROWS_PER_TASK);
+                futures.add(pool.enqueue(() -> {
+                    for (int i = from; i < to; i++) {
+                        pairsDone.checkCanceled();
+                        for (int j = 0; j < i; j++) {
+                            matrix.set(i, j, (float)distFunction.calcDistance(
+                                    rows[i], rows[j], selectedColIndices));
+                        }
+                        pairsDone.add(i);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> f : futures) {
+                waitFor(f);
+            }
+        } finally {
+            for (Future<Void> f : futures) {
+                f.cancel(true);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Clusters the elements of the distance matrix. The matrix is used as
+     * working memory and contains meaningless values afterwards.
+     *
+     * @param dist the distances between all elements, modified
+     * @param n the number of elements
+     * @param linkage the linkage defining the distance between clusters
+     * @param exec to report progress to and check for cancellation
+     * @return the <code>n - 1</code> fusions, sorted by increasing distance
+     *         (ties in the order they were found)
+     * @throws CanceledExecutionException if the user canceled
+     */
+    static Merge[] cluster(final HalfFloatMatrix dist, final int n,
+            final Linkage linkage, final ExecutionMonitor exec)
+            throws CanceledExecutionException {
+        if (n < 2) {
+            return new Merge[0];
+        }
+        final int[] size = new int[n];
+        Arrays.fill(size, 1);
+        // slots of the remaining clusters and the position of each slot in it
+        final int[] active = new int[n];
+        final int[] position = new int[n];
+        for (int i = 0; i < n; i++) {
+            active[i] = i;
+            position[i] = i;
+        }
+        int activeCount = n;
+        final int[] chain = new int[n];
+        int chainLength = 0;
+        final Merge[] merges = new Merge[n - 1];
+        int mergeCount = 0;
+
+        while (activeCount > 1) {
+            if (chainLength == 0) {
+                chain[chainLength++] = active[0];
+            }
+            final int a = chain[chainLength - 1];
+            // the predecessor wins ties, otherwise the chain could cycle
+            int b = chainLength > 1 ? chain[chainLength - 2] : -1;
+            float minDist = b >= 0 ? dist.get(a, b) : Float.NaN;
+            for (int k = 0; k < activeCount; k++) {
+                final int c = active[k];
+                if (c != a) {
+                    final float d = dist.get(a, c);
+                    if (b < 0 || d < minDist) {
+                        b = c;
+                        minDist = d;
+                    }
+                }
+            }
+
+            if (chainLength > 1 && b == chain[chainLength - 2]) {
+                // reciprocal nearest neighbors: merge them
+                chainLength -= 2;
+                final int first = Math.min(a, b);
+                final int second = Math.max(a, b);
+                merges[mergeCount++] = new Merge(first, second, minDist);
+                for (int k = 0; k < activeCount; k++) {
+                    final int c = active[k];
+                    if (c != first && c != second) {
+                        dist.set(first, c, update(linkage, dist.get(first, c),
+                                size[first], dist.get(second, c),
+                                size[second]));
+                    }
+                }
+                size[first] += size[second];
+                // remove the second slot from the active ones
+                final int last = active[--activeCount];
+                active[position[second]] = last;
+                position[last] = position[second];
+
+                exec.checkCanceled();
+                exec.setProgress(mergeCount / (double)(n - 1));
+            } else {
+                chain[chainLength++] = b;
+            }
+        }
+
+        // merges that depend on each other have non-decreasing distances,
+        // a stable sort keeps their order
+        Arrays.sort(merges, new Comparator<Merge>() {
+            @Override
+            public int compare(final Merge m1, final Merge m2) {
+                return Float.compare(m1.m_dist, m2.m_dist);
+            }
+        });
+        return merges;
+    }
+
+    /*
+     * Lance-Williams update: the distance of cluster k to the union of
+     * clusters i and j.
+     */
+    private static float update(final Linkage linkage, final float distIK,
+            final int sizeI, final float distJK, final int sizeJ) {
+        switch (linkage) {
+            case SINGLE:
+                return Math.min(distIK, distJK);
+            case COMPLETE:
+                return Math.max(distIK, distJK);
+            case AVERAGE:
+                return (float)((sizeI * (double)distIK
+                        + sizeJ * (double)distJK) / (sizeI + sizeJ));
+            default:
+                throw new IllegalArgumentException(
+                        "Unsupported linkage: " + linkage);
+        }
+    }
+
+    private static <T> T waitFor(final Future<T> future)
+            throws CanceledExecutionException {
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new CanceledExecutionException(
+                    "Interrupted while computing distances");
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof CanceledExecutionException) {
+                throw (CanceledExecutionException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+}
@@ -315,67 +315,22 @@ protected PortObject[] execute(final PortObject[] data, final ExecutionContext e
         addExcludeColumnsToIgnoreList(spec);
         double[][] clusters = initializeClusters(inData);
 
-        // also keep counts of how many patterns fall in a specific cluster
-        int[] clusterCoverage = new int[m_nrOfClusters.getIntValue()];
-
-        // --------- create clusters --------------
-        // reserve space for cluster center updates (do batch update!)
-        double[][] delta = new double[m_nrOfClusters.getIntValue()][];
-        for (int c = 0; c < m_nrOfClusters.getIntValue(); c++) {
-            delta[c] = new double[m_dimension - m_nrIgnoredColumns];
+        // the columns used for the distance computation
+        int[] usedColumns = new int[m_dimension - m_nrIgnoredColumns];
+        int usedPos = 0;
+        for (int i = 0; i < m_dimension; i++) {
+            if (!m_ignoreColumn[i]) {
+                usedColumns[usedPos++] = i;
+            }
         }
 
-        // main loop - until clusters stop changing or maxNrIterations reached
-        int currentIteration = 0;
-        boolean finished = false;
-        while ((!finished) && (currentIteration < m_nrMaxIterations.getIntValue())) {
-            exec.checkCanceled();
-            exec.setProgress((double)currentIteration / (double)m_nrMaxIterations.getIntValue(),
-                                 "Iteration " + currentIteration);
-            // initialize counts and cluster-deltas
-            for (int c = 0; c < m_nrOfClusters.getIntValue(); c++) {
-                clusterCoverage[c] = 0;
-                delta[c] = new double[m_dimension - m_nrIgnoredColumns];
-                int deltaPos = 0;
-                for (int i = 0; i < m_dimension; i++) {
-                    if (!m_ignoreColumn[i]) {
-                        delta[c][deltaPos++] = 0.0;
-                    }
-                }
-            }
-            // assume that we are done (i.e. clusters have stopped changing)
-            finished = true;
-            RowIterator rowIt = inData.iterator(); // first training example
-            while (rowIt.hasNext()) {
-                DataRow currentRow = rowIt.next();
-                int winner = findClosestPrototypeFor(currentRow, clusters);
-                if (winner >= 0) {
-                    // update winning cluster centers delta
-                    int deltaPos = 0;
-                    for (int i = 0; i < m_dimension; i++) {
-                        DataCell currentCell = currentRow.getCell(i);
-                        if (!m_ignoreColumn[i]) {
-                            if (!currentCell.isMissing()) {
-                                delta[winner][deltaPos] += ((DoubleValue)(currentCell)).getDoubleValue();
-                            } else {
-                                throw new Exception("Missing Values not (yet) allowed in k-Means.");
-                            }
-                            deltaPos++;
-                        }
-                    }
-                    clusterCoverage[winner]++;
-                } else {
-                    // we didn't find any winner - very odd
-                    assert (winner >= 0); // let's report this during
-                    // debugging!
-                    // otherwise just don't reproduce result
-                    throw new IllegalStateException("No winner found: " + winner);
-                }
-            }
-            // update cluster centers
-            finished = updateClusterCenters(clusterCoverage, clusters, delta);
-            currentIteration++;
-        } // while(!finished & nrIt<maxNrIt)
+        // --------- create clusters --------------
+        // assign the rows and update the centers on all cores until the
+        // clusters stop changing or maxNrIterations is reached
+        KMeansClusterer clusterer = new KMeansClusterer(inData, usedColumns, clusters);
+        clusterer.run(m_nrMaxIterations.getIntValue(), exec);
+        // also keep counts of how many patterns fall in a specific cluster
+        int[] clusterCoverage = clusterer.getClusterCoverage();
         // create list of feature names
         int k = 0;  // index of not-ignored columns
         int j = 0;  // index of column
@@ -389,8 +344,9 @@ protected PortObject[] execute(final PortObject[] data, final ExecutionContext e
         } while (j < m_dimension);
         // create output container and also mapping for HiLiteing
         BufferedDataContainer labeledInput = exec.createDataContainer(createAppendedSpec(spec));
+        long rowIndex = 0;
         for (DataRow row : inData) {
-            int winner = findClosestPrototypeFor(row, clusters);
+            int winner = clusterer.getCluster(rowIndex++);
             DataCell cell = new StringCell(CLUSTER + winner);
             labeledInput.addRowToTable(new AppendedColumnRow(row, cell));
             if (m_enableHilite.getBooleanValue()) {
@@ -444,33 +400,6 @@ protected PortObject[] execute(final PortObject[] data, final ExecutionContext e
         }
      }
 
-    private boolean updateClusterCenters(final int[] clusterCoverage,
-                                        final double[][] clusters,
-                                        final double[][] delta) {
-        boolean finished = true;
-        for (int c = 0; c < m_nrOfClusters.getIntValue(); c++) {
-            if (clusterCoverage[c] > 0) {
-                // only update clusters who do cover some pattern:
-                int pos = 0;
-                for (int i = 0; i < m_dimension; i++) {
-                    if (m_ignoreColumn[i]) {
-                        continue;
-                    }
-                    // normalize delta by nr of covered patterns
-                    double newValue = delta[c][pos] / clusterCoverage[c];
-                    // compare before assigning the value to make sure we
-                    // don't stop if things have changed substantially
-                    if (Math.abs(clusters[c][pos] - newValue) > 1e-10) {
-                        finished = false;
-                    }
-                    clusters[c][pos] = newValue;
-                    pos++;
-                }
-            }
-        }
-        return finished;
-    }
-
     private double[][] initializeClusters(final DataTable input) {
         // initialize matrix of double (nr clusters * input dimension)
         double[][] clusters = new double[m_nrOfClusters.getIntValue()][];
@@ -501,36 +430,6 @@ private double[][] initializeClusters(final DataTable input) {
         return clusters;
     }
 
-    private int findClosestPrototypeFor(final DataRow row, final double[][] clusters) {
-        // find closest cluster center
-        int winner = -1; // closest cluster so far
-        double winnerDistance = Double.MAX_VALUE; // best distance
-        for (int c = 0; c < m_nrOfClusters.getIntValue(); c++) {
-            double distance = 0.0;
-            int pos = 0;
-            for (int i = 0; i < m_dimension; i++) {
-                DataCell currentCell = row.getCell(i);
-                if (!m_ignoreColumn[i]) {
-                    if (!currentCell.isMissing()) {
-                        assert currentCell.getType().isCompatible(DoubleValue.class);
-                        double d = (clusters[c][pos] - ((DoubleValue)(currentCell)).getDoubleValue());
-                        if (!Double.isNaN(d)) {
-                            distance += d * d;
-                        }
-                    } else {
-                        distance += 0.0; // missing
-                    }
-                    pos++;
-                }
-            }
-            if (distance < winnerDistance) { // found closer cluster
-                winner = c; // make it new winner
-                winnerDistance = distance;
-            }
-        } // for all clusters (find closest one)
-        return winner;
-    }
-
     /**
      * Clears the model.
      *
@@ -0,0 +1,515 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.mine.cluster.kmeans;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.util.memory.MemoryAlertSystem;
+import org.knime.core.data.util.memory.MemoryAlertSystem.MemoryActionIndicator;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Runs the k-Means iterations on the used columns of a table with multiple
+ * threads. The table is split into blocks of consecutive rows which are
+ * processed concurrently; the values of a block are read into a primitive
+ * array once and kept as long as there is enough memory. For each row an upper
+ * bound on the distance to its cluster center and a lower bound on the
+ * distance to all other centers are kept (Hamerly's algorithm), so most rows
+ * are assigned without computing any distance once the centers move only
+ * little.
+ * <p>
+ * Rows are assigned to the closest center using the squared Euclidean distance
+ * (ignoring NaN differences), ties are resolved in favor of the center with
+ * the smaller index. Centers are the mean of their rows, centers without rows
+ * keep their position.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class KMeansClusterer {
+
+    /** The number of rows processed by one task. */
+    static final int BLOCK_SIZE = 1 << 16;
+
+    /** Centers that moved less than that in all dimensions are stable. */
+    private static final double EPSILON = 1e-10;
+
+    private final BufferedDataTable m_table;
+
+    private final int[] m_usedColumns;
+
+    private final double[][] m_centers;
+
+    private final int m_blockSize;
+
+    private final Block[] m_blocks;
+
+    private final int m_parallelism;
+
+    private final ThreadPool m_pool;
+
+    private final MemoryActionIndicator m_memIndicator;
+
+    /* bounds are only valid if all values are finite */
+    private volatile boolean m_allValuesFinite = true;
+
+    private int[] m_clusterCoverage;
+
+    private int m_iterations;
+
+    /**
+     * @param table the table to cluster
+     * @param usedColumns the indices of the columns to use
+     * @param centers the initial cluster centers (only used columns), updated
+     *            in place
+     */
+    KMeansClusterer(final BufferedDataTable table, final int[] usedColumns,
+            final double[][] centers) {
+        this(table, usedColumns, centers, BLOCK_SIZE);
+    }
+
+    /**
+     * @param table the table to cluster
+     * @param usedColumns the indices of the columns to use
+     * @param centers the initial cluster centers (only used columns), updated
+     *            in place
+     * @param blockSize the number of rows processed by one task
+     */
+    KMeansClusterer(final BufferedDataTable table, final int[] usedColumns,
+            final double[][] centers, final int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException(
+                    "Block size must be positive: " + blockSize);
+        }
+        m_table = table;
+        m_usedColumns = usedColumns;
+        m_centers = centers;
+        m_blockSize = blockSize;
+        long rowCount = table.size();
+        int blockCount = (int)((rowCount + blockSize - 1) / blockSize);
+        m_blocks = new Block[blockCount];
+        for (int b = 0; b < blockCount; b++) {
+            long from = (long)b * blockSize;
+            m_blocks[b] = new Block(from,
+                    (int)Math.min(blockSize, rowCount - from));
+        }
+        m_parallelism = Math.max(1, Math.min(
+                Runtime.getRuntime().availableProcessors(),
+                KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads()));
+        m_pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(m_parallelism);
+        m_memIndicator = MemoryAlertSystem.getInstance().newIndicator();
+        m_clusterCoverage = new int[centers.length];
+    }
+
+    /**
+     * Assigns the rows and moves the centers until they don't change anymore
+     * or the maximum number of iterations is reached. Afterwards, each row is
+     * assigned to the closest of the final centers.
+     *
+     * @param maxIterations the maximum number of iterations
+     * @param exec to report progress to and check for cancellation
+     * @throws CanceledExecutionException if the user canceled
+     * @throws Exception if the used columns contain missing values
+     */
+    void run(final int maxIterations, final ExecutionMonitor exec)
+            throws Exception {
+        double[] drift = null;
+        int currentIteration = 0;
+        boolean finished = false;
+        while (!finished && currentIteration < maxIterations) {
+            exec.checkCanceled();
+            exec.setProgress((double)currentIteration / (double)maxIterations,
+                    "Iteration " + currentIteration);
+            Pass pass = new Pass(drift, true);
+            processBlocks(pass, exec);
+            m_clusterCoverage = pass.m_counts;
+            drift = new double[m_centers.length];
+            finished = updateCenters(pass.m_sums, pass.m_counts, drift);
+            currentIteration++;
+        }
+        m_iterations = currentIteration;
+        // assign the rows to the final centers
+        processBlocks(new Pass(drift, false), exec);
+    }
+
+    /**
+     * @return the number of rows assigned to each cluster in the last
+     *         iteration
+     */
+    int[] getClusterCoverage() {
+        return m_clusterCoverage;
+    }
+
+    /**
+     * @return the number of iterations run until the centers were stable or
+     *         the maximum number of iterations was reached
+     */
+    int getIterations() {
+        return m_iterations;
+    }
+
+    /**
+     * @param rowIndex the index of a row in the table
+     * @return the index of the closest final cluster center
+     */
+    int getCluster(final long rowIndex) {
+        return m_blocks[(int)(rowIndex / m_blockSize)]
+                .m_assignment[(int)(rowIndex % m_blockSize)];
+    }
+
+    /* sets the centers to the mean of their rows, returns true if none moved */
+    private boolean updateCenters(final double[] sums, final int[] counts,
+            final double[] drift) {
+        final int dim = m_usedColumns.length;
+        boolean finished = true;
+        for (int c = 0; c < m_centers.length; c++) {
+            if (counts[c] > 0) {
+                // only update clusters who do cover some pattern:
+                double sqDrift = 0;
+                for (int p = 0; p < dim; p++) {
+                    double newValue = sums[c * dim + p] / counts[c];
+                    double diff = m_centers[c][p] - newValue;
+                    if (Math.abs(diff) > EPSILON) {
+                        finished = false;
+                    }
+                    sqDrift += diff * diff;
+                    m_centers[c][p] = newValue;
+                }
+                drift[c] = Math.sqrt(sqDrift);
+            }
+        }
+        return finished;
+    }
+
+    /* processes all blocks, summing up the results in block order */
+    private void processBlocks(final Pass pass, final ExecutionMonitor exec)
+            throws Exception {
+        ArrayDeque<Future<BlockResult>> pending =
+                new ArrayDeque<Future<BlockResult>>();
+        int next = 0;
+        try {
+            while (next < m_blocks.length || !pending.isEmpty()) {
+                while (next < m_blocks.length
+                        && pending.size() < 2 * m_parallelism) {
+                    final Block block = m_blocks[next++];
+                    pending.add(m_pool.enqueue(() -> process(block, pass)));
+                }
+                BlockResult result = waitFor(pending.poll());
+                exec.checkCanceled();
+                if (pass.m_sums != null) {
+                    for (int i = 0; i < result.m_sums.length; i++) {
+                        pass.m_sums[i] += result.m_sums[i];
+                    }
+                    for (int c = 0; c < result.m_counts.length; c++) {
+                        pass.m_counts[c] += result.m_counts[c];
+                    }
+                }
+            }
+        } finally {
+            for (Future<BlockResult> f : pending) {
+                f.cancel(true);
+            }
+        }
+    }
+
+    /* assigns the rows of a block, called concurrently */
+    private BlockResult process(final Block block, final Pass pass)
+            throws Exception {
+        final int dim = m_usedColumns.length;
+        final int k = m_centers.length;
+        final double[] values = getValues(block);
+        final boolean prune = block.m_initialized && pass.m_drift != null
+                && m_allValuesFinite;
+        final double[] sqDists = new double[k];
+        BlockResult result = pass.m_sums == null ? null
+                : new BlockResult(new double[k * dim], new int[k]);
+
+        for (int r = 0; r < block.m_size; r++) {
+            final int offset = r * dim;
+            boolean assigned = false;
+            if (prune) {
+                final int a = block.m_assignment[r];
+                double upper = block.m_upper[r] + pass.m_drift[a];
+                double lower = block.m_lower[r] - (a == pass.m_maxDriftCluster
+                        ? pass.m_secondMaxDrift : pass.m_maxDrift);
+                double bound = Math.max(pass.m_halfCenterDist[a], lower);
+                if (upper >= bound) {
+                    // tighten the upper bound and try again
+                    upper = Math.sqrt(sqDistance(values, offset, a));
+                }
+                if (upper < bound) {
+                    block.m_upper[r] = upper;
+                    block.m_lower[r] = lower;
+                    assigned = true;
+                }
+            }
+            if (!assigned) {
+                assignClosest(block, r, values, offset, sqDists);
+            }
+            if (result != null) {
+                final int a = block.m_assignment[r];
+                final int sumOffset = a * dim;
+                for (int p = 0; p < dim; p++) {
+                    result.m_sums[sumOffset + p] += values[offset + p];
+                }
+                result.m_counts[a]++;
+            }
+        }
+        block.m_initialized = true;
+        return result;
+    }
+
+    /* computes the distances to all centers and sets the bounds */
+    private void assignClosest(final Block block, final int r,
+            final double[] values, final int offset, final double[] sqDists) {
+        int winner = -1; // closest cluster so far
+        double winnerDistance = Double.MAX_VALUE; // best distance
+        double secondDistance = Double.POSITIVE_INFINITY;
+        for (int c = 0; c < m_centers.length; c++) {
+            double distance = sqDistance(values, offset, c);
+            sqDists[c] = distance;
+            if (distance < winnerDistance) { // found closer cluster
+                if (winner >= 0) {
+                    secondDistance = winnerDistance;
+                }
+                winner = c; // make it new winner
+                winnerDistance = distance;
+            } else if (distance < secondDistance) {
+                secondDistance = distance;
+            }
+        }
+        if (winner < 0) {
+            throw new IllegalStateException("No winner found: " + winner);
+        }
+        block.m_assignment[r] = winner;
+        block.m_upper[r] = Math.sqrt(winnerDistance);
+        block.m_lower[r] = Math.sqrt(secondDistance);
+    }
+
+    private double sqDistance(final double[] values, final int offset,
+            final int cluster) {
+        final double[] center = m_centers[cluster];
+        double distance = 0.0;
+        for (int p = 0; p < center.length; p++) {
+            double d = center[p] - values[offset + p];
+            if (!Double.isNaN(d)) {
+                distance += d * d;
+            }
+        }
+        return distance;
+    }
+
+    /* returns the (cached) values of the rows of a block, row by row */
+    private double[] getValues(final Block block) throws Exception {
+        double[] values = block.m_values;
+        if (values != null) {
+            return values;
+        }
+        final int dim = m_usedColumns.length;
+        values = new double[block.m_size * dim];
+        int pos = 0;
+        try (CloseableRowIterator it = m_table.iteratorForRange(
+                block.m_from, block.m_from + block.m_size)) {
+            while (it.hasNext()) {
+                DataRow row = it.next();
+                for (int col : m_usedColumns) {
+                    DataCell cell = row.getCell(col);
+                    if (cell.isMissing()) {
+                        throw new Exception(
+                                "Missing Values not (yet) allowed in k-Means.");
+                    }
+                    double v = ((DoubleValue)cell).getDoubleValue();
+                    if (Double.isNaN(v) || Double.isInfinite(v)) {
+                        // the distance is no metric anymore
+                        m_allValuesFinite = false;
+                    }
+                    values[pos++] = v;
+                }
+            }
+        }
+        if (!m_memIndicator.lowMemoryActionRequired()) {
+            block.m_values = values;
+        }
+        return values;
+    }
+
+    private static <T> T waitFor(final Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new CanceledExecutionException(
+                    "Interrupted while waiting for k-Means task");
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+
+    /** The state of a pass over all blocks, shared by all tasks. */
+    private final class Pass {
+
+        /* the distance each center moved since the last pass, null if unknown */
+        private final double[] m_drift;
+
+        private final int m_maxDriftCluster;
+
+        private final double m_maxDrift;
+
+        private final double m_secondMaxDrift;
+
+        /* half the distance of each center to its closest other center */
+        private final double[] m_halfCenterDist;
+
+        /* the sums of the used columns of the rows of each center (flat) */
+        private final double[] m_sums;
+
+        private final int[] m_counts;
+
+        Pass(final double[] drift, final boolean accumulate) {
+            final int k = m_centers.length;
+            final int dim = m_usedColumns.length;
+            m_drift = drift;
+            int maxCluster = -1;
+            double max = 0;
+            double secondMax = 0;
+            if (drift != null) {
+                for (int c = 0; c < k; c++) {
+                    if (drift[c] > max) {
+                        secondMax = max;
+                        max = drift[c];
+                        maxCluster = c;
+                    } else if (drift[c] > secondMax) {
+                        secondMax = drift[c];
+                    }
+                }
+            }
+            m_maxDriftCluster = maxCluster;
+            m_maxDrift = max;
+            m_secondMaxDrift = secondMax;
+            m_halfCenterDist = new double[k];
+            if (drift != null) {
+                Arrays.fill(m_halfCenterDist, Double.POSITIVE_INFINITY);
+                for (int c1 = 0; c1 < k; c1++) {
+                    for (int c2 = c1 + 1; c2 < k; c2++) {
+                        double half = Math.sqrt(sqCenterDistance(c1, c2)) / 2;
+                        m_halfCenterDist[c1] = Math.min(m_halfCenterDist[c1], half);
+                        m_halfCenterDist[c2] = Math.min(m_halfCenterDist[c2], half);
+                    }
+                }
+            }
+            m_sums = accumulate ? new double[k * dim] : null;
+            m_counts = accumulate ? new int[k] : null;
+        }
+
+        private double sqCenterDistance(final int c1, final int c2) {
+            double distance = 0.0;
+            for (int p = 0; p < m_usedColumns.length; p++) {
+                double d = m_centers[c1][p] - m_centers[c2][p];
+                distance += d * d;
+            }
+            return distance;
+        }
+    }
+
+    /** Rows of the table processed by one task, with their bounds. */
+    private static final class Block {
+
+        private final long m_from;
+
+        private final int m_size;
+
+        /* the values of the used columns, row by row; null if not cached */
+        private double[] m_values;
+
+        /* the closest center of each row */
+        private final int[] m_assignment;
+
+        /* upper bound of the distance to the closest center */
+        private final double[] m_upper;
+
+        /* lower bound of the distance to all other centers */
+        private final double[] m_lower;
+
+        /* true if the bounds were computed */
+        private boolean m_initialized;
+
+        Block(final long from, final int size) {
+            m_from = from;
+            m_size = size;
+            m_assignment = new int[size];
+            m_upper = new double[size];
+            m_lower = new double[size];
+        }
+    }
+
+    /** The sums and counts of the rows of one block per center. */
+    private static final class BlockResult {
+
+        private final double[] m_sums;
+
+        private final int[] m_counts;
+
+        BlockResult(final double[] sums, final int[] counts) {
+            m_sums = sums;
+            m_counts = counts;
+        }
+    }
+}
@@ -45,6 +45,7 @@
 
 package org.knime.base.node.preproc.groupby;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -66,6 +67,7 @@
 import org.knime.core.data.RowKey;
 import org.knime.core.data.container.DataContainer;
 import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.sort.SortKeyEncoder;
 import org.knime.core.node.BufferedDataContainer;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
@@ -212,6 +214,17 @@ protected BufferedDataTable createGroupByTable(final ExecutionContext exec,
         exec.setMessage("Creating groups");
         final DataCell[] previousGroup = new DataCell[groupColIdx.length];
         final DataCell[] currentGroup = new DataCell[groupColIdx.length];
+        //compare binary keys of the group columns if possible, this is
+        //equivalent to comparing the cells with their comparators
+        SortKeyEncoder keyEncoder = null;
+        if (groupColIdx.length > 0
+                && SortKeyEncoder.isEncodable(origSpec, groupColIdx)) {
+            final boolean[] ascending = new boolean[groupColIdx.length];
+            Arrays.fill(ascending, true);
+            keyEncoder = new SortKeyEncoder(origSpec, groupColIdx, ascending,
+                false);
+        }
+        byte[] previousKey = null;
         final MutableInteger groupCounter = new MutableInteger(0);
         boolean firstRow = true;
         final double numOfRows = sortedTable.size();
@@ -236,21 +249,28 @@ protected BufferedDataTable createGroupByTable(final ExecutionContext exec,
             for (int i = 0, length = groupColIdx.length; i < length; i++) {
                 currentGroup[i] = row.getCell(groupColIdx[i]);
             }
+            final byte[] currentKey =
+                keyEncoder == null ? null : keyEncoder.encode(row);
             if (firstRow) {
                 groupLabel = createGroupLabelForProgress(currentGroup);
                 System.arraycopy(currentGroup, 0, previousGroup, 0,
                         currentGroup.length);
+                previousKey = currentKey;
                 firstRow = false;
             }
             //check if we are still in the same data chunk which contains
             //rows that return 0 for all pairwise comparisons of their
             //group column data cells
-            if (!sameChunk(comparators, previousGroup, currentGroup)) {
+            final boolean sameChunk = keyEncoder != null
+                ? Arrays.equals(previousKey, currentKey)
+                : sameChunk(comparators, previousGroup, currentGroup);
+            if (!sameChunk) {
                 groupLabel = createGroupLabelForProgress(currentGroup);
                 createTableRows(dc, chunkMembers, groupCounter);
                 //set the current group as previous group
                 System.arraycopy(currentGroup, 0, previousGroup, 0,
                         currentGroup.length);
+                previousKey = currentKey;
                 if (logUnusualCells && chunkMembers.size() > 1) {
                     //log unusual number of chunk members with the classes that
                     //cause the problem
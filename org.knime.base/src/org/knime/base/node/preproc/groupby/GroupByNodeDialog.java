@@ -124,6 +124,9 @@ public class GroupByNodeDialog extends NodeDialogPane {
     private final SettingsModelBoolean m_inMemory =
         new SettingsModelBoolean(GroupByNodeModel.CFG_IN_MEMORY, false);
 
+    private final SettingsModelBoolean m_hashAggregation =
+        new SettingsModelBoolean(GroupByNodeModel.CFG_HASH_AGGREGATION, false);
+
     private final SettingsModelString m_columnNamePolicy =
         new SettingsModelString(GroupByNodeModel.CFG_COLUMN_NAME_POLICY,
                 ColumnNamePolicy.getDefault().getLabel());
@@ -268,6 +271,7 @@ protected void inMemoryChanged() {
         final boolean inMem = m_inMemory.getBooleanValue();
         m_retainOrder.setBooleanValue(inMem);
         m_retainOrder.setEnabled(!inMem);
+        m_hashAggregation.setEnabled(!inMem);
     }
 
     private JComponent createAdvancedOptionsBox() {
@@ -284,6 +288,9 @@ private JComponent createAdvancedOptionsBox() {
         inMemory.setToolTipText("Processes all data in memory.");
         final DialogComponent retainOrder = new DialogComponentBoolean(m_retainOrder, "Retain row order");
         retainOrder.setToolTipText("Retains the original row order of the input table.");
+        final DialogComponent hashAggregation = new DialogComponentBoolean(m_hashAggregation, "Hash aggregation");
+        hashAggregation.setToolTipText("Aggregates the groups in a hash table without sorting the input table, "
+            + "spills groups to disk if memory gets low. Fast for tables with few groups.");
 
         final JPanel rootPanel = new JPanel(new GridBagLayout());
         rootPanel.setBorder(BorderFactory.createTitledBorder(BorderFactory.createEtchedBorder(),
@@ -303,6 +310,8 @@ private JComponent createAdvancedOptionsBox() {
         rootPanel.add(inMemory.getComponentPanel(), c);
         c.gridx++;
         rootPanel.add(retainOrder.getComponentPanel(), c);
+        c.gridx++;
+        rootPanel.add(hashAggregation.getComponentPanel(), c);
 
         c.gridy++;
         c.gridx = 0;
@@ -385,6 +394,12 @@ protected void loadSettingsFrom(final NodeSettingsRO settings,
         } catch (final InvalidSettingsException e) {
             m_inMemory.setBooleanValue(false);
         }
+        try {
+            //this option was introduced in KNIME 3.6
+            m_hashAggregation.loadSettingsFrom(settings);
+        } catch (final InvalidSettingsException e) {
+            m_hashAggregation.setBooleanValue(false);
+        }
         // this option was introduced in Knime 2.4+
         try {
             m_valueDelimiter.loadSettingsFrom(settings);
@@ -419,6 +434,7 @@ protected void saveSettingsTo(final NodeSettingsWO settings)
         m_dataTypeAggrPanel.saveSettingsTo(settings);
         m_retainOrder.saveSettingsTo(settings);
         m_inMemory.saveSettingsTo(settings);
+        m_hashAggregation.saveSettingsTo(settings);
 
         m_version.saveSettingsTo(settings);
     }
@@ -0,0 +1,287 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.preproc.groupby;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.knime.base.data.aggregation.AggregationOperator;
+import org.knime.base.data.aggregation.ColumnAggregator;
+import org.knime.base.data.aggregation.GlobalSettings;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.util.memory.MemoryAlertSystem;
+import org.knime.core.data.util.memory.MemoryAlertSystem.MemoryActionIndicator;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.MutableInteger;
+import org.knime.core.util.Pair;
+
+/**
+ * A {@link GroupByTable} that aggregates the input table in a single pass using a hash table of group states, without
+ * sorting the input. As long as memory is available all groups are kept in memory. Once the {@link MemoryAlertSystem}
+ * reports a low memory condition no new groups are added to the hash table: rows of groups that are already in memory
+ * are still aggregated, all other rows are spilled to disk into one of {@value #NUM_PARTITIONS} partitions according
+ * to the hash code of their group. After the pass the groups in memory are written to the result table and each
+ * partition is aggregated the same way, using different bits of the hash code on each level.
+ *
+ * <p>
+ * Each group is aggregated either completely in memory or completely in one partition, and the rows of a group are
+ * processed in the order of the input table, hence no aggregation states need to be merged. This strategy is best
+ * suited for tables with many rows but few groups, where sorting the whole table (as done by {@link BigGroupByTable})
+ * is not required. The groups in the result table are not sorted.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.6
+ */
+public class HashGroupByTable extends GroupByTable {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(HashGroupByTable.class);
+
+    /** Number of partitions the rows of groups that don't fit into memory are spilled to. Power of 2. */
+    static final int NUM_PARTITIONS = 16;
+
+    /** Number of hash code bits used to determine the partition. */
+    private static final int PARTITION_BITS = Integer.numberOfTrailingZeros(NUM_PARTITIONS);
+
+    /**
+     * Maximum depth of recursive partitioning. Partitions at this depth are aggregated in memory regardless of memory
+     * alerts (they only contain groups whose hash codes share {@value #MAX_DEPTH} * 4 bits).
+     */
+    static final int MAX_DEPTH = 4;
+
+    /**Constructor for class HashGroupByTable.
+     * @param exec the <code>ExecutionContext</code>
+     * @param inDataTable the table to aggregate
+     * @param groupByCols the name of all columns to group by
+     * @param colAggregators the aggregation columns with the aggregation method
+     * to use in the order the columns should be appear in the result table
+     * numerical columns
+     * @param globalSettings the global settings
+     * @param enableHilite <code>true</code> if a row key map should be
+     * maintained to enable hiliting
+     * @param colNamePolicy the {@link ColumnNamePolicy} for the
+     * aggregation columns
+     * @param retainOrder returns the row of the table in the same order as the
+     * input table if set to <code>true</code>
+     * @throws CanceledExecutionException if the user has canceled the execution
+     */
+    public HashGroupByTable(final ExecutionContext exec, final BufferedDataTable inDataTable,
+        final List<String> groupByCols, final ColumnAggregator[] colAggregators, final GlobalSettings globalSettings,
+        final boolean enableHilite, final ColumnNamePolicy colNamePolicy, final boolean retainOrder)
+        throws CanceledExecutionException {
+        super(exec, inDataTable, groupByCols, colAggregators, globalSettings, enableHilite, colNamePolicy,
+            retainOrder);
+    }
+
+    /**
+     * Creates the indicator that is asked whether rows of new groups should be spilled to disk. Called once per
+     * partitioning pass. Note that this method is called from within the constructor.
+     *
+     * @return a new indicator of the {@link MemoryAlertSystem}
+     */
+    MemoryActionIndicator createMemoryIndicator() {
+        return MemoryAlertSystem.getInstance().newIndicator();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected BufferedDataTable createGroupByTable(final ExecutionContext exec, final BufferedDataTable dataTable,
+        final DataTableSpec resultSpec, final int[] groupColIdx) throws CanceledExecutionException {
+        LOGGER.debug("Entering createGroupByTable(exec, table) of class HashGroupByTable.");
+        final DataTableSpec spec = dataTable.getDataTableSpec();
+        final ColumnAggregator[] colAggregators = getColAggregators();
+        final int[] aggrColIdx = new int[colAggregators.length];
+        for (int i = 0; i < aggrColIdx.length; i++) {
+            aggrColIdx[i] = spec.findColumnIndex(colAggregators[i].getOriginalColName());
+        }
+        final BufferedDataContainer dc = exec.createDataContainer(resultSpec);
+        aggregate(exec, dataTable, groupColIdx, aggrColIdx, 0, dc, new MutableInteger(0));
+        dc.close();
+        return dc.getTable();
+    }
+
+    /**
+     * Aggregates the given table (the input table or a spilled partition) and adds the result rows to the given
+     * container, recurses into the partitions spilled during this pass.
+     */
+    private void aggregate(final ExecutionContext exec, final BufferedDataTable table, final int[] groupColIdx,
+        final int[] aggrColIdx, final int depth, final BufferedDataContainer dc, final MutableInteger groupCounter)
+        throws CanceledExecutionException {
+        final ExecutionContext passExec = exec.createSubExecutionContext(0.5);
+        final boolean spillAllowed = depth < MAX_DEPTH;
+        final MemoryActionIndicator memIndicator = createMemoryIndicator();
+        final Map<GroupKey, Pair<ColumnAggregator[], Set<RowKey>>> groups = new LinkedHashMap<>();
+        BufferedDataContainer[] partitions = null;
+        final long rowCount = table.size();
+        long rowCounter = 0;
+        for (final DataRow row : table) {
+            passExec.checkCanceled();
+            passExec.setProgress(rowCounter++ / (double)rowCount,
+                "Analyzing row " + rowCounter + " of " + rowCount + " (" + groups.size() + " groups in memory)");
+            final DataCell[] groupVals = new DataCell[groupColIdx.length];
+            for (int i = 0; i < groupColIdx.length; i++) {
+                groupVals[i] = row.getCell(groupColIdx[i]);
+            }
+            final GroupKey groupKey = new GroupKey(groupVals);
+            Pair<ColumnAggregator[], Set<RowKey>> group = groups.get(groupKey);
+            if (group == null) {
+                // once memory got low no new groups are admitted in this pass, at least one group is always kept
+                if (partitions == null && spillAllowed && !groups.isEmpty()
+                    && memIndicator.lowMemoryActionRequired()) {
+                    LOGGER.debugWithFormat("Low memory with %d groups in memory, spilling rows of new groups to disk"
+                        + " (partition level %d)", groups.size(), depth);
+                    partitions = new BufferedDataContainer[NUM_PARTITIONS];
+                    for (int i = 0; i < NUM_PARTITIONS; i++) {
+                        partitions[i] = exec.createDataContainer(table.getDataTableSpec(), false, 0);
+                    }
+                }
+                if (partitions != null) {
+                    partitions[getPartition(groupKey, depth)].addRowToTable(row);
+                    continue;
+                }
+                group = new Pair<ColumnAggregator[], Set<RowKey>>(cloneColumnAggregators(),
+                    isEnableHilite() ? new HashSet<RowKey>() : null);
+                groups.put(groupKey, group);
+            }
+            final ColumnAggregator[] aggregators = group.getFirst();
+            for (int i = 0; i < aggregators.length; i++) {
+                aggregators[i].getOperator(getGlobalSettings()).compute(row, aggrColIdx[i]);
+            }
+            if (isEnableHilite()) {
+                group.getSecond().add(row.getKey());
+            }
+        }
+        createTableRows(dc, groups, groupCounter);
+        groups.clear();
+        passExec.setProgress(1.0);
+        if (partitions == null) {
+            return;
+        }
+        final double partitionProgress = 0.5 / NUM_PARTITIONS;
+        for (int i = 0; i < NUM_PARTITIONS; i++) {
+            partitions[i].close();
+            final BufferedDataTable partition = partitions[i].getTable();
+            final ExecutionContext partitionExec = exec.createSubExecutionContext(partitionProgress);
+            if (partition.size() > 0) {
+                exec.setMessage("Aggregating spilled partition " + (i + 1) + " of " + NUM_PARTITIONS);
+                aggregate(partitionExec, partition, groupColIdx, aggrColIdx, depth + 1, dc, groupCounter);
+            }
+            exec.clearTable(partition);
+            partitionExec.setProgress(1.0);
+        }
+    }
+
+    /**
+     * @param groupKey the group
+     * @param depth the partitioning depth
+     * @return the partition of the group on the given depth, each depth uses different bits of the (mixed) hash code
+     */
+    static int getPartition(final GroupKey groupKey, final int depth) {
+        int h = groupKey.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return (h >>> (depth * PARTITION_BITS)) & (NUM_PARTITIONS - 1);
+    }
+
+    /**
+     * Creates and adds the result rows for the given groups to the given data container and handles the row key
+     * mapping if hilite translation is enabled.
+     */
+    private void createTableRows(final BufferedDataContainer dc,
+        final Map<GroupKey, Pair<ColumnAggregator[], Set<RowKey>>> groups, final MutableInteger groupCounter) {
+        for (final Entry<GroupKey, Pair<ColumnAggregator[], Set<RowKey>>> e : groups.entrySet()) {
+            final DataCell[] groupVals = e.getKey().getGroupVals();
+            final ColumnAggregator[] colAggregators = e.getValue().getFirst();
+            final RowKey rowKey = RowKey.createRowKey(groupCounter.intValue());
+            groupCounter.inc();
+            final DataCell[] rowVals = new DataCell[groupVals.length + colAggregators.length];
+            //add the group values first
+            int valIdx = 0;
+            for (final DataCell groupCell : groupVals) {
+                rowVals[valIdx++] = groupCell;
+            }
+            //add the aggregation values
+            for (final ColumnAggregator colAggr : colAggregators) {
+                final AggregationOperator operator = colAggr.getOperator(getGlobalSettings());
+                rowVals[valIdx++] = operator.getResult();
+                if (operator.isSkipped()) {
+                    //add skipped groups and the column that causes the
+                    //skipping into the skipped groups map
+                    addSkippedGroup(colAggr.getOriginalColName(), operator.getSkipMessage(), groupVals);
+                }
+            }
+            dc.addRowToTable(new DefaultRow(rowKey, rowVals));
+            if (isEnableHilite()) {
+                addHiliteMapping(rowKey, e.getValue().getSecond());
+            }
+        }
+    }
+
+    /**
+     * @return a copy of the column aggregators
+     */
+    private ColumnAggregator[] cloneColumnAggregators() {
+        final ColumnAggregator[] origAggregators = getColAggregators();
+        final ColumnAggregator[] aggregators = new ColumnAggregator[origAggregators.length];
+        for (int i = 0, length = origAggregators.length; i < length; i++) {
+            aggregators[i] = origAggregators[i].clone();
+        }
+        return aggregators;
+    }
+}
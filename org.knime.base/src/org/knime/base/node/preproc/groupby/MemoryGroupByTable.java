@@ -45,6 +45,9 @@
 
 package org.knime.base.node.preproc.groupby;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -52,6 +55,10 @@
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import org.knime.base.data.aggregation.AggregationOperator;
 import org.knime.base.data.aggregation.ColumnAggregator;
@@ -60,20 +67,30 @@
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.RowKey;
+import org.knime.core.data.container.CloseableRowIterator;
 import org.knime.core.data.def.DefaultRow;
 import org.knime.core.node.BufferedDataContainer;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.util.ThreadPool;
 
 
 /**
+ * Keeps all groups in memory. If all aggregation operators are
+ * {@link AggregationOperator#isMergeable() mergeable} the input table is split into partitions of consecutive rows
+ * that are aggregated concurrently by the threads of the global thread pool. The partial results are merged in the
+ * order of the partitions, so the result is the same as if the rows had been aggregated one after another.
  *
  * @author Tobias Koetter, University of Konstanz
  */
 public class MemoryGroupByTable extends GroupByTable {
 
+    /** The number of consecutive rows that are aggregated as one partition. */
+    static final int PARTITION_SIZE = 10000;
+
     private Map<GroupKey, Set<RowKey>> m_rowKeys;
     private Map<GroupKey, ColumnAggregator[]> m_vals;
 
@@ -154,23 +171,180 @@ protected BufferedDataTable createGroupByTable(final ExecutionContext exec,
         final ExecutionMonitor groupExec = exec.createSubProgress(0.7);
         final DataTableSpec spec = dataTable.getDataTableSpec();
         final long rowCount = dataTable.size();
+        if (rowCount > getPartitionSize() && isMergeable()) {
+            aggregatePartitions(groupExec, dataTable, groupColIdx);
+            return createResultTable(exec.createSubExecutionContext(0.3), resultSpec);
+        }
         long rowCounter = 0;
         for (final DataRow row : dataTable) {
             groupExec.checkCanceled();
             groupExec.setProgress(rowCounter++ / (double) rowCount,
                     "Analyzing row " + rowCounter + " of " + rowCount);
-            final DataCell[] currentGroup = new DataCell[groupColIdx.length];
-            //fetch the current group column values
-            for (int i = 0, length = groupColIdx.length; i < length; i++) {
-                currentGroup[i] = row.getCell(groupColIdx[i]);
-            }
-            final GroupKey groupKey = new GroupKey(currentGroup);
-            addRowKey(groupKey, row.getKey());
-            addRow(spec, groupKey, row);
+            final GroupKey groupKey = createGroupKey(row, groupColIdx);
+            addRowKey(m_rowKeys, groupKey, row.getKey());
+            addRow(m_vals, spec, groupKey, row);
         }
         return createResultTable(exec.createSubExecutionContext(0.3), resultSpec);
     }
 
+    /**
+     * @return the number of consecutive rows that are aggregated as one partition
+     */
+    int getPartitionSize() {
+        return PARTITION_SIZE;
+    }
+
+    /**
+     * @return <code>true</code> if the operators of all aggregation columns are mergeable
+     */
+    private boolean isMergeable() {
+        for (final ColumnAggregator aggregator : getColAggregators()) {
+            //use a fresh copy since the operator of the given aggregator might have been created with other settings
+            if (!aggregator.clone().getOperator(getGlobalSettings()).isMergeable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Aggregates the partitions of the given table concurrently and merges the results into the group maps. The
+     * calling thread reads the table and hands the partitions to idle threads of the global thread pool. If no thread
+     * is available it aggregates the partition itself, hence it never waits for a partition that has not been
+     * started. The number of partitions held in memory is limited by the number of available processors.
+     *
+     * @param exec the monitor to report progress to
+     * @param dataTable the table to aggregate
+     * @param groupColIdx the indices of the group columns
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    void aggregatePartitions(final ExecutionMonitor exec, final BufferedDataTable dataTable,
+        final int[] groupColIdx) throws CanceledExecutionException {
+        final DataTableSpec spec = dataTable.getDataTableSpec();
+        final int partitionSize = getPartitionSize();
+        final int maxPending = Runtime.getRuntime().availableProcessors();
+        final ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL;
+        final Deque<Future<Partition>> pending = new ArrayDeque<>();
+        final long rowCount = dataTable.size();
+        long rowCounter = 0;
+        try (final CloseableRowIterator iter = dataTable.iterator()) {
+            List<DataRow> rows = new ArrayList<>(partitionSize);
+            while (iter.hasNext()) {
+                rows.add(iter.next());
+                rowCounter++;
+                if (rows.size() < partitionSize && iter.hasNext()) {
+                    continue;
+                }
+                exec.checkCanceled();
+                exec.setProgress(rowCounter / (double)rowCount, "Analyzing row " + rowCounter + " of " + rowCount);
+                if (pending.size() >= maxPending) {
+                    mergePartition(pending.poll());
+                }
+                final Partition partition = new Partition(spec, groupColIdx, rows);
+                Future<Partition> future = pool.trySubmit(partition);
+                if (future == null) {
+                    //no idle thread available
+                    final FutureTask<Partition> task = new FutureTask<>(partition);
+                    task.run();
+                    future = task;
+                }
+                pending.add(future);
+                rows = new ArrayList<>(partitionSize);
+            }
+            while (!pending.isEmpty()) {
+                exec.checkCanceled();
+                mergePartition(pending.poll());
+            }
+        } finally {
+            for (final Future<Partition> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Merges the given partition into the group maps. Groups that are new are appended, hence the groups retain the
+     * order of their first occurrence.
+     */
+    private void mergePartition(final Future<Partition> future) throws CanceledExecutionException {
+        final Partition partition;
+        try {
+            partition = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CanceledExecutionException("Aggregation interrupted");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        for (final Entry<GroupKey, ColumnAggregator[]> entry : partition.m_vals.entrySet()) {
+            final ColumnAggregator[] aggregators = m_vals.get(entry.getKey());
+            if (aggregators == null) {
+                m_vals.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            final ColumnAggregator[] partialAggregators = entry.getValue();
+            for (int i = 0, length = aggregators.length; i < length; i++) {
+                aggregators[i].getOperator(getGlobalSettings()).merge(
+                    partialAggregators[i].getOperator(getGlobalSettings()));
+            }
+        }
+        for (final Entry<GroupKey, Set<RowKey>> entry : partition.m_rowKeys.entrySet()) {
+            final Set<RowKey> keySet = m_rowKeys.get(entry.getKey());
+            if (keySet == null) {
+                m_rowKeys.put(entry.getKey(), entry.getValue());
+            } else {
+                keySet.addAll(entry.getValue());
+            }
+        }
+    }
+
+    /** Aggregates a partition of consecutive rows into its own group maps. */
+    private final class Partition implements Callable<Partition> {
+
+        private final DataTableSpec m_spec;
+
+        private final int[] m_groupColIdx;
+
+        private final List<DataRow> m_rows;
+
+        private final Map<GroupKey, Set<RowKey>> m_rowKeys = new HashMap<>();
+
+        private final Map<GroupKey, ColumnAggregator[]> m_vals = new LinkedHashMap<>();
+
+        Partition(final DataTableSpec spec, final int[] groupColIdx, final List<DataRow> rows) {
+            m_spec = spec;
+            m_groupColIdx = groupColIdx;
+            m_rows = rows;
+        }
+
+        @Override
+        public Partition call() {
+            for (final DataRow row : m_rows) {
+                final GroupKey groupKey = createGroupKey(row, m_groupColIdx);
+                addRowKey(m_rowKeys, groupKey, row.getKey());
+                addRow(m_vals, m_spec, groupKey, row);
+            }
+            //the rows are no longer needed
+            m_rows.clear();
+            return this;
+        }
+    }
+
+    private static GroupKey createGroupKey(final DataRow row, final int[] groupColIdx) {
+        final DataCell[] currentGroup = new DataCell[groupColIdx.length];
+        //fetch the current group column values
+        for (int i = 0, length = groupColIdx.length; i < length; i++) {
+            currentGroup[i] = row.getCell(groupColIdx[i]);
+        }
+        return new GroupKey(currentGroup);
+    }
+
     private BufferedDataTable createResultTable(final ExecutionContext exec,
             final DataTableSpec resultSpec) throws CanceledExecutionException {
         final BufferedDataContainer dc = exec.createDataContainer(resultSpec);
@@ -218,16 +392,16 @@ private BufferedDataTable createResultTable(final ExecutionContext exec,
         return dc.getTable();
     }
 
-    private void addRow(final DataTableSpec spec, final GroupKey groupKey,
-            final DataRow row) {
-        ColumnAggregator[] aggregators = m_vals.get(groupKey);
+    private void addRow(final Map<GroupKey, ColumnAggregator[]> vals, final DataTableSpec spec,
+            final GroupKey groupKey, final DataRow row) {
+        ColumnAggregator[] aggregators = vals.get(groupKey);
         if (aggregators == null) {
             final ColumnAggregator[] origAggregators = getColAggregators();
             aggregators = new ColumnAggregator[origAggregators.length];
             for (int i = 0, length = origAggregators.length; i < length; i++) {
                 aggregators[i] = origAggregators[i].clone();
             }
-            m_vals.put(groupKey, aggregators);
+            vals.put(groupKey, aggregators);
         }
         for (final ColumnAggregator aggregator : aggregators) {
             final int colIdx =
@@ -236,12 +410,12 @@ private void addRow(final DataTableSpec spec, final GroupKey groupKey,
         }
     }
 
-    private void addRowKey(final GroupKey groupKey, final RowKey key) {
+    private void addRowKey(final Map<GroupKey, Set<RowKey>> rowKeys, final GroupKey groupKey, final RowKey key) {
         if (isEnableHilite()) {
-            Set<RowKey> keySet = m_rowKeys.get(groupKey);
+            Set<RowKey> keySet = rowKeys.get(groupKey);
             if (keySet == null) {
                 keySet = new HashSet<>();
-                m_rowKeys.put(groupKey, keySet);
+                rowKeys.put(groupKey, keySet);
             }
             keySet.add(key);
         }
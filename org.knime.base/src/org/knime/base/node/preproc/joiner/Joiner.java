@@ -49,9 +49,9 @@
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -59,6 +59,9 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.knime.base.data.sort.SortedTable;
 import org.knime.base.node.preproc.joiner.Joiner2Settings.CompositionMode;
@@ -81,8 +84,11 @@
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
+import org.knime.core.node.ProgressCounter;
 import org.knime.core.node.util.ConvenienceMethods;
+import org.knime.core.util.ThreadPool;
 import org.knime.core.util.UniqueNameGenerator;
 
 /**
@@ -116,7 +122,7 @@ public final class Joiner {
      * holds the row indices of the left table that did not match to a row
      * of the right table.
      */
-    private Set<Integer> m_globalLeftOuterJoins;
+    private BitSet m_globalLeftOuterJoins;
 
     private InputRow.Settings m_inputDataRowSettings;
     private OutputRow.Settings m_outputDataRowSettings;
@@ -145,6 +151,16 @@ public final class Joiner {
     /** Only used for testcases, simulates an out-of-memory event after that many rows added in memory. */
     private int m_rowsAddedBeforeForcedOOM;
 
+    /** The minimal number of rows of a table range read by one thread. */
+    private static final int MIN_ROWS_PER_RANGE = 10000;
+
+    /** The number of threads used to read and join the partitions (changed in testing routines). */
+    private int m_parallelism = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+        KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads()));
+
+    /** The pool the partitions are read and joined with, null if only one thread is used. */
+    private ThreadPool m_threadPool;
+
     /**
      * Creates a new instance.
      *
@@ -506,10 +522,8 @@ public BufferedDataTable computeJoinTable(
             && m_settings.getLeftJoinColumns().length > 1;
 
         if (m_retainLeft && m_matchAny) {
-            m_globalLeftOuterJoins = new HashSet<Integer>();
-            for (int i = 0; i < leftTable.getRowCount(); i++) {
-                m_globalLeftOuterJoins.add(i);
-            }
+            m_globalLeftOuterJoins = new BitSet(leftTable.getRowCount());
+            m_globalLeftOuterJoins.set(0, leftTable.getRowCount());
         }
 
 
@@ -548,18 +562,26 @@ public BufferedDataTable computeJoinTable(
 
         double[] progressIntervals = new double[] {0.6, 0.2, 0.2};
         exec.setProgress(0.0);
-        while (pendingParts.size() > 0) {
-            Collection<Integer> processedParts = performJoin(
-                    innerTable, outerTable,
-                    joinCont, pendingParts, exec, progressIntervals[0]);
-            pendingParts.removeAll(processedParts);
+        m_threadPool = m_parallelism > 1
+            ? KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(m_parallelism)
+            : null;
+        try {
+            while (pendingParts.size() > 0) {
+                Collection<Integer> processedParts = performJoin(
+                        innerTable, outerTable,
+                        joinCont, pendingParts, exec, progressIntervals[0]);
+                pendingParts.removeAll(processedParts);
+            }
+        } finally {
+            m_threadPool = null;
         }
 
 
         if (m_retainLeft && m_matchAny) {
             // Add left outer joins
             int c = 0;
-            for (Integer index : m_globalLeftOuterJoins) {
+            for (int index = m_globalLeftOuterJoins.nextSetBit(0); index >= 0;
+                    index = m_globalLeftOuterJoins.nextSetBit(index + 1)) {
                 DataRow outRow = OutputRow.createDataRow(c, index, -1,
                         m_outputDataRowSettings);
                 joinCont.addLeftOuter(outRow, exec);
@@ -575,19 +597,18 @@ public BufferedDataTable computeJoinTable(
         long numRightOuter = null != joinCont.getRightOuter() ? joinCont.getRightOuter().size() : 0;
 
         exec.setMessage("Sort Joined Partitions");
-        Comparator<DataRow> joinComp = OutputRow.createRowComparator();
         SortedTable matches = null != joinCont.getMatches()
-        ? new SortedTable(joinCont.getMatches(), joinComp, false,
+        ? sortByIndices(joinCont.getMatches(),
                 exec.createSubExecutionContext(
                         progressIntervals[1] * numMatches / totalNumJoins))
         : null;
         SortedTable leftOuter = null != joinCont.getLeftOuter()
-        ? new SortedTable(joinCont.getLeftOuter(), joinComp, false,
+        ? sortByIndices(joinCont.getLeftOuter(),
                 exec.createSubExecutionContext(
                         progressIntervals[1] * numLeftOuter / totalNumJoins))
         : null;
         SortedTable rightOuter = null != joinCont.getRightOuter()
-        ? new SortedTable(joinCont.getRightOuter(), joinComp, false,
+        ? sortByIndices(joinCont.getRightOuter(),
                 exec.createSubExecutionContext(
                         progressIntervals[1] * numRightOuter / totalNumJoins))
         : null;
@@ -618,8 +639,22 @@ public BufferedDataTable computeJoinTable(
         return oc.getTable();
     }
 
+    /**
+     * Sorts a table of {@link OutputRow}s by the indices of the left and the
+     * right row. This is the order of {@link OutputRow#createRowComparator()},
+     * sorting by columns allows the sorter to compare binary sort keys.
+     */
+    private static SortedTable sortByIndices(final BufferedDataTable table,
+            final ExecutionContext exec) throws CanceledExecutionException {
+        return new SortedTable(table,
+                OutputRow.getIndexColumnNames(table.getDataTableSpec()),
+                new boolean[]{true, true}, false, exec);
+    }
+
     /** This method start with reading the partitions of the left table defined
-     * in currParts. If memory is low, partitions will be skipped or the
+     * in currParts. The partitions are first read concurrently, each thread
+     * reading a range of the left table. If memory gets low, the partitions
+     * are read sequentially, partitions will be skipped or the
      * number of partitions will be raised which leads to smaller partitions.
      * Successfully read partitions will be joined. The return collection
      * defines the successfully processed partitions.
@@ -650,20 +685,25 @@ private Collection<Integer> performJoin(
         setMessage("Read", exec, pendingParts, currParts);
 
         // Partition left table
-        Map <Integer, Map<JoinTuple, Set<Integer>>> leftTableHashed =
-            new HashMap<Integer, Map<JoinTuple, Set<Integer>>>();
-        // This is only used when m_leftRetain is true and m_matchAny is false.
-        // It holds the row indices of the left table that do not match to
-        // any row of the right table
-        Map <Integer, Set<Integer>> leftOuterJoins =
-            new HashMap<Integer, Set<Integer>>();
+        Map <Integer, Map<JoinTuple, RowIndexList>> leftTableHashed =
+            readConcurrently(leftTable, currParts, exec, inc);
+        // an empty result only means that all current partitions are empty
+        final boolean readSequentially = null == leftTableHashed;
+        if (!readSequentially) {
+            progress += inc * leftTable.size();
+        } else {
+            leftTableHashed =
+                new HashMap<Integer, Map<JoinTuple, RowIndexList>>();
+            progress = exec.getProgressMonitor().getProgress();
+        }
 
         MemoryActionIndicator memIndicator = MemoryAlertSystem.getInstance().newIndicator();
 
         int counter = 0;
         long rowsAdded = 0;
-        CloseableRowIterator leftIter = leftTable.iterator();
-        while (leftIter.hasNext()) {
+        CloseableRowIterator leftIter = readSequentially
+            ? leftTable.iterator() : null;
+        while (null != leftIter && leftIter.hasNext()) {
             exec.checkCanceled();
             boolean saveToAddMoreRows =
                 !memIndicator.lowMemoryActionRequired()
@@ -679,8 +719,7 @@ private Collection<Integer> performJoin(
                 for (JoinTuple tuple : inputDataRow.getJoinTuples()) {
                     int partition = tuple.hashCode() & m_bitMask;
                     if (currParts.contains(partition)) {
-                        addRow(leftTableHashed, leftOuterJoins,
-                                partition, tuple, inputDataRow);
+                        addRow(leftTableHashed, partition, tuple, inputDataRow);
                         rowsAdded++;
                     }
                 }
@@ -708,9 +747,6 @@ private Collection<Integer> performJoin(
                     // remove collected data of the no longer processed
                     for (int i : removeParts) {
                         leftTableHashed.remove(i);
-                        if (m_retainLeft && !m_matchAny) {
-                            leftOuterJoins.remove(i);
-                        }
                     }
                     currParts.removeAll(removeParts);
                     LOGGER.debug("Skip partitions while "
@@ -743,8 +779,7 @@ private Collection<Integer> performJoin(
                         currParts.clear();
                         currParts.add(currPart);
                         // update chunk size
-                        retainPartitions(leftTableHashed, leftOuterJoins,
-                                currPart);
+                        retainPartitions(leftTableHashed, currPart);
                         // update increment for reporting progress
                         numRows += leftTable.size() + rightTable.size();
                         inc = (progressDiff - progress) / numRows;
@@ -771,8 +806,7 @@ private Collection<Integer> performJoin(
 
         setMessage("Join", exec, pendingParts, currParts);
         // Join with outer table
-        joinInMemory(leftTableHashed, leftOuterJoins,
-                currParts, rightTable,
+        joinInMemory(leftTableHashed, currParts, rightTable,
                 outputContainer,
                 exec, inc);
 
@@ -787,12 +821,201 @@ private Collection<Integer> performJoin(
 
         // Garbage collector has problems without this explicit clearance.
         leftTableHashed.clear();
-        leftOuterJoins.clear();
 
         // return successfully joined parts
         return currParts;
     }
 
+    /**
+     * Reads the rows of the left table that fall into the given partitions
+     * concurrently. Each task reads a range of the table into its own hash
+     * tables, which are merged partition by partition afterwards.
+     *
+     * @return The hashed rows by partition or null if the partitions need to
+     * be read sequentially, which is the case if only one thread is used, the
+     * table is small or memory got low while reading.
+     */
+    private Map<Integer, Map<JoinTuple, RowIndexList>> readConcurrently(
+            final BufferedDataTable leftTable,
+            final Collection<Integer> currParts,
+            final ExecutionContext exec,
+            final double incProgress) throws CanceledExecutionException {
+        final long[] ranges = createRanges(leftTable.size());
+        if (ranges.length <= 2 || m_rowsAddedBeforeForcedOOM > 0) {
+            return null;
+        }
+        final Set<Integer> parts = new HashSet<Integer>(currParts);
+        final AtomicBoolean lowMemory = new AtomicBoolean();
+        final List<Map<Integer, Map<JoinTuple, RowIndexList>>> rangeTables =
+            new ArrayList<Map<Integer, Map<JoinTuple, RowIndexList>>>();
+        try (ProgressCounter progress = createProgressCounter(exec,
+                leftTable.size(), incProgress)) {
+            List<Future<Map<Integer, Map<JoinTuple, RowIndexList>>>> futures =
+                new ArrayList<Future<Map<Integer,
+                    Map<JoinTuple, RowIndexList>>>>();
+            for (int r = 0; r < ranges.length - 1; r++) {
+                final long from = ranges[r];
+                final long to = ranges[r + 1];
+                futures.add(m_threadPool.enqueue(() -> readRange(leftTable,
+                    from, to, parts, lowMemory, progress)));
+            }
+            for (Future<Map<Integer, Map<JoinTuple, RowIndexList>>> f
+                    : futures) {
+                rangeTables.add(waitFor(f));
+            }
+        }
+        if (lowMemory.get()) {
+            LOGGER.debug("Memory is low, read partitions of inner table "
+                    + "sequentially.");
+            return null;
+        }
+
+        // merge in order of the ranges, which keeps the row indices sorted
+        Set<Integer> nonEmptyParts = new HashSet<Integer>();
+        for (Map<Integer, Map<JoinTuple, RowIndexList>> t : rangeTables) {
+            nonEmptyParts.addAll(t.keySet());
+        }
+        Map<Integer, Future<Map<JoinTuple, RowIndexList>>> mergeFutures =
+            new HashMap<Integer, Future<Map<JoinTuple, RowIndexList>>>();
+        for (final Integer part : nonEmptyParts) {
+            mergeFutures.put(part, m_threadPool.enqueue(
+                () -> mergePartition(rangeTables, part)));
+        }
+        Map<Integer, Map<JoinTuple, RowIndexList>> leftTableHashed =
+            new HashMap<Integer, Map<JoinTuple, RowIndexList>>();
+        for (Map.Entry<Integer, Future<Map<JoinTuple, RowIndexList>>> e
+                : mergeFutures.entrySet()) {
+            leftTableHashed.put(e.getKey(), waitFor(e.getValue()));
+        }
+        return leftTableHashed;
+    }
+
+    /**
+     * Reads the rows of the given range of the left table that fall into the
+     * given partitions. Returns null as soon as memory gets low.
+     */
+    private Map<Integer, Map<JoinTuple, RowIndexList>> readRange(
+            final BufferedDataTable leftTable,
+            final long from, final long to,
+            final Set<Integer> parts,
+            final AtomicBoolean lowMemory,
+            final ProgressCounter progress)
+            throws CanceledExecutionException {
+        Map<Integer, Map<JoinTuple, RowIndexList>> leftTableHashed =
+            new HashMap<Integer, Map<JoinTuple, RowIndexList>>();
+        MemoryActionIndicator memIndicator =
+            MemoryAlertSystem.getInstance().newIndicator();
+        int counter = (int)from;
+        try (CloseableRowIterator leftIter =
+                leftTable.iteratorForRange(from, to)) {
+            while (leftIter.hasNext()) {
+                progress.checkCanceled();
+                if (lowMemory.get()) {
+                    return null;
+                }
+                if (memIndicator.lowMemoryActionRequired()) {
+                    lowMemory.set(true);
+                    return null;
+                }
+                InputRow inputDataRow = new InputRow(leftIter.next(), counter,
+                        InputRow.Settings.InDataPort.Left,
+                        m_inputDataRowSettings);
+                for (JoinTuple tuple : inputDataRow.getJoinTuples()) {
+                    int partition = tuple.hashCode() & m_bitMask;
+                    if (parts.contains(partition)) {
+                        addRow(leftTableHashed, partition, tuple,
+                            inputDataRow);
+                    }
+                }
+                counter++;
+                progress.increment();
+            }
+        }
+        return leftTableHashed;
+    }
+
+    /**
+     * Merges the hashed rows of the given partition of all ranges.
+     */
+    private static Map<JoinTuple, RowIndexList> mergePartition(
+            final List<Map<Integer, Map<JoinTuple, RowIndexList>>> rangeTables,
+            final Integer part) {
+        Map<JoinTuple, RowIndexList> merged = null;
+        for (Map<Integer, Map<JoinTuple, RowIndexList>> t : rangeTables) {
+            Map<JoinTuple, RowIndexList> partTuples = t.get(part);
+            if (null == partTuples) {
+                continue;
+            }
+            if (null == merged) {
+                merged = partTuples;
+                continue;
+            }
+            for (Map.Entry<JoinTuple, RowIndexList> e : partTuples.entrySet()) {
+                RowIndexList rows = merged.get(e.getKey());
+                if (null != rows) {
+                    rows.addAll(e.getValue());
+                } else {
+                    merged.put(e.getKey(), e.getValue());
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Splits a table into ranges which are processed concurrently.
+     *
+     * @param size The number of rows of the table.
+     * @return The boundaries of the ranges, a single range if only one thread
+     * is used or the table is small.
+     */
+    private long[] createRanges(final long size) {
+        int numRanges = null == m_threadPool ? 1
+            : (int)Math.max(1, Math.min(m_parallelism,
+                size / MIN_ROWS_PER_RANGE));
+        long[] ranges = new long[numRanges + 1];
+        for (int i = 0; i <= numRanges; i++) {
+            ranges[i] = size * i / numRanges;
+        }
+        return ranges;
+    }
+
+    /**
+     * Creates the counter the concurrent tasks count their rows with. The
+     * rows advance the progress of exec by incProgress each.
+     */
+    private static ProgressCounter createProgressCounter(
+            final ExecutionContext exec, final long rowCount,
+            final double incProgress) {
+        double share = Math.max(0.0, Math.min(1.0, rowCount * incProgress));
+        return exec.createSubProgress(share).createProgressCounter(
+            Math.max(1, rowCount), null);
+    }
+
+    /**
+     * Waits for a task and unwraps its exception, if any.
+     */
+    private static <T> T waitFor(final Future<T> future)
+            throws CanceledExecutionException {
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new CanceledExecutionException(
+                "Interrupted while waiting for join task");
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof CanceledExecutionException) {
+                throw (CanceledExecutionException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+
     /**
      * @param exec
      * @param pendingParts
@@ -813,82 +1036,53 @@ private void setMessage(final String activity,
     /**
      * Called when the number of partitions is doubled. The innerHash is
      * traversed and only those entries that are in the given part are
-     * retained. The innerIndexMap is build up so that it contains only
-     * the entries that are in the given part.
+     * retained.
      */
     private void retainPartitions(
-            final Map<Integer, Map<JoinTuple, Set<Integer>>> innerHash,
-            final Map<Integer, Set<Integer>> innerIndexMap,
+            final Map<Integer, Map<JoinTuple, RowIndexList>> innerHash,
             final int part) {
-        innerIndexMap.clear();
-
-        Map<JoinTuple, Set<Integer>> thisInnerHash = innerHash.get(part);
+        Map<JoinTuple, RowIndexList> thisInnerHash = innerHash.get(part);
         for (Iterator<JoinTuple> iter = thisInnerHash.keySet().iterator();
         iter.hasNext();) {
             JoinTuple tuple = iter.next();
             int index = tuple.hashCode() & m_bitMask;
             if (index != part) {
                 iter.remove();
-            } else if (m_retainLeft && !m_matchAny) {
-                Set<Integer> thisInnerIndexMap = innerIndexMap.get(index);
-                if (null == thisInnerIndexMap) {
-                    thisInnerIndexMap = new HashSet<Integer>();
-                    innerIndexMap.put(index, thisInnerIndexMap);
-                }
-                for (Integer rowIndex : thisInnerHash.get(tuple)) {
-                    thisInnerIndexMap.add(rowIndex);
-                }
             }
         }
     }
 
     /**
-     * Add a row to innerHash and innerIndexMap.
+     * Add a row to innerHash.
      * @param partition The index of the partition.
      * @param joinTuple The join tuples of the row.
      * @param row The row to be added.
      */
-    private void addRow(
-            final Map <Integer, Map<JoinTuple, Set<Integer>>> leftTableHashed,
-            final Map <Integer, Set<Integer>> leftOuterJoins,
+    private static void addRow(
+            final Map <Integer, Map<JoinTuple, RowIndexList>> leftTableHashed,
             final int partition, final JoinTuple joinTuple,
             final InputRow row) {
-        if (m_retainLeft  && !m_matchAny) {
-            Set<Integer> indices = leftOuterJoins.get(partition);
-            if (null == indices) {
-                indices = new HashSet<Integer>();
-                leftOuterJoins.put(partition, indices);
-            }
-            indices.add(row.getIndex());
-        }
-
-        Map<JoinTuple, Set<Integer>> partTuples =
+        Map<JoinTuple, RowIndexList> partTuples =
             leftTableHashed.get(partition);
         if (null == partTuples) {
-            partTuples = new HashMap<JoinTuple, Set<Integer>>();
+            partTuples = new HashMap<JoinTuple, RowIndexList>();
             leftTableHashed.put(partition, partTuples);
         }
 
-
-        Set<Integer> c = partTuples.get(joinTuple);
-        if (null != c) {
-            c.add(row.getIndex());
-        } else {
-            Set<Integer> list = new HashSet<Integer>();
-            list.add(row.getIndex());
-            partTuples.put(joinTuple, list);
+        RowIndexList c = partTuples.get(joinTuple);
+        if (null == c) {
+            c = new RowIndexList();
+            partTuples.put(joinTuple, c);
         }
-
-
+        c.add(row.getIndex());
     }
 
 
     /**
-     * Join given rows in memory and append joined row to the outputCont.
+     * Join given rows in memory and append joined row to the outputCont. The
+     * right table is split into ranges which are joined concurrently.
      *
      * @param leftTableHashed Stores the rows of the left input table in parts.
-     * @param leftOuterJoins The same number as found in leftTableHashed used
-     * for left outer joins.
      * @param currParts The parts of the outer table that will be joined.
      * @param rightTable The outer table.
      * @param outputCont The joined rows will be added to this container.
@@ -897,96 +1091,148 @@ private void addRow(
      * @throws CanceledExecutionException When execution is canceled
      */
     private void joinInMemory(
-            final Map <Integer, Map<JoinTuple, Set<Integer>>> leftTableHashed,
-            final Map <Integer, Set<Integer>> leftOuterJoins,
+            final Map <Integer, Map<JoinTuple, RowIndexList>> leftTableHashed,
             final Collection<Integer> currParts,
             final BufferedDataTable rightTable,
             final JoinContainer outputCont,
             final ExecutionContext exec,
             final double incProgress) throws CanceledExecutionException {
-        double progress = exec.getProgressMonitor().getProgress();
-        int counter = 0;
-        for (DataRow dataRow : rightTable) {
-            progress += incProgress;
-            exec.getProgressMonitor().setProgress(progress);
-            exec.checkCanceled();
-
-            InputRow rightRow = new InputRow(dataRow, counter,
-                    InputRow.Settings.InDataPort.Right,
-                    m_inputDataRowSettings);
-
-            boolean matchFoundForRightRow = false;
-            boolean deferMatch = false;
-
-            for (JoinTuple joinTuple : rightRow.getJoinTuples()) {
-                int partition = joinTuple.hashCode() & m_bitMask;
-                if (!currParts.contains(partition)) {
-                    deferMatch = true;
-                    // skip and defer non-match when partition is not in the current partitions
-                    continue;
+        final Set<Integer> parts = new HashSet<Integer>(currParts);
+        final long[] ranges = createRanges(rightTable.size());
+        // indices of the left rows that have a match
+        final BitSet leftMatches = new BitSet();
+        try (ProgressCounter progress = createProgressCounter(exec,
+                rightTable.size(), incProgress)) {
+            if (ranges.length <= 2) {
+                leftMatches.or(joinRange(leftTableHashed, parts, rightTable,
+                    0, rightTable.size(), outputCont, exec, progress));
+            } else {
+                List<Future<BitSet>> futures = new ArrayList<Future<BitSet>>();
+                for (int r = 0; r < ranges.length - 1; r++) {
+                    final long from = ranges[r];
+                    final long to = ranges[r + 1];
+                    futures.add(m_threadPool.enqueue(() -> joinRange(
+                        leftTableHashed, parts, rightTable, from, to,
+                        outputCont, exec, progress)));
                 }
+                for (Future<BitSet> f : futures) {
+                    leftMatches.or(waitFor(f));
+                }
+            }
+        }
 
-                Map<JoinTuple, Set<Integer>> leftTuples =
+        if (m_retainLeft && m_matchAny) {
+            m_globalLeftOuterJoins.andNot(leftMatches);
+        }
+        if (m_retainLeft && !m_matchAny) {
+            for (int partition : currParts) {
+                Map<JoinTuple, RowIndexList> leftTuples =
                     leftTableHashed.get(partition);
                 if (null == leftTuples) {
-                    // skip and check for outer join when the left table does not have rows that fall
-                    // in this partition
-                    deferMatch = false;
                     continue;
                 }
-
-                Set<Integer> localLeftOuterJoins = null;
-                if (m_retainLeft  && !m_matchAny) {
-                    localLeftOuterJoins = leftOuterJoins.get(partition);
-                }
-
-                Set<Integer> leftRows = leftTuples.get(joinTuple);
-                if (null != leftRows) {
-                    matchFoundForRightRow = true;
-                    for (Integer leftRowIndex : leftRows) {
-                        // add inner join
-                        DataRow outRow = OutputRow.createDataRow(
-                                outputCont.getRowCount(),
-                                leftRowIndex, rightRow.getIndex(),
-                                dataRow,
-                                m_outputDataRowSettings);
-                        outputCont.addMatch(outRow, exec);
-                        if (m_retainLeft && !m_matchAny) {
-                            localLeftOuterJoins.remove(leftRowIndex);
-                        }
-                        if (m_retainLeft && m_matchAny) {
-                            m_globalLeftOuterJoins.remove(leftRowIndex);
+                for (RowIndexList leftRows : leftTuples.values()) {
+                    for (int i = 0; i < leftRows.size(); i++) {
+                        int row = leftRows.get(i);
+                        if (!leftMatches.get(row)) {
+                            // add left outer join
+                            DataRow outRow = OutputRow.createDataRow(
+                                    outputCont.getRowCount(),
+                                    row, -1,
+                                    m_outputDataRowSettings);
+                            outputCont.addLeftOuter(outRow, exec);
                         }
                     }
                 }
             }
+        }
+    }
 
+    /**
+     * Joins the given range of the right table with the given rows of the left
+     * table. The joined rows are added to outputCont, which is synchronized on.
+     *
+     * @return The indices of the left rows that have a match in this range.
+     */
+    private BitSet joinRange(
+            final Map <Integer, Map<JoinTuple, RowIndexList>> leftTableHashed,
+            final Set<Integer> currParts,
+            final BufferedDataTable rightTable,
+            final long from, final long to,
+            final JoinContainer outputCont,
+            final ExecutionContext exec,
+            final ProgressCounter progress)
+            throws CanceledExecutionException {
+        BitSet leftMatches = new BitSet();
+        int counter = (int)from;
+        try (CloseableRowIterator rightIter =
+                rightTable.iteratorForRange(from, to)) {
+            while (rightIter.hasNext()) {
+                DataRow dataRow = rightIter.next();
+                progress.increment();
+                progress.checkCanceled();
+
+                InputRow rightRow = new InputRow(dataRow, counter,
+                        InputRow.Settings.InDataPort.Right,
+                        m_inputDataRowSettings);
 
-            if (m_retainRight && !matchFoundForRightRow && !deferMatch) {
-                long outRowIndex = outputCont.getRowCount();
-                // add right outer join
-                DataRow outRow = OutputRow.createDataRow(outRowIndex,
-                        -1, rightRow.getIndex(),
-                        dataRow,
-                        m_outputDataRowSettings);
-                outputCont.addRightOuter(outRow, exec);
-            }
-            counter++;
-        }
+                boolean matchFoundForRightRow = false;
+                boolean deferMatch = false;
 
-        if (m_retainLeft && !m_matchAny) {
-            for (int partition : leftOuterJoins.keySet()) {
-                for (Integer row : leftOuterJoins.get(partition)) {
-                    // add left outer join
-                    DataRow outRow = OutputRow.createDataRow(
-                            outputCont.getRowCount(),
-                            row, -1,
-                            m_outputDataRowSettings);
-                    outputCont.addLeftOuter(outRow, exec);
+                for (JoinTuple joinTuple : rightRow.getJoinTuples()) {
+                    int partition = joinTuple.hashCode() & m_bitMask;
+                    if (!currParts.contains(partition)) {
+                        deferMatch = true;
+                        // skip and defer non-match when partition is not in
+                        // the current partitions
+                        continue;
+                    }
+
+                    Map<JoinTuple, RowIndexList> leftTuples =
+                        leftTableHashed.get(partition);
+                    if (null == leftTuples) {
+                        // skip and check for outer join when the left table
+                        // does not have rows that fall in this partition
+                        deferMatch = false;
+                        continue;
+                    }
+
+                    RowIndexList leftRows = leftTuples.get(joinTuple);
+                    if (null != leftRows) {
+                        matchFoundForRightRow = true;
+                        for (int i = 0; i < leftRows.size(); i++) {
+                            int leftRowIndex = leftRows.get(i);
+                            synchronized (outputCont) {
+                                // add inner join
+                                DataRow outRow = OutputRow.createDataRow(
+                                        outputCont.getRowCount(),
+                                        leftRowIndex, rightRow.getIndex(),
+                                        dataRow,
+                                        m_outputDataRowSettings);
+                                outputCont.addMatch(outRow, exec);
+                            }
+                            if (m_retainLeft) {
+                                leftMatches.set(leftRowIndex);
+                            }
+                        }
+                    }
+                }
+
+                if (m_retainRight && !matchFoundForRightRow && !deferMatch) {
+                    synchronized (outputCont) {
+                        long outRowIndex = outputCont.getRowCount();
+                        // add right outer join
+                        DataRow outRow = OutputRow.createDataRow(outRowIndex,
+                                -1, rightRow.getIndex(),
+                                dataRow,
+                                m_outputDataRowSettings);
+                        outputCont.addRightOuter(outRow, exec);
+                    }
                 }
+                counter++;
             }
         }
-
+        return leftMatches;
     }
 
     private List<Integer> getLeftJoinIndices(
@@ -1239,5 +1485,14 @@ void setNumBitsMaximal(final int bits) {
         m_numBitsMaximal = bits;
     }
 
+    /**
+     * Used for testing, only.
+     * @param parallelism number of threads used to read and join the
+     * partitions, 1 to do everything in the calling thread
+     */
+    void setParallelism(final int parallelism) {
+        m_parallelism = parallelism;
+    }
+
 }
 
@@ -47,7 +47,9 @@
  */
 package org.knime.base.node.preproc.joiner;
 
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataColumnSpec;
@@ -178,6 +180,18 @@ static RowKey getRightKey(final DataRow row) {
         }
     }
 
+    /**
+     * @param spec The spec of rows created by the factory methods of this
+     * class.
+     * @return The names of the columns holding the index of the left and the
+     * right row.
+     */
+    static List<String> getIndexColumnNames(final DataTableSpec spec) {
+        final int numColumns = spec.getNumColumns();
+        return Arrays.asList(spec.getColumnSpec(numColumns - 2).getName(),
+                spec.getColumnSpec(numColumns - 1).getName());
+    }
+
     /**
      * Creates a comparator which can be used to order {@link DataRow}s
      * created by the factory methods of this class.
@@ -0,0 +1,110 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.base.node.preproc.joiner;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of row indices backed by an <code>int</code> array. Used by the {@link Joiner} instead of a
+ * <code>Set&lt;Integer&gt;</code> to store the indices of the rows that share a {@link JoinTuple}. Since the rows of a
+ * table are read in order and a row contributes a join tuple at most once, the indices are added in ascending order
+ * and are unique without further checks.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class RowIndexList {
+
+    private int[] m_indices;
+
+    private int m_size;
+
+    /** Creates an empty list. */
+    RowIndexList() {
+        m_indices = new int[2];
+    }
+
+    /**
+     * @param index the index to append
+     */
+    void add(final int index) {
+        if (m_size == m_indices.length) {
+            m_indices = Arrays.copyOf(m_indices, m_size + (m_size >> 1) + 1);
+        }
+        m_indices[m_size++] = index;
+    }
+
+    /**
+     * Appends all indices of the argument list.
+     *
+     * @param other the list to append
+     */
+    void addAll(final RowIndexList other) {
+        if (m_size + other.m_size > m_indices.length) {
+            m_indices = Arrays.copyOf(m_indices, m_size + other.m_size);
+        }
+        System.arraycopy(other.m_indices, 0, m_indices, m_size, other.m_size);
+        m_size += other.m_size;
+    }
+
+    /**
+     * @return the number of indices in this list
+     */
+    int size() {
+        return m_size;
+    }
+
+    /**
+     * @param i the position in this list
+     * @return the row index at the given position
+     */
+    int get(final int i) {
+        return m_indices[i];
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(m_indices, m_size));
+    }
+}
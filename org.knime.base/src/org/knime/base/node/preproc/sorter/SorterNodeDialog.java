@@ -156,9 +156,11 @@ protected void loadSettingsFrom(final NodeSettingsRO settings,
         }
         boolean sortMissingToEnd = settings.getBoolean(
                 SorterNodeModel.MISSING_TO_END_KEY, false);
+        boolean sortInParallel = settings.getBoolean(
+                SorterNodeModel.SORT_IN_PARALLEL_KEY, false);
         // set the values on the panel
         m_panel.update(specs[SorterNodeModel.INPORT], list, sortOrder,
-                NRSORTITEMS, sortinMemory, sortMissingToEnd);
+                NRSORTITEMS, sortinMemory, sortMissingToEnd, sortInParallel);
     }
 
     /**
@@ -184,5 +186,7 @@ protected void saveSettingsTo(final NodeSettingsWO settings)
                 .sortInMemory());
         settings.addBoolean(SorterNodeModel.MISSING_TO_END_KEY,
                 m_panel.isSortMissingToEnd());
+        settings.addBoolean(SorterNodeModel.SORT_IN_PARALLEL_KEY,
+                m_panel.isSortInParallel());
     }
 }
@@ -122,6 +122,9 @@ public class SorterNodeDialogPanel2 extends JPanel {
      * chosen sort order. */
     private final JCheckBox m_sortMissingToEndChecker;
 
+    /** Checkbox to sort using multiple threads. */
+    private final JCheckBox m_sortInParallelChecker;
+
     /**
      * Constructs a new empty JPanel used for displaying the three first
      * selected columns in the according order and the sorting order for each.
@@ -137,6 +140,9 @@ public class SorterNodeDialogPanel2 extends JPanel {
         m_sortMissingToEndChecker.setToolTipText("Missing values will be "
                 + "moved to the end independent of the sort order ("
                 + "otherwise they are considered to be the smallest elements)");
+        m_sortInParallelChecker = new JCheckBox("Sort in parallel");
+        m_sortInParallelChecker.setToolTipText("Sort and merge temporary "
+                + "tables using multiple threads");
     }
 
     /**
@@ -149,10 +155,12 @@ public class SorterNodeDialogPanel2 extends JPanel {
      * @param nrsortitems the inital number of sortitems to be shown
      * @param sortInMemory whether to perform the sorting in memory or not
      * @param missingToEnd Whether to move missings to the end
+     * @param sortInParallel Whether to sort using multiple threads
      */
     void update(final DataTableSpec spec, final List<String> incl,
             final boolean[] sortOrder, final int nrsortitems,
-            final boolean sortInMemory, final boolean missingToEnd) {
+            final boolean sortInMemory, final boolean missingToEnd,
+            final boolean sortInParallel) {
         m_spec = spec;
         m_memory = sortInMemory;
         super.removeAll();
@@ -267,7 +275,8 @@ public void actionPerformed(final ActionEvent ae) {
                     boolean misToEnd =
                         m_sortMissingToEndChecker.isSelected();
                     update(m_spec, newlist, newbool, (oldsize + newsize),
-                            m_memory, misToEnd);
+                            m_memory, misToEnd,
+                            m_sortInParallelChecker.isSelected());
                 }
             });
             buttonbox.add(spinner);
@@ -293,6 +302,11 @@ public void actionPerformed(final ActionEvent ae) {
             m_sortMissingToEndChecker.setSelected(missingToEnd);
             missingToEndBox.add(m_sortMissingToEndChecker);
             super.add(missingToEndBox);
+
+            Box parallelBox = Box.createHorizontalBox();
+            m_sortInParallelChecker.setSelected(sortInParallel);
+            parallelBox.add(m_sortInParallelChecker);
+            super.add(parallelBox);
             revalidate();
         }
     }
@@ -354,6 +368,11 @@ boolean isSortMissingToEnd() {
         return m_sortMissingToEndChecker.isSelected();
     }
 
+    /** @return the sortInParallel checkbox property */
+    boolean isSortInParallel() {
+        return m_sortInParallelChecker.isSelected();
+    }
+
     /**
      * @return whether to perform the sorting in memory or not.
      */
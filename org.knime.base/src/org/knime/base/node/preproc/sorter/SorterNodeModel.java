@@ -110,6 +110,12 @@ public class SorterNodeModel extends NodeModel {
      */
     static final String MISSING_TO_END_KEY = "missingToEnd";
 
+    /**
+     * Settings key: Sort using multiple threads.
+     * @since 3.6
+     */
+    static final String SORT_IN_PARALLEL_KEY = "sortInParallel";
+
     /*
      * List contains the data cells to include.
      */
@@ -132,6 +138,11 @@ public class SorterNodeModel extends NodeModel {
      */
     private boolean m_missingToEnd = false;
 
+    /** Sort chunks and merge temporary tables concurrently.
+     * @since 3.6
+     */
+    private boolean m_sortInParallel = false;
+
     /**
      * Inits a new <code>SorterNodeModel</code> with one in- and one output.
      *
@@ -173,6 +184,7 @@ protected BufferedDataTable[] execute(final BufferedDataTable[] inData,
         BufferedDataTableSorter sorter = new BufferedDataTableSorter(
                 inData[INPORT], m_inclList, m_sortOrder, m_missingToEnd);
         sorter.setSortInMemory(m_sortInMemory);
+        sorter.setParallel(m_sortInParallel);
         BufferedDataTable sortedTable = sorter.sort(exec);
 
         return new BufferedDataTable[]{sortedTable};
@@ -238,6 +250,8 @@ protected void saveSettingsTo(final NodeSettingsWO settings) {
         settings.addBoolean(SORTINMEMORY_KEY, m_sortInMemory);
         // added in 2.6
         settings.addBoolean(MISSING_TO_END_KEY, m_missingToEnd);
+        // added in 3.6
+        settings.addBoolean(SORT_IN_PARALLEL_KEY, m_sortInParallel);
     }
 
     /**
@@ -270,7 +284,7 @@ protected void validateSettings(final NodeSettingsRO settings)
         if (sortorder == null) {
             throw new InvalidSettingsException("No sort order specified.");
         }
-        // no "missingToBottom" prior 2.6
+        // no "missingToBottom" prior 2.6, no "sortInParallel" prior 3.6
     }
 
     /**
@@ -293,6 +307,8 @@ protected void loadValidatedSettingsFrom(final NodeSettingsRO settings)
         }
         // added in 2.6, catch missing setting
         m_missingToEnd = settings.getBoolean(MISSING_TO_END_KEY, false);
+        // added in 3.6
+        m_sortInParallel = settings.getBoolean(SORT_IN_PARALLEL_KEY, false);
     }
 
     /**
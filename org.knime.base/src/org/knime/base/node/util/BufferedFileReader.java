@@ -335,16 +335,19 @@ public int read(final char[] cbuf, final int off, final int len)
             }
 
             int count = 0;
-            int buf = off;
             while (count < len) {
-                int c = readNextChar();
-                if (c == -1) {
+                if (m_next == m_length) {
+                    readNextLine();
+                }
+                if (m_next == -1) {
                     // if we didn't read no character, return -1
                     return (count == 0 ? -1 : count);
                 }
-
-                cbuf[buf++] = (char)c;
-                count++;
+                // copy as much of the current line as possible
+                int n = Math.min(len - count, m_length - m_next);
+                m_currentLine.getChars(m_next, m_next + n, cbuf, off + count);
+                m_next += n;
+                count += n;
             }
 
             return count;
@@ -647,6 +650,22 @@ public static BufferedFileReader createNewReader(final URL dataLocation,
      *         stream reads from a file).
      */
     public static BufferedFileReader createNewReader(final InputStream in) {
+        return createNewReader(in, Charset.defaultCharset());
+    }
+
+    /**
+     * Same as the method above ({@link #createNewReader(InputStream)}), but
+     * decodes the stream with the specified character set.
+     *
+     * @param in the stream to read from
+     * @param charset the character set to decode the stream with
+     * @return a new buffered reader with some extra functionality (compared to
+     *         the {@link BufferedReader}), but no file size (even if the
+     *         stream reads from a file).
+     * @since 3.6
+     */
+    public static BufferedFileReader createNewReader(final InputStream in,
+            final Charset charset) {
         if (in == null) {
             throw new NullPointerException("Can't open a reader on a null "
                     + "input stream");
@@ -654,7 +673,8 @@ public static BufferedFileReader createNewReader(final InputStream in) {
 
         // the stream used to get the byte count from
         ByteCountingStream sourceStream = new ByteCountingStream(in);
-        InputStreamReader readerStream = new InputStreamReader(sourceStream);
+        InputStreamReader readerStream =
+                new InputStreamReader(sourceStream, charset);
 
         return new BufferedFileReader(readerStream, sourceStream, 0);
 
@@ -52,9 +52,11 @@
 import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Test;
@@ -373,4 +375,42 @@ public void testDefaultNumberOfPossibleValues() {
         assertThat("Unexpected possible values", colDomain.getValues(), is(nullValue()));
 
     }
+
+    /**
+     * Checks that merging partial creators in order gives the same domain (including the order of possible values) as
+     * processing all rows with one creator.
+     */
+    @Test
+    public void testMergePartials() {
+        DataTableSpec tableSpec = new DataTableSpec(
+            new DataColumnSpecCreator("String col", StringCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Int col", IntCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Many strings", StringCell.TYPE).createSpec());
+
+        DataTableDomainCreator sequential = new DataTableDomainCreator(tableSpec, false);
+        sequential.setMaxPossibleValues(50);
+        DataTableDomainCreator merged = new DataTableDomainCreator(tableSpec, false);
+        merged.setMaxPossibleValues(50);
+
+        Random rand = new Random(4711);
+        for (int part = 0; part < 10; part++) {
+            DataTableDomainCreator partial = merged.createPartialCreator();
+            for (int i = 0; i < 100; i++) {
+                DataRow row = new DefaultRow(RowKey.createRowKey((long)(part * 100 + i)),
+                    new StringCell(Integer.toString(rand.nextInt(40))), new IntCell(rand.nextInt(1000) - 500),
+                    new StringCell(Integer.toString(part * 100 + i)));
+                sequential.updateDomain(row);
+                partial.updateDomain(row);
+            }
+            merged.merge(partial);
+        }
+
+        DataTableSpec expected = sequential.createSpec();
+        DataTableSpec actual = merged.createSpec();
+        assertThat("Unexpected domain", actual, is(expected));
+        assertThat("Unexpected order of possible values",
+            new ArrayList<>(actual.getColumnSpec(0).getDomain().getValues()),
+            is(new ArrayList<>(expected.getColumnSpec(0).getDomain().getValues())));
+        assertThat("Unexpected possible values", actual.getColumnSpec(2).getDomain().getValues(), is(nullValue()));
+    }
 }
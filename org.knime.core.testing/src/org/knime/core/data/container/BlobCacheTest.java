@@ -0,0 +1,268 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.container.BlobDataCell.BlobAddress;
+
+/**
+ * Tests {@link BlobCache}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class BlobCacheTest {
+
+    private static final long BLOB_SIZE = BlobCache.MIN_BLOB_BYTES;
+
+    /** Minimal blob cell. */
+    @SuppressWarnings("serial")
+    private static final class TestBlobCell extends BlobDataCell {
+        private final int m_value;
+
+        TestBlobCell(final int value) {
+            m_value = value;
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toString(m_value);
+        }
+
+        @Override
+        protected boolean equalsDataCell(final DataCell dc) {
+            return m_value == ((TestBlobCell)dc).m_value;
+        }
+
+        @Override
+        public int hashCode() {
+            return m_value;
+        }
+    }
+
+    private static BlobAddress createAddress(final int index) {
+        BlobAddress address = new BlobAddress(1, 0, false);
+        address.setIndexOfBlobInColumn(index);
+        return address;
+    }
+
+    /** Cached blobs are found for the same owner and address only; hits and misses are counted. */
+    @Test
+    public void testGetPut() {
+        BlobCache cache = new BlobCache(100 * BLOB_SIZE);
+        TestBlobCell cell = new TestBlobCell(0);
+        assertNull(cache.get(1, createAddress(0)));
+        cache.put(1, createAddress(0), cell, -1L);
+        assertSame(cell, cache.get(1, createAddress(0)));
+        assertNull(cache.get(2, createAddress(0)));
+        assertNull(cache.get(1, createAddress(1)));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(BLOB_SIZE, cache.getCachedBytes());
+
+        // blobs larger than the budget are not cached
+        cache.put(1, createAddress(2), new TestBlobCell(2), 101 * BLOB_SIZE);
+        assertNull(cache.get(1, createAddress(2)));
+    }
+
+    /** The cache stays within its budget and recently used blobs survive. */
+    @Test
+    public void testEviction() {
+        BlobCache cache = new BlobCache(10 * BLOB_SIZE);
+        TestBlobCell hotCell = new TestBlobCell(0);
+        cache.put(1, createAddress(0), hotCell, BLOB_SIZE);
+        for (int i = 1; i < 100; i++) {
+            assertSame(hotCell, cache.get(1, createAddress(0)));
+            cache.put(1, createAddress(i), new TestBlobCell(i), BLOB_SIZE);
+            assertTrue("Cache exceeds budget: " + cache, cache.getCachedBytes() <= cache.getMaxBytes());
+        }
+        assertEquals(10, cache.getCachedBlobCount());
+        assertEquals(90, cache.getEvictionCount());
+        assertSame(hotCell, cache.get(1, createAddress(0)));
+        assertTrue(cache.get(1, createAddress(99)) != null);
+    }
+
+    /** Invalidating an owner removes only its blobs. */
+    @Test
+    public void testInvalidate() {
+        BlobCache cache = new BlobCache(100 * BLOB_SIZE);
+        for (int i = 0; i < 10; i++) {
+            cache.put(1, createAddress(i), new TestBlobCell(i), BLOB_SIZE);
+            cache.put(2, createAddress(i), new TestBlobCell(i), BLOB_SIZE);
+        }
+        cache.invalidate(1);
+        assertEquals(10, cache.getCachedBlobCount());
+        assertEquals(10 * BLOB_SIZE, cache.getCachedBytes());
+        assertNull(cache.get(1, createAddress(0)));
+        assertTrue(cache.get(2, createAddress(0)) != null);
+        cache.clear();
+        assertEquals(0, cache.getCachedBlobCount());
+        assertEquals(0L, cache.getCachedBytes());
+    }
+
+    /**
+     * Blobs reclaimed by the garbage collector while the cache is within its budget (removed on lookup, on the next put
+     * or replaced by a new put) don't pile up in the clock queue.
+     */
+    @Test
+    public void testReclaimedBlobsLeaveClock() {
+        BlobCache cache = new BlobCache(100000 * BLOB_SIZE);
+        List<TestBlobCell> liveCells = new ArrayList<TestBlobCell>();
+        for (int i = 0; i < 10000; i++) {
+            TestBlobCell cell = new TestBlobCell(i);
+            cache.put(1, createAddress(i), cell, BLOB_SIZE);
+            switch (i % 4) {
+                case 0:
+                    // stays cached
+                    liveCells.add(cell);
+                    break;
+                case 1:
+                    // removed on the next put
+                    cache.reclaim(1, createAddress(i));
+                    break;
+                case 2:
+                    // removed on lookup
+                    cache.reclaim(1, createAddress(i));
+                    assertNull(cache.get(1, createAddress(i)));
+                    break;
+                default:
+                    // replaced by a new put
+                    cache.reclaim(1, createAddress(i));
+                    cache.put(1, createAddress(i), cell, BLOB_SIZE);
+                    assertSame(cell, cache.get(1, createAddress(i)));
+                    liveCells.add(cell);
+            }
+            assertTrue("Clock queue too long: " + cache.getClockLength() + " for " + cache,
+                cache.getClockLength() <= 2 * cache.getCachedBlobCount() + 2);
+        }
+        assertEquals(liveCells.size(), cache.getCachedBlobCount());
+        assertEquals(liveCells.size() * BLOB_SIZE, cache.getCachedBytes());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    /**
+     * Invalidating an owner while another thread evicts (and re-queues referenced blobs of that owner) leaves no blob
+     * of the owner in the cache.
+     */
+    @Test(timeout = 60000)
+    public void testInvalidateWhileEvicting() throws Exception {
+        final BlobCache cache = new BlobCache(50 * BLOB_SIZE);
+        final AtomicBoolean isDone = new AtomicBoolean();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> future = executor.submit(() -> {
+                // keeps the cache over budget, owner 2 only
+                for (int i = 0; !isDone.get(); i++) {
+                    cache.put(2, createAddress(i % 1000), new TestBlobCell(i), BLOB_SIZE);
+                }
+            });
+            for (int round = 0; round < 200; round++) {
+                long owner = 3 + round;
+                for (int i = 0; i < 20; i++) {
+                    cache.put(owner, createAddress(i), new TestBlobCell(i), BLOB_SIZE);
+                    // referenced blobs get a second chance, i.e. are re-queued by the evicting thread
+                    cache.get(owner, createAddress(i));
+                }
+                cache.invalidate(owner);
+            }
+            isDone.set(true);
+            future.get();
+        } finally {
+            executor.shutdown();
+        }
+        cache.invalidate(2);
+        assertEquals("Blobs of invalidated owners left: " + cache, 0, cache.getCachedBlobCount());
+        assertEquals(0L, cache.getCachedBytes());
+    }
+
+    /** Concurrent readers and writers keep the size accounting consistent. */
+    @Test(timeout = 60000)
+    public void testConcurrentAccess() throws Exception {
+        final BlobCache cache = new BlobCache(50 * BLOB_SIZE);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 20000; i++) {
+                        int index = random.nextInt(200);
+                        long owner = 1 + random.nextInt(2);
+                        BlobDataCell cell = cache.get(owner, createAddress(index));
+                        if (cell == null) {
+                            cache.put(owner, createAddress(index), new TestBlobCell(index), BLOB_SIZE);
+                        } else {
+                            assertEquals(index, cell.hashCode());
+                        }
+                        if (i % 5000 == 0) {
+                            cache.invalidate(owner);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(cache.getCachedBlobCount() * BLOB_SIZE, cache.getCachedBytes());
+        assertEquals(8 * 20000L, cache.getHitCount() + cache.getMissCount());
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.MissingCell;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.storage.AbstractTableStoreReader.TableStoreCloseableRowIterator;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowWriteFileStoreHandler;
+import org.knime.core.node.NodeSettings;
+
+/**
+ * Tests writing and reading tables in the {@link ColumnarTableStoreFormat}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ColumnarTableStoreFormatTest {
+
+    private static final DataTableSpec SPEC = new DataTableSpec(
+        new String[]{"int", "long", "double", "boolean", "string"},
+        new DataType[]{IntCell.TYPE, LongCell.TYPE, DoubleCell.TYPE, BooleanCell.TYPE, StringCell.TYPE});
+
+    private static final int ROW_COUNT = 2500;
+
+    private File m_file;
+
+    private Buffer m_buffer;
+
+    /** Creates the temp file. */
+    @Before
+    public void setUp() throws Exception {
+        m_file = File.createTempFile("columnar-test", ".bin.col");
+        m_buffer = new Buffer(SPEC, 0, -1, Collections.emptyMap(), Collections.emptyMap(),
+            NotInWorkflowWriteFileStoreHandler.create());
+    }
+
+    /** Deletes the temp file. */
+    @After
+    public void tearDown() {
+        m_file.delete();
+    }
+
+    private static DataRow createRow(final int i) {
+        DataCell[] cells = new DataCell[]{new IntCell(i), new LongCell(i * 1000000007L), new DoubleCell(i / 3.0),
+            BooleanCell.get(i % 3 == 0), new StringCell("Row-ä-" + i)};
+        if (i % 7 == 0) {
+            cells[i % 5] = DataType.getMissingCell();
+        }
+        if (i % 11 == 0) {
+            cells[(i + 1) % 5] = new MissingCell("error " + i);
+        }
+        return new DefaultRow(RowKey.createRowKey((long)i), cells);
+    }
+
+    private ColumnarTableStoreReader writeTable(final int rowsPerGroup) throws Exception {
+        NodeSettings settings = new NodeSettings("format");
+        try (ColumnarTableStoreWriter writer =
+            new ColumnarTableStoreWriter(SPEC, new FileOutputStream(m_file), true, rowsPerGroup)) {
+            for (int i = 0; i < ROW_COUNT; i++) {
+                writer.writeRow(createRow(i));
+            }
+            writer.close();
+            writer.writeMetaInfoAfterWrite(settings);
+        }
+        return (ColumnarTableStoreReader)new ColumnarTableStoreFormat().createReader(m_file, SPEC, settings,
+            Collections.emptyMap(), 10, true);
+    }
+
+    /** Writes multiple row groups and reads all columns back. */
+    @Test
+    public void testRoundTrip() throws Exception {
+        ColumnarTableStoreReader reader = writeTable(1000);
+        TableStoreCloseableRowIterator it = reader.iterator();
+        it.setBuffer(m_buffer);
+        int i = 0;
+        while (it.hasNext()) {
+            DataRow expected = createRow(i);
+            DataRow actual = it.next();
+            assertEquals("Row key of row " + i, expected.getKey(), actual.getKey());
+            for (int c = 0; c < SPEC.getNumColumns(); c++) {
+                assertEquals("Cell " + c + " in row " + i, expected.getCell(c), actual.getCell(c));
+                if (expected.getCell(c) instanceof MissingCell && actual.getCell(c).isMissing()) {
+                    assertEquals("Missing cell error in row " + i, ((MissingCell)expected.getCell(c)).getError(),
+                        ((MissingCell)actual.getCell(c)).getError());
+                }
+            }
+            i++;
+        }
+        assertEquals("Number of rows read", ROW_COUNT, i);
+    }
+
+    /** Reads only selected columns, all others must be missing. */
+    @Test
+    public void testProjection() throws Exception {
+        ColumnarTableStoreReader reader = writeTable(-1);
+        TableStoreCloseableRowIterator it = reader.iterator(new int[]{2, 4});
+        it.setBuffer(m_buffer);
+        int i = 0;
+        while (it.hasNext()) {
+            DataRow expected = createRow(i);
+            DataRow actual = it.next();
+            assertEquals(expected.getKey(), actual.getKey());
+            assertEquals(expected.getCell(2), actual.getCell(2));
+            assertEquals(expected.getCell(4), actual.getCell(4));
+            assertTrue("Unread column must be missing", actual.getCell(0).isMissing());
+            assertTrue("Unread column must be missing", actual.getCell(3).isMissing());
+            i++;
+        }
+        assertEquals("Number of rows read", ROW_COUNT, i);
+    }
+
+    /** Only int, long, double, boolean and string columns are accepted. */
+    @Test
+    public void testAccepts() {
+        ColumnarTableStoreFormat format = new ColumnarTableStoreFormat();
+        assertTrue(format.accepts(SPEC));
+        assertFalse(format.accepts(new DataTableSpec()));
+        assertFalse(format.accepts(new DataTableSpec(new String[]{"a", "b"},
+            new DataType[]{IntCell.TYPE, DataType.getType(DataCell.class)})));
+    }
+}
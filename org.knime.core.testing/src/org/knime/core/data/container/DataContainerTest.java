@@ -48,10 +48,12 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.RandomStringUtils;
 import org.eclipse.core.runtime.Platform;
@@ -69,6 +71,7 @@
 import org.knime.core.data.def.StringCell;
 import org.knime.core.data.util.ObjectToDataCellConverter;
 import org.knime.core.data.util.memory.MemoryAlertSystem;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.util.DuplicateKeyException;
 
@@ -676,29 +679,100 @@ public void testTableDomain() {
         assertEquals(max, r3Cell2);
     }
 
+    /** Tests adding rows in batches, mixed with single rows, retains the order. */
+    public void testAddRowsToTable() {
+        final int count = 5 * DataContainer.ASYNC_CACHE_SIZE + 17;
+        List<DataRow> expected = new ArrayList<DataRow>();
+        for (RowIterator it = generateRows(count); it.hasNext();) {
+            expected.add(it.next());
+        }
+        DataContainer c = new DataContainer(SPEC_STR_INT_DBL, true, 0);
+        c.addRowsToTable(expected.subList(0, 3).toArray(new DataRow[0]));
+        c.addRowToTable(expected.get(3));
+        c.addRowsToTable(Collections.<DataRow> emptyList());
+        c.addRowsToTable(expected.subList(4, count));
+        assertEquals(count, c.size());
+        c.close();
+        RowIterator it = c.getTable().iterator();
+        for (DataRow row : expected) {
+            assertTrue(it.hasNext());
+            assertEquals(row, it.next());
+        }
+        assertFalse(it.hasNext());
+    }
+
+    /**
+     * Tests that more containers than write threads per disk all stay asynchronous and are written completely, and
+     * that the rows are written by the write threads and never by the thread adding them.
+     */
     public void testAsyncWriteLimits() throws Exception {
         Assume.assumeTrue(!DataContainer.SYNCHRONOUS_IO);
-        final int limit = Platform.ARCH_X86.equals(Platform.getOSArch()) ? 10 : 50;
+        final int limit = Platform.ARCH_X86.equals(Platform.getOSArch()) ? 2 : DataContainer.DEF_ASYNC_WRITE_THREADS;
+        Assume.assumeTrue(System.getProperty(KNIMEConstants.PROPERTY_ASYNC_WRITE_THREADS_PER_DISK) == null);
         Assert.assertEquals(limit, DataContainer.MAX_ASYNC_WRITE_THREADS);
-        RowIterator infinitIterator = generateRows(Integer.MAX_VALUE);
+        final int rowCount = 3 * DataContainer.ASYNC_CACHE_SIZE;
         List<DataContainer> containerList = new ArrayList<DataContainer>();
-        try {
-            boolean isAsync;
-            do {
-                int activeCount = DataContainer.ASYNC_EXECUTORS.getActiveCount();
-                DataContainer c = new DataContainer(SPEC_STR_INT_DBL, true, 0);
-                c.addRowToTable(infinitIterator.next());
-                // no activeCount is incremented by one - so order of two lines is important.
-                containerList.add(c);
-                isAsync = activeCount <= limit;
-                assertEquals("unexpected async write behavior, active thread count is " + activeCount,
-                    isAsync, !c.isSynchronousWrite());
-            } while (isAsync);
-        } finally {
+        for (int i = 0; i < 5 * limit; i++) {
+            DataContainer c = new DataContainer(SPEC_STR_INT_DBL, true, 0);
+            assertFalse("unexpected synchronous write", c.isSynchronousWrite());
+            containerList.add(c);
+        }
+        // add rows round robin, containers wait for their turn on the write threads
+        final Set<Thread> writingThreads = ConcurrentHashMap.newKeySet();
+        RowIterator rowIterator = generateRows(rowCount);
+        while (rowIterator.hasNext()) {
+            DataRow row = new ThreadRecordingRow(rowIterator.next(), writingThreads);
             for (DataContainer c : containerList) {
-                c.close();
+                c.addRowToTable(row);
             }
         }
+        for (DataContainer c : containerList) {
+            c.close();
+            assertEquals(rowCount, c.getBufferedTable().size());
+        }
+        assertFalse("no rows written", writingThreads.isEmpty());
+        assertFalse("rows written by the thread adding them", writingThreads.contains(Thread.currentThread()));
+        for (Thread t : writingThreads) {
+            assertTrue("rows written by unexpected thread \"" + t.getName() + "\"",
+                t.getName().startsWith("KNIME-TableIO-"));
+        }
+    }
+
+    /**
+     * Delegates to a row and records the threads accessing its key, i.e. the threads writing it (the domain is
+     * calculated by other threads, which only access the cells).
+     */
+    private static final class ThreadRecordingRow implements DataRow {
+
+        private final DataRow m_row;
+
+        private final Set<Thread> m_threads;
+
+        ThreadRecordingRow(final DataRow row, final Set<Thread> threads) {
+            m_row = row;
+            m_threads = threads;
+        }
+
+        @Override
+        public int getNumCells() {
+            return m_row.getNumCells();
+        }
+
+        @Override
+        public RowKey getKey() {
+            m_threads.add(Thread.currentThread());
+            return m_row.getKey();
+        }
+
+        @Override
+        public DataCell getCell(final int index) {
+            return m_row.getCell(index);
+        }
+
+        @Override
+        public Iterator<DataCell> iterator() {
+            return m_row.iterator();
+        }
     }
 
     private static DataRow createRandomRow(final int index, final int colCount, final Random rand1,
@@ -0,0 +1,167 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link Lz4Codec} and the {@link Lz4BlockOutputStream} / {@link Lz4BlockInputStream} pair.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class Lz4CodecTest {
+
+    private static byte[] roundTripBlock(final byte[] data) throws IOException {
+        byte[] compressed = new byte[Lz4Codec.maxCompressedLength(data.length)];
+        int length = Lz4Codec.compress(data, data.length, compressed, Lz4Codec.newHashTable());
+        byte[] result = new byte[data.length];
+        Lz4Codec.decompress(compressed, length, result, data.length);
+        return result;
+    }
+
+    private static byte[] roundTripStream(final byte[] data, final boolean byteWise) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Lz4BlockOutputStream out = new Lz4BlockOutputStream(bytes)) {
+            if (byteWise) {
+                for (byte b : data) {
+                    out.write(b);
+                }
+            } else {
+                out.write(data);
+            }
+        }
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream in = new Lz4BlockInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            if (byteWise) {
+                int b;
+                while ((b = in.read()) >= 0) {
+                    result.write(b);
+                }
+            } else {
+                byte[] buf = new byte[1000];
+                int read;
+                while ((read = in.read(buf)) >= 0) {
+                    result.write(buf, 0, read);
+                }
+            }
+        }
+        return result.toByteArray();
+    }
+
+    private static byte[] createCompressibleData(final int length, final long seed) {
+        Random r = new Random(seed);
+        StringBuilder b = new StringBuilder(length + 20);
+        while (b.length() < length) {
+            b.append("Row").append(r.nextInt(1000)).append(';').append(r.nextBoolean() ? "true" : "false");
+        }
+        return b.substring(0, length).getBytes();
+    }
+
+    /** Empty, tiny, random and repetitive blocks. */
+    @Test
+    public void testBlockRoundTrip() throws IOException {
+        Random r = new Random(42);
+        for (int length : new int[]{0, 1, 5, 12, 13, 100, 4096, 65536}) {
+            byte[] random = new byte[length];
+            r.nextBytes(random);
+            assertArrayEquals("Random data of length " + length, random, roundTripBlock(random));
+            byte[] compressible = createCompressibleData(length, length);
+            assertArrayEquals("Compressible data of length " + length, compressible, roundTripBlock(compressible));
+        }
+    }
+
+    /** Long runs of a single byte are encoded as overlapping matches. */
+    @Test
+    public void testOverlappingMatch() throws IOException {
+        byte[] zeros = new byte[50000];
+        byte[] compressed = new byte[Lz4Codec.maxCompressedLength(zeros.length)];
+        int length = Lz4Codec.compress(zeros, zeros.length, compressed, Lz4Codec.newHashTable());
+        assertTrue("Run of zeros should compress well: " + length, length < 300);
+        assertArrayEquals(zeros, roundTripBlock(zeros));
+    }
+
+    /** Stream spanning multiple blocks, written in bulk and byte by byte. */
+    @Test
+    public void testStreamRoundTrip() throws IOException {
+        byte[] data = createCompressibleData(3 * Lz4BlockOutputStream.BLOCK_SIZE + 17, 7L);
+        assertArrayEquals(data, roundTripStream(data, false));
+        assertArrayEquals(data, roundTripStream(data, true));
+        byte[] random = new byte[Lz4BlockOutputStream.BLOCK_SIZE + 1];
+        new Random(1).nextBytes(random);
+        assertArrayEquals(random, roundTripStream(random, false));
+        assertEquals(0, roundTripStream(new byte[0], false).length);
+    }
+
+    /** Corrupt input must result in an IOException, not in an index out of bounds. */
+    @Test
+    public void testCorruptBlock() {
+        byte[] data = createCompressibleData(10000, 3L);
+        byte[] compressed = new byte[Lz4Codec.maxCompressedLength(data.length)];
+        int length = Lz4Codec.compress(data, data.length, compressed, Lz4Codec.newHashTable());
+        Random r = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            byte[] corrupt = compressed.clone();
+            corrupt[r.nextInt(length)] = (byte)r.nextInt();
+            try {
+                Lz4Codec.decompress(corrupt, length, new byte[data.length], data.length);
+            } catch (IOException e) {
+                // expected (unless the corruption hit only literals)
+            } catch (RuntimeException e) {
+                fail("Unexpected exception on corrupt input: " + e);
+            }
+        }
+    }
+}
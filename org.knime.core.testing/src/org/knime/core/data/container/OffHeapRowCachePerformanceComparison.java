@@ -0,0 +1,182 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.RowIterator;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Compares the list-of-rows (heap) cache of {@link Buffer} with the {@link OffHeapRowStore}: write/read time, heap
+ * used by the table and off-heap bytes. The test case runs on a small table and only asserts correctness; use the
+ * main method for meaningful numbers.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class OffHeapRowCachePerformanceComparison {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(OffHeapRowCachePerformanceComparison.class);
+
+    private static final DataTableSpec SPEC = new DataTableSpec(
+        new String[]{"id", "int", "double", "text"},
+        new DataType[]{LongCell.TYPE, IntCell.TYPE, DoubleCell.TYPE, StringCell.TYPE});
+
+    /** Result of a single run. */
+    static final class Result {
+        private final long m_heapBytes;
+        private final long m_offHeapBytes;
+        private final long m_writeMillis;
+        private final long m_readMillis;
+
+        Result(final long heapBytes, final long offHeapBytes, final long writeMillis, final long readMillis) {
+            m_heapBytes = heapBytes;
+            m_offHeapBytes = offHeapBytes;
+            m_writeMillis = writeMillis;
+            m_readMillis = readMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("heap %,d bytes, off-heap %,d bytes, write %,d ms, read %,d ms", m_heapBytes,
+                m_offHeapBytes, m_writeMillis, m_readMillis);
+        }
+    }
+
+    private static DataRow createRow(final long i, final Random r) {
+        return new DefaultRow(RowKey.createRowKey(i), new LongCell(1000000L + i), new IntCell(r.nextInt(100)),
+            new DoubleCell(r.nextGaussian()), new StringCell("Sample text for row " + i));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Writes and reads an in-memory table (twice) with the given cache.
+     * @param isOffHeap Whether to use the off-heap cache.
+     * @param rowCount Number of rows to write.
+     * @return The measurements.
+     */
+    static Result run(final boolean isOffHeap, final int rowCount) {
+        Random r = new Random(rowCount);
+        long heapBefore = usedHeap();
+        long offHeapBefore = OffHeapRowStore.getTotalReservedBytes();
+        DataContainer container = new DataContainer(SPEC, false, Integer.MAX_VALUE);
+        container.setOffHeapRowCache(isOffHeap);
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < rowCount; i++) {
+            container.addRowToTable(createRow(i, r));
+        }
+        container.close();
+        long writeMillis = System.currentTimeMillis() - time;
+        ContainerTable table = (ContainerTable)container.getTable();
+        try {
+            assertEquals("Table written to file", -1L, table.getBuffer().getBufferFileSize());
+            long heapBytes = usedHeap() - heapBefore;
+            long offHeapBytes = OffHeapRowStore.getTotalReservedBytes() - offHeapBefore;
+            time = System.currentTimeMillis();
+            for (int pass = 0; pass < 2; pass++) {
+                r = new Random(rowCount);
+                int i = 0;
+                for (RowIterator it = table.iterator(); it.hasNext(); i++) {
+                    DataRow row = it.next();
+                    DataRow expected = createRow(i, r);
+                    assertEquals(expected.getKey(), row.getKey());
+                    for (int c = 0; c < SPEC.getNumColumns(); c++) {
+                        assertEquals(expected.getCell(c), row.getCell(c));
+                    }
+                }
+                assertEquals("Number of rows read", rowCount, i);
+            }
+            long readMillis = System.currentTimeMillis() - time;
+            return new Result(heapBytes, offHeapBytes, writeMillis, readMillis);
+        } finally {
+            table.clear();
+        }
+    }
+
+    /** Round trip with both caches on a small table. */
+    @Test
+    public void testCompareCaches() {
+        final int rowCount = 20000;
+        Result heap = run(false, rowCount);
+        Result offHeap = run(true, rowCount);
+        LOGGER.info("Heap cache: " + heap);
+        LOGGER.info("Off-heap cache: " + offHeap);
+        assertEquals("Heap cache must not use off-heap memory", 0L, heap.m_offHeapBytes);
+        assertTrue("Off-heap cache doesn't use off-heap memory", offHeap.m_offHeapBytes > 0L);
+    }
+
+    /**
+     * Runs the comparison on a larger table, prints results to stdout. The off-heap budget may need to be raised
+     * via the knime.table.cache.offheap.size property (and -XX:MaxDirectMemorySize).
+     * @param args optional number of rows
+     */
+    public static void main(final String[] args) {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        run(false, rowCount / 10); // warm-up
+        run(true, rowCount / 10);
+        System.out.println("Heap cache: " + run(false, rowCount));
+        System.out.println("Off-heap cache: " + run(true, rowCount));
+    }
+}
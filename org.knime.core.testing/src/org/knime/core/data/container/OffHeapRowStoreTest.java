@@ -0,0 +1,367 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.blob.BinaryObjectCellFactory;
+import org.knime.core.data.blob.BinaryObjectDataCell;
+import org.knime.core.data.blob.BinaryObjectDataValue;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.filestore.FileStore;
+import org.knime.core.data.filestore.internal.IWriteFileStoreHandler;
+import org.knime.core.data.filestore.internal.NotInWorkflowFileStoreHandlerRepository;
+import org.knime.core.data.filestore.internal.NotInWorkflowWriteFileStoreHandler;
+import org.knime.core.data.filestore.internal.WriteFileStoreHandler;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Tests the {@link OffHeapRowStore} and buffers keeping their rows in it, using a separate (small) budget so that the
+ * content is spilled to file.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class OffHeapRowStoreTest {
+
+    /** Enough rows for some 200kB, i.e. more than the first two slabs. */
+    private static final int ROW_COUNT = 5000;
+
+    /** Size of the first slab of a store. */
+    private static final int SLAB_SIZE = 1 << 16;
+
+    private static byte[] createData(final int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+
+    private static byte[] readAll(final InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[1000];
+        int read;
+        while ((read = in.read(buf)) >= 0) {
+            out.write(buf, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /** Creates a buffer keeping up to {@link #ROW_COUNT} rows in an off-heap store using the given budget. */
+    private static Buffer createBuffer(final DataTableSpec spec, final OffHeapRowStore.Budget budget,
+        final IWriteFileStoreHandler fileStoreHandler) {
+        Buffer buffer = new Buffer(spec, ROW_COUNT, -1, new HashMap<Integer, ContainerTable>(),
+            new HashMap<Integer, ContainerTable>(), fileStoreHandler);
+        buffer.setOffHeapRowCache(budget);
+        return buffer;
+    }
+
+    private static Buffer createBuffer(final OffHeapRowStore.Budget budget) {
+        Buffer buffer = createBuffer(TableFixtures.SPEC, budget, NotInWorkflowWriteFileStoreHandler.create());
+        for (int i = 0; i < ROW_COUNT; i++) {
+            buffer.addRow(TableFixtures.createRow(i), false, false);
+        }
+        buffer.close(TableFixtures.SPEC);
+        return buffer;
+    }
+
+    private static void assertRows(final CloseableRowIterator it, final int from, final int to) {
+        try {
+            TableFixtures.assertRows(() -> it, from, to);
+        } finally {
+            it.close();
+        }
+    }
+
+    /** Remembers whether the stream was closed. */
+    private static final class SpillStream extends ByteArrayOutputStream {
+
+        private boolean m_isClosed;
+
+        @Override
+        public void close() {
+            m_isClosed = true;
+        }
+    }
+
+    /** Content is read from any position, across slab boundaries. */
+    @Test
+    public void testReadFromPosition() throws IOException {
+        OffHeapRowStore.Budget budget = new OffHeapRowStore.Budget(1 << 24);
+        OffHeapRowStore store = new OffHeapRowStore(() -> {
+            throw new IOException("Must not spill");
+        }, budget);
+        // slabs of 64kB, 128kB, 256kB and 512kB
+        byte[] data = createData(500000);
+        try (OutputStream out = store.getOutputStream()) {
+            out.write(data, 0, 1000);
+            out.write(data[1000]);
+            out.write(data, 1001, data.length - 1001);
+        }
+        assertFalse(store.isSpilled());
+        assertEquals(data.length, store.size());
+        assertEquals(budget.getReservedBytes(), store.getReservedBytes());
+        for (int position : new int[]{0, 1, SLAB_SIZE - 1, SLAB_SIZE, SLAB_SIZE + 1, 3 * SLAB_SIZE, data.length - 1,
+            data.length}) {
+            byte[] expected = new byte[data.length - position];
+            System.arraycopy(data, position, expected, 0, expected.length);
+            try (InputStream in = store.newInputStream(position)) {
+                assertArrayEquals("Content from position " + position, expected, readAll(in));
+            }
+        }
+        try (InputStream in = store.newInputStream(0L)) {
+            assertEquals(2 * SLAB_SIZE + 1, in.skip(2 * SLAB_SIZE + 1));
+            assertEquals(data[2 * SLAB_SIZE + 1] & 0xFF, in.read());
+        }
+        store.release();
+        assertEquals(0L, budget.getReservedBytes());
+    }
+
+    /** The budget runs out in the middle of a write, the content written so far and the rest end up in the target. */
+    @Test
+    public void testSpillWhileWriting() throws IOException {
+        // only the first slab fits into the budget
+        OffHeapRowStore.Budget budget = new OffHeapRowStore.Budget(SLAB_SIZE + 1000);
+        SpillStream target = new SpillStream();
+        OffHeapRowStore store = new OffHeapRowStore(() -> target, budget);
+        byte[] data = createData(300000);
+        OutputStream out = store.getOutputStream();
+        for (int offset = 0; offset < data.length; offset += 7000) {
+            out.write(data, offset, Math.min(7000, data.length - offset));
+            if (offset < SLAB_SIZE - 7000) {
+                assertFalse("Spilled too early", store.isSpilled());
+                assertEquals(SLAB_SIZE, budget.getReservedBytes());
+            }
+        }
+        assertTrue("Not spilled", store.isSpilled());
+        assertEquals(0L, store.size());
+        assertEquals(0L, budget.getReservedBytes());
+        assertFalse(target.m_isClosed);
+        out.close();
+        assertTrue("Spill target not closed", target.m_isClosed);
+        assertArrayEquals(data, target.toByteArray());
+        try {
+            store.newInputStream(0L);
+            throw new AssertionError("Spilled content must not be read from memory");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        store.release();
+    }
+
+    /** Stores share the budget: only the store that can't get more memory spills, the others stay in memory. */
+    @Test
+    public void testSharedBudget() throws IOException {
+        OffHeapRowStore.Budget budget = new OffHeapRowStore.Budget(3 * SLAB_SIZE);
+        OffHeapRowStore store1 = new OffHeapRowStore(() -> {
+            throw new IOException("Must not spill");
+        }, budget);
+        SpillStream target = new SpillStream();
+        OffHeapRowStore store2 = new OffHeapRowStore(() -> target, budget);
+        // fills slabs of 64kB and 128kB, i.e. the entire budget
+        byte[] data = createData(3 * SLAB_SIZE);
+        try (OutputStream out = store1.getOutputStream()) {
+            out.write(data);
+        }
+        assertEquals(3 * SLAB_SIZE, budget.getReservedBytes());
+        try (OutputStream out = store2.getOutputStream()) {
+            out.write(data, 0, 10);
+        }
+        assertFalse(store1.isSpilled());
+        assertTrue(store2.isSpilled());
+        assertArrayEquals(Arrays.copyOf(data, 10), target.toByteArray());
+        try (InputStream in = store1.newInputStream(0L)) {
+            assertArrayEquals(data, readAll(in));
+        }
+        store1.release();
+        store2.release();
+        assertEquals(0L, budget.getReservedBytes());
+    }
+
+    /** A buffer whose store runs out of memory continues on file, all rows are read back. */
+    @Test
+    public void testBufferSpill() {
+        OffHeapRowStore.Budget budget = new OffHeapRowStore.Budget(SLAB_SIZE);
+        Buffer buffer = createBuffer(budget);
+        try {
+            assertEquals(0L, budget.getReservedBytes());
+            assertEquals(ROW_COUNT, buffer.size());
+            assertRows(buffer.iterator(), 0, ROW_COUNT);
+            assertTrue(buffer.hasRowOffsetIndex());
+            assertRows(buffer.iteratorForRange(ROW_COUNT / 2, ROW_COUNT), ROW_COUNT / 2, ROW_COUNT);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /** Ranges are read through the row offset index from the off-heap store. */
+    @Test
+    public void testIteratorForRange() {
+        OffHeapRowStore.Budget budget = new OffHeapRowStore.Budget(1 << 24);
+        Buffer buffer = createBuffer(budget);
+        try {
+            assertTrue("Rows not kept off-heap", budget.getReservedBytes() > 0);
+            assertTrue(buffer.hasRowOffsetIndex());
+            assertRows(buffer.iterator(), 0, ROW_COUNT);
+            for (int[] range : new int[][]{{0, 0}, {0, 1}, {17, 18}, {1000, 1001}, {999, 2345}, {4000, ROW_COUNT},
+                {ROW_COUNT - 1, ROW_COUNT}, {0, ROW_COUNT}}) {
+                assertRows(buffer.iteratorForRange(range[0], range[1]), range[0], range[1]);
+            }
+            assertTrue("Rows not kept off-heap", budget.getReservedBytes() > 0);
+        } finally {
+            buffer.clear();
+        }
+        assertEquals(0L, budget.getReservedBytes());
+    }
+
+    /** The off-heap content is saved to and restored from a zip file. */
+    @Test
+    public void testAddToZipFile() throws Exception {
+        OffHeapRowStore.Budget budget = new OffHeapRowStore.Budget(1 << 24);
+        Buffer buffer = createBuffer(budget);
+        File zipFile = File.createTempFile("off-heap-test", ".zip");
+        try {
+            try (ZipOutputStream zipOut = new ZipOutputStream(new FileOutputStream(zipFile))) {
+                buffer.addToZipFile(zipOut, new ExecutionMonitor());
+            }
+            ContainerTable table = DataContainer.readFromZip(zipFile);
+            try {
+                assertEquals(ROW_COUNT, table.size());
+                TableFixtures.assertRows(table, 0, ROW_COUNT);
+            } finally {
+                table.clear();
+            }
+            // saving doesn't affect the buffer
+            assertTrue("Rows not kept off-heap", budget.getReservedBytes() > 0);
+            assertRows(buffer.iterator(), 0, ROW_COUNT);
+        } finally {
+            buffer.clear();
+            zipFile.delete();
+        }
+    }
+
+    /** Clearing the buffer releases the memory and closes the open iterators. */
+    @Test
+    public void testClearWithOpenIterators() {
+        OffHeapRowStore.Budget budget = new OffHeapRowStore.Budget(1 << 24);
+        Buffer buffer = createBuffer(budget);
+        CloseableRowIterator it = buffer.iterator();
+        CloseableRowIterator rangeIt = buffer.iteratorForRange(1000, 2000);
+        TableFixtures.assertRow("", 0, it.next());
+        TableFixtures.assertRow("", 1000, rangeIt.next());
+        buffer.clear();
+        assertEquals(0L, budget.getReservedBytes());
+        assertTrue("Iterator not closed", it.next().getKey().getString().startsWith("INVALID_ROW"));
+        assertTrue("Iterator not closed", rangeIt.next().getKey().getString().startsWith("INVALID_ROW"));
+        it.close();
+        rangeIt.close();
+    }
+
+    /**
+     * A file store cell that must be flushed before the table is saved forces the rows to file (in
+     * {@link Buffer#addRow(DataRow, boolean, boolean)}), including those already in the off-heap store.
+     */
+    @Test
+    public void testFileStoreCellSpill() throws IOException {
+        DataTableSpec spec = new DataTableSpec(new String[]{"int", "binary"},
+            new DataType[]{IntCell.TYPE, BinaryObjectDataCell.TYPE});
+        WriteFileStoreHandler fileStoreHandler = new WriteFileStoreHandler("off-heap-test", UUID.randomUUID()) {
+            @Override
+            public boolean mustBeFlushedPriorSave(final FileStore fs) {
+                return true;
+            }
+        };
+        fileStoreHandler.addToRepository(new NotInWorkflowFileStoreHandlerRepository());
+        OffHeapRowStore.Budget budget = new OffHeapRowStore.Budget(1 << 24);
+        Buffer buffer = createBuffer(spec, budget, fileStoreHandler);
+        // cells of at most 4kB are kept in memory, larger ones in file stores
+        BinaryObjectCellFactory cellFactory = new BinaryObjectCellFactory();
+        byte[][] data = new byte[100][];
+        try {
+            for (int i = 0; i < data.length; i++) {
+                data[i] = createData(i == 50 ? 10 * BinaryObjectCellFactory.DEFAULT_MEMORY_LIMIT : 100 + i);
+                buffer.addRow(new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i), cellFactory.create(data[i])),
+                    false, false);
+                assertEquals("Rows in memory after row " + i, i < 50, budget.getReservedBytes() > 0);
+            }
+            buffer.close(spec);
+            assertEquals(0L, budget.getReservedBytes());
+            int i = 0;
+            for (DataRow row : (Iterable<DataRow>)buffer::iterator) {
+                assertEquals(new IntCell(i), row.getCell(0));
+                try (InputStream in = ((BinaryObjectDataValue)row.getCell(1)).openInputStream()) {
+                    assertArrayEquals("Binary object in row " + i, data[i], readAll(in));
+                }
+                i++;
+            }
+            assertEquals(data.length, i);
+        } finally {
+            buffer.clear();
+            if (fileStoreHandler.getBaseDir() != null) {
+                FileUtil.deleteRecursively(fileStoreHandler.getBaseDir());
+            }
+        }
+    }
+}
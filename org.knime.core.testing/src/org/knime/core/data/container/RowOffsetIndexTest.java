@@ -0,0 +1,147 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Test;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
+
+/**
+ * Tests {@link RowOffsetIndex}, {@link MappedFileInputStream} and range access on file based tables.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class RowOffsetIndexTest {
+
+    private static final int ROW_COUNT = 5000;
+
+    /** Index entries are recorded every n-th row and survive save and load. */
+    @Test
+    public void testSaveLoad() throws IOException {
+        RowOffsetIndex index = new RowOffsetIndex(10);
+        for (int i = 0; i < 95; i++) {
+            index.addRow(i * 1000L, i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.save(bytes);
+        RowOffsetIndex loaded = RowOffsetIndex.load(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(95, loaded.getRowCount());
+        assertEquals(10, loaded.getInterval());
+        assertEquals(90, loaded.getIndexedRow(94));
+        assertEquals(90000L, loaded.getBlockOffset(94));
+        assertEquals(90, loaded.getOffsetInBlock(94));
+        assertEquals(20, loaded.getIndexedRow(29));
+        assertEquals(20000L, loaded.getBlockOffset(29));
+    }
+
+    /** Corrupt index data is rejected. */
+    @Test(expected = IOException.class)
+    public void testLoadCorrupt() throws IOException {
+        RowOffsetIndex.load(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+
+    /** Both the mapped and the plain channel mode return the file content starting at a given position. */
+    @Test
+    public void testMappedFileInputStream() throws IOException {
+        File file = File.createTempFile("mapped-test", ".bin");
+        try {
+            byte[] data = new byte[100000];
+            new Random(7).nextBytes(data);
+            Files.write(file.toPath(), data);
+            for (boolean useMapping : new boolean[]{true, false}) {
+                for (int position : new int[]{0, 1, 4711, data.length}) {
+                    byte[] expected = new byte[data.length - position];
+                    System.arraycopy(data, position, expected, 0, expected.length);
+                    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+                    try (InputStream in = new MappedFileInputStream(file, position, useMapping)) {
+                        byte[] buf = new byte[333];
+                        int read;
+                        while ((read = in.read(buf)) >= 0) {
+                            actual.write(buf, 0, read);
+                        }
+                    }
+                    assertArrayEquals("Position " + position + ", mapping " + useMapping, expected,
+                        actual.toByteArray());
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /** Range iterators return the correct rows for all compression formats (gzip reads sequentially). */
+    @Test
+    public void testIteratorForRange() {
+        for (CompressionFormat format : CompressionFormat.values()) {
+            ContainerTable table = TableFixtures.createTable(ROW_COUNT, 0, format);
+            try {
+                assertEquals(format.supportsRowOffsetIndex(), table.getBuffer().hasRowOffsetIndex());
+                for (long[] range : new long[][]{{0, 10}, {127, 129}, {128, 300}, {4990, ROW_COUNT}, {2500, 2500}}) {
+                    try (CloseableRowIterator it = table.iteratorForRange(range[0], range[1])) {
+                        for (long i = range[0]; i < range[1]; i++) {
+                            assertTrue(format + ": row " + i, it.hasNext());
+                            TableFixtures.assertRow(format + ": ", i, it.next());
+                        }
+                        assertFalse(format + ": end of range " + range[1], it.hasNext());
+                    }
+                }
+            } finally {
+                table.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Tests {@link TableCacheManager}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class TableCacheManagerTest {
+
+    private static final int ROW_COUNT = 2000;
+
+    private static ContainerTable createInMemoryTable() {
+        return TableFixtures.createTable(ROW_COUNT, Integer.MAX_VALUE, null);
+    }
+
+    private static boolean isInMemory(final ContainerTable table) {
+        Buffer buffer = table.getBuffer();
+        synchronized (buffer) {
+            return !buffer.usesOutFile();
+        }
+    }
+
+    private static void assertContent(final ContainerTable table) {
+        TableFixtures.assertRows(table, 0, ROW_COUNT);
+    }
+
+    /** Size estimates grow with the number of rows and the length of strings. */
+    @Test
+    public void testEstimateBytes() {
+        List<DataRow> rows = new ArrayList<>();
+        assertEquals(0L, TableCacheManager.estimateBytes(rows));
+        rows.add(TableFixtures.createRow(0));
+        long oneRow = TableCacheManager.estimateBytes(rows);
+        assertTrue("Estimate too small: " + oneRow, oneRow > 100);
+        for (int i = 1; i < 10000; i++) {
+            rows.add(TableFixtures.createRow(i));
+        }
+        long manyRows = TableCacheManager.estimateBytes(rows);
+        assertTrue("Estimate of 10000 rows out of range: " + manyRows,
+            manyRows > 9000 * oneRow && manyRows < 11000 * oneRow);
+        List<DataRow> longStrings = new ArrayList<>();
+        longStrings.add(new DefaultRow(RowKey.createRowKey(0L), new IntCell(0), new DoubleCell(0.0),
+            new StringCell(new String(new char[1000]))));
+        assertTrue(TableCacheManager.estimateBytes(longStrings) > oneRow + 1000);
+    }
+
+    /** The least recently used table is written to disc when the budget is exceeded; the others stay in memory. */
+    @Test(timeout = 30000)
+    public void testEvictLeastRecentlyUsed() throws InterruptedException {
+        TableCacheManager manager = TableCacheManager.getInstance();
+        final long oldMaxBytes = manager.getMaxBytes();
+        try {
+            // evict tables of other tests, then let the cache grow unbounded
+            manager.setMaxBytes(0L);
+            manager.setMaxBytes(Long.MAX_VALUE);
+            ContainerTable table1 = createInMemoryTable();
+            ContainerTable table2 = createInMemoryTable();
+            ContainerTable table3 = createInMemoryTable();
+            assertTrue(isInMemory(table1) && isInMemory(table2) && isInMemory(table3));
+            assertEquals(3, manager.getCachedTableCount());
+
+            long hitCount = manager.getHitCount();
+            long evictionCount = manager.getEvictionCount();
+            assertContent(table1);
+            assertEquals("Hit count", hitCount + 1, manager.getHitCount());
+
+            // table 2 is least recently used now
+            manager.setMaxBytes(manager.getCachedBytes() - 1);
+            assertEquals("Eviction count", evictionCount + 1, manager.getEvictionCount());
+            assertEquals(2, manager.getCachedTableCount());
+            while (isInMemory(table2)) {
+                Thread.sleep(10);
+            }
+            assertTrue("Table 1 evicted", isInMemory(table1));
+            assertTrue("Table 3 evicted", isInMemory(table3));
+
+            long missCount = manager.getMissCount();
+            assertContent(table2);
+            assertEquals("Miss count", missCount + 1, manager.getMissCount());
+
+            table1.clear();
+            assertEquals(1, manager.getCachedTableCount());
+            table2.clear();
+            table3.clear();
+            assertEquals(0, manager.getCachedTableCount());
+            assertEquals(0L, manager.getCachedBytes());
+            assertFalse(manager.toString().isEmpty());
+        } finally {
+            manager.setMaxBytes(oldMaxBytes);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Compares write/read throughput and file size of the different {@link CompressionFormat}s on a table with typical
+ * content (numbers, ids and strings with few distinct values). The test case runs on a small table and only asserts
+ * correctness; use the main method for meaningful numbers.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class TableCompressionPerformanceComparison {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(TableCompressionPerformanceComparison.class);
+
+    private static final DataTableSpec SPEC = new DataTableSpec(
+        new String[]{"id", "int", "double", "category", "text"},
+        new DataType[]{LongCell.TYPE, IntCell.TYPE, DoubleCell.TYPE, StringCell.TYPE, StringCell.TYPE});
+
+    private static final String[] CATEGORIES = new String[]{"Iris-setosa", "Iris-versicolor", "Iris-virginica"};
+
+    /** Result of a single run. */
+    static final class Result {
+        private final long m_fileSize;
+        private final long m_writeMillis;
+        private final long m_readMillis;
+
+        Result(final long fileSize, final long writeMillis, final long readMillis) {
+            m_fileSize = fileSize;
+            m_writeMillis = writeMillis;
+            m_readMillis = readMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d bytes, write %,d ms, read %,d ms", m_fileSize, m_writeMillis, m_readMillis);
+        }
+    }
+
+    private static DataRow createRow(final long i, final Random r) {
+        return new DefaultRow(RowKey.createRowKey(i), new LongCell(1000000L + i), new IntCell(r.nextInt(100)),
+            new DoubleCell(Math.round(r.nextGaussian() * 1000) / 100.0), new StringCell(CATEGORIES[r.nextInt(3)]),
+            new StringCell("Sample text for row " + i));
+    }
+
+    /**
+     * Writes and reads a table with the given compression.
+     * @param format The compression.
+     * @param rowCount Number of rows to write.
+     * @return The measurements.
+     */
+    static Result run(final CompressionFormat format, final int rowCount) {
+        Random r = new Random(rowCount);
+        DataContainer container = new DataContainer(SPEC, false, 0);
+        container.setCompressionFormat(format);
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < rowCount; i++) {
+            container.addRowToTable(createRow(i, r));
+        }
+        container.close();
+        long writeMillis = System.currentTimeMillis() - time;
+        ContainerTable table = (ContainerTable)container.getTable();
+        try {
+            long fileSize = table.getBuffer().getBinFile().length();
+            time = System.currentTimeMillis();
+            r = new Random(rowCount);
+            int i = 0;
+            for (DataRow row : table) {
+                DataRow expected = createRow(i++, r);
+                assertEquals(expected.getKey(), row.getKey());
+                for (int c = 0; c < SPEC.getNumColumns(); c++) {
+                    DataCell cell = row.getCell(c);
+                    assertEquals(expected.getCell(c), cell);
+                }
+            }
+            long readMillis = System.currentTimeMillis() - time;
+            assertEquals("Number of rows read", rowCount, i);
+            return new Result(fileSize, writeMillis, readMillis);
+        } finally {
+            table.clear();
+        }
+    }
+
+    private static Map<CompressionFormat, Result> runAll(final int rowCount) {
+        Map<CompressionFormat, Result> result = new EnumMap<>(CompressionFormat.class);
+        for (CompressionFormat f : CompressionFormat.values()) {
+            result.put(f, run(f, rowCount));
+        }
+        return result;
+    }
+
+    /** Round trip with all formats on a small table. */
+    @Test
+    public void testCompareFormats() {
+        Map<CompressionFormat, Result> results = runAll(20000);
+        for (Map.Entry<CompressionFormat, Result> e : results.entrySet()) {
+            LOGGER.info("Compression " + e.getKey() + ": " + e.getValue());
+        }
+        assertTrue("Lz4 file not smaller than uncompressed file",
+            results.get(CompressionFormat.Lz4).m_fileSize < results.get(CompressionFormat.None).m_fileSize);
+    }
+
+    /**
+     * Runs the comparison on a larger table, prints results to stdout.
+     * @param args optional number of rows
+     */
+    public static void main(final String[] args) {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        runAll(rowCount / 10); // warm-up
+        for (Map.Entry<CompressionFormat, Result> e : runAll(rowCount).entrySet()) {
+            System.out.println(e.getKey() + ": " + e.getValue());
+        }
+    }
+}
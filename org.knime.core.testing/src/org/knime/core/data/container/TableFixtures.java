@@ -0,0 +1,133 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.junit.Assert.assertEquals;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Test fixtures and assert methods for tables of {@link #SPEC} whose rows are created by {@link #createRow(int)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class TableFixtures {
+
+    /** An int, a double and a string column. */
+    static final DataTableSpec SPEC = new DataTableSpec(new String[]{"int", "double", "string"},
+        new DataType[]{IntCell.TYPE, DoubleCell.TYPE, StringCell.TYPE});
+
+    private TableFixtures() {
+    }
+
+    /**
+     * @param i the row index
+     * @return the row at the given index, of {@link #SPEC}
+     */
+    static DataRow createRow(final int i) {
+        return new DefaultRow(RowKey.createRowKey((long)i),
+            new DataCell[]{new IntCell(i), new DoubleCell(i / 7.0), new StringCell("Some longer string " + i)});
+    }
+
+    /**
+     * Creates a table with rows 0 to rowCount - 1.
+     *
+     * @param rowCount the number of rows
+     * @param maxCellsInMemory number of cells kept in memory, 0 to write the table to file
+     * @param format the compression of the file, null for the default
+     * @return the closed table
+     */
+    static ContainerTable createTable(final int rowCount, final int maxCellsInMemory, final CompressionFormat format) {
+        DataContainer cont = new DataContainer(SPEC, true, maxCellsInMemory);
+        if (format != null) {
+            cont.setCompressionFormat(format);
+        }
+        for (int i = 0; i < rowCount; i++) {
+            cont.addRowToTable(createRow(i));
+        }
+        cont.close();
+        return cont.getBufferedTable();
+    }
+
+    /**
+     * Asserts that the argument row equals the one created by {@link #createRow(int)}.
+     *
+     * @param message prefix of the failure message
+     * @param index the index of the expected row
+     * @param actual the row to check
+     */
+    static void assertRow(final String message, final long index, final DataRow actual) {
+        DataRow expected = createRow((int)index);
+        assertEquals(message + "row key of row " + index, expected.getKey(), actual.getKey());
+        for (int c = 0; c < SPEC.getNumColumns(); c++) {
+            assertEquals(message + "cell " + c + " of row " + index, expected.getCell(c), actual.getCell(c));
+        }
+    }
+
+    /**
+     * Asserts that the argument rows are those created by {@link #createRow(int)} for the given indices.
+     *
+     * @param rows the rows to check
+     * @param from the index of the first row
+     * @param to the index after the last row
+     */
+    static void assertRows(final Iterable<DataRow> rows, final long from, final long to) {
+        long i = from;
+        for (DataRow row : rows) {
+            assertRow("", i, row);
+            i++;
+        }
+        assertEquals("Number of rows", to - from, i - from);
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.sort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DataValueComparator;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.date.DateAndTimeCell;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Checks that {@link SortKeyEncoder} defines the same order as the column comparators and compares the time to sort
+ * rows with binary keys and with a comparator. The test cases run on few rows and only assert correctness; use the
+ * main method for meaningful numbers.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class SortKeyPerformanceComparison {
+
+    private static final DataTableSpec SPEC = new DataTableSpec(
+        new String[]{"int", "long", "double", "string", "boolean"},
+        new DataType[]{IntCell.TYPE, LongCell.TYPE, DoubleCell.TYPE, StringCell.TYPE, BooleanCell.TYPE});
+
+    private static final double[] SPECIAL_DOUBLES = new double[]{Double.NaN, Double.NEGATIVE_INFINITY,
+        Double.POSITIVE_INFINITY, -0.0, 0.0, Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE};
+
+    private static final String[] SPECIAL_STRINGS = new String[]{"", "a", "a\u0000", "a\u0000b", "ab", "￿",
+        "ä", "A"};
+
+    private static DataCell randomCell(final int column, final Random r) {
+        if (r.nextInt(10) == 0) {
+            return DataType.getMissingCell();
+        }
+        switch (column) {
+            case 0:
+                return new IntCell(r.nextBoolean() ? r.nextInt(5) - 2 : r.nextInt());
+            case 1:
+                return new LongCell(r.nextBoolean() ? r.nextInt(5) - 2 : r.nextLong());
+            case 2:
+                return new DoubleCell(r.nextBoolean() ? SPECIAL_DOUBLES[r.nextInt(SPECIAL_DOUBLES.length)]
+                    : r.nextGaussian());
+            case 3:
+                return new StringCell(SPECIAL_STRINGS[r.nextInt(SPECIAL_STRINGS.length)]);
+            default:
+                return BooleanCell.get(r.nextBoolean());
+        }
+    }
+
+    private static DataRow[] createRows(final int count, final Random r) {
+        DataRow[] rows = new DataRow[count];
+        for (int i = 0; i < count; i++) {
+            DataCell[] cells = new DataCell[SPEC.getNumColumns()];
+            for (int c = 0; c < cells.length; c++) {
+                cells[c] = randomCell(c, r);
+            }
+            rows[i] = new DefaultRow(RowKey.createRowKey((long)r.nextInt(count)), cells);
+        }
+        return rows;
+    }
+
+    /** Same semantics as the row comparator of {@link AbstractTableSorter}. */
+    private static Comparator<DataRow> createComparator(final int[] columns, final boolean[] ascending,
+        final boolean missingsToEnd) {
+        return (r1, r2) -> {
+            for (int i = 0; i < columns.length; i++) {
+                int comparison;
+                if (columns[i] == -1) {
+                    comparison = r1.getKey().getString().compareTo(r2.getKey().getString());
+                } else {
+                    DataCell c1 = r1.getCell(columns[i]);
+                    DataCell c2 = r2.getCell(columns[i]);
+                    if (missingsToEnd && (c1.isMissing() || c2.isMissing())) {
+                        if (c1.isMissing() && c2.isMissing()) {
+                            comparison = 0;
+                        } else {
+                            comparison = (c1.isMissing() == ascending[i]) ? 1 : -1;
+                        }
+                    } else {
+                        DataValueComparator comp = SPEC.getColumnSpec(columns[i]).getType().getComparator();
+                        comparison = comp.compare(c1, c2);
+                    }
+                }
+                if (comparison != 0) {
+                    return ascending[i] ? comparison : -comparison;
+                }
+            }
+            return 0;
+        };
+    }
+
+    private static void assertSameOrder(final int[] columns, final boolean[] ascending,
+        final boolean missingsToEnd) {
+        Random r = new Random(Arrays.hashCode(columns) + Arrays.hashCode(ascending) + (missingsToEnd ? 1 : 0));
+        DataRow[] rows = createRows(300, r);
+        Comparator<DataRow> comparator = createComparator(columns, ascending, missingsToEnd);
+        SortKeyEncoder encoder = new SortKeyEncoder(SPEC, columns, ascending, missingsToEnd);
+        byte[][] keys = new byte[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            keys[i] = encoder.encode(rows[i]);
+        }
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < rows.length; j++) {
+                int expected = Integer.signum(comparator.compare(rows[i], rows[j]));
+                int actual = Integer.signum(SortKeyEncoder.compare(keys[i], keys[j]));
+                assertEquals("Comparison of " + rows[i] + " and " + rows[j] + " (columns " + Arrays.toString(columns)
+                    + ", ascending " + Arrays.toString(ascending) + ", missings to end " + missingsToEnd + ")",
+                    expected, actual);
+            }
+        }
+
+        // sort must be stable, same as Arrays.sort with comparator
+        DataRow[] expectedOrder = rows.clone();
+        Arrays.sort(expectedOrder, comparator);
+        DataRow[] actualOrder = rows.clone();
+        encoder.sort(actualOrder);
+        for (int i = 0; i < rows.length; i++) {
+            assertTrue("Different row at position " + i, expectedOrder[i] == actualOrder[i]);
+        }
+    }
+
+    /** Each column on its own, in both directions and with both missing value placements. */
+    @Test
+    public void testSingleColumnOrder() {
+        for (int c = -1; c < SPEC.getNumColumns(); c++) {
+            for (boolean asc : new boolean[]{true, false}) {
+                for (boolean missingsToEnd : new boolean[]{true, false}) {
+                    assertSameOrder(new int[]{c}, new boolean[]{asc}, missingsToEnd);
+                }
+            }
+        }
+    }
+
+    /** Composite keys with mixed sort directions. */
+    @Test
+    public void testMultiColumnOrder() {
+        assertSameOrder(new int[]{4, 3, 0}, new boolean[]{true, false, true}, false);
+        assertSameOrder(new int[]{3, 4, 2, 1}, new boolean[]{false, true, false, true}, true);
+        assertSameOrder(new int[]{4, 0, -1}, new boolean[]{false, false, true}, false);
+    }
+
+    /** Types with other comparators are not encodable. */
+    @Test
+    public void testIsEncodable() {
+        assertTrue(SortKeyEncoder.isEncodable(SPEC, new int[]{-1, 0, 1, 2, 3, 4}));
+        DataTableSpec spec = new DataTableSpec(new String[]{"date"}, new DataType[]{DateAndTimeCell.TYPE});
+        assertFalse(SortKeyEncoder.isEncodable(spec, new int[]{0}));
+    }
+
+    /**
+     * Sorts random rows with a comparator and with binary keys, prints the times to stdout.
+     * @param args optional number of rows
+     */
+    public static void main(final String[] args) {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int[] columns = new int[]{3, 2, 0};
+        boolean[] ascending = new boolean[]{true, false, true};
+        Comparator<DataRow> comparator = createComparator(columns, ascending, false);
+        SortKeyEncoder encoder = new SortKeyEncoder(SPEC, columns, ascending, false);
+        DataRow[] rows = createRows(rowCount, new Random(rowCount));
+        for (int run = 0; run < 5; run++) {
+            DataRow[] copy = rows.clone();
+            long time = System.currentTimeMillis();
+            Arrays.sort(copy, comparator);
+            long comparatorMillis = System.currentTimeMillis() - time;
+            copy = rows.clone();
+            time = System.currentTimeMillis();
+            encoder.sort(copy);
+            long keyMillis = System.currentTimeMillis() - time;
+            System.out.println(String.format("Run %d: comparator %,d ms, binary keys %,d ms", run, comparatorMillis,
+                keyMillis));
+        }
+    }
+}
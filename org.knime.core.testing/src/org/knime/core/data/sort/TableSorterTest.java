@@ -47,9 +47,12 @@
  */
 package org.knime.core.data.sort;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.After;
@@ -129,7 +132,7 @@ public void tearDown() throws Exception {
      */
     @Test
     public final void testLowMemoryRun() throws CanceledExecutionException {
-        runMemoryTest(100, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        runMemoryTest(100, Integer.MAX_VALUE, Integer.MAX_VALUE, false);
     }
 
     /**
@@ -138,12 +141,82 @@ public final void testLowMemoryRun() throws CanceledExecutionException {
      */
     @Test
     public final void testMultiStageMerge() throws CanceledExecutionException {
-        runMemoryTest(100, 5, 8);
+        runMemoryTest(100, 5, 8, false);
+    }
+
+    /**
+     * Low memory run in parallel mode.
+     * @throws CanceledExecutionException
+     */
+    @Test
+    public final void testParallelLowMemoryRun() throws CanceledExecutionException {
+        runMemoryTest(100, Integer.MAX_VALUE, Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Test if concurrent merge of more buffers than maxOpenBuffers works.
+     * @throws CanceledExecutionException
+     */
+    @Test
+    public final void testParallelMultiStageMerge() throws CanceledExecutionException {
+        runMemoryTest(100, 5, 3, true);
+    }
+
+    /**
+     * Tests the loser tree merge for different numbers of inputs, including empty ones, and that it's stable.
+     */
+    @Test
+    public final void testLoserTreeMerge() {
+        Comparator<DataRow> comparator = new Comparator<DataRow>() {
+            @Override
+            public int compare(final DataRow r1, final DataRow r2) {
+                return Integer.compare(((IntValue)r1.getCell(0)).getIntValue(),
+                    ((IntValue)r2.getCell(0)).getIntValue());
+            }
+        };
+        Random rand = new Random(17);
+        for (int k = 0; k < 12; k++) {
+            List<Iterator<DataRow>> sources = new ArrayList<Iterator<DataRow>>();
+            int total = 0;
+            for (int i = 0; i < k; i++) {
+                int[] values = new int[rand.nextInt(4) == 0 ? 0 : rand.nextInt(50)];
+                for (int j = 0; j < values.length; j++) {
+                    values[j] = rand.nextInt(20);
+                }
+                Arrays.sort(values);
+                List<DataRow> rows = new ArrayList<DataRow>();
+                for (int j = 0; j < values.length; j++) {
+                    rows.add(new DefaultRow(i + "-" + j, new IntCell(values[j])));
+                }
+                total += rows.size();
+                sources.add(rows.iterator());
+            }
+            AbstractTableSorter.LoserTreeIterator it = new AbstractTableSorter.LoserTreeIterator(sources, comparator);
+            DataRow previous = null;
+            int count = 0;
+            while (it.hasNext()) {
+                DataRow row = it.next();
+                if (previous != null) {
+                    int c = comparator.compare(previous, row);
+                    Assert.assertTrue("Not sorted", c <= 0);
+                    if (c == 0) {
+                        // same value, must be from same or later input
+                        String[] prevKey = previous.getKey().getString().split("-");
+                        String[] key = row.getKey().getString().split("-");
+                        Assert.assertTrue("Not stable", Integer.parseInt(prevKey[0]) < Integer.parseInt(key[0])
+                            || (prevKey[0].equals(key[0]) && Integer.parseInt(prevKey[1]) < Integer.parseInt(key[1])));
+                    }
+                }
+                previous = row;
+                count++;
+            }
+            Assert.assertEquals("Number of merged rows for " + k + " inputs", total, count);
+        }
     }
 
     private void runMemoryTest(final int numRows,
             final int maxNumRowsPerContainer,
-            final int maxOpenContainers) throws CanceledExecutionException {
+            final int maxOpenContainers, final boolean parallel) throws CanceledExecutionException {
         // Create data with fields that consume a lot memory
         DataTable inputTable = new TestData(numRows, 1);
 
@@ -157,6 +230,7 @@ private void runMemoryTest(final int numRows,
 
 
         sorter.setMaxRows(maxNumRowsPerContainer);
+        sorter.setParallel(parallel);
         // 10MB free memory
         long currentlyUsed = MemoryAlertSystem.getUsedMemory();
         double fraction = Math.min(1, (currentlyUsed + (10 << 20)) / (double)MemoryAlertSystem.getMaximumMemory());
@@ -56,6 +56,10 @@
 import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertThat;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.apache.commons.lang3.mutable.MutableLong;
@@ -165,6 +169,90 @@ private void internalTestManyMessageEvents(final NodeProgressMonitor toMonitor,
         }
     }
 
+    /** Many concurrent increments on a {@link ProgressCounter}, progress is reported by the updater thread. */
+    @Test(timeout=5000L)
+    public void testProgressCounterConcurrentIncrements() throws Exception {
+        final DefaultNodeProgressMonitor progMon = new DefaultNodeProgressMonitor();
+        internalTestProgressCounter(progMon, new ExecutionMonitor(progMon));
+    }
+
+    /** Same as {@link #testProgressCounterConcurrentIncrements()} but counting into a sub progress. */
+    @Test(timeout=5000L)
+    public void testProgressCounterSubProgress() throws Exception {
+        final DefaultNodeProgressMonitor progMon = new DefaultNodeProgressMonitor();
+        internalTestProgressCounter(progMon, new ExecutionMonitor(progMon).createSubProgress(1.0));
+    }
+
+    private void internalTestProgressCounter(final NodeProgressMonitor toMonitor, final ExecutionMonitor exec)
+        throws Exception {
+        final int nrThreads = 4;
+        final int perThread = 1000000;
+        final long total = (long)nrThreads * perThread;
+        final Pointer<NodeProgress> progressPointer = new Pointer<>();
+        final String lastExpectedMsg = "Row " + total;
+        final Function<NodeProgress, Boolean> isLastEventFunction = p -> lastExpectedMsg.equals(p.getMessage());
+        NodeProgressListener l = createListener(progressPointer, isLastEventFunction);
+        toMonitor.addProgressListener(l);
+        ExecutorService service = Executors.newFixedThreadPool(nrThreads);
+        try (ProgressCounter counter = exec.createProgressCounter(total, c -> "Row " + c)) {
+            @SuppressWarnings("unchecked")
+            Future<Void>[] futures = new Future[nrThreads];
+            for (int t = 0; t < nrThreads; t++) {
+                futures[t] = service.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        counter.checkCanceled();
+                        counter.increment();
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> f : futures) {
+                f.get();
+            }
+            assertThat(counter.getCount(), is(total));
+        } finally {
+            service.shutdown();
+            service.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        try {
+            // the final count is either sampled by the updater thread or reported when the counter is closed
+            synchronized (isLastEventFunction) {
+                if (progressPointer.get() == null || !isLastEventFunction.apply(progressPointer.get())) {
+                    isLastEventFunction.wait(1000);
+                }
+            }
+            assertThat(progressPointer.get().getProgress(), is(closeTo(1.0, PROG_EPSILON)));
+            assertThat(progressPointer.get().getMessage(), is(equalTo(lastExpectedMsg)));
+        } finally {
+            toMonitor.removeProgressListener(l);
+        }
+    }
+
+    /** Cancellation requested by another thread must be seen by workers polling a {@link ProgressCounter}. */
+    @Test(timeout=5000L)
+    public void testProgressCounterCancel() throws Exception {
+        final DefaultNodeProgressMonitor progMon = new DefaultNodeProgressMonitor();
+        final ExecutionMonitor exec = new ExecutionMonitor(progMon).createSubProgress(0.5);
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        try (ProgressCounter counter = exec.createProgressCounter(Long.MAX_VALUE, null)) {
+            Future<Boolean> future = service.submit(() -> {
+                try {
+                    while (true) {
+                        counter.checkCanceled();
+                        counter.increment();
+                    }
+                } catch (CanceledExecutionException e) {
+                    return Boolean.TRUE;
+                }
+            });
+            progMon.setExecuteCanceled();
+            assertThat(future.get(), is(Boolean.TRUE));
+        } finally {
+            service.shutdown();
+            service.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
     private static NodeProgressListener createListener(final Pointer<NodeProgress> progressPointer,
         final Function<NodeProgress, Boolean> notificationFunction) {
         return new NodeProgressListener() {
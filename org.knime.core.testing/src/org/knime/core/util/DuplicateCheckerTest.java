@@ -48,12 +48,17 @@
 package org.knime.core.util;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.knime.core.data.RowKey;
 import org.knime.core.node.NodeLogger;
 
 import junit.framework.Assert;
@@ -134,6 +139,189 @@ public void testEarlyDuplicate() throws Exception {
         checker.addKey("A");
     }
 
+    /**
+     * Row keys created from an index are checked against equal string keys, also if the index ranges are
+     * written to disk due to fragmentation.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testRowIndexKeys() throws Exception {
+        for (int maxChunkSize : new int[]{10, DuplicateChecker.MAX_CHUNK_SIZE}) {
+            DuplicateChecker dc = new DuplicateChecker(maxChunkSize, 10);
+            try {
+                for (long i = 0; i < 1000; i += 2) {
+                    dc.addKey(RowKey.createRowKey(i));
+                    dc.addKey("Row0" + i);
+                }
+                for (long i = 999; i > 0; i -= 2) {
+                    dc.addKey(new RowKey("Row" + i));
+                }
+                dc.addKey(RowKey.createRowKey(-1L));
+                dc.addKey(RowKey.createRowKey(500L));
+                dc.checkForDuplicates();
+                Assert.fail("No duplicate detected even though at least one is present");
+            } catch (DuplicateKeyException e) {
+                Assert.assertEquals("Row500", e.getKey());
+            } finally {
+                dc.clear();
+            }
+        }
+    }
+
+    /**
+     * Index keys in random order fragment the index ranges, which are then merged from several chunks of ranges
+     * (in multiple rounds as only two streams are allowed).
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testFragmentedRowIndexKeys() throws Exception {
+        final Random r = new Random(4711);
+        final List<Long> indices = new ArrayList<Long>();
+        for (long i = 0; i < 20000; i++) {
+            indices.add(i);
+        }
+        Collections.shuffle(indices, r);
+        DuplicateChecker dc = new DuplicateChecker(50, 2);
+        try {
+            for (long i : indices) {
+                dc.addKey(RowKey.createRowKey(i));
+            }
+            dc.checkForDuplicates();
+        } finally {
+            dc.clear();
+        }
+
+        indices.add(r.nextInt(indices.size()), 12345L);
+        dc = new DuplicateChecker(50, 2);
+        try {
+            for (long i : indices) {
+                if (r.nextBoolean()) {
+                    dc.addKey(RowKey.createRowKey(i));
+                } else {
+                    dc.addKey("Row" + i);
+                }
+            }
+            dc.checkForDuplicates();
+            Assert.fail("No duplicate detected even though at least one is present");
+        } catch (DuplicateKeyException e) {
+            Assert.assertEquals("Row12345", e.getKey());
+        } finally {
+            dc.clear();
+        }
+    }
+
+    /**
+     * Checker with a key source (hashes in memory) must find a duplicate only if there is one.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testKeySource() throws Exception {
+        List<String> keys = new ArrayList<String>();
+        for (int i = 0; i < 100000; i++) {
+            keys.add("Key " + i);
+        }
+        DuplicateChecker dc = new DuplicateChecker(() -> keys.iterator());
+        for (String key : keys) {
+            dc.addKey(key);
+        }
+        dc.checkForDuplicates();
+        dc.clear();
+
+        keys.add(keys.get(4711));
+        dc = new DuplicateChecker(() -> keys.iterator());
+        try {
+            for (String key : keys) {
+                dc.addKey(key);
+            }
+            dc.checkForDuplicates();
+            Assert.fail("No duplicate detected even though at least one is present");
+        } catch (DuplicateKeyException e) {
+            Assert.assertEquals("Key 4711", e.getKey());
+        } finally {
+            dc.clear();
+        }
+    }
+
+    /**
+     * A checker with a key source reports a duplicate of a recently added key right away, without verification.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testKeySourceEarlyDuplicate() throws Exception {
+        DuplicateChecker checker = new DuplicateChecker(() -> {
+            throw new IllegalStateException("Key source must not be used");
+        });
+        for (int i = 0; i < 1000; i++) {
+            checker.addKey("Key " + i);
+        }
+        expectedException.expect(DuplicateKeyException.class);
+        checker.addKey("Key 500");
+    }
+
+    /**
+     * A duplicate with more than {@link DuplicateChecker#MAX_CHUNK_SIZE} other keys in between is no longer among the
+     * recent keys, it must be found when verifying the suspects with the key source.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testKeySourceDistantDuplicate() throws Exception {
+        List<String> keys = new ArrayList<String>();
+        for (int i = 0; i < DuplicateChecker.MAX_CHUNK_SIZE + 2; i++) {
+            keys.add("Key " + i);
+        }
+        keys.add("Key 0");
+        AtomicBoolean isKeySourceUsed = new AtomicBoolean();
+        DuplicateChecker dc = new DuplicateChecker(() -> {
+            isKeySourceUsed.set(true);
+            return keys.iterator();
+        });
+        try {
+            for (String key : keys) {
+                dc.addKey(key);
+            }
+            expectedException.expect(DuplicateKeyException.class);
+            dc.checkForDuplicates();
+        } finally {
+            Assert.assertTrue("Suspects not verified with the key source", isKeySourceUsed.get());
+            dc.clear();
+        }
+    }
+
+    /**
+     * Two different keys with the same hash are suspects, but must not be reported as duplicates.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testKeySourceHashCollision() throws Exception {
+        List<String> keys = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add("Key " + i);
+        }
+        // has the same 64 bit hash as "Key 4711" in DuplicateChecker
+        keys.add(500, "Key \u7464\u05b8\u8c88\uafed");
+        keys.add("Key 4711");
+        AtomicBoolean isKeySourceUsed = new AtomicBoolean();
+        DuplicateChecker dc = new DuplicateChecker(() -> {
+            isKeySourceUsed.set(true);
+            return keys.iterator();
+        });
+        try {
+            for (String key : keys) {
+                dc.addKey(key);
+            }
+            dc.checkForDuplicates();
+            Assert.assertTrue("Hash collision not detected as suspect", isKeySourceUsed.get());
+        } finally {
+            dc.clear();
+        }
+    }
+
     private void internalTestArbitraryStrings(final boolean isAddDuplicates, final long seed) throws IOException {
         LinkedHashSet<String> hash = new LinkedHashSet<String>();
         Random r = new Random(seed);
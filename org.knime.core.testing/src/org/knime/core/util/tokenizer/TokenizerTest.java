@@ -45,6 +45,9 @@
 package org.knime.core.util.tokenizer;
 
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import junit.framework.TestCase;
 
@@ -1585,4 +1588,70 @@ public void testAddWhiteSpaceCharacter() throws TokenizerException {
         token = ft.nextToken();
         assertNull(token);
     }
+    /**
+     * Tests the block mode of the tokenizer. Random input, which is longer
+     * than one block, is tokenized with different settings in both modes, and
+     * the tokens, quote flags, line numbers, and number of read bytes must be
+     * the same.
+     */
+    public void testBlockMode() {
+        final String[] fragments = {"abc", "12.5", "x", ",", ";;", "\n",
+            "\r\n", "\r", "\"", "\\\"", "\\", " ", "\t", "#", "<q>",
+            "</q>", "/*", "*/", "\u00e9", "\u012c", "\u20ac", "\\\n"};
+        final Random rand = new Random(42);
+        final StringBuilder input = new StringBuilder();
+        while (input.length() < 3 * Tokenizer.BLOCK_SIZE) {
+            input.append(fragments[rand.nextInt(fragments.length)]);
+        }
+
+        List<TokenizerSettings> allSettings = new ArrayList<TokenizerSettings>();
+        TokenizerSettings fts = new TokenizerSettings();
+        fts.addDelimiterPattern(",", false, false, false);
+        fts.addDelimiterPattern("\n", false, false, false);
+        fts.addQuotePattern("\"", "\"", '\\');
+        fts.allowLFinQuotes(true);
+        allSettings.add(fts);
+
+        fts = new TokenizerSettings();
+        fts.addDelimiterPattern(",", false, true, false);
+        fts.addDelimiterPattern(";;", true, false, false);
+        fts.addDelimiterPattern("\n", false, true, false);
+        fts.addQuotePattern("<q>", "</q>", true);
+        fts.addSingleLineCommentPattern("#", false, false);
+        fts.addBlockCommentPattern("/*", "*/", false, true);
+        fts.addWhiteSpaceCharacter(' ');
+        fts.addWhiteSpaceCharacter('\t');
+        fts.setLineContinuationCharacter('\\');
+        fts.allowLFinQuotes(true);
+        allSettings.add(fts);
+
+        fts = new TokenizerSettings();
+        fts.addDelimiterPattern("\n", false, false, false);
+        fts.addQuotePattern("\"", "\"");
+        fts.setSkipFirstLines(3);
+        allSettings.add(fts);
+
+        for (TokenizerSettings settings : allSettings) {
+            assertEquals(tokenize(input.toString(), settings, false),
+                tokenize(input.toString(), settings, true));
+        }
+    }
+
+    private static List<String> tokenize(final String input,
+            final TokenizerSettings settings, final boolean blockMode) {
+        Tokenizer ft = new Tokenizer(new StringReader(input), blockMode);
+        ft.setSettings(settings);
+        List<String> result = new ArrayList<String>();
+        try {
+            String token;
+            while ((token = ft.nextToken()) != null) {
+                result.add(token + "|" + ft.lastTokenWasQuoted() + "|"
+                        + ft.getLineNumber());
+            }
+        } catch (TokenizerException fte) {
+            result.add("Error: " + fte.getMessage());
+        }
+        result.add("Read bytes: " + ft.getReadBytes());
+        return result;
+    }
 } // TokenizerTest
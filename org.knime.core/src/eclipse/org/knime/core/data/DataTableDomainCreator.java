@@ -46,15 +46,23 @@
  */
 package org.knime.core.data;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.knime.core.data.container.BlobWrapperDataCell;
+import org.knime.core.data.container.CloseableRowIterator;
 import org.knime.core.data.container.DataContainer;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.util.ThreadPool;
 
 /**
  * Create or recreate domain of a data table. The original spec has to be given in the constructor. The possible values
@@ -62,10 +70,18 @@
  * {@link #updateDomain(DataTable, ExecutionMonitor, int)}. Finally the resulting spec including updated domains is
  * created by calling {@link #createSpec()}.
  *
+ * <p>
+ * Parts of the data can be processed independently (and concurrently) by instances created with
+ * {@link #createPartialCreator()}, which are then merged in order via {@link #merge(DataTableDomainCreator)}. Large
+ * {@link BufferedDataTable}s are scanned this way in {@link #updateDomain(DataTable, ExecutionMonitor, long)}.
+ *
  * @author Heiko Hofer
  * @since 2.10
  */
 public class DataTableDomainCreator {
+    /** Number of rows processed by one task when scanning a table in parallel. */
+    private static final int PARALLEL_CHUNK_SIZE = 1 << 16;
+
     /** Defines columns to recreate or drop domain values. */
     private final DomainCreatorColumnSelection m_domainValuesColumnSelection;
 
@@ -85,6 +101,9 @@ public class DataTableDomainCreator {
 
     private final DataValueComparator[] m_comparators;
 
+    /** Indices of columns whose values or min/max are collected. */
+    private final int[] m_domainColumns;
+
     /**
      * A new instance that recreates the domain of certains columns. Which columns are processed and if the domains
      * should be initialized with the domain from the incoming table can be controlled by the two
@@ -137,6 +156,46 @@ public DataTableDomainCreator(final DataTableSpec inputSpec,
             }
             i++;
         }
+        m_domainColumns = getDomainColumns(m_possVals, m_mins);
+    }
+
+    /**
+     * A new instance for the same columns as the argument, see {@link #createPartialCreator()}.
+     *
+     * @param template the creator to copy the configuration from
+     */
+    @SuppressWarnings("unchecked")
+    private DataTableDomainCreator(final DataTableDomainCreator template) {
+        m_inputSpec = template.m_inputSpec;
+        m_domainValuesColumnSelection = template.m_domainValuesColumnSelection;
+        m_domainMinMaxColumnSelection = template.m_domainMinMaxColumnSelection;
+        m_maxPossibleValues = template.m_maxPossibleValues;
+        m_comparators = template.m_comparators;
+        final int colCount = m_inputSpec.getNumColumns();
+        m_mins = new DataCell[colCount];
+        m_maxs = new DataCell[colCount];
+        m_possVals = new LinkedHashSet[colCount];
+        for (int i = 0; i < colCount; i++) {
+            if (template.m_possVals[i] != null) {
+                m_possVals[i] = new LinkedHashSet<DataCell>();
+            }
+            if (template.m_mins[i] != null) {
+                m_mins[i] = DataType.getMissingCell();
+                m_maxs[i] = DataType.getMissingCell();
+            }
+        }
+        m_domainColumns = getDomainColumns(m_possVals, m_mins);
+    }
+
+    private static int[] getDomainColumns(final Set<DataCell>[] possVals, final DataCell[] mins) {
+        int count = 0;
+        int[] columns = new int[possVals.length];
+        for (int i = 0; i < possVals.length; i++) {
+            if (possVals[i] != null || mins[i] != null) {
+                columns[count++] = i;
+            }
+        }
+        return Arrays.copyOf(columns, count);
     }
 
     /**
@@ -265,15 +324,56 @@ public void updateDomain(final DataRow row) {
         assert row.getNumCells() == m_inputSpec.getNumColumns() : "Unequal number of columns in spec and row: "
             + m_inputSpec.getNumColumns() + " vs. " + row.getNumCells();
 
-        int i = 0;
-        for (DataCell c : row) {
+        for (int i : m_domainColumns) {
+            final DataCell c = row.getCell(i);
             if (!c.isMissing() && m_possVals[i] != null) {
                 if (m_possVals[i].add(c) && (m_possVals[i].size() > m_maxPossibleValues)) {
                     m_possVals[i] = null;
                 }
             }
             updateMinMax(i, c, m_mins, m_maxs, m_comparators);
-            i++;
+        }
+    }
+
+    /**
+     * Creates a new instance that collects the domain of the same columns (with the same maximum number of possible
+     * values) but starts empty, i.e. ignores the domain of the input spec and the data processed so far. It's used to
+     * process a part of the data, possibly on a different thread, and is then added via
+     * {@link #merge(DataTableDomainCreator)}.
+     *
+     * @return a new, empty creator for the same columns
+     * @since 3.6
+     */
+    public DataTableDomainCreator createPartialCreator() {
+        return new DataTableDomainCreator(this);
+    }
+
+    /**
+     * Adds the domain collected by a creator returned by {@link #createPartialCreator()}. The result equals the one of
+     * processing the rows of the argument with this creator, in particular possible values keep their order if the
+     * parts are merged in the order of the data.
+     *
+     * @param partial the creator to merge, not modified
+     * @throws IllegalArgumentException if the argument was not created for the same spec
+     * @since 3.6
+     */
+    public void merge(final DataTableDomainCreator partial) {
+        if (partial.m_inputSpec != m_inputSpec) {
+            throw new IllegalArgumentException("Domain creator to merge was created for a different spec");
+        }
+        for (int i : m_domainColumns) {
+            if (m_possVals[i] != null) {
+                if (partial.m_possVals[i] == null) {
+                    m_possVals[i] = null;
+                } else if (m_possVals[i].addAll(partial.m_possVals[i])
+                    && (m_possVals[i].size() > m_maxPossibleValues)) {
+                    m_possVals[i] = null;
+                }
+            }
+            if (m_mins[i] != null && partial.m_mins[i] != null) {
+                updateMinMax(i, partial.m_mins[i], m_mins, m_maxs, m_comparators);
+                updateMinMax(i, partial.m_maxs[i], m_mins, m_maxs, m_comparators);
+            }
         }
     }
 
@@ -311,6 +411,11 @@ public void updateDomain(final DataTable table, final ExecutionMonitor exec, fin
         if (!m_inputSpec.equalStructure(table.getDataTableSpec())) {
             throw new IllegalArgumentException("Spec of table to scan does not match spec given in constructor");
         }
+        if (table instanceof BufferedDataTable && ((BufferedDataTable)table).size() >= 2 * PARALLEL_CHUNK_SIZE
+            && m_domainColumns.length > 0) {
+            updateDomainParallel((BufferedDataTable)table, exec);
+            return;
+        }
 
         long row = 0;
         for (RowIterator it = table.iterator(); it.hasNext(); row++) {
@@ -348,4 +453,71 @@ public void updateDomain(final BufferedDataTable table, final ExecutionMonitor e
         throws CanceledExecutionException {
         updateDomain(table, exec, table.size());
     }
+
+    /**
+     * Scans chunks of the table with partial creators on the global thread pool and merges them in order.
+     */
+    private void updateDomainParallel(final BufferedDataTable table, final ExecutionMonitor exec)
+        throws CanceledExecutionException {
+        final long rowCount = table.size();
+        final int parallelism = Math.max(1,
+            Math.min(Runtime.getRuntime().availableProcessors(), KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads()));
+        final ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(parallelism);
+        final Queue<Future<DataTableDomainCreator>> pending = new ArrayDeque<Future<DataTableDomainCreator>>();
+        long nextChunk = 0;
+        long mergedRows = 0;
+        try {
+            while (mergedRows < rowCount) {
+                while (nextChunk < rowCount && pending.size() < 2 * parallelism) {
+                    final long from = nextChunk;
+                    final long to = Math.min(rowCount, from + PARALLEL_CHUNK_SIZE);
+                    final DataTableDomainCreator partial = createPartialCreator();
+                    pending.add(pool.enqueue(() -> {
+                        try (CloseableRowIterator it = table.iteratorForRange(from, to)) {
+                            for (long r = from; it.hasNext(); r++) {
+                                if (exec != null && (r & 0xFF) == 0) {
+                                    exec.checkCanceled();
+                                }
+                                partial.updateDomain(it.next());
+                            }
+                        }
+                        return partial;
+                    }));
+                    nextChunk = to;
+                }
+                merge(waitFor(pending.poll()));
+                mergedRows = Math.min(rowCount, mergedRows + PARALLEL_CHUNK_SIZE);
+                if (exec != null) {
+                    exec.checkCanceled();
+                    exec.setProgress(mergedRows / (double)rowCount, "Row " + mergedRows + "/" + rowCount);
+                }
+            }
+        } finally {
+            for (Future<DataTableDomainCreator> f : pending) {
+                f.cancel(true);
+            }
+        }
+        if (exec != null) {
+            exec.setProgress(1.0);
+        }
+    }
+
+    private static <T> T waitFor(final Future<T> future) throws CanceledExecutionException {
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new CanceledExecutionException("Interrupted while calculating domain");
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof CanceledExecutionException) {
+                throw (CanceledExecutionException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
 }
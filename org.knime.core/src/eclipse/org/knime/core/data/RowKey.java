@@ -55,14 +55,37 @@
 /**
  * Key for a specific row which holds an identifier of type {@link String}.
  *
+ * <p>
+ * Keys created by {@link #createRowKey(long)} only keep the (non-negative) row index; their string
+ * <code>"Row" + rowIndex</code> is materialized on demand. Such a key is equal to a key created from the same
+ * string via {@link #RowKey(String)}.
+ *
  * @see DataRow
  * @author Michael Berthold, University of Konstanz
  */
 public final class RowKey {
 
-    /** Private member holding non-null row id. */
+    /** Prefix of keys created by {@link #createRowKey(long)}. */
+    private static final String ROW_PREFIX = "Row";
+
+    /** Hash code of {@link #ROW_PREFIX}, used to compute the hash of compact keys without creating the string. */
+    private static final int ROW_PREFIX_HASH = ROW_PREFIX.hashCode();
+
+    /** Private member holding row id, <code>null</code> if this key is represented by {@link #m_index}. */
     private final String m_id;
 
+    /** Non-negative row index if the key was created via {@link #createRowKey(long)}, -1 otherwise. */
+    private final long m_index;
+
+    /**
+     * Lazily created string of a compact key. Like the hash of a {@link String}, it is computed without
+     * synchronization; concurrent callers at worst create equal strings.
+     */
+    private String m_indexString;
+
+    /** Lazily computed hash code of a compact key, 0 if not yet computed. */
+    private int m_indexHash;
+
     /**
      * Creates a row key based on a {@link String}.
      *
@@ -74,11 +97,55 @@ public RowKey(final String id) {
             throw new NullPointerException("Argument must not be null.");
         }
         m_id = id;
+        m_index = -1L;
+    }
+
+    /**
+     * Creates a compact key of the form <code>"Row" + index</code>.
+     *
+     * @param index non-negative row index
+     */
+    private RowKey(final long index) {
+        m_id = null;
+        m_index = index;
     }
 
     /** @return Underlying string of this row key. */
     public String getString() {
-        return m_id;
+        if (m_id != null) {
+            return m_id;
+        }
+        String s = m_indexString;
+        if (s == null) {
+            s = ROW_PREFIX + m_index;
+            m_indexString = s;
+        }
+        return s;
+    }
+
+    /**
+     * Whether this key was created by {@link #createRowKey(long)} and hence is only represented by its row index
+     * (see {@link #getRowIndex()}). Used by the table store and the duplicate checking to encode such keys as
+     * primitives. Note that a key created from a string via {@link #RowKey(String)} always returns
+     * <code>false</code>, even if the string has the form <code>"Row" + index</code>.
+     *
+     * @return <code>true</code> if this key is represented by its row index
+     * @since 3.6
+     */
+    public boolean hasRowIndex() {
+        return m_id == null;
+    }
+
+    /**
+     * @return The row index this key was created from, i.e. this key's string is <code>"Row" + getRowIndex()</code>
+     * @throws IllegalStateException if this key has no row index, see {@link #hasRowIndex()}
+     * @since 3.6
+     */
+    public long getRowIndex() {
+        if (m_id != null) {
+            throw new IllegalStateException("Row key \"" + m_id + "\" has not been created from a row index");
+        }
+        return m_index;
     }
 
     /** {@inheritDoc} */
@@ -94,7 +161,16 @@ public boolean equals(final Object obj) {
             return true;
         }
         if (obj instanceof RowKey) {
-            return ((RowKey)obj).m_id.equals(m_id);
+            RowKey other = (RowKey)obj;
+            if (m_id != null && other.m_id != null) {
+                return m_id.equals(other.m_id);
+            } else if (m_id == null && other.m_id == null) {
+                return m_index == other.m_index;
+            } else if (m_id == null) {
+                return isRowString(other.m_id, m_index);
+            } else {
+                return isRowString(m_id, other.m_index);
+            }
         }
         return false;
     }
@@ -104,7 +180,52 @@ public boolean equals(final Object obj) {
      */
     @Override
     public int hashCode() {
-        return m_id.hashCode();
+        if (m_id != null) {
+            return m_id.hashCode();
+        }
+        int h = m_indexHash;
+        if (h == 0) {
+            // same as (ROW_PREFIX + m_index).hashCode(), which keeps hash codes consistent with equals
+            h = ROW_PREFIX_HASH;
+            long pow = powerOfTen(m_index);
+            for (long rest = m_index; pow > 0; pow /= 10) {
+                h = 31 * h + ('0' + (int)(rest / pow));
+                rest %= pow;
+            }
+            m_indexHash = h;
+        }
+        return h;
+    }
+
+    /** @return The largest power of ten less than or equal to the non-negative argument (1 for 0). */
+    private static long powerOfTen(final long index) {
+        long pow = 1;
+        while (pow <= index / 10) {
+            pow *= 10;
+        }
+        return pow;
+    }
+
+    /**
+     * Checks whether the string equals <code>"Row" + index</code> without creating that string.
+     *
+     * @param id the string to test
+     * @param index the non-negative row index
+     * @return that property
+     */
+    private static boolean isRowString(final String id, final long index) {
+        if (!id.startsWith(ROW_PREFIX)) {
+            return false;
+        }
+        long pow = powerOfTen(index);
+        int pos = ROW_PREFIX.length();
+        for (long rest = index; pow > 0; pow /= 10, pos++) {
+            if (pos >= id.length() || id.charAt(pos) != '0' + (int)(rest / pow)) {
+                return false;
+            }
+            rest %= pow;
+        }
+        return pos == id.length();
     }
 
     /**
@@ -156,7 +277,7 @@ public static RowKey[] toRowKeys(final String... strs) {
      */
     @Deprecated
     public static RowKey createRowKey(final int rowIndex) {
-        return new RowKey("Row" + rowIndex);
+        return createRowKey((long)rowIndex);
     }
 
     /**
@@ -173,6 +294,9 @@ public static RowKey createRowKey(final int rowIndex) {
      * @since 3.0
      */
     public static RowKey createRowKey(final long rowIndex) {
-        return new RowKey("Row" + rowIndex);
+        if (rowIndex < 0) {
+            return new RowKey(ROW_PREFIX + rowIndex);
+        }
+        return new RowKey(rowIndex);
     }
 }
@@ -78,6 +78,9 @@ public abstract class AbstractCellFactory implements CellFactory {
      * it will be called by the default implementation of the (new) setProgress method. */
     private final boolean m_isSetProgressWithIntOverridden;
 
+    /** True if any of the setProgress methods is overridden, in which case it needs to be called for each row. */
+    private final boolean m_isSetProgressOverridden;
+
     private FileStoreFactory m_factory;
 
     /** Creates instance, which will produce content for the columns as
@@ -91,7 +94,8 @@ public AbstractCellFactory(final DataColumnSpec... colSpecs) {
                     + "contain null elements");
         }
         m_colSpecs = colSpecs;
-        m_isSetProgressWithIntOverridden = isSetProgressWithIntOverridden();
+        m_isSetProgressWithIntOverridden = isSetProgressOverridden(Integer.TYPE);
+        m_isSetProgressOverridden = m_isSetProgressWithIntOverridden || isSetProgressOverridden(Long.TYPE);
     }
 
     /** Called by the framework to set the file store factory prior execution.
@@ -268,14 +272,24 @@ public void setProgress(final long curRowNr, final long rowCount, final RowKey l
         }
     }
 
-    /** See {@link #m_isSetProgressWithIntOverridden}.
-     * @return that flag
+    /** Whether the default progress message is used, i.e. the processed rows can be counted with a
+     * {@link org.knime.core.node.ProgressCounter} rather than calling setProgress for each row. See
+     * {@link #m_isSetProgressOverridden}.
+     * @return true if none of the setProgress methods is overridden
+     */
+    final boolean isDefaultProgress() {
+        return !m_isSetProgressOverridden;
+    }
+
+    /** See {@link #m_isSetProgressWithIntOverridden} and {@link #m_isSetProgressOverridden}.
+     * @param rowNrType the type of the row number arguments, int or long
+     * @return if the setProgress method with that argument type is overridden
      */
-    private boolean isSetProgressWithIntOverridden() {
+    private boolean isSetProgressOverridden(final Class<?> rowNrType) {
         Class<?> cl = getClass();
         do {
             try {
-                cl.getDeclaredMethod("setProgress", Integer.TYPE, Integer.TYPE, RowKey.class, ExecutionMonitor.class);
+                cl.getDeclaredMethod("setProgress", rowNrType, rowNrType, RowKey.class, ExecutionMonitor.class);
                 return true;
             } catch (Exception e) {
                 // ignore, check superclass
@@ -0,0 +1,424 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.knime.core.data.container.BlobDataCell.BlobAddress;
+import org.knime.core.data.util.memory.MemoryAlert;
+import org.knime.core.data.util.memory.MemoryAlertListener;
+import org.knime.core.data.util.memory.MemoryAlertSystem;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Cache for blob cells read from disc, shared by all buffers and bounded by the (estimated) size of the blobs in
+ * bytes, see {@link KNIMEConstants#PROPERTY_BLOB_CACHE_SIZE}. Lookups don't lock: they only mark an entry as
+ * referenced. Eviction approximates LRU using the clock (second chance) algorithm: entries are visited in insertion
+ * order, referenced entries get their flag cleared and are re-queued, others are removed. Only one thread evicts at a
+ * time, other threads don't wait for it.
+ *
+ * <p>Blobs are held through soft references, as their size is estimated by the size of their file, which for
+ * compressed blobs can be much smaller than their size on the heap. Blobs reclaimed by the garbage collector are
+ * removed from the cache.
+ *
+ * <p>Entries are keyed by the owning buffer (see {@link #newOwnerID()}) and the blob address. The map is
+ * authoritative: the clock queue may contain nodes that were removed from the map, these are dropped once polled or
+ * when the queue gets twice as long as the map. The cache is cleared on memory alerts.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class BlobCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(BlobCache.class);
+
+    /** Default budget, a sixteenth of the maximum heap size. */
+    static final long DEF_MAX_BYTES = Runtime.getRuntime().maxMemory() / 16;
+
+    /** Minimum size of an entry, also used for blobs of unknown size. */
+    static final long MIN_BLOB_BYTES = 1L << 10;
+
+    private static final AtomicLong OWNER_IDS = new AtomicLong();
+
+    private static final BlobCache INSTANCE;
+
+    static {
+        long maxBytes = DEF_MAX_BYTES;
+        String sizeString = System.getProperty(KNIMEConstants.PROPERTY_BLOB_CACHE_SIZE);
+        if (sizeString != null) {
+            try {
+                long sizeInMB = Long.parseLong(sizeString.trim());
+                if (sizeInMB < 0) {
+                    throw new NumberFormatException("blob cache size < 0: " + sizeInMB);
+                }
+                maxBytes = sizeInMB << 20;
+                LOGGER.debug("Setting blob cache to " + sizeInMB + "MB");
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Unable to parse property " + KNIMEConstants.PROPERTY_BLOB_CACHE_SIZE
+                    + ", using default (" + (DEF_MAX_BYTES >> 20) + "MB)", e);
+            }
+        }
+        INSTANCE = new BlobCache(maxBytes);
+        MemoryAlertSystem.getInstance().addListener(new MemoryAlertListener() {
+            @Override
+            protected boolean memoryAlert(final MemoryAlert alert) {
+                INSTANCE.clear();
+                return false;
+            }
+        });
+    }
+
+    private final ConcurrentHashMap<Key, Node> m_map = new ConcurrentHashMap<>();
+
+    /**
+     * All nodes in the map, in clock order, plus possibly some that were removed from the map (as they are only
+     * removed from the queue when polled, on {@link #invalidate(long)} or when the queue gets too long, see
+     * {@link #evict()}).
+     */
+    private final ConcurrentLinkedQueue<Node> m_clock = new ConcurrentLinkedQueue<>();
+
+    /** Approximate length of {@link #m_clock}, whose size() method needs to traverse the queue. */
+    private final AtomicInteger m_clockLength = new AtomicInteger();
+
+    /** References to blobs reclaimed by the garbage collector. */
+    private final ReferenceQueue<BlobDataCell> m_collectedCells = new ReferenceQueue<>();
+
+    /** Sum of the sizes of all nodes in the map. */
+    private final AtomicLong m_bytes = new AtomicLong();
+
+    private final ReentrantLock m_evictionLock = new ReentrantLock();
+
+    private final long m_maxBytes;
+
+    private final LongAdder m_hitCount = new LongAdder();
+
+    private final LongAdder m_missCount = new LongAdder();
+
+    private final LongAdder m_evictionCount = new LongAdder();
+
+    /**
+     * Creates a new, empty cache. Use {@link #getInstance()} except in test cases.
+     *
+     * @param maxBytes The budget in bytes.
+     */
+    BlobCache(final long maxBytes) {
+        m_maxBytes = maxBytes;
+    }
+
+    /** @return the cache shared by all buffers. */
+    static BlobCache getInstance() {
+        return INSTANCE;
+    }
+
+    /** @return a new identifier for a buffer using the cache. */
+    static long newOwnerID() {
+        return OWNER_IDS.incrementAndGet();
+    }
+
+    /**
+     * Get a cached blob.
+     *
+     * @param owner The ID of the buffer owning the blob.
+     * @param address The address of the blob.
+     * @return The blob or <code>null</code> if not cached.
+     */
+    BlobDataCell get(final long owner, final BlobAddress address) {
+        Node node = m_map.get(new Key(owner, address));
+        if (node == null) {
+            m_missCount.increment();
+            return null;
+        }
+        BlobDataCell cell = node.m_cellRef.get();
+        if (cell == null) {
+            // reclaimed by the garbage collector, the reference may not be enqueued yet
+            remove(node);
+            m_missCount.increment();
+            return null;
+        }
+        node.m_isReferenced = true;
+        m_hitCount.increment();
+        return cell;
+    }
+
+    /**
+     * Adds a blob to the cache, unless it's already cached or larger than the budget. May evict other blobs.
+     *
+     * @param owner The ID of the buffer owning the blob.
+     * @param address The address of the blob.
+     * @param cell The blob.
+     * @param bytes The (estimated) size of the blob, -1 if unknown.
+     */
+    void put(final long owner, final BlobAddress address, final BlobDataCell cell, final long bytes) {
+        final long weight = Math.max(bytes, MIN_BLOB_BYTES);
+        if (weight > m_maxBytes) {
+            return;
+        }
+        expungeCollectedCells();
+        Node node = new Node(new Key(owner, address), cell, weight, m_collectedCells);
+        Node existing = m_map.putIfAbsent(node.m_key, node);
+        if (existing != null && existing.m_cellRef.get() == null && m_map.replace(node.m_key, existing, node)) {
+            // reclaimed by the garbage collector, the reference may not be enqueued yet
+            m_bytes.addAndGet(-existing.m_bytes);
+            existing = null;
+        }
+        if (existing == null) {
+            m_clock.add(node);
+            final int clockLength = m_clockLength.incrementAndGet();
+            if (m_bytes.addAndGet(weight) > m_maxBytes || clockLength > 2 * m_map.size()) {
+                evict();
+            }
+        }
+    }
+
+    /**
+     * Removes all blobs of a buffer, called when the buffer is cleared.
+     *
+     * @param owner The ID of the buffer.
+     */
+    void invalidate(final long owner) {
+        // removes from the map (rather than only the nodes found in the clock queue), a node polled by the evicting
+        // thread is temporarily not in the queue
+        for (Node node : m_map.values()) {
+            if (node.m_key.m_owner == owner) {
+                remove(node);
+            }
+        }
+        m_clock.removeIf(node -> node.m_key.m_owner == owner && dequeued());
+    }
+
+    /** Removes all blobs. */
+    void clear() {
+        Node node;
+        while ((node = m_clock.poll()) != null) {
+            m_clockLength.decrementAndGet();
+            remove(node);
+        }
+        // nodes re-queued concurrently by the evicting thread
+        for (Node n : m_map.values()) {
+            remove(n);
+        }
+    }
+
+    /** @return the budget in bytes. */
+    long getMaxBytes() {
+        return m_maxBytes;
+    }
+
+    /** @return the size of all cached blobs in bytes. */
+    long getCachedBytes() {
+        return m_bytes.get();
+    }
+
+    /** @return the number of cached blobs. */
+    int getCachedBlobCount() {
+        return m_map.size();
+    }
+
+    /** @return the number of lookups that found the blob in the cache. */
+    long getHitCount() {
+        return m_hitCount.sum();
+    }
+
+    /** @return the number of lookups that didn't find the blob in the cache. */
+    long getMissCount() {
+        return m_missCount.sum();
+    }
+
+    /** @return the length of the clock queue, including nodes no longer in the map; only for tests (it's slow). */
+    int getClockLength() {
+        return m_clock.size();
+    }
+
+    /**
+     * Only for tests: clears and enqueues the reference to a blob as if it was reclaimed by the garbage collector.
+     *
+     * @param owner The ID of the buffer owning the blob.
+     * @param address The address of the blob.
+     */
+    void reclaim(final long owner, final BlobAddress address) {
+        Node node = m_map.get(new Key(owner, address));
+        if (node != null) {
+            node.m_cellRef.clear();
+            node.m_cellRef.enqueue();
+        }
+    }
+
+    /** @return the number of blobs removed to stay within the budget. */
+    long getEvictionCount() {
+        return m_evictionCount.sum();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("Blob cache: %d blobs, %dkB of %dkB; %d hits, %d misses, %d evictions",
+            getCachedBlobCount(), getCachedBytes() >> 10, getMaxBytes() >> 10, getHitCount(), getMissCount(),
+            getEvictionCount());
+    }
+
+    private boolean remove(final Node node) {
+        if (m_map.remove(node.m_key, node)) {
+            m_bytes.addAndGet(-node.m_bytes);
+            return true;
+        }
+        return false;
+    }
+
+    /** Removes the nodes of blobs reclaimed by the garbage collector. */
+    private void expungeCollectedCells() {
+        CellReference ref;
+        while ((ref = (CellReference)m_collectedCells.poll()) != null) {
+            remove(ref.m_node);
+        }
+    }
+
+    /** Counts a node removed from the clock queue, always returns true (for use in predicates). */
+    private boolean dequeued() {
+        m_clockLength.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Removes unreferenced nodes until the cache fits into the budget and drops the nodes no longer in the map from
+     * the clock queue if it got twice as long as the map; no-op if another thread is evicting.
+     */
+    private void evict() {
+        if (!m_evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            if (m_clockLength.get() > 2 * m_map.size()) {
+                // nodes removed from the map by get, invalidate or the garbage collector
+                m_clock.removeIf(n -> m_map.get(n.m_key) != n && dequeued());
+            }
+            Node node;
+            while (m_bytes.get() > m_maxBytes && (node = m_clock.poll()) != null) {
+                m_clockLength.decrementAndGet();
+                if (m_map.get(node.m_key) != node) {
+                    // removed already (invalidated, cleared or reclaimed)
+                    continue;
+                }
+                if (node.m_cellRef.get() == null) {
+                    remove(node);
+                } else if (node.m_isReferenced) {
+                    // second chance
+                    node.m_isReferenced = false;
+                    m_clock.add(node);
+                    m_clockLength.incrementAndGet();
+                } else if (remove(node)) {
+                    m_evictionCount.increment();
+                }
+            }
+        } finally {
+            m_evictionLock.unlock();
+        }
+    }
+
+    /** Key of a blob, the owning buffer's ID plus the blob address. */
+    private static final class Key {
+
+        private final long m_owner;
+
+        private final BlobAddress m_address;
+
+        Key(final long owner, final BlobAddress address) {
+            m_owner = owner;
+            m_address = address;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key)obj;
+            return m_owner == other.m_owner && m_address.equals(other.m_address);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(m_owner) + m_address.hashCode();
+        }
+    }
+
+    /** A cached blob. */
+    private static final class Node {
+
+        private final Key m_key;
+
+        private final CellReference m_cellRef;
+
+        private final long m_bytes;
+
+        /** Set on lookup, cleared by the evicting thread. */
+        private volatile boolean m_isReferenced;
+
+        Node(final Key key, final BlobDataCell cell, final long bytes, final ReferenceQueue<BlobDataCell> queue) {
+            m_key = key;
+            m_cellRef = new CellReference(cell, this, queue);
+            m_bytes = bytes;
+        }
+    }
+
+    /** Soft reference to a blob, knows its node so that it can be removed once the blob is reclaimed. */
+    private static final class CellReference extends SoftReference<BlobDataCell> {
+
+        private final Node m_node;
+
+        CellReference(final BlobDataCell cell, final Node node, final ReferenceQueue<BlobDataCell> queue) {
+            super(cell, queue);
+            m_node = node;
+        }
+    }
+}
@@ -57,7 +57,6 @@
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.management.ManagementFactory;
-import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.nio.file.Files;
@@ -68,10 +67,8 @@
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
@@ -98,6 +95,7 @@
 import org.knime.core.data.collection.CellCollection;
 import org.knime.core.data.collection.CollectionDataValue;
 import org.knime.core.data.container.BlobDataCell.BlobAddress;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
 import org.knime.core.data.container.storage.AbstractTableStoreReader;
 import org.knime.core.data.container.storage.AbstractTableStoreReader.TableStoreCloseableRowIterator;
 import org.knime.core.data.container.storage.AbstractTableStoreWriter;
@@ -174,6 +172,9 @@ public class Buffer implements KNIMEStreamConstants {
     /** Name of the zip entry containing the meta information (e.g. #rows). */
     static final String ZIP_ENTRY_META = "meta.xml";
 
+    /** Name of the (optional) zip entry containing the {@link RowOffsetIndex}. */
+    static final String ZIP_ENTRY_ROW_INDEX = "data.idx";
+
     /**
      * Config entries when writing the meta information to the file, this is a subconfig in meta.xml.
      */
@@ -220,10 +221,10 @@ public class Buffer implements KNIMEStreamConstants {
     private static final String CFG_SIZE_L = "table.size.long";
 
     /** Current version string. */
-    private static final String VERSION = "container_10";
+    private static final String VERSION = "container_11";
 
     /** The version number corresponding to VERSION. */
-    private static final int IVERSION = 10;
+    private static final int IVERSION = 11;
 
     private static final HashMap<String, Integer> COMPATIBILITY_MAP;
 
@@ -238,7 +239,8 @@ public class Buffer implements KNIMEStreamConstants {
         COMPATIBILITY_MAP.put("container_7", 7); // 2.0.0 (final)
         COMPATIBILITY_MAP.put("container_8", 8); // version 2.0.1
         COMPATIBILITY_MAP.put("container_9", 9); // never released - some workflow tests contain it (BW used a nightly)
-        COMPATIBILITY_MAP.put(VERSION, IVERSION); // version 3.6++ (multiple table formats)
+        COMPATIBILITY_MAP.put("container_10", 10); // version 3.6 (multiple table formats)
+        COMPATIBILITY_MAP.put(VERSION, IVERSION); // version 3.6++ (tagged row keys, compact index keys)
         // NOTE consider to also
         // - increment the workflow.knime version number when updating this list
         // - update list in NoKeyBuffer
@@ -295,11 +297,11 @@ public void run() {
     }
 
     /**
-     * Hash used to reduce the overhead of reading a blob cell over and over again. Useful in cases where a blob is
-     * added multiple times to a table... the iterator will read the blob address, treat it as unseen and then ask the
-     * owning Buffer to restore the blob.
+     * ID of this buffer in the {@link BlobCache}, used to reduce the overhead of reading a blob cell over and over
+     * again. Useful in cases where a blob is added multiple times to a table... the iterator will read the blob
+     * address, treat it as unseen and then ask the owning Buffer to restore the blob.
      */
-    private final BlobLRUCache m_blobLRUCache = new BlobLRUCache();
+    private final long m_blobCacheOwnerID = BlobCache.newOwnerID();
 
     static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
         @SuppressWarnings("unchecked")
@@ -340,12 +342,6 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
         return result;
     }
 
-    /** Compression on the binary (main) file. */
-    enum CompressionFormat {
-        Gzip,
-        None;
-    }
-
     /** the file to write to. */
     private File m_binFile;
 
@@ -386,9 +382,14 @@ enum CompressionFormat {
     private AtomicInteger m_nrOpenInputStreams = new AtomicInteger();
 
     private TableStoreFormat m_outputFormat;
+    /** Compression used when writing with the {@link DefaultTableStoreFormat}, null for installation default. */
+    private CompressionFormat m_compressionFormat;
     private AbstractTableStoreWriter m_outputWriter;
     private AbstractTableStoreReader m_outputReader;
 
+    /** Index of row positions in m_binFile for random access, null if not available. */
+    private RowOffsetIndex m_rowOffsetIndex;
+
     /** maximum number of rows that are in memory. */
     private int m_maxRowsInMem;
 
@@ -398,6 +399,15 @@ enum CompressionFormat {
     /** the list that keeps up to m_maxRowsInMem in memory. */
     private List<BlobSupportDataRow> m_list;
 
+    /**
+     * Keeps the serialized rows in off-heap memory (instead of m_list), null if not used or if the content has been
+     * moved to m_binFile. See {@link #setOffHeapRowCache(boolean)}.
+     */
+    private OffHeapRowStore m_offHeapStore;
+
+    /** Entry in the {@link TableCacheManager} while all rows are kept in m_list, otherwise null. */
+    private TableCacheManager.CacheEntry m_tableCacheEntry;
+
     private int[] m_indicesOfBlobInColumns;
 
     /** the spec the rows comply with, no checking is done, however. */
@@ -556,6 +566,94 @@ final TableStoreFormat getOutputFormat() {
         return m_outputFormat;
     }
 
+    /**
+     * Sets the compression used when this buffer is written using the {@link DefaultTableStoreFormat}. Must be
+     * called before any data is written to disc; ignored for other table formats.
+     *
+     * @param compressionFormat The compression or null to use the installation default.
+     */
+    final void setCompressionFormat(final CompressionFormat compressionFormat) {
+        assert m_outputWriter == null : "Output already initialized";
+        m_compressionFormat = compressionFormat;
+    }
+
+    /**
+     * Sets whether rows are kept in memory in their serialized form in off-heap memory, limited by a byte budget
+     * shared by all buffers, rather than as a list of (at most maxRowsInMemory) row objects on the heap. Must be
+     * called before any data is written; ignored if rows are written to file immediately (maxRowsInMemory is 0) or if
+     * the table format isn't the {@link DefaultTableStoreFormat}.
+     *
+     * @param useOffHeap whether to use the off-heap cache
+     * @see KNIMEConstants#PROPERTY_TABLE_CACHE
+     */
+    final void setOffHeapRowCache(final boolean useOffHeap) {
+        setOffHeapRowCache(useOffHeap ? OffHeapRowStore.DEFAULT_BUDGET : null);
+    }
+
+    /**
+     * Like {@link #setOffHeapRowCache(boolean)} but reserves the off-heap memory from the given budget. Used in test
+     * cases.
+     *
+     * @param offHeapBudget the budget, null to keep the rows as list of row objects
+     */
+    final void setOffHeapRowCache(final OffHeapRowStore.Budget offHeapBudget) {
+        assert m_outputWriter == null : "Output already initialized";
+        if (offHeapBudget != null && m_maxRowsInMem > 0 && m_outputFormat instanceof DefaultTableStoreFormat) {
+            if (m_offHeapStore == null) {
+                m_offHeapStore = new OffHeapRowStore(this::createOffHeapSpillStream, offHeapBudget);
+            }
+            m_list = null;
+        } else if (m_offHeapStore != null) {
+            m_offHeapStore.release();
+            m_offHeapStore = null;
+            m_list = new ArrayList<BlobSupportDataRow>();
+        }
+    }
+
+    /** Called by the off-heap store if memory is exhausted, creates the temp file its content is moved to. */
+    private OutputStream createOffHeapSpillStream() throws IOException {
+        assert Thread.holdsLock(this);
+        ensureTempFileExists();
+        Buffer.onFileCreated(m_binFile);
+        LOGGER.debug("Off-heap table cache is exhausted, writing table to file \"" + m_binFile.getName() + "\"");
+        return new BufferedOutputStream(new FileOutputStream(m_binFile));
+    }
+
+    /** Creates m_outputWriter, writing to the off-heap store if used, otherwise to m_binFile. */
+    private void initOutputWriter() throws IOException {
+        if (m_offHeapStore != null) {
+            // in memory there is no need for compression unless explicitly requested
+            CompressionFormat compression = m_compressionFormat != null ? m_compressionFormat : CompressionFormat.None;
+            m_outputWriter = ((DefaultTableStoreFormat)m_outputFormat).createWriter(m_offHeapStore.getOutputStream(),
+                m_spec, !shouldSkipRowKey(), compression);
+            m_outputWriter.setFileStoreHandler((IWriteFileStoreHandler)m_fileStoreHandler);
+        } else {
+            ensureTempFileExists();
+            initOutputWriter(m_binFile);
+        }
+    }
+
+    /**
+     * Sets the index used for random access into the binary file. Called when the buffer is closed or after the
+     * buffer has been restored from a zip file containing an index. Ignored if the index doesn't match the table.
+     *
+     * @param rowOffsetIndex The index, may be null.
+     */
+    final void setRowOffsetIndex(final RowOffsetIndex rowOffsetIndex) {
+        if (rowOffsetIndex != null && rowOffsetIndex.getRowCount() != size()) {
+            LOGGER.debugWithFormat("Ignoring row offset index as its row count does not match the table (%d vs. %d)",
+                rowOffsetIndex.getRowCount(), size());
+            m_rowOffsetIndex = null;
+        } else {
+            m_rowOffsetIndex = rowOffsetIndex;
+        }
+    }
+
+    /** @return whether rows in the binary file can be accessed via a {@link RowOffsetIndex}. */
+    final boolean hasRowOffsetIndex() {
+        return m_rowOffsetIndex != null;
+    }
+
     /**
      * Validate the version as read from the file if it can be parsed by this implementation. If unknown, uses
      * latest known version (good luck).
@@ -598,6 +696,10 @@ synchronized void addRow(final DataRow r, final boolean isCopyOfExisting, final
                     flushBuffer();
                 }
             } else {
+                if (m_offHeapStore != null && m_maxRowsInMem == 0) {
+                    // file store cells that need special handling (see saveBlobsAndFileStores)
+                    m_offHeapStore.spill();
+                }
                 flushBuffer();
                 m_outputWriter.writeRow(row);
             }
@@ -629,6 +731,13 @@ synchronized void addRow(final DataRow r, final boolean isCopyOfExisting, final
      */
     final int writeAllRowsFromListToFile() throws IOException {
         assert Thread.holdsLock(this);
+        if (m_offHeapStore != null) {
+            // rows are written to the off-heap store directly, which moves them to file if memory is exhausted
+            if (m_outputWriter == null) {
+                initOutputWriter();
+            }
+            return 0;
+        }
         ensureTempFileExists();
         if (m_outputWriter == null) {
             if (!m_binFile.getParentFile().isDirectory()) {
@@ -655,7 +764,12 @@ final int writeAllRowsFromListToFile() throws IOException {
      * @throws IOException
      */
     private void initOutputWriter(final OutputStream output) throws IOException, UnsupportedOperationException {
-        m_outputWriter = m_outputFormat.createWriter(output, m_spec, !shouldSkipRowKey());
+        if (m_compressionFormat != null && m_outputFormat instanceof DefaultTableStoreFormat) {
+            m_outputWriter = ((DefaultTableStoreFormat)m_outputFormat).createWriter(
+                output, m_spec, !shouldSkipRowKey(), m_compressionFormat);
+        } else {
+            m_outputWriter = m_outputFormat.createWriter(output, m_spec, !shouldSkipRowKey());
+        }
         m_outputWriter.setFileStoreHandler((IWriteFileStoreHandler)m_fileStoreHandler);
     }
 
@@ -663,8 +777,12 @@ private void initOutputWriter(final OutputStream output) throws IOException, Uns
      * @throws IOException
      */
     private void initOutputWriter(final File binFile) throws IOException {
-        m_outputWriter = m_outputFormat.createWriter(binFile, m_spec, !shouldSkipRowKey());
-        m_outputWriter.setFileStoreHandler((IWriteFileStoreHandler)m_fileStoreHandler);
+        if (m_compressionFormat != null && m_outputFormat instanceof DefaultTableStoreFormat) {
+            initOutputWriter(new FileOutputStream(binFile));
+        } else {
+            m_outputWriter = m_outputFormat.createWriter(binFile, m_spec, !shouldSkipRowKey());
+            m_outputWriter.setFileStoreHandler((IWriteFileStoreHandler)m_fileStoreHandler);
+        }
     }
 
     private BlobSupportDataRow saveBlobsAndFileStores(final DataRow row, final boolean isCopyOfExisting,
@@ -866,8 +984,7 @@ private DataCell handleIncomingBlob(final DataCell cell, final int col, final in
                 // to take an error along
                 if (bc != null) {
                     if (m_outputWriter == null) {
-                        ensureTempFileExists();
-                        initOutputWriter(m_binFile);
+                        initOutputWriter();
                     }
                     writeBlobDataCell(bc, rewrite);
                     wc = new BlobWrapperDataCell(this, rewrite, cl, bc);
@@ -993,25 +1110,46 @@ void closeInternal() {
         assert Thread.holdsLock(this);
         // everything is in the list, i.e. in memory
         if (m_outputWriter == null) {
+            if (m_offHeapStore != null) {
+                // no rows were added, represent the empty table by an empty list
+                m_offHeapStore.release();
+                m_offHeapStore = null;
+                m_list = new ArrayList<BlobSupportDataRow>();
+            }
             // disallow modification
             List<BlobSupportDataRow> newList = Collections.unmodifiableList(m_list);
             m_list = newList;
             if (!m_list.isEmpty()) {
                 registerMemoryAlertListener();
+                m_tableCacheEntry = TableCacheManager.getInstance().add(this, m_list);
             }
         } else {
             try {
                 flushBuffer();
                 m_outputWriter.close();
+                if (m_outputWriter instanceof DefaultTableStoreWriter) {
+                    setRowOffsetIndex(((DefaultTableStoreWriter)m_outputWriter).getRowOffsetIndex());
+                }
                 NodeSettings nodeSettings = new NodeSettings("table-format-meta-info");
                 m_outputWriter.writeMetaInfoAfterWrite(nodeSettings);
                 m_list = null;
-                double sizeInMB = m_binFile.length() / (double)(1 << 20);
-                String size = NumberFormat.getInstance().format(sizeInMB);
-                LOGGER.debug("Buffer file (" + m_binFile.getAbsolutePath() + ") is " + size + "MB in size");
+                if (m_offHeapStore != null && m_offHeapStore.isSpilled()) {
+                    m_offHeapStore.release();
+                    m_offHeapStore = null;
+                }
+                if (m_offHeapStore != null) {
+                    double sizeInMB = m_offHeapStore.size() / (double)(1 << 20);
+                    String size = NumberFormat.getInstance().format(sizeInMB);
+                    LOGGER.debug("Buffer keeps " + size + "MB in off-heap memory");
+                } else {
+                    double sizeInMB = m_binFile.length() / (double)(1 << 20);
+                    String size = NumberFormat.getInstance().format(sizeInMB);
+                    LOGGER.debug("Buffer file (" + m_binFile.getAbsolutePath() + ") is " + size + "MB in size");
+                }
                 initOutputReader(nodeSettings, IVERSION);
             } catch (IOException ioe) {
-                throw new RuntimeException("Cannot close stream of file \"" + m_binFile.getName() + "\"", ioe);
+                throw new RuntimeException("Cannot close stream of file \""
+                    + (m_binFile != null ? m_binFile.getName() : "<memory>") + "\"", ioe);
             } catch (InvalidSettingsException ex) {
                 throw new RuntimeException("Cannot init reader after buffer is closed", ex);
             }
@@ -1043,6 +1181,7 @@ private synchronized void onMemoryAlert() {
         if (m_list == null) {
             // concurrent close or addRow() caused this to be flushed (this method may stall long on Buffer.this)
         } else {
+            removeFromTableCache();
             final int nrRowsWritten = m_list.size();
             flushBuffer();
             closeInternal();
@@ -1050,6 +1189,38 @@ private synchronized void onMemoryAlert() {
         }
     }
 
+    /**
+     * Called by the {@link TableCacheManager} (from its eviction thread) when the table cache exceeds its budget and
+     * this buffer was least recently used. Writes the rows to disc or, if they were restored from disc, just drops
+     * them.
+     *
+     * @param entry The evicted entry, ignored if no longer current.
+     */
+    final synchronized void onTableCacheEviction(final TableCacheManager.CacheEntry entry) {
+        if (m_list == null || entry != m_tableCacheEntry) {
+            // cleared, flushed because of a memory alert or evicted before
+            return;
+        }
+        m_tableCacheEntry = null;
+        final int nrRowsInMemory = m_list.size();
+        if (m_outputReader != null) {
+            // rows were restored into memory, the file is still there
+            m_list = null;
+            LOGGER.debug("Dropped " + nrRowsInMemory + " rows restored from disc to free table cache memory");
+        } else {
+            flushBuffer();
+            closeInternal();
+            LOGGER.debug("Wrote " + nrRowsInMemory + " rows to disc to free table cache memory");
+        }
+    }
+
+    private void removeFromTableCache() {
+        if (m_tableCacheEntry != null) {
+            TableCacheManager.getInstance().remove(m_tableCacheEntry);
+            m_tableCacheEntry = null;
+        }
+    }
+
     private void unregisterMemoryAlertListener() {
         if (m_memoryAlertListener != null) {
             MemoryAlertSystem.getInstance().removeListener(m_memoryAlertListener);
@@ -1179,6 +1350,7 @@ private void initOutputReader(final NodeSettingsRO outputFormatSettings, final i
         m_outputReader.setFileStoreHandlerRepository(m_fileStoreHandlerRepository);
         if (m_outputReader instanceof DefaultTableStoreReader) {
             ((DefaultTableStoreReader)m_outputReader).setBufferAfterConstruction(this);
+            ((DefaultTableStoreReader)m_outputReader).setOffHeapStore(m_offHeapStore);
         }
     }
 
@@ -1229,6 +1401,9 @@ final synchronized void restoreIntoMemory() {
 
     /** Called from back into memory iterator when the last row was read. */
     final synchronized void onAllRowsReadBackIntoMemory() {
+        if (m_list != null && m_tableCacheEntry == null) {
+            m_tableCacheEntry = TableCacheManager.getInstance().add(this, m_list);
+        }
         if (m_memoryAlertListener == null) {
             m_memoryAlertListener = new MemoryAlertListener() {
                 @Override
@@ -1289,17 +1464,21 @@ BlobDataCell readBlobDataCell(final BlobAddress blobAddress, final CellClassInfo
             Buffer blobBuffer = cnTbl.getBuffer();
             return blobBuffer.readBlobDataCell(blobAddress, cl);
         }
-        SoftReference<BlobDataCell> softRef = m_blobLRUCache.get(blobAddress);
-        BlobDataCell result = softRef != null ? softRef.get() : null;
+        final BlobCache blobCache = BlobCache.getInstance();
+        BlobDataCell result = blobCache.get(m_blobCacheOwnerID, blobAddress);
         if (result != null) {
             return result;
         }
+        long blobSize;
         if (getReadVersion() <= 5) { // 2.0 TechPreview and earlier
             result = BufferFromFileIteratorVersion1x.readBlobDataCell(this, blobAddress, cl);
+            blobSize = -1L;
         } else {
             result = BufferFromFileIteratorVersion20.readBlobDataCell(blobAddress, cl, this);
+            blobSize = getBlobFile(blobAddress.getIndexOfBlobInColumn(), blobAddress.getColumn(), false,
+                blobAddress.isUseCompression()).length();
         }
-        m_blobLRUCache.put(blobAddress, new SoftReference<BlobDataCell>(result));
+        blobCache.put(m_blobCacheOwnerID, blobAddress, result, blobSize);
         return result;
     }
 
@@ -1416,6 +1595,19 @@ private static String getFileName(final int fileIndex) {
      * @return a new Iterator over all rows.
      */
     synchronized CloseableRowIterator iterator() {
+        return iterator(null);
+    }
+
+    /**
+     * Get a new <code>RowIterator</code> that only needs to materialize the cells in the argument columns. Cells of
+     * other columns may or may not be missing cells, depending on where the data is stored (memory or file) and
+     * whether the table format supports column projection.
+     *
+     * @param materializeColumnIndices the sorted indices of the columns to read or <code>null</code> to read all
+     * @return a new Iterator over all rows.
+     * @see AbstractTableStoreReader#iterator(int[])
+     */
+    synchronized CloseableRowIterator iterator(final int[] materializeColumnIndices) {
         if (usesOutFile()) {
             if (m_useBackIntoMemoryIterator) {
                 // the order of the following lines is very important!
@@ -1426,10 +1618,14 @@ synchronized CloseableRowIterator iterator() {
                 return new FromListIterator();
             }
             try {
-                LOGGER.debug("Opening input stream on file \"" + m_binFile.getAbsolutePath() + "\", "
+                if (m_offHeapStore == null) {
+                    TableCacheManager.getInstance().recordMiss();
+                    LOGGER.debug("Opening input stream on file \"" + m_binFile.getAbsolutePath() + "\", "
                         + m_nrOpenInputStreams + " open streams");
+                }
 
-                TableStoreCloseableRowIterator iterator = m_outputReader.iterator();
+                TableStoreCloseableRowIterator iterator = materializeColumnIndices == null
+                    ? m_outputReader.iterator() : m_outputReader.iterator(materializeColumnIndices);
                 iterator.setBuffer(this);
                 m_nrOpenInputStreams.incrementAndGet();
                 synchronized (m_openIteratorSet) {
@@ -1444,11 +1640,56 @@ synchronized CloseableRowIterator iterator() {
                 throw new RuntimeException(b.toString(), ioe);
             }
         } else {
+            TableCacheManager.getInstance().recordHit(m_tableCacheEntry);
             return new FromListIterator();
         }
     }
 
 
+    /**
+     * Get a new iterator over the rows in [fromIndex, toIndex). If the table was written with a
+     * {@link RowOffsetIndex} (tables with {@link CompressionFormat#None no} or {@link CompressionFormat#Lz4 Lz4}
+     * compression) the file is read starting close to the first row, otherwise the leading rows are skipped.
+     *
+     * @param fromIndex The index of the first row, 0 &lt;= fromIndex &lt;= toIndex.
+     * @param toIndex The index after the last row, toIndex &lt;= {@link #size()}.
+     * @return a new iterator
+     */
+    synchronized CloseableRowIterator iteratorForRange(final long fromIndex, final long toIndex) {
+        if (fromIndex < 0 || toIndex < fromIndex || toIndex > size()) {
+            throw new IndexOutOfBoundsException(
+                "Invalid row range [" + fromIndex + ", " + toIndex + ") for table with " + size() + " rows");
+        }
+        final long rowCount = toIndex - fromIndex;
+        if (!usesOutFile() && m_backIntoMemoryIterator == null) {
+            // all rows in memory - we never store more than 2^31 rows in memory, therefore it's safe to cast to int
+            TableCacheManager.getInstance().recordHit(m_tableCacheEntry);
+            return new FromListIterator((int)fromIndex, toIndex);
+        }
+        if (usesOutFile() && fromIndex < toIndex && m_rowOffsetIndex != null
+                && m_outputReader instanceof DefaultTableStoreReader) {
+            try {
+                TableStoreCloseableRowIterator iterator =
+                    ((DefaultTableStoreReader)m_outputReader).iterator(m_rowOffsetIndex, fromIndex);
+                if (m_offHeapStore == null) {
+                    TableCacheManager.getInstance().recordMiss();
+                }
+                iterator.setBuffer(this);
+                m_nrOpenInputStreams.incrementAndGet();
+                synchronized (m_openIteratorSet) {
+                    m_openIteratorSet.put(iterator, DUMMY);
+                }
+                long skipCount = fromIndex - m_rowOffsetIndex.getIndexedRow(fromIndex);
+                return new RangeRowIterator(iterator, skipCount, rowCount);
+            } catch (IOException ioe) {
+                LOGGER.debug("Unable to use row offset index on file \""
+                    + (m_binFile != null ? m_binFile.getName() : "<memory>")
+                    + "\", reading sequentially: " + ioe.getMessage(), ioe);
+            }
+        }
+        return new RangeRowIterator(iterator(), fromIndex, rowCount);
+    }
+
     private static List<OutputStream> DEBUG_STREAMS = new ArrayList<>();
 
     static {
@@ -1585,6 +1826,8 @@ synchronized void addToZipFile(final ZipOutputStream zipOut, final ExecutionMoni
             }
             synchronized (copy) {
                 copy.closeInternal();
+                // the copy is only used for writing, it's not a cached table
+                copy.removeFromTableCache();
             }
             if (tempFile != null) {
                 try (InputStream in = new FileInputStream(tempFile)) {
@@ -1617,12 +1860,14 @@ synchronized void addToZipFile(final ZipOutputStream zipOut, final ExecutionMoni
             if (ZLIB_SUPPORTS_LEVEL_SWITCH_AP8083) {
                 zipOut.setLevel(Deflater.DEFAULT_COMPRESSION);
             }
+            addRowOffsetIndexToZip(copy.m_rowOffsetIndex, zipOut);
             zipOut.putNextEntry(new ZipEntry(ZIP_ENTRY_META));
             copy.writeMetaToFile(new NonClosableOutputStream.Zip(zipOut));
         } else {
             // no need for BufferedInputStream here as the copy method
             // does the buffering itself
-            try (InputStream is = new FileInputStream(m_binFile)) {
+            try (InputStream is =
+                    m_offHeapStore != null ? m_offHeapStore.newInputStream(0L) : new FileInputStream(m_binFile)) {
                 FileUtil.copy(is, zipOut);
             }
             if (m_blobDir != null) {
@@ -1635,11 +1880,22 @@ synchronized void addToZipFile(final ZipOutputStream zipOut, final ExecutionMoni
             if (ZLIB_SUPPORTS_LEVEL_SWITCH_AP8083) {
                 zipOut.setLevel(Deflater.DEFAULT_COMPRESSION);
             }
+            addRowOffsetIndexToZip(m_rowOffsetIndex, zipOut);
             zipOut.putNextEntry(new ZipEntry(ZIP_ENTRY_META));
             writeMetaToFile(new NonClosableOutputStream.Zip(zipOut));
         }
     }
 
+    /** Adds the {@link #ZIP_ENTRY_ROW_INDEX} entry if the argument is non-null. */
+    private static void addRowOffsetIndexToZip(final RowOffsetIndex rowOffsetIndex, final ZipOutputStream zipOut)
+            throws IOException {
+        if (rowOffsetIndex != null) {
+            zipOut.putNextEntry(new ZipEntry(ZIP_ENTRY_ROW_INDEX));
+            rowOffsetIndex.save(zipOut);
+            zipOut.closeEntry();
+        }
+    }
+
     /**
      * Adds recursively the content of the directory <code>dir</code> to a zip output stream, prefixed with
      * <code>zipEntry</code>.
@@ -1710,14 +1966,20 @@ public synchronized void clearIteratorInstance(final TableStoreCloseableRowItera
     /** Clears the temp file. Any subsequent iteration will fail! */
     synchronized void clear() {
         BufferTracker.getInstance().bufferCleared(this);
+        removeFromTableCache();
         m_list = null;
+        if (m_offHeapStore != null) {
+            m_offHeapStore.release();
+            m_offHeapStore = null;
+        }
         unregisterMemoryAlertListener();
+        // iterators on the off-heap store must not read the released memory either
+        synchronized (m_openIteratorSet) {
+            m_openIteratorSet.keySet().stream().filter(f -> f != null)
+            .forEach(f -> clearIteratorInstance(f, false));
+            m_openIteratorSet.clear();
+        }
         if (m_binFile != null) {
-            synchronized (m_openIteratorSet) {
-                m_openIteratorSet.keySet().stream().filter(f -> f != null)
-                .forEach(f -> clearIteratorInstance(f, false));
-                m_openIteratorSet.clear();
-            }
             if (m_blobDir != null) {
                 DeleteInBackgroundThread.delete(m_binFile, m_blobDir);
             } else {
@@ -1727,11 +1989,10 @@ synchronized void clear() {
         if (m_fileStoreHandler instanceof NotInWorkflowWriteFileStoreHandler) {
             m_fileStoreHandler.clearAndDispose();
         }
-        if (m_blobLRUCache != null) {
-            m_blobLRUCache.clear();
-        }
+        BlobCache.getInstance().invalidate(m_blobCacheOwnerID);
         m_binFile = null;
         m_blobDir = null;
+        m_rowOffsetIndex = null;
     }
 
     private static final int MAX_FILES_TO_CREATE_BEFORE_GC = 10000;
@@ -1787,36 +2048,6 @@ synchronized void flushBuffer() {
         }
     }
 
-    /** Last recently used cache for blobs. */
-    private static final class BlobLRUCache extends LinkedHashMap<BlobAddress, SoftReference<BlobDataCell>> {
-
-        /** Default constructor, instructs for access order. */
-        BlobLRUCache() {
-            super(16, 0.75f, true); // args copied from HashMap implementation
-        }
-
-        /** {@inheritDoc} */
-        @Override
-        protected synchronized boolean removeEldestEntry(final Entry<BlobAddress, SoftReference<BlobDataCell>> eldest) {
-            return size() >= 100;
-        }
-
-        /** {@inheritDoc} */
-        @Override
-        public synchronized SoftReference<BlobDataCell> get(final Object key) {
-            return super.get(key);
-        }
-
-        /** {@inheritDoc} */
-        @Override
-        public synchronized SoftReference<BlobDataCell> put(final BlobAddress key,
-                                                            final SoftReference<BlobDataCell> value) {
-            return super.put(key, value);
-        }
-
-    }
-
-
     /**
      * Iterator to be used when data is contained in m_list. It uses access by index rather than wrapping an
      * java.util.Iterator as the list may be simultaneously modified while reading (in case the content is fetched from
@@ -1825,15 +2056,27 @@ public synchronized SoftReference<BlobDataCell> put(final BlobAddress key,
     private class FromListIterator extends CloseableRowIterator {
 
         // do not use iterator here, see inner class comment
-        private int m_nextIndex = 0;
+        private int m_nextIndex;
+        private long m_endIndex;
         private final List<BlobSupportDataRow> m_listReference = m_list;
 
+        /** Iterates all rows. */
+        FromListIterator() {
+            this(0, size());
+        }
+
+        /** Iterates the rows in [fromIndex, toIndex); all rows must be in memory if fromIndex &gt; 0. */
+        FromListIterator(final int fromIndex, final long toIndex) {
+            m_nextIndex = fromIndex;
+            m_endIndex = toIndex;
+        }
+
         /**
          * {@inheritDoc}
          */
         @Override
         public boolean hasNext() {
-            return m_nextIndex < size();
+            return m_nextIndex < m_endIndex;
         }
 
         /**
@@ -1876,7 +2119,7 @@ public DataRow next() {
         /** {@inheritDoc} */
         @Override
         public void close() {
-            m_nextIndex = (int) size();
+            m_endIndex = m_nextIndex;
         }
     }
 
@@ -105,21 +105,7 @@ final class BufferFromFileIteratorVersion1x extends FromFileIterator {
         m_tableFormatReader = tableFormatReader;
         BufferedInputStream bufferedStream =
             new BufferedInputStream(new FileInputStream(tableFormatReader.getBinFile()));
-        InputStream in;
-        switch (tableFormatReader.getBinFileCompressionFormat()) {
-            case Gzip:
-                in = new GZIPInputStream(bufferedStream);
-                // buffering is important when reading gzip streams
-                in = new BufferedInputStream(in);
-                break;
-            case None:
-                in = bufferedStream;
-                break;
-            default:
-                bufferedStream.close();
-                throw new IOException("Unsupported compression format: "
-                        + tableFormatReader.getBinFileCompressionFormat());
-        }
+        InputStream in = tableFormatReader.getBinFileCompressionFormat().wrapInputStream(bufferedStream);
         m_inStream = new DCObjectInputStream(in);
     }
 
@@ -81,7 +81,10 @@ final class BufferFromFileIteratorVersion20 extends FromFileIterator {
     private final DefaultTableStoreReader m_tableFormatReader;
 
     /** Row pointer. */
-    private int m_pointer;
+    private long m_pointer;
+
+    /** Whether row keys are preceded by a tag byte, see {@link #VERSION_TAGGED_ROW_KEY}. */
+    private final boolean m_isTaggedRowKey;
 
     /** Content of the rows that get returned in {@link #next()} when the
      * table is {@link #close()}'d. Will be instantiated lazy. */
@@ -104,34 +107,36 @@ final class BufferFromFileIteratorVersion20 extends FromFileIterator {
      * @throws IOException If stream reading fails.
      */
     BufferFromFileIteratorVersion20(final DefaultTableStoreReader tableFormatReader) throws IOException {
-        m_pointer = 0;
-        if (tableFormatReader.getBinFile() == null) {
-            throw new IOException("Unable to read table from file, "
-                    + "table has been cleared.");
-        }
+        this(tableFormatReader, openBinFile(tableFormatReader), 0L);
+    }
+
+    /** Inits iterator on a stream that is positioned at the start of a row (used for random access).
+     * @param tableFormatReader The associated buffer.
+     * @param in The decompressed stream, positioned at the start of row <code>startRow</code>.
+     * @param startRow The index of the row that is read first.
+     */
+    BufferFromFileIteratorVersion20(final DefaultTableStoreReader tableFormatReader, final InputStream in,
+        final long startRow) {
+        m_pointer = startRow;
         m_tableFormatReader = tableFormatReader;
         assert m_tableFormatReader.getReadVersion() >= 6 : "Iterator is not backward "
             + "compatible, use instead "
             + BufferFromFileIteratorVersion1x.class.getSimpleName();
-        BufferedInputStream bufferedStream =
-            new BufferedInputStream(new FileInputStream(tableFormatReader.getBinFile()));
-        InputStream in;
-        switch (tableFormatReader.getBinFileCompressionFormat()) {
-            case Gzip:
-                in = new GZIPInputStream(bufferedStream);
-                // buffering is important when reading gzip streams
-                in = new BufferedInputStream(in);
-                break;
-            case None:
-                in = bufferedStream;
-                break;
-            default:
-                throw new IOException("Unsupported compression format: " + tableFormatReader.getBinFileCompressionFormat());
-        }
+        m_isTaggedRowKey = m_tableFormatReader.getReadVersion() >= VERSION_TAGGED_ROW_KEY;
         m_dataCellStreamReader = new DataCellStreamReader(tableFormatReader);
         m_inStream = new DCObjectInputVersion2(in, m_dataCellStreamReader);
     }
 
+    private static InputStream openBinFile(final DefaultTableStoreReader tableFormatReader) throws IOException {
+        if (tableFormatReader.getBinFile() == null) {
+            throw new IOException("Unable to read table from file, "
+                    + "table has been cleared.");
+        }
+        BufferedInputStream bufferedStream =
+            new BufferedInputStream(new FileInputStream(tableFormatReader.getBinFile()));
+        return tableFormatReader.getBinFileCompressionFormat().wrapInputStream(bufferedStream);
+    }
+
     /** {@inheritDoc} */
     @Override
     public synchronized boolean hasNext() {
@@ -214,7 +219,13 @@ private RowKey readRowKeyAndEndBlock(
             return DUMMY_ROW_KEY;
         }
         try {
-            return inStream.readRowKey();
+            if (!m_isTaggedRowKey) {
+                return inStream.readRowKey();
+            }
+            if (m_pointer % ROW_KEY_DELTA_RESET_INTERVAL == 0) {
+                inStream.resetRowKeyDelta();
+            }
+            return inStream.readTaggedRowKey();
         } finally {
             inStream.endBlock();
         }
@@ -223,7 +234,7 @@ private RowKey readRowKeyAndEndBlock(
     /** Handle exceptions, make sure to issue errors only once. */
     private void handleReadThrowable(final Throwable throwable) {
         String warnMessage = "Errors while reading row " + (m_pointer + 1)
-            + " from file \"" + m_tableFormatReader.getBinFile().getName() + "\": "
+            + " from " + m_tableFormatReader.getSourceDescription() + ": "
             + throwable.getMessage();
         if (!m_hasThrownReadException) {
             warnMessage = warnMessage.concat(
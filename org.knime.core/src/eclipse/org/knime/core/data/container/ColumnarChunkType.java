@@ -0,0 +1,212 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.knime.core.data.BooleanValue;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * The column types supported by the {@link ColumnarTableStoreFormat}. Each constant knows how to write the value of a
+ * (non-missing) cell into a column chunk and how to read it back. Only the exact cell classes are supported, other
+ * implementations of the same value interface would lose their identity when read back.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+enum ColumnarChunkType {
+
+    /** {@link IntCell}, 4 bytes per value. */
+    INT(IntCell.class, IntCell.TYPE) {
+        @Override
+        void writeValue(final DataCell cell, final DataOutput out) throws IOException {
+            out.writeInt(((IntValue)cell).getIntValue());
+        }
+
+        @Override
+        DataCell readValue(final ByteBuffer in) {
+            return new IntCell(in.getInt());
+        }
+    },
+
+    /** {@link LongCell}, 8 bytes per value. */
+    LONG(LongCell.class, LongCell.TYPE) {
+        @Override
+        void writeValue(final DataCell cell, final DataOutput out) throws IOException {
+            out.writeLong(((LongValue)cell).getLongValue());
+        }
+
+        @Override
+        DataCell readValue(final ByteBuffer in) {
+            return new LongCell(in.getLong());
+        }
+    },
+
+    /** {@link DoubleCell}, 8 bytes per value. */
+    DOUBLE(DoubleCell.class, DoubleCell.TYPE) {
+        @Override
+        void writeValue(final DataCell cell, final DataOutput out) throws IOException {
+            out.writeDouble(((DoubleValue)cell).getDoubleValue());
+        }
+
+        @Override
+        DataCell readValue(final ByteBuffer in) {
+            return new DoubleCell(in.getDouble());
+        }
+    },
+
+    /** {@link BooleanCell}, 1 byte per value (the chunk compression takes care of the rest). */
+    BOOLEAN(BooleanCell.class, BooleanCell.TYPE) {
+        @Override
+        void writeValue(final DataCell cell, final DataOutput out) throws IOException {
+            out.writeByte(((BooleanValue)cell).getBooleanValue() ? 1 : 0);
+        }
+
+        @Override
+        DataCell readValue(final ByteBuffer in) {
+            return BooleanCell.get(in.get() != 0);
+        }
+    },
+
+    /** {@link StringCell}, length prefixed UTF-8 bytes. */
+    STRING(StringCell.class, StringCell.TYPE) {
+        @Override
+        void writeValue(final DataCell cell, final DataOutput out) throws IOException {
+            writeString(((StringValue)cell).getStringValue(), out);
+        }
+
+        @Override
+        DataCell readValue(final ByteBuffer in) {
+            return new StringCell(readString(in));
+        }
+    };
+
+    private final Class<? extends DataCell> m_cellClass;
+
+    private final DataType m_type;
+
+    private ColumnarChunkType(final Class<? extends DataCell> cellClass, final DataType type) {
+        m_cellClass = cellClass;
+        m_type = type;
+    }
+
+    /** @return the cell class that is stored in columns of this type. */
+    Class<? extends DataCell> getCellClass() {
+        return m_cellClass;
+    }
+
+    /**
+     * Writes the value of the argument cell, which is non-missing and of class {@link #getCellClass()}.
+     *
+     * @param cell the cell to write
+     * @param out to write to
+     * @throws IOException if writing fails
+     */
+    abstract void writeValue(final DataCell cell, final DataOutput out) throws IOException;
+
+    /**
+     * Reads a value previously written by {@link #writeValue(DataCell, DataOutput)}.
+     *
+     * @param in to read from, positioned at the value
+     * @return a new cell
+     */
+    abstract DataCell readValue(final ByteBuffer in);
+
+    /**
+     * Get the chunk type for a column type.
+     *
+     * @param type the column type in question
+     * @return the chunk type or <code>null</code> if the type is not supported
+     */
+    static ColumnarChunkType get(final DataType type) {
+        for (ColumnarChunkType t : values()) {
+            if (t.m_type.equals(type)) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes a string as int length followed by its UTF-8 bytes (no 64k limitation as in
+     * {@link DataOutput#writeUTF(String)}).
+     *
+     * @param s the non-null string
+     * @param out to write to
+     * @throws IOException if writing fails
+     */
+    static void writeString(final String s, final DataOutput out) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(String, DataOutput)}.
+     *
+     * @param in to read from
+     * @return the string
+     */
+    static String readString(final ByteBuffer in) {
+        int length = in.getInt();
+        String s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return s;
+    }
+
+}
@@ -0,0 +1,373 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.MissingCell;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.storage.AbstractTableStoreReader;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Reader for the {@link ColumnarTableStoreFormat}. Iterators only read and decode the column chunks of the columns
+ * they need to materialize, the remaining columns are returned as missing cells.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @see ColumnarTableStoreWriter
+ */
+final class ColumnarTableStoreReader extends AbstractTableStoreReader implements KNIMEStreamConstants {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ColumnarTableStoreReader.class);
+
+    private final File m_binFile;
+
+    private final DataTableSpec m_spec;
+
+    private final boolean m_isReadRowKey;
+
+    private final ColumnarChunkType[] m_types;
+
+    /** Offsets of all row groups, read lazily from the file footer. */
+    private long[] m_groupOffsets;
+
+    private long m_rowCount;
+
+    /**
+     * @param binFile the file to read from
+     * @param spec the spec of the table
+     * @param isReadRowKey whether the file contains the row keys
+     */
+    ColumnarTableStoreReader(final File binFile, final DataTableSpec spec, final boolean isReadRowKey) {
+        m_binFile = binFile;
+        m_spec = spec;
+        m_isReadRowKey = isReadRowKey;
+        m_types = new ColumnarChunkType[spec.getNumColumns()];
+        for (int i = 0; i < m_types.length; i++) {
+            m_types[i] = ColumnarChunkType.get(spec.getColumnSpec(i).getType());
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public TableStoreCloseableRowIterator iterator() throws IOException {
+        boolean[] materialize = new boolean[m_types.length];
+        Arrays.fill(materialize, true);
+        return new ColumnarRowIterator(materialize);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public TableStoreCloseableRowIterator iterator(final int[] materializeColumnIndices) throws IOException {
+        boolean[] materialize = new boolean[m_types.length];
+        for (int i : materializeColumnIndices) {
+            materialize[i] = true;
+        }
+        return new ColumnarRowIterator(materialize);
+    }
+
+    /** Reads the footer (group offsets and row count) if not done yet. */
+    private synchronized void ensureFooterRead(final FileChannel channel) throws IOException {
+        if (m_groupOffsets != null) {
+            return;
+        }
+        final long fileSize = channel.size();
+        ByteBuffer tail = readFully(channel, fileSize - 12, 12);
+        long footerOffset = tail.getLong();
+        int magic = tail.getInt();
+        if (magic != ColumnarTableStoreWriter.MAGIC) {
+            throw new IOException("Invalid file \"" + m_binFile.getName() + "\", no columnar table footer found");
+        }
+        ByteBuffer footer = readFully(channel, footerOffset, (int)(fileSize - 12 - footerOffset));
+        m_rowCount = footer.getLong();
+        long[] groupOffsets = new long[footer.getInt()];
+        for (int i = 0; i < groupOffsets.length; i++) {
+            groupOffsets[i] = footer.getLong();
+        }
+        m_groupOffsets = groupOffsets;
+    }
+
+    private static ByteBuffer readFully(final FileChannel channel, final long position, final int length)
+        throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of file at position " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /** Iterator over the row groups, decoding one group at a time. */
+    private final class ColumnarRowIterator extends TableStoreCloseableRowIterator {
+
+        private final boolean[] m_materialize;
+
+        private final int m_storedOffset = m_isReadRowKey ? 1 : 0;
+
+        private final Inflater m_inflater = new Inflater();
+
+        private FileChannel m_channel;
+
+        /** [column][row in group], all missing for columns not materialized. */
+        private final DataCell[][] m_groupCells;
+
+        private RowKey[] m_groupKeys;
+
+        private int m_groupIndex;
+
+        private int m_rowInGroup;
+
+        private int m_rowsInGroup;
+
+        private long m_pointer;
+
+        private boolean m_hasThrownReadException;
+
+        ColumnarRowIterator(final boolean[] materialize) throws IOException {
+            if (m_binFile == null) {
+                throw new IOException("Unable to read table from file, table has been cleared.");
+            }
+            m_materialize = materialize;
+            m_groupCells = new DataCell[m_types.length][];
+            m_channel = FileChannel.open(m_binFile.toPath(), StandardOpenOption.READ);
+            try {
+                ensureFooterRead(m_channel);
+            } catch (IOException ioe) {
+                m_channel.close();
+                throw ioe;
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized boolean hasNext() {
+            boolean hasNext = m_pointer < m_rowCount;
+            if (!hasNext && m_channel != null) {
+                close();
+            }
+            return hasNext;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized BlobSupportDataRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Iterator at end");
+            }
+            final long pointer = m_pointer++;
+            if (m_channel == null) {
+                DataCell[] missingCells = new DataCell[m_types.length];
+                Arrays.fill(missingCells, DataType.getMissingCell());
+                return new BlobSupportDataRow(
+                    new RowKey("INVALID_ROW (table is closed) - (Row " + pointer + ")"), missingCells);
+            }
+            if (m_rowInGroup >= m_rowsInGroup) {
+                try {
+                    readGroup(m_groupIndex++);
+                } catch (IOException | DataFormatException | RuntimeException e) {
+                    handleReadThrowable(e);
+                    fillGroupWithMissing(1);
+                }
+            }
+            final int row = m_rowInGroup++;
+            DataCell[] cells = new DataCell[m_types.length];
+            for (int c = 0; c < cells.length; c++) {
+                cells[c] = m_groupCells[c][row];
+            }
+            RowKey key = m_isReadRowKey ? m_groupKeys[row] : DUMMY_ROW_KEY;
+            if (key == null) {
+                key = new RowKey("Read_failed__auto_generated_key_" + pointer);
+            }
+            return new BlobSupportDataRow(key, cells);
+        }
+
+        private void readGroup(final int groupIndex) throws IOException, DataFormatException {
+            final int storedColumnCount = m_types.length + m_storedOffset;
+            if (groupIndex >= m_groupOffsets.length) {
+                throw new IOException("File contains fewer rows than expected (" + m_rowCount + ")");
+            }
+            long position = m_groupOffsets[groupIndex];
+            ByteBuffer header = readFully(m_channel, position, 4 + 9 * storedColumnCount);
+            position += header.limit();
+            m_rowsInGroup = header.getInt();
+            m_rowInGroup = 0;
+            m_groupKeys = m_isReadRowKey ? new RowKey[m_rowsInGroup] : null;
+            for (int s = 0; s < storedColumnCount; s++) {
+                byte codec = header.get();
+                int rawLength = header.getInt();
+                int storedLength = header.getInt();
+                int col = s - m_storedOffset;
+                if (col < 0) {
+                    ByteBuffer raw = readChunk(position, codec, rawLength, storedLength);
+                    for (int r = 0; r < m_rowsInGroup; r++) {
+                        m_groupKeys[r] = new RowKey(ColumnarChunkType.readString(raw));
+                    }
+                } else if (m_materialize[col]) {
+                    m_groupCells[col] = decodeChunk(m_types[col],
+                        readChunk(position, codec, rawLength, storedLength), m_rowsInGroup);
+                } else {
+                    m_groupCells[col] = missingCells(m_groupCells[col], m_rowsInGroup);
+                }
+                position += storedLength;
+            }
+        }
+
+        private ByteBuffer readChunk(final long position, final byte codec, final int rawLength,
+            final int storedLength) throws IOException, DataFormatException {
+            ByteBuffer stored = readFully(m_channel, position, storedLength);
+            switch (codec) {
+                case ColumnarTableStoreWriter.CODEC_NONE:
+                    return stored;
+                case ColumnarTableStoreWriter.CODEC_DEFLATE:
+                    byte[] raw = new byte[rawLength];
+                    m_inflater.reset();
+                    m_inflater.setInput(stored.array(), 0, storedLength);
+                    int length = 0;
+                    while (length < rawLength && !m_inflater.finished()) {
+                        int read = m_inflater.inflate(raw, length, rawLength - length);
+                        if (read == 0 && (m_inflater.needsInput() || m_inflater.needsDictionary())) {
+                            throw new DataFormatException("Truncated column chunk");
+                        }
+                        length += read;
+                    }
+                    return ByteBuffer.wrap(raw);
+                default:
+                    throw new IOException("Unsupported chunk codec: " + codec);
+            }
+        }
+
+        private void fillGroupWithMissing(final int rowCount) {
+            m_rowsInGroup = rowCount;
+            m_rowInGroup = 0;
+            m_groupKeys = m_isReadRowKey ? new RowKey[rowCount] : null;
+            for (int c = 0; c < m_groupCells.length; c++) {
+                m_groupCells[c] = missingCells(null, rowCount);
+            }
+        }
+
+        /** Handle exceptions, make sure to issue errors only once. */
+        private void handleReadThrowable(final Throwable throwable) {
+            String warnMessage = "Errors while reading row " + (m_pointer)
+                + " from file \"" + m_binFile.getName() + "\": " + throwable.getMessage();
+            if (!m_hasThrownReadException) {
+                LOGGER.warn(warnMessage.concat("; Suppressing further warnings."), throwable);
+            } else {
+                LOGGER.debug(warnMessage, throwable);
+            }
+            m_hasThrownReadException = true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized boolean performClose() throws IOException {
+            if (m_channel == null) {
+                return false;
+            }
+            m_inflater.end();
+            m_channel.close();
+            m_channel = null;
+            return true;
+        }
+    }
+
+    /**
+     * Decodes the cells of a column chunk.
+     *
+     * @param type the column type
+     * @param in the raw (decompressed) chunk
+     * @param rowCount number of rows in the chunk
+     * @return the cells
+     */
+    static DataCell[] decodeChunk(final ColumnarChunkType type, final ByteBuffer in, final int rowCount) {
+        long[] missingWords = new long[in.getInt()];
+        for (int i = 0; i < missingWords.length; i++) {
+            missingWords[i] = in.getLong();
+        }
+        BitSet missing = BitSet.valueOf(missingWords);
+        int errorCount = in.getInt();
+        String[] errors = null;
+        if (errorCount > 0) {
+            errors = new String[rowCount];
+            for (int i = 0; i < errorCount; i++) {
+                int row = in.getInt();
+                errors[row] = ColumnarChunkType.readString(in);
+            }
+        }
+        DataCell[] cells = new DataCell[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            if (missing.get(r)) {
+                cells[r] = errors != null && errors[r] != null ? new MissingCell(errors[r]) : DataType.getMissingCell();
+            } else {
+                cells[r] = type.readValue(in);
+            }
+        }
+        return cells;
+    }
+
+    private static DataCell[] missingCells(final DataCell[] reuse, final int rowCount) {
+        if (reuse != null && reuse.length >= rowCount) {
+            return reuse;
+        }
+        DataCell[] cells = new DataCell[rowCount];
+        Arrays.fill(cells, DataType.getMissingCell());
+        return cells;
+    }
+
+}
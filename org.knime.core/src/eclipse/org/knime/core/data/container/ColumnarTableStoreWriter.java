@@ -0,0 +1,334 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.MissingCell;
+import org.knime.core.data.container.storage.AbstractTableStoreWriter;
+import org.knime.core.node.NodeSettingsWO;
+
+/**
+ * Writer for the {@link ColumnarTableStoreFormat}. Rows are collected in row groups; once a group is full each column
+ * of the group is encoded into a separate chunk, which is compressed individually and written one after another. The
+ * layout of the file is:
+ *
+ * <pre>
+ * group_0 ... group_n footer
+ *
+ * group:  int rowCount, (byte codec, int rawLength, int storedLength) per stored column, chunk bytes per column
+ * footer: long rowCount, int groupCount, long offset per group, long footerOffset, int magic
+ * </pre>
+ *
+ * The row key (if written) is stored as the first column of each group. The layout of a chunk (before compression) is
+ * <code>int #longs, long[] missing bit set, int #errors, (int row, string error)*, values of non-missing cells</code>.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ColumnarTableStoreWriter extends AbstractTableStoreWriter {
+
+    /** Last int in a file, used to validate the footer. */
+    static final int MAGIC = 0x4B434F4C;
+
+    /** Chunk is stored as is. */
+    static final byte CODEC_NONE = 0;
+
+    /** Chunk is deflated. */
+    static final byte CODEC_DEFLATE = 1;
+
+    /** Number of cells that are kept in memory until a group is written. Rows per group follow from the column count. */
+    private static final int CELLS_PER_GROUP = 1 << 22;
+
+    private static final int MIN_ROWS_PER_GROUP = 1 << 10;
+
+    private static final int MAX_ROWS_PER_GROUP = 1 << 16;
+
+    private final CountingOutputStream m_countingOut;
+
+    private final DataOutputStream m_out;
+
+    private final ChunkBuilder[] m_chunks;
+
+    private final int m_rowsPerGroup;
+
+    private final List<Long> m_groupOffsets = new ArrayList<>();
+
+    private final Deflater m_deflater = new Deflater(Deflater.BEST_SPEED);
+
+    private final ByteArrayOutputStream m_rawChunk = new ByteArrayOutputStream();
+
+    private byte[] m_compressBuffer = new byte[0];
+
+    private int m_rowsInGroup;
+
+    private long m_rowCount;
+
+    private boolean m_isClosed;
+
+    /**
+     * @param spec the spec of the table, all columns need to be accepted by
+     *            {@link ColumnarTableStoreFormat#accepts(DataTableSpec)}
+     * @param outputStream to write to, will be closed when this writer is closed
+     * @param writeRowKey whether to persist the row keys
+     */
+    ColumnarTableStoreWriter(final DataTableSpec spec, final OutputStream outputStream, final boolean writeRowKey) {
+        this(spec, outputStream, writeRowKey, -1);
+    }
+
+    /**
+     * @param spec the spec of the table
+     * @param outputStream to write to
+     * @param writeRowKey whether to persist the row keys
+     * @param rowsPerGroup number of rows per group or -1 to derive it from the column count (used in test cases)
+     */
+    ColumnarTableStoreWriter(final DataTableSpec spec, final OutputStream outputStream, final boolean writeRowKey,
+        final int rowsPerGroup) {
+        super(spec, writeRowKey);
+        m_countingOut = new CountingOutputStream(new BufferedOutputStream(outputStream));
+        m_out = new DataOutputStream(m_countingOut);
+        final int colCount = spec.getNumColumns();
+        final int offset = writeRowKey ? 1 : 0;
+        m_chunks = new ChunkBuilder[colCount + offset];
+        if (writeRowKey) {
+            m_chunks[0] = new ChunkBuilder(null);
+        }
+        for (int i = 0; i < colCount; i++) {
+            ColumnarChunkType type = ColumnarChunkType.get(spec.getColumnSpec(i).getType());
+            if (type == null) {
+                throw new IllegalArgumentException("Unsupported column type in column \""
+                    + spec.getColumnSpec(i).getName() + "\": " + spec.getColumnSpec(i).getType());
+            }
+            m_chunks[i + offset] = new ChunkBuilder(type);
+        }
+        if (rowsPerGroup > 0) {
+            m_rowsPerGroup = rowsPerGroup;
+        } else {
+            m_rowsPerGroup =
+                Math.max(MIN_ROWS_PER_GROUP, Math.min(MAX_ROWS_PER_GROUP, CELLS_PER_GROUP / m_chunks.length));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeRow(final DataRow row) throws IOException {
+        int chunkIndex = 0;
+        if (isWriteRowKey()) {
+            m_chunks[chunkIndex++].addRowKey(row.getKey().getString());
+        }
+        for (int i = 0; i < row.getNumCells(); i++) {
+            DataCell cell = row instanceof BlobSupportDataRow ? ((BlobSupportDataRow)row).getRawCell(i) : row.getCell(i);
+            m_chunks[chunkIndex++].addCell(cell, m_rowsInGroup);
+        }
+        m_rowCount++;
+        if (++m_rowsInGroup >= m_rowsPerGroup) {
+            writeGroup();
+        }
+    }
+
+    /** Writes the current group to the stream and resets the chunk builders. */
+    private void writeGroup() throws IOException {
+        m_groupOffsets.add(m_countingOut.getByteCount());
+        byte[][] storedChunks = new byte[m_chunks.length][];
+        byte[] codecs = new byte[m_chunks.length];
+        int[] rawLengths = new int[m_chunks.length];
+        int[] storedLengths = new int[m_chunks.length];
+        for (int c = 0; c < m_chunks.length; c++) {
+            m_rawChunk.reset();
+            m_chunks[c].writeTo(new DataOutputStream(m_rawChunk));
+            byte[] raw = m_rawChunk.toByteArray();
+            rawLengths[c] = raw.length;
+            int deflatedLength = deflate(raw);
+            if (deflatedLength >= 0) {
+                codecs[c] = CODEC_DEFLATE;
+                storedChunks[c] = new byte[deflatedLength];
+                System.arraycopy(m_compressBuffer, 0, storedChunks[c], 0, deflatedLength);
+            } else {
+                codecs[c] = CODEC_NONE;
+                storedChunks[c] = raw;
+            }
+            storedLengths[c] = storedChunks[c].length;
+            m_chunks[c].reset();
+        }
+        m_out.writeInt(m_rowsInGroup);
+        for (int c = 0; c < m_chunks.length; c++) {
+            m_out.writeByte(codecs[c]);
+            m_out.writeInt(rawLengths[c]);
+            m_out.writeInt(storedLengths[c]);
+        }
+        for (int c = 0; c < m_chunks.length; c++) {
+            m_out.write(storedChunks[c]);
+        }
+        m_rowsInGroup = 0;
+    }
+
+    /**
+     * Deflates the argument into {@link #m_compressBuffer}.
+     *
+     * @return the compressed length or -1 if compression does not reduce the size
+     */
+    private int deflate(final byte[] raw) {
+        if (m_compressBuffer.length < raw.length) {
+            m_compressBuffer = new byte[raw.length];
+        }
+        m_deflater.reset();
+        m_deflater.setInput(raw);
+        m_deflater.finish();
+        int length = 0;
+        while (!m_deflater.finished() && length < raw.length) {
+            length += m_deflater.deflate(m_compressBuffer, length, raw.length - length);
+        }
+        return m_deflater.finished() && length < raw.length ? length : -1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeMetaInfoAfterWrite(final NodeSettingsWO settings) {
+        settings.addInt(ColumnarTableStoreFormat.CFG_VERSION, ColumnarTableStoreFormat.VERSION);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        if (m_isClosed) {
+            return;
+        }
+        m_isClosed = true;
+        try {
+            if (m_rowsInGroup > 0) {
+                writeGroup();
+            }
+            long footerOffset = m_countingOut.getByteCount();
+            m_out.writeLong(m_rowCount);
+            m_out.writeInt(m_groupOffsets.size());
+            for (Long offset : m_groupOffsets) {
+                m_out.writeLong(offset);
+            }
+            m_out.writeLong(footerOffset);
+            m_out.writeInt(MAGIC);
+        } finally {
+            m_deflater.end();
+            m_out.close();
+        }
+    }
+
+    /** Collects the content of one column in the current group. */
+    private static final class ChunkBuilder {
+
+        /** null for the row key column. */
+        private final ColumnarChunkType m_type;
+
+        private final ByteArrayOutputStream m_valueBytes = new ByteArrayOutputStream();
+
+        private final DataOutputStream m_valueOut = new DataOutputStream(m_valueBytes);
+
+        private final BitSet m_missing = new BitSet();
+
+        private final List<Integer> m_errorRows = new ArrayList<>();
+
+        private final List<String> m_errors = new ArrayList<>();
+
+        ChunkBuilder(final ColumnarChunkType type) {
+            m_type = type;
+        }
+
+        void addRowKey(final String key) throws IOException {
+            ColumnarChunkType.writeString(key, m_valueOut);
+        }
+
+        void addCell(final DataCell cell, final int rowInGroup) throws IOException {
+            if (cell.isMissing()) {
+                m_missing.set(rowInGroup);
+                String error = cell instanceof MissingCell ? ((MissingCell)cell).getError() : null;
+                if (error != null) {
+                    m_errorRows.add(rowInGroup);
+                    m_errors.add(error);
+                }
+            } else if (cell.getClass() == m_type.getCellClass()) {
+                m_type.writeValue(cell, m_valueOut);
+            } else {
+                throw new IOException(String.format("Unable to write cell of class \"%s\" to column of type %s",
+                    cell.getClass().getName(), m_type));
+            }
+        }
+
+        void writeTo(final DataOutputStream out) throws IOException {
+            if (m_type != null) {
+                long[] missing = m_missing.toLongArray();
+                out.writeInt(missing.length);
+                for (long l : missing) {
+                    out.writeLong(l);
+                }
+                out.writeInt(m_errors.size());
+                for (int i = 0; i < m_errors.size(); i++) {
+                    out.writeInt(m_errorRows.get(i));
+                    ColumnarChunkType.writeString(m_errors.get(i), out);
+                }
+            }
+            m_valueOut.flush();
+            m_valueBytes.writeTo(out);
+            out.flush();
+        }
+
+        void reset() {
+            m_valueBytes.reset();
+            m_missing.clear();
+            m_errorRows.clear();
+            m_errors.clear();
+        }
+    }
+
+}
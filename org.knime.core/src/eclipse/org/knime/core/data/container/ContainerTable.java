@@ -50,6 +50,7 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.stream.IntStream;
 import java.util.zip.ZipOutputStream;
 
 import org.knime.core.data.DataTable;
@@ -126,6 +127,27 @@ public CloseableRowIterator iterator() {
         return m_buffer.iterator();
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public CloseableRowIterator iteratorWithColumns(final int... materializeColumnIndices) {
+        ensureBufferOpen();
+        int[] sortedIndices = IntStream.of(materializeColumnIndices).sorted().distinct().toArray();
+        return m_buffer.iterator(sortedIndices);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public CloseableRowIterator iteratorForRange(final long fromIndex, final long toIndex) {
+        ensureBufferOpen();
+        return m_buffer.iteratorForRange(fromIndex, toIndex);
+    }
+
     /**
      * {@inheritDoc}
      * @deprecated use {@link #size()} instead which supports more than {@link Integer#MAX_VALUE} rows
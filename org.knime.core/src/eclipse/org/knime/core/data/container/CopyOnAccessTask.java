@@ -186,6 +186,7 @@ Buffer createBuffer(final InputStream in) throws IOException {
         boolean isSpecFound = m_spec != null;
         boolean isDataFound = false;
         boolean isMetaFound = false;
+        RowOffsetIndex rowOffsetIndex = null;
         while ((entry = inStream.getNextEntry()) != null) {
             String name = entry.getName();
             if (name.equals(Buffer.ZIP_ENTRY_DATA)) {
@@ -200,6 +201,14 @@ Buffer createBuffer(final InputStream in) throws IOException {
                 }
                 inStream.closeEntry();
                 isMetaFound = true;
+            } else if (name.equals(Buffer.ZIP_ENTRY_ROW_INDEX)) {
+                try {
+                    rowOffsetIndex = RowOffsetIndex.load(inStream);
+                } catch (IOException ioe) {
+                    // the index is optional, the table is then read sequentially
+                    LOGGER.debug("Unable to read row offset index: " + ioe.getMessage(), ioe);
+                }
+                inStream.closeEntry();
             } else if (name.startsWith(Buffer.ZIP_ENTRY_BLOBS)) {
                 if (blobDir == null) {
                     blobDir = Buffer.createBlobDirNameForTemp(binFile);
@@ -246,6 +255,7 @@ Buffer createBuffer(final InputStream in) throws IOException {
                 new FileInputStream(metaTempFile));
         Buffer buffer = m_bufferCreator.createBuffer(binFile, blobDir, fileStoreDir,
                 spec, metaIn, m_bufferID, m_tableRep, m_fileStoreHandlerRepository);
+        buffer.setRowOffsetIndex(rowOffsetIndex);
         // TODO fix the file ending of the temp file -- purely cosmetic change
         // the below currently doesn't work as we change the file name in the background and that breaks the reader
 //        File binFileParent = binFile.getParentFile();
@@ -81,6 +81,9 @@ final class DCObjectInputVersion2 implements KNIMEStreamConstants {
      * this stream reads from m_in. */
     private final DCLongUTFDataInputStream m_dataIn;
 
+    /** Index of the last row key read via its row index, base for the delta of the next one. */
+    private long m_lastRowKeyIndex = -1L;
+
     /** Preferred class loader that is set shortly before a java
      * de-serialization takes place. May be null. */
     private ClassLoader m_priorityClassLoader;
@@ -160,6 +163,42 @@ RowKey readRowKey() throws IOException {
         return new RowKey(m_dataIn.readUTF());
     }
 
+    /** Reads a row key as written by {@link DCObjectOutputVersion2#writeRowKey(RowKey)} in stream versions
+     * {@link #VERSION_TAGGED_ROW_KEY} and later.
+     * @return A new row key instance.
+     * @throws IOException If IO problems occur or the tag is unknown.
+     */
+    RowKey readTaggedRowKey() throws IOException {
+        final byte tag = m_dataIn.readByte();
+        switch (tag) {
+            case BYTE_ROW_KEY_STRING:
+                return new RowKey(m_dataIn.readUTF());
+            case BYTE_ROW_KEY_INDEX:
+                long v = 0L;
+                int shift = 0;
+                byte b;
+                do {
+                    if (shift > 63) {
+                        throw new IOException("Malformed row index delta");
+                    }
+                    b = m_dataIn.readByte();
+                    v |= (b & 0x7FL) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                final long delta = (v >>> 1) ^ -(v & 1L);
+                m_lastRowKeyIndex += delta;
+                return RowKey.createRowKey(m_lastRowKeyIndex);
+            default:
+                throw new IOException("Unknown row key tag: " + tag);
+        }
+    }
+
+    /** Resets the base of the row index delta decoding, counterpart to
+     * {@link DCObjectOutputVersion2#resetRowKeyDelta()}. */
+    void resetRowKeyDelta() {
+        m_lastRowKeyIndex = -1L;
+    }
+
     /** Reads a single byte from the stream.
      * @return That byte.
      * @throws IOException If IO problems occur. */
@@ -86,6 +86,9 @@ class DCObjectOutputVersion2 implements KNIMEStreamConstants, AutoCloseable {
     /** This stream writes to m_out and is passed to the DataCellSerializer. */
     private DCLongUTFDataOutputStream m_dataOut;
 
+    /** Index of the last row key written via its row index, base for the delta of the next one. */
+    private long m_lastRowKeyIndex = -1L;
+
     /** Setups a new output stream.
      * @param out The stream to write to (the file)
      * @param tableStoreWriter the corresponding writer (callback for embedded cell writing)
@@ -141,12 +144,33 @@ void writeBlobAddress(final BlobAddress address) throws IOException {
         address.serialize(m_dataOut);
     }
 
-    /** Writes a row key by writing the underlying string to the stream.
+    /** Writes a row key. Keys created from a row index (see {@link RowKey#hasRowIndex()}) are written as
+     * delta to the previously written index, all others by writing the underlying string to the stream.
      * @param key Key to write
      * @throws IOException In case of stream corruption.
      */
     void writeRowKey(final RowKey key) throws IOException {
-        m_dataOut.writeUTF(key.getString());
+        if (key.hasRowIndex()) {
+            final long index = key.getRowIndex();
+            final long delta = index - m_lastRowKeyIndex;
+            m_dataOut.writeByte(BYTE_ROW_KEY_INDEX);
+            // zig-zag: small negative deltas also use few bytes
+            long v = (delta << 1) ^ (delta >> 63);
+            while ((v & ~0x7FL) != 0L) {
+                m_dataOut.writeByte((int)((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            m_dataOut.writeByte((int)v);
+            m_lastRowKeyIndex = index;
+        } else {
+            m_dataOut.writeByte(BYTE_ROW_KEY_STRING);
+            m_dataOut.writeUTF(key.getString());
+        }
+    }
+
+    /** Resets the base of the row index delta encoding, called every {@link #ROW_KEY_DELTA_RESET_INTERVAL} rows. */
+    void resetRowKeyDelta() {
+        m_lastRowKeyIndex = -1L;
     }
 
     /** Writes the argument byte.
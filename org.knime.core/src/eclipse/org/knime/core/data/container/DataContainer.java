@@ -53,21 +53,21 @@
 import java.io.OutputStream;
 import java.lang.ref.WeakReference;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.Exchanger;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -81,6 +81,7 @@
 import org.knime.core.data.DataType;
 import org.knime.core.data.RowIterator;
 import org.knime.core.data.RowKey;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
 import org.knime.core.data.filestore.internal.FileStoreHandlerRepository;
 import org.knime.core.data.filestore.internal.IWriteFileStoreHandler;
 import org.knime.core.data.filestore.internal.NotInWorkflowWriteFileStoreHandler;
@@ -143,12 +144,21 @@ public class DataContainer implements RowAppender {
     public static final int DEF_MIN_FREE_DISC_SPACE_IN_TEMP_IN_MB = 100;
 
     /**
-     * For asynchronous table writing (default) the cache size. It's the number of rows that are kept in memory until
-     * handed off to the write routines.
+     * For asynchronous table writing (default) the cache size. It's the number of rows that can be queued (in memory)
+     * for the write routines before the thread adding rows has to wait.
      *
      * @see KNIMEConstants#PROPERTY_ASYNC_WRITE_CACHE_SIZE
      */
-    public static final int DEF_ASYNC_CACHE_SIZE = 10;
+    public static final int DEF_ASYNC_CACHE_SIZE = 1024;
+
+    /**
+     * For asynchronous table writing (default) the number of threads writing to the same disk concurrently (on 64bit
+     * architectures).
+     *
+     * @see KNIMEConstants#PROPERTY_ASYNC_WRITE_THREADS_PER_DISK
+     * @since 3.6
+     */
+    public static final int DEF_ASYNC_WRITE_THREADS = 4;
 
     /**
      * The default number of possible values being kept at most. If the number of possible values in a column exceeds
@@ -242,7 +252,26 @@ public class DataContainer implements RowAppender {
         }
 
         // enh 5835: Number of asynchronous write threads to have different limits on different architectures
-        MAX_ASYNC_WRITE_THREADS = Platform.ARCH_X86.equals(Platform.getOSArch()) ? 10 : 50;
+        final int defThreadsPerDisk = Platform.ARCH_X86.equals(Platform.getOSArch()) ? 2 : DEF_ASYNC_WRITE_THREADS;
+        int threadsPerDisk = defThreadsPerDisk;
+        String envThreads = KNIMEConstants.PROPERTY_ASYNC_WRITE_THREADS_PER_DISK;
+        String valThreads = System.getProperty(envThreads);
+        if (valThreads != null) {
+            String s = valThreads.trim();
+            try {
+                int newThreads = Integer.parseInt(s);
+                if (newThreads <= 0) {
+                    throw new NumberFormatException("async write threads <= 0: " + newThreads);
+                }
+                threadsPerDisk = newThreads;
+                LOGGER.debug("Setting asynchronous write threads to " + threadsPerDisk + " per disk");
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Unable to parse property " + envThreads + ", using default (" + defThreadsPerDisk
+                    + ")", e);
+            }
+        }
+        MAX_ASYNC_WRITE_THREADS = threadsPerDisk;
+        IO_SCHEDULER = new TableIOScheduler(threadsPerDisk);
     }
 
     /**
@@ -269,19 +298,14 @@ public class DataContainer implements RowAppender {
     /** Size of buffers. */
     static final int ASYNC_CACHE_SIZE;
 
-    /** The executor, which runs the IO tasks. Currently used only while writing rows. */
-    static final ThreadPoolExecutor ASYNC_EXECUTORS =
-    // see also Executors.newCachedThreadPool(ThreadFactory)
-        new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
-            new ThreadFactory() {
-                private final AtomicInteger m_threadCount = new AtomicInteger();
-
-                /** {@inheritDoc} */
-                @Override
-                public Thread newThread(final Runnable r) {
-                    return new Thread(r, "KNIME-TableIO-" + m_threadCount.incrementAndGet());
-                }
-            });
+    /** Number of rows whose domain is calculated by one task on the global thread pool. */
+    private static final int DOMAIN_BATCH_SIZE = 1 << 10;
+
+    /** Maximum number of domain batches in flight before the writing thread waits for the oldest. */
+    private static final int MAX_PENDING_DOMAIN_BATCHES = 4;
+
+    /** Runs the IO tasks on a limited number of threads per disk. Currently used only while writing rows. */
+    static final TableIOScheduler IO_SCHEDULER;
 
     /**
      * Whether to use synchronous IO while adding rows to a buffer or reading from an file iterator. This is by default
@@ -290,7 +314,9 @@ public Thread newThread(final Runnable r) {
     static final boolean SYNCHRONOUS_IO;
 
     /**
-     * the maximum number of asynchronous write threads, each additional container will switch to synchronous mode.
+     * The maximum number of asynchronous write threads per disk; write tasks of additional containers are queued.
+     *
+     * @see KNIMEConstants#PROPERTY_ASYNC_WRITE_THREADS_PER_DISK
      */
     static final int MAX_ASYNC_WRITE_THREADS;
 
@@ -299,14 +325,18 @@ public Thread newThread(final Runnable r) {
 
     private static final Object FLUSH_CACHE = new Object();
 
-    /** Put into read queue to signal failure while writing a row. */
-    private static final Object CONTAINER_WRITE_FAILED = new Object();
 
     /**
      * The object that instantiates the buffer, may be set right after constructor call before any rows are added.
      */
     private BufferCreator m_bufferCreator;
 
+    /** Compression of the buffer's file (if written in the default format), null for installation default. */
+    private CompressionFormat m_compressionFormat;
+
+    /** Whether the buffer keeps rows in off-heap memory rather than as list of rows, see {@link #setOffHeapRowCache}. */
+    private boolean m_isOffHeapRowCache = OffHeapRowStore.IS_DEFAULT;
+
     /** The object that saves the rows. */
     private Buffer m_buffer;
 
@@ -317,30 +347,25 @@ public Thread newThread(final Runnable r) {
     private int m_size;
 
     /**
-     * The object that represent the pending task of adding a data rows to a table.
+     * The task writing the queued rows to the buffer, scheduled whenever rows are queued.
      */
-    private Future<Void> m_asyncAddFuture;
+    private ASyncWriteTask m_asyncWriteTask;
 
     private AtomicReference<Throwable> m_writeThrowable;
 
     /**
      * Whether this container writes synchronously, i.e. when rows come in they get written immediately. If true the
-     * fields {@link #m_asyncAddFuture} and {@link #m_writeThrowable} are null. This field coincides most of times with
-     * the {@link #SYNCHRONOUS_IO}, but may be true if there are too many concurrent write threads (more than
-     * {@value #MAX_ASYNC_WRITE_THREADS}).
+     * fields {@link #m_asyncWriteTask} and {@link #m_writeThrowable} are null. This field coincides with
+     * the {@link #SYNCHRONOUS_IO} unless synchronous IO is forced by the constructor argument.
      */
     private final boolean m_isSynchronousWrite;
 
-    /** The asynchronous queue holding the most recently added rows. */
-    private Exchanger<List<Object>> m_rowBufferExchanger;
-
-    private List<Object> m_fillingRowBuffer;
-
-    private List<Object> m_emptyingRowBuffer;
+    /** The asynchronous queue holding the most recently added rows (and close/flush markers). */
+    private RowRingBuffer m_rowQueue;
 
     private int m_maxRowsInMemory;
 
-    /** Holds the keys of the added rows to check for duplicates. */
+    /** Holds the keys (or their hashes) of the added rows to check for duplicates, see {@link DuplicateChecker}. */
     private DuplicateChecker m_duplicateChecker;
 
     /** The tablespec of the return table. */
@@ -351,6 +376,17 @@ public Thread newThread(final Runnable r) {
 
     private DataTableDomainCreator m_domainCreator;
 
+    /** Rows not yet passed to the domain creator, null if empty. */
+    private List<DataRow> m_domainBatch;
+
+    /** Whether any row in {@link #m_domainBatch} contains a blob wrapper cell, such batches are processed on the
+     * writing thread (reading the blob must not interfere with the buffer writing it). */
+    private boolean m_domainBatchHasBlobs;
+
+    /** Partial domains calculated on the global thread pool, merged into m_domainCreator in order. */
+    private final ArrayDeque<Future<DataTableDomainCreator>> m_domainTasks =
+        new ArrayDeque<Future<DataTableDomainCreator>>();
+
     /** Global repository map, created lazily. */
     private Map<Integer, ContainerTable> m_globalMap;
 
@@ -427,26 +463,18 @@ protected DataContainer(final DataTableSpec spec, final boolean initDomain, fina
             throw new IllegalArgumentException("Spec must not be null!");
         }
         m_spec = spec;
-        m_duplicateChecker = new DuplicateChecker();
-        boolean isSynchronousWrite = forceSynchronousIO || SYNCHRONOUS_IO;
-        if (!isSynchronousWrite && ASYNC_EXECUTORS.getActiveCount() > MAX_ASYNC_WRITE_THREADS) {
-            LOGGER.debug("Number of Table IO write threads exceeds " + MAX_ASYNC_WRITE_THREADS
-                + " -- switching to synchronous write mode");
-            isSynchronousWrite = true;
-        }
-        m_isSynchronousWrite = isSynchronousWrite;
+        m_duplicateChecker = new DuplicateChecker(this::createRowKeyIterator);
+        m_isSynchronousWrite = forceSynchronousIO || SYNCHRONOUS_IO;
         if (m_isSynchronousWrite) {
-            m_fillingRowBuffer = null;
-            m_emptyingRowBuffer = null;
-            m_asyncAddFuture = null;
-            m_rowBufferExchanger = null;
+            m_rowQueue = null;
+            m_asyncWriteTask = null;
             m_writeThrowable = null;
         } else {
-            m_fillingRowBuffer = new ArrayList<Object>(ASYNC_CACHE_SIZE);
-            m_emptyingRowBuffer = new ArrayList<Object>(ASYNC_CACHE_SIZE);
-            m_rowBufferExchanger = new Exchanger<List<Object>>();
+            m_rowQueue = new RowRingBuffer(ASYNC_CACHE_SIZE);
             m_writeThrowable = new AtomicReference<Throwable>();
-            m_asyncAddFuture = ASYNC_EXECUTORS.submit(new ASyncWriteCallable(this, NodeContext.getContext()));
+            // the temp files are created in the workflow's temp directory, whose disk determines the write threads
+            m_asyncWriteTask = new ASyncWriteTask(this, NodeContext.getContext(),
+                IO_SCHEDULER.getExecutor(FileUtil.getWorkflowTempDir()));
         }
 
         m_domainCreator = new DataTableDomainCreator(m_spec, initDomain);
@@ -466,6 +494,7 @@ private void addRowToTableWrite(final DataRow row) {
                 + "\" is not equal to length of column names " + "array: " + numCells + " vs. "
                 + m_spec.getNumColumns());
         }
+        boolean hasBlobs = false;
         for (int c = 0; c < numCells; c++) {
             DataType columnClass = m_spec.getColumnSpec(c).getType();
             DataCell value;
@@ -479,6 +508,7 @@ private void addRowToTableWrite(final DataRow row) {
             if (value instanceof BlobWrapperDataCell) {
                 BlobWrapperDataCell bw = (BlobWrapperDataCell)value;
                 runtimeType = bw.getBlobDataType();
+                hasBlobs = true;
             } else {
                 runtimeType = value.getType();
             }
@@ -494,11 +524,81 @@ private void addRowToTableWrite(final DataRow row) {
                     + "not comply with its supposed superclass " + columnClass.toString());
             }
         } // for all cells
-        m_domainCreator.updateDomain(row);
+        updateDomain(row, hasBlobs);
         addRowKeyForDuplicateCheck(key);
         m_buffer.addRow(row, false, m_forceCopyOfBlobs);
     }
 
+    /**
+     * Adds the row to the current domain batch. Full batches are calculated by a partial domain creator on the global
+     * thread pool (if a thread is available), so that the writing thread only validates and writes rows.
+     *
+     * @param row the row to add
+     * @param hasBlobs whether the row contains blob wrapper cells
+     */
+    private void updateDomain(final DataRow row, final boolean hasBlobs) {
+        if (m_domainBatch == null) {
+            m_domainBatch = new ArrayList<DataRow>(DOMAIN_BATCH_SIZE);
+        }
+        m_domainBatch.add(row);
+        m_domainBatchHasBlobs |= hasBlobs;
+        if (m_domainBatch.size() < DOMAIN_BATCH_SIZE) {
+            return;
+        }
+        final List<DataRow> batch = m_domainBatch;
+        final boolean batchHasBlobs = m_domainBatchHasBlobs;
+        m_domainBatch = null;
+        m_domainBatchHasBlobs = false;
+        final DataTableDomainCreator partial = m_domainCreator.createPartialCreator();
+        final Future<DataTableDomainCreator> future = batchHasBlobs ? null
+            : KNIMEConstants.GLOBAL_THREAD_POOL.trySubmit(() -> {
+                for (DataRow r : batch) {
+                    partial.updateDomain(r);
+                }
+                return partial;
+            });
+        if (future != null) {
+            m_domainTasks.add(future);
+        } else {
+            // no thread available: calculate here (after the pending batches to keep the order of values)
+            mergeDomainTasks(0);
+            for (DataRow r : batch) {
+                m_domainCreator.updateDomain(r);
+            }
+        }
+        mergeDomainTasks(MAX_PENDING_DOMAIN_BATCHES);
+    }
+
+    /**
+     * Merges finished domain batches into the domain creator, waits for the oldest ones if more than the given number
+     * are pending.
+     *
+     * @param maxPending number of batches that may remain pending
+     */
+    private void mergeDomainTasks(final int maxPending) {
+        while (!m_domainTasks.isEmpty() && (m_domainTasks.size() > maxPending || m_domainTasks.peek().isDone())) {
+            try {
+                m_domainCreator.merge(m_domainTasks.poll().get());
+            } catch (InterruptedException e) {
+                throw new DataContainerException("Calculating table domain was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new DataContainerException("Calculating table domain threw exception", e.getCause());
+            }
+        }
+    }
+
+    /** Passes all pending rows to the domain creator. */
+    private void flushDomain() {
+        mergeDomainTasks(0);
+        if (m_domainBatch != null) {
+            for (DataRow r : m_domainBatch) {
+                m_domainCreator.updateDomain(r);
+            }
+            m_domainBatch = null;
+            m_domainBatchHasBlobs = false;
+        }
+    }
+
     private void checkAsyncWriteThrowable() {
         Throwable t = m_writeThrowable.get();
         if (t != null) {
@@ -535,6 +635,41 @@ protected void setBufferCreator(final BufferCreator bufferCreator) {
         m_bufferCreator = bufferCreator;
     }
 
+    /**
+     * Set the compression that is used when the table is written to disc using the default table format (the
+     * installation wide default is defined by {@link KNIMEConstants#PROPERTY_TABLE_GZIP_COMPRESSION}). This method
+     * must be called before any rows are added.
+     *
+     * @param compressionFormat The compression to use or <code>null</code> to use the installation default.
+     * @throws IllegalStateException If the buffer has already been created.
+     * @since 3.6
+     * @noreference This method is not intended to be referenced by clients.
+     */
+    protected void setCompressionFormat(final CompressionFormat compressionFormat) {
+        if (m_buffer != null) {
+            throw new IllegalStateException("Buffer has already been created.");
+        }
+        m_compressionFormat = compressionFormat;
+    }
+
+    /**
+     * Set whether rows that are kept in memory are stored in their serialized form in off-heap memory (limited by a
+     * byte budget shared by all tables) or as row objects on the heap (limited by the number of cells in memory). The
+     * installation wide default is defined by {@link KNIMEConstants#PROPERTY_TABLE_CACHE}. This method must be called
+     * before any rows are added.
+     *
+     * @param isOffHeap whether to use off-heap memory
+     * @throws IllegalStateException If the buffer has already been created.
+     * @since 3.6
+     * @noreference This method is not intended to be referenced by clients.
+     */
+    protected void setOffHeapRowCache(final boolean isOffHeap) {
+        if (m_buffer != null) {
+            throw new IllegalStateException("Buffer has already been created.");
+        }
+        m_isOffHeapRowCache = isOffHeap;
+    }
+
     /**
      * If true any blob that is not owned by this container, will be copied and this container will take ownership. This
      * option is true for loop end nodes, which need to aggregate the data generated in the loop body.
@@ -610,20 +745,21 @@ public void close() {
             m_buffer =
                 m_bufferCreator.createBuffer(m_spec, m_maxRowsInMemory, createInternalBufferID(),
                     getGlobalTableRepository(), getLocalTableRepository(), getFileStoreHandler());
+            m_buffer.setCompressionFormat(m_compressionFormat);
+            m_buffer.setOffHeapRowCache(m_isOffHeapRowCache);
         }
         if (!m_isSynchronousWrite) {
             try {
                 offerToAsynchronousQueue(CONTAINER_CLOSE);
-                m_asyncAddFuture.get();
+                m_asyncWriteTask.awaitDone();
                 checkAsyncWriteThrowable();
             } catch (InterruptedException e) {
                 throw new DataContainerException("Adding rows to table was interrupted", e);
-            } catch (ExecutionException e) {
-                throw new DataContainerException("Adding rows to table threw exception", e);
             }
         }
         // create table spec _after_ all_ rows have been added (i.e. wait for
         // asynchronous write thread to finish)
+        flushDomain();
         DataTableSpec finalSpec = m_domainCreator.createSpec();
         m_buffer.close(finalSpec);
         try {
@@ -645,38 +781,48 @@ public void close() {
     }
 
     /**
-     * Adds the argument object (which will be a DataRow unless when called from close()) to the filling data row queue.
-     * It will exchange the filling queue with the emptying queue from the write thread in case the queue is full.
+     * Adds the argument object (which will be a DataRow unless when called from close()) to the queue of the write
+     * thread, waits if the queue is full.
      *
      * @param object the object to add.
      */
     private void offerToAsynchronousQueue(final Object object) {
-        m_fillingRowBuffer.add(object);
-        if (m_fillingRowBuffer.size() >= ASYNC_CACHE_SIZE || object == CONTAINER_CLOSE || object == FLUSH_CACHE) {
-            while (true) {
-                try {
-                    m_fillingRowBuffer = m_rowBufferExchanger.exchange(m_fillingRowBuffer, 30, TimeUnit.SECONDS);
-                    if (!m_fillingRowBuffer.isEmpty()) {
-                        Object ob = m_fillingRowBuffer.get(0);
-                        assert ob == CONTAINER_WRITE_FAILED : "Not expected element in write queue: " + ob;
-                        m_fillingRowBuffer.clear();
-                        checkAsyncWriteThrowable();
-                    }
-                    return;
-                } catch (TimeoutException e) {
-                    if (m_asyncAddFuture.isDone()) {
-                        checkAsyncWriteThrowable();
-                        // if we reach this code, the write process has not
-                        // thrown an exception (the above line will likely
-                        // throw an exc.)
-                        throw new DataContainerException("Writing to table has unexpectedly stopped");
-                    }
-                    continue;
-                } catch (InterruptedException e) {
-                    m_asyncAddFuture.cancel(true);
-                    throw new DataContainerException("Adding rows to buffer was interrupted", e);
-                }
+        while (!m_rowQueue.offer(object, 30, TimeUnit.SECONDS)) {
+            checkAsyncWriteStopped();
+        }
+        m_asyncWriteTask.schedule();
+    }
+
+    /**
+     * Adds all rows to the queue of the write thread, waits if the queue is full.
+     *
+     * @param rows the rows to add.
+     */
+    private void offerToAsynchronousQueue(final List<? extends DataRow> rows) {
+        int added = 0;
+        while (added < rows.size()) {
+            final int count = m_rowQueue.offerAll(rows, added, 30, TimeUnit.SECONDS);
+            if (count == 0) {
+                checkAsyncWriteStopped();
+            } else {
+                m_asyncWriteTask.schedule();
             }
+            added += count;
+        }
+    }
+
+    /** Called while the queue is full, throws an exception if the write thread has stopped or we got interrupted. */
+    private void checkAsyncWriteStopped() {
+        if (Thread.interrupted()) {
+            m_asyncWriteTask.cancel();
+            throw new DataContainerException("Adding rows to buffer was interrupted", new InterruptedException());
+        }
+        checkAsyncWriteThrowable();
+        if (m_asyncWriteTask.isDone()) {
+            // if we reach this code, the write process has not
+            // thrown an exception (the above line will likely
+            // throw an exc.)
+            throw new DataContainerException("Writing to table has unexpectedly stopped");
         }
     }
 
@@ -760,17 +906,7 @@ public void addRowToTable(final DataRow row) {
         if (row == null) {
             throw new NullPointerException("Can't add null rows to container");
         }
-        if (m_buffer == null) {
-            int bufID = createInternalBufferID();
-            Map<Integer, ContainerTable> globalTableRep = getGlobalTableRepository();
-            Map<Integer, ContainerTable> localTableRep = getLocalTableRepository();
-            IWriteFileStoreHandler fileStoreHandler = getFileStoreHandler();
-            m_buffer =
-                m_bufferCreator.createBuffer(m_spec, m_maxRowsInMemory, bufID, globalTableRep, localTableRep, fileStoreHandler);
-            if (m_buffer == null) {
-                throw new NullPointerException("Implementation error, must not return a null buffer.");
-            }
-        }
+        initBuffer();
         if (m_isSynchronousWrite) {
             if (MemoryAlertSystem.getInstance().isMemoryLow()) {
                 m_buffer.flushBuffer();
@@ -786,6 +922,76 @@ public void addRowToTable(final DataRow row) {
         m_size += 1;
     } // addRowToTable(DataRow)
 
+    /**
+     * Adds all rows of the list to the table, equivalent to calling {@link #addRowToTable(DataRow)} for each row but
+     * with less synchronization overhead: in asynchronous mode the rows are handed to the write thread in chunks of up
+     * to {@link KNIMEConstants#PROPERTY_ASYNC_WRITE_CACHE_SIZE} rows.
+     *
+     * @param rows the rows to add, in order
+     * @throws IllegalStateException If the container is not open.
+     * @throws NullPointerException If the list or any of its rows is <code>null</code>.
+     * @throws DataContainerException If writing a row fails (asynchronous mode) or the thread got interrupted.
+     * @throws IllegalArgumentException, DuplicateKeyException see {@link #addRowToTable(DataRow)}
+     * @since 3.6
+     */
+    public void addRowsToTable(final List<? extends DataRow> rows) {
+        if (!isOpen()) {
+            throw new IllegalStateException("Cannot add row: container has" + " not been initialized (opened).");
+        }
+        for (DataRow row : rows) {
+            if (row == null) {
+                throw new NullPointerException("Can't add null rows to container");
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        initBuffer();
+        if (m_isSynchronousWrite) {
+            for (DataRow row : rows) {
+                if (MemoryAlertSystem.getInstance().isMemoryLow()) {
+                    m_buffer.flushBuffer();
+                }
+                addRowToTableWrite(row);
+                m_size += 1;
+            }
+        } else {
+            checkAsyncWriteThrowable();
+            if (MemoryAlertSystem.getInstance().isMemoryLow()) {
+                offerToAsynchronousQueue(FLUSH_CACHE);
+            }
+            offerToAsynchronousQueue(rows);
+            m_size += rows.size();
+        }
+    }
+
+    /**
+     * Adds all rows of the array to the table, see {@link #addRowsToTable(List)}.
+     *
+     * @param rows the rows to add, in order
+     * @since 3.6
+     */
+    public void addRowsToTable(final DataRow... rows) {
+        addRowsToTable(Arrays.asList(rows));
+    }
+
+    /** Creates the buffer when the first row is added. */
+    private void initBuffer() {
+        if (m_buffer == null) {
+            int bufID = createInternalBufferID();
+            Map<Integer, ContainerTable> globalTableRep = getGlobalTableRepository();
+            Map<Integer, ContainerTable> localTableRep = getLocalTableRepository();
+            IWriteFileStoreHandler fileStoreHandler = getFileStoreHandler();
+            m_buffer =
+                m_bufferCreator.createBuffer(m_spec, m_maxRowsInMemory, bufID, globalTableRep, localTableRep, fileStoreHandler);
+            if (m_buffer == null) {
+                throw new NullPointerException("Implementation error, must not return a null buffer.");
+            }
+            m_buffer.setCompressionFormat(m_compressionFormat);
+            m_buffer.setOffHeapRowCache(m_isOffHeapRowCache);
+        }
+    }
+
     /** @return size of buffer temp file in bytes, -1 if not set. Only for debugging/test purposes. */
     long getBufferFileSize() {
         Buffer b = m_table != null ? m_table.getBuffer() : m_buffer;
@@ -829,15 +1035,15 @@ protected int createInternalBufferID() {
      * This method may be overridden to disable duplicate checks. The overriding class must ensure that there are no
      * duplicates being added whatsoever.
      *
-     * @param key Key being added. This implementation extracts the string representation from it and adds it to an
-     *            internal {@link DuplicateChecker} instance.
+     * @param key Key being added. This implementation adds it to an internal {@link DuplicateChecker} instance.
      * @throws DataContainerException This implementation may throw a <code>DataContainerException</code> when
-     *             {@link DuplicateChecker#addKey(String)} throws an {@link IOException}.
-     * @throws DuplicateKeyException If a duplicate is encountered.
+     *             {@link DuplicateChecker#addKey(RowKey)} throws an {@link IOException}.
+     * @throws DuplicateKeyException If a duplicate is encountered. Duplicates of recently added keys are reported
+     *             immediately, others only by {@link #close()}.
      */
     protected void addRowKeyForDuplicateCheck(final RowKey key) {
         try {
-            m_duplicateChecker.addKey(key.toString());
+            m_duplicateChecker.addKey(key);
         } catch (IOException ioe) {
             throw new DataContainerException(ioe.getClass().getSimpleName() + " while checking for duplicate row IDs: "
                 + ioe.getMessage(), ioe);
@@ -847,6 +1053,40 @@ protected void addRowKeyForDuplicateCheck(final RowKey key) {
         }
     }
 
+    /**
+     * Iterates the row keys of the closed buffer, used by the duplicate checker to verify suspected duplicates.
+     *
+     * @return a new iterator, which also closes the underlying row iterator
+     */
+    private Iterator<String> createRowKeyIterator() {
+        final CloseableRowIterator rowIterator = m_buffer.iterator();
+        return new RowKeyStringIterator(rowIterator);
+    }
+
+    /** String representations of the keys of a row iterator (see {@link #createRowKeyIterator()}). */
+    private static final class RowKeyStringIterator implements Iterator<String>, AutoCloseable {
+        private final CloseableRowIterator m_rowIterator;
+
+        RowKeyStringIterator(final CloseableRowIterator rowIterator) {
+            m_rowIterator = rowIterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return m_rowIterator.hasNext();
+        }
+
+        @Override
+        public String next() {
+            return m_rowIterator.next().getKey().getString();
+        }
+
+        @Override
+        public void close() {
+            m_rowIterator.close();
+        }
+    }
+
     /**
      * Get the map of buffers that potentially have written blob objects. If m_buffer needs to serialize a blob, it will
      * check if any other buffer has written the blob already and then reference to this buffer rather than writing out
@@ -910,7 +1150,7 @@ protected Map<Integer, ContainerTable> getLocalTableRepository() {
 
     /**
      * @return the isSynchronousWrite whether the data is written in the same thread that calls addRow. Property depends
-     *         on system property {@link #SYNCHRONOUS_IO} and the number of concurrent writes.
+     *         on system property {@link #SYNCHRONOUS_IO} and the constructor arguments.
      */
     boolean isSynchronousWrite() {
         return m_isSynchronousWrite;
@@ -1197,91 +1437,133 @@ public static final boolean isContainerTable(final DataTable table) {
     }
 
     /**
-     * Background task that will write the output data. This is kept as static inner class in order to allow for a
+     * Background task that will write the output data. It's scheduled on the {@link #IO_SCHEDULER} whenever rows are
+     * queued and writes them until the queue is empty (or some maximum number of batches is written, to give other
+     * containers writing to the same disk their turn). This is kept as static inner class in order to allow for a
      * garbage collection of the outer class (which indicates an early stopped buffer writing).
      */
-    private static final class ASyncWriteCallable implements Callable<Void> {
+    private static final class ASyncWriteTask implements Runnable {
+
+        /** Maximum number of batches written before the task is rescheduled (at the end of the disk's queue). */
+        private static final int MAX_BATCHES_PER_RUN = 16;
 
         private final WeakReference<DataContainer> m_containerRef;
 
         private final NodeContext m_context;
 
+        private final RowRingBuffer m_queue;
+
+        private final AtomicReference<Throwable> m_throwable;
+
+        private final Executor m_executor;
+
+        /** Whether the task is queued or running; stays true once the task has finished. */
+        private final AtomicBoolean m_isScheduled = new AtomicBoolean();
+
+        /** Counted down when the task has finished (container closed, failure, or container garbage collected). */
+        private final CountDownLatch m_doneLatch = new CountDownLatch(1);
+
+        private final List<Object> m_batch;
+
         /**
          * @param cont The outer container.
          * @param context owner node information, if any.
+         * @param executor to run this task.
          */
-        ASyncWriteCallable(final DataContainer cont, final NodeContext context) {
+        ASyncWriteTask(final DataContainer cont, final NodeContext context, final Executor executor) {
             m_context = context;
             m_containerRef = new WeakReference<DataContainer>(cont);
+            m_queue = cont.m_rowQueue;
+            m_throwable = cont.m_writeThrowable;
+            m_executor = executor;
+            m_batch = new ArrayList<Object>(m_queue.capacity());
+        }
+
+        /** Submits this task unless it's already queued or running. Called after objects were queued. */
+        void schedule() {
+            if (!m_isScheduled.get() && m_isScheduled.compareAndSet(false, true)) {
+                m_executor.execute(this);
+            }
+        }
+
+        /** Stops the task (if it didn't finish yet), the container is then failed. */
+        void cancel() {
+            m_throwable.compareAndSet(null, new InterruptedException("Writing rows to table was interrupted"));
+            m_doneLatch.countDown();
+        }
+
+        /** @return whether the task has finished */
+        boolean isDone() {
+            return m_doneLatch.getCount() == 0;
+        }
+
+        /** Waits until the task has finished. */
+        void awaitDone() throws InterruptedException {
+            m_doneLatch.await();
         }
 
         /** {@inheritDoc} */
         @Override
-        public Void call() throws Exception {
+        public void run() {
             NodeContext.pushContext(m_context);
             try {
-                return callWithContext();
+                if (!runWithContext()) {
+                    return;
+                }
+            } catch (Throwable t) {
+                m_throwable.compareAndSet(null, t);
+                m_queue.wakeUpProducer();
+                m_doneLatch.countDown();
+                return;
             } finally {
                 NodeContext.removeLastContext();
             }
+            m_isScheduled.set(false);
+            // re-check after unscheduling, the container may have queued objects in between
+            if (!m_queue.isEmpty()) {
+                schedule();
+            }
         }
 
-        private Void callWithContext() throws Exception {
-            DataContainer d = m_containerRef.get();
-            if (d == null) {
-                // data container was already discarded (no rows added)
-                return null;
-            }
-            List<Object> queue = d.m_emptyingRowBuffer;
-            final AtomicReference<Throwable> throwable = d.m_writeThrowable;
-            final Exchanger<List<Object>> exchanger = d.m_rowBufferExchanger;
-            try {
-                do {
-                    final int size = queue.size();
-                    for (int i = 0; i < size; i++) {
-                        Object obj = queue.set(i, null);
-                        if (obj == CONTAINER_CLOSE) {
-                            assert i == size - 1;
-                            // table has been closed
-                            // (some non-DataRow was queued)
-                            return null;
-                        } else if (obj == FLUSH_CACHE) {
-                            assert i == size - 1;
-                            d.m_buffer.flushBuffer();
-                        } else {
-                            DataRow row = (DataRow)obj;
-                            d.addRowToTableWrite(row);
-                        }
-                    }
-                    queue.clear();
-                    d = null;
-                    try {
-                        queue = exchanger.exchange(queue, 30, TimeUnit.SECONDS);
-                    } catch (TimeoutException te) {
-                        // can be safely ignored, do another loop on the same
-                        // (empty!) queue (or don't if container is gc'ed)
-                    }
-                    d = m_containerRef.get();
-                } while (d != null);
-                // m_containerRef.get() returned null -> close() was never
-                // called on the container (which was garbage collected
-                // already); we can end this thread
-                LOGGER.debug("Ending DataContainer write thread since container was garbage collected");
-                return null;
-            } catch (Throwable t) {
-                throwable.compareAndSet(null, t);
-                boolean callExchange = !queue.contains(CONTAINER_CLOSE);
-                queue.clear();
-                queue.add(CONTAINER_WRITE_FAILED);
-                if (callExchange) {
-                    try {
-                        exchanger.exchange(queue, 30, TimeUnit.SECONDS);
-                    } catch (Exception e) {
-                        // ignore
+        /** @return whether to continue with the next rows, false if the task has finished */
+        private boolean runWithContext() {
+            for (int b = 0; b < MAX_BATCHES_PER_RUN; b++) {
+                if (m_throwable.get() != null) {
+                    // cancelled
+                    m_doneLatch.countDown();
+                    return false;
+                }
+                if (m_queue.drainTo(m_batch) == 0) {
+                    return true;
+                }
+                DataContainer d = m_containerRef.get();
+                if (d == null) {
+                    // close() was never called on the container (which was garbage collected already)
+                    LOGGER.debug("Ending DataContainer write task since container was garbage collected");
+                    m_batch.clear();
+                    m_doneLatch.countDown();
+                    return false;
+                }
+                final int size = m_batch.size();
+                for (int i = 0; i < size; i++) {
+                    Object obj = m_batch.set(i, null);
+                    if (obj == CONTAINER_CLOSE) {
+                        assert i == size - 1;
+                        // table has been closed
+                        // (some non-DataRow was queued)
+                        m_batch.clear();
+                        m_doneLatch.countDown();
+                        return false;
+                    } else if (obj == FLUSH_CACHE) {
+                        d.m_buffer.flushBuffer();
+                    } else {
+                        DataRow row = (DataRow)obj;
+                        d.addRowToTableWrite(row);
                     }
                 }
-                return null;
+                m_batch.clear();
             }
+            return true;
         }
     }
 
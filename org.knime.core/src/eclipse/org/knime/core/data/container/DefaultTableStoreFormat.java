@@ -47,11 +47,16 @@
  */
 package org.knime.core.data.container;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.container.storage.AbstractTableStoreReader;
@@ -86,38 +91,134 @@ public final class DefaultTableStoreFormat implements TableStoreFormat {
     static final String CFG_CELL_SINGLE_ELEMENT_TYPE = "collection.element.type";
 
     /**
-     * Static field to enable/disable the usage of a GZipInput/OutpuStream when writing the binary data. This option
-     * defaults to {@value DataContainer#DEF_GZIP_COMPRESSION}. */
-    static final boolean IS_USE_GZIP;
+     * Static field defining the compression that is used when writing the binary data. This option is controlled by
+     * the {@link KNIMEConstants#PROPERTY_TABLE_GZIP_COMPRESSION} property, which is either a boolean (gzip or no
+     * compression) or the name of a {@link CompressionFormat} (case-insensitive). It defaults to
+     * {@link CompressionFormat#Gzip}.
+     */
+    static final CompressionFormat DEF_COMPRESSION_FORMAT;
 
     static {
         // prefer this block over Boolean.getBoolean(...) to cover typos
         // on command line (warn on console)
-        String isUseGzipString = System.getProperty(KNIMEConstants.PROPERTY_TABLE_GZIP_COMPRESSION);
-        boolean debugLog = true;
-        if (isUseGzipString == null) {
-            isUseGzipString = Boolean.toString(DataContainer.DEF_GZIP_COMPRESSION);
-            debugLog = false;
-        }
-        if ("true".equals(isUseGzipString)) {
-            IS_USE_GZIP = true;
-        } else if ("false".equals(isUseGzipString)) {
-            IS_USE_GZIP = false;
+        String compressionString = System.getProperty(KNIMEConstants.PROPERTY_TABLE_GZIP_COMPRESSION);
+        final CompressionFormat defFormat =
+            DataContainer.DEF_GZIP_COMPRESSION ? CompressionFormat.Gzip : CompressionFormat.None;
+        CompressionFormat format;
+        if (compressionString == null) {
+            format = defFormat;
+        } else if ("true".equals(compressionString)) {
+            format = CompressionFormat.Gzip;
+        } else if ("false".equals(compressionString)) {
+            format = CompressionFormat.None;
         } else {
-            debugLog = false;
-            LOGGER.warn("Unable to read property " + KNIMEConstants.PROPERTY_TABLE_GZIP_COMPRESSION + " (\""
-                    + isUseGzipString + "\"); defaulting to " + DataContainer.DEF_GZIP_COMPRESSION);
-            IS_USE_GZIP = DataContainer.DEF_GZIP_COMPRESSION;
+            format = CompressionFormat.fromString(compressionString);
+            if (format == null) {
+                LOGGER.warn("Unable to read property " + KNIMEConstants.PROPERTY_TABLE_GZIP_COMPRESSION + " (\""
+                        + compressionString + "\"); defaulting to " + defFormat);
+                format = defFormat;
+            }
         }
-        if (debugLog) {
-            LOGGER.debug("Setting table stream compression to " + IS_USE_GZIP);
+        if (compressionString != null) {
+            LOGGER.debug("Setting table stream compression to " + format);
         }
+        DEF_COMPRESSION_FORMAT = format;
     }
 
-    /** Compression on the binary (main) file. */
-    enum CompressionFormat {
-        Gzip,
-        None;
+    /**
+     * Compression on the binary (main) file. The name of the constant is persisted in the table's meta information
+     * (see {@link #CFG_COMPRESSION}) so constants must not be renamed.
+     * @since 3.6
+     */
+    public enum CompressionFormat {
+        /** Gzip (deflate) compression - small files but CPU intensive. Default for tables written by KNIME. */
+        Gzip {
+            @Override
+            OutputStream wrapOutputStream(final OutputStream out) throws IOException {
+                // buffering the input stream is important as the blockable
+                // stream, which will be put on top of it, reads bytes individually
+                // (had a table, on which a single read-scan took ~6min without
+                // and ~30s with buffering)
+                return new BufferedOutputStream(new GZIPOutputStream(out));
+            }
+
+            @Override
+            InputStream wrapInputStream(final InputStream in) throws IOException {
+                // buffering is important when reading gzip streams
+                return new BufferedInputStream(new GZIPInputStream(in));
+            }
+        },
+        /** No compression. */
+        None {
+            @Override
+            OutputStream wrapOutputStream(final OutputStream out) {
+                return out;
+            }
+
+            @Override
+            InputStream wrapInputStream(final InputStream in) {
+                return in;
+            }
+        },
+        /** Fast LZ4-style block compression - larger files than {@link #Gzip} but much less CPU usage. */
+        Lz4 {
+            @Override
+            OutputStream wrapOutputStream(final OutputStream out) {
+                return new Lz4BlockOutputStream(out);
+            }
+
+            @Override
+            InputStream wrapInputStream(final InputStream in) {
+                return new Lz4BlockInputStream(in);
+            }
+        };
+
+        /**
+         * Wraps the (buffered) file output stream so that all data written to the returned stream is compressed.
+         * @param out The stream to the file.
+         * @return A stream to write to (possibly the argument).
+         * @throws IOException If the stream can't be initialized.
+         */
+        abstract OutputStream wrapOutputStream(final OutputStream out) throws IOException;
+
+        /**
+         * Wraps the (buffered) file input stream so that all data read from the returned stream is decompressed.
+         * @param in The stream from the file.
+         * @return A stream to read from (possibly the argument).
+         * @throws IOException If the stream can't be initialized, e.g. corrupt header.
+         */
+        abstract InputStream wrapInputStream(final InputStream in) throws IOException;
+
+        /**
+         * Whether the compressed stream can be decoded starting at a block boundary, which is required to build a
+         * {@link RowOffsetIndex} for random access. Only {@link #Gzip} doesn't support it.
+         * @return that property
+         */
+        boolean supportsRowOffsetIndex() {
+            return this != Gzip;
+        }
+
+        /**
+         * Case-insensitive lookup of a compression format.
+         * @param name The name of the format, e.g. "lz4".
+         * @return The format or <code>null</code> if the argument doesn't name a format.
+         */
+        public static CompressionFormat fromString(final String name) {
+            for (CompressionFormat f : values()) {
+                if (f.name().equalsIgnoreCase(name)) {
+                    return f;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** @return The compression format set as default for this installation, see
+     * {@link KNIMEConstants#PROPERTY_TABLE_GZIP_COMPRESSION}.
+     * @since 3.6
+     */
+    public static CompressionFormat getDefaultCompressionFormat() {
+        return DEF_COMPRESSION_FORMAT;
     }
 
     @Override
@@ -147,7 +248,22 @@ public AbstractTableStoreWriter createWriter(final File binFile, final DataTable
     @Override
     public AbstractTableStoreWriter createWriter(final OutputStream output, final DataTableSpec spec,
         final boolean writeRowKey) throws IOException {
-        return new DefaultTableStoreWriter(spec, output, writeRowKey);
+        return createWriter(output, spec, writeRowKey, DEF_COMPRESSION_FORMAT);
+    }
+
+    /**
+     * Creates a writer that uses a specific compression format (overriding the installation default).
+     * @param output The stream to write to.
+     * @param spec The spec of the table.
+     * @param writeRowKey Whether to write the row key.
+     * @param compressionFormat The compression to use, not null.
+     * @return A new writer.
+     * @throws IOException If the stream can't be initialized.
+     * @since 3.6
+     */
+    public AbstractTableStoreWriter createWriter(final OutputStream output, final DataTableSpec spec,
+        final boolean writeRowKey, final CompressionFormat compressionFormat) throws IOException {
+        return new DefaultTableStoreWriter(spec, output, writeRowKey, compressionFormat);
     }
 
     /**
@@ -49,14 +49,16 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.io.IOUtils;
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.DataType;
 import org.knime.core.data.DataTypeRegistry;
-import org.knime.core.data.container.Buffer.CompressionFormat;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
 import org.knime.core.data.container.storage.AbstractTableStoreReader;
 import org.knime.core.node.InvalidSettingsException;
 import org.knime.core.node.NodeLogger;
@@ -75,6 +77,8 @@ final class DefaultTableStoreReader extends AbstractTableStoreReader implements
     private int m_version;
     private final boolean m_isReadRowKey;
     private Buffer m_buffer;
+    /** Holds the content if the table is kept in memory, null if it's read from m_binFile. */
+    private OffHeapRowStore m_offHeapStore;
 
     /**
      * @param binFile
@@ -97,15 +101,58 @@ void setBufferAfterConstruction(final Buffer buffer) {
         m_buffer = buffer;
     }
 
+    /**
+     * Lets this reader read from memory instead of the file.
+     *
+     * @param offHeapStore the store holding the content as written to the file, not spilled
+     */
+    void setOffHeapStore(final OffHeapRowStore offHeapStore) {
+        m_offHeapStore = offHeapStore;
+    }
+
     @Override
     public TableStoreCloseableRowIterator iterator() throws IOException {
         if (m_version <= 5) { // 2.0 tech preview and before
             return new BufferFromFileIteratorVersion1x(this);
+        } else if (m_offHeapStore != null) {
+            return new BufferFromFileIteratorVersion20(this,
+                m_compressionFormat.wrapInputStream(m_offHeapStore.newInputStream(0L)), 0L);
         } else {
             return new BufferFromFileIteratorVersion20(this);
         }
     }
 
+    /**
+     * Opens an iterator that starts reading at the indexed row at or before <code>row</code>, that is at row
+     * {@link RowOffsetIndex#getIndexedRow(long) index.getIndexedRow(row)}. The file is accessed via a
+     * {@link MappedFileInputStream} (or the off-heap store at the block offset) so that the preceding data is not
+     * read.
+     *
+     * @param index The index written along with the file.
+     * @param row The row of interest.
+     * @return A new iterator, whose first row is the indexed row.
+     * @throws IOException If the file can't be opened.
+     */
+    TableStoreCloseableRowIterator iterator(final RowOffsetIndex index, final long row) throws IOException {
+        if (m_binFile == null && m_offHeapStore == null) {
+            throw new IOException("Unable to read table from file, table has been cleared.");
+        }
+        if (m_version <= 5 || !m_compressionFormat.supportsRowOffsetIndex()) {
+            throw new IOException("Random access not supported on table format version " + m_version
+                + " with compression " + m_compressionFormat);
+        }
+        InputStream in = m_offHeapStore != null ? m_offHeapStore.newInputStream(index.getBlockOffset(row))
+            : new MappedFileInputStream(m_binFile, index.getBlockOffset(row));
+        try {
+            in = m_compressionFormat.wrapInputStream(in);
+            IOUtils.skipFully(in, index.getOffsetInBlock(row));
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return new BufferFromFileIteratorVersion20(this, in, index.getIndexedRow(row));
+    }
+
     /** @return Whether stream is zipped. */
     CompressionFormat getBinFileCompressionFormat() {
         return m_compressionFormat;
@@ -116,6 +163,14 @@ final File getBinFile() {
         return m_binFile;
     }
 
+    /** @return a description of where the data is read from, used in error messages. */
+    final String getSourceDescription() {
+        if (m_offHeapStore != null) {
+            return "memory";
+        }
+        return m_binFile != null ? "file \"" + m_binFile.getName() + "\"" : "cleared file";
+    }
+
     /** @return The spec the buffer uses. */
     DataTableSpec getTableSpec() {
         return m_spec;
@@ -53,8 +53,8 @@
 import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.zip.GZIPOutputStream;
 
+import org.apache.commons.io.output.CountingOutputStream;
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataCellSerializer;
 import org.knime.core.data.DataRow;
@@ -65,6 +65,7 @@
 import org.knime.core.data.container.storage.AbstractTableStoreWriter;
 import org.knime.core.data.filestore.FileStoreKey;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.util.CheckUtils;
 
 /**
  *
@@ -80,6 +81,18 @@ final class DefaultTableStoreWriter extends AbstractTableStoreWriter implements
 
     private final CompressionFormat m_compressionFormat;
 
+    /** Index of row positions, null if not supported by the compression format. */
+    private RowOffsetIndex m_rowOffsetIndex;
+
+    /** Counts the bytes written in case there is no compression (m_rowOffsetIndex is non-null). */
+    private CountingOutputStream m_countingOut;
+
+    /** The compressed stream in case of {@link CompressionFormat#Lz4} (m_rowOffsetIndex is non-null). */
+    private Lz4BlockOutputStream m_lz4Out;
+
+    /** Number of rows written so far, used to reset the row key delta encoding. */
+    private long m_rowCount;
+
     /**
      * the stream that writes to the file, it's a special object output stream, in which we can mark the end of an entry
      * (to figure out when a cell implementation reads too many or too few bytes).
@@ -95,8 +108,21 @@ final class DefaultTableStoreWriter extends AbstractTableStoreWriter implements
      */
     public DefaultTableStoreWriter(final DataTableSpec spec, final OutputStream outputStream,
         final boolean writeRowKey) throws IOException {
+        this(spec, outputStream, writeRowKey, DefaultTableStoreFormat.DEF_COMPRESSION_FORMAT);
+    }
+
+    /**
+     * @param spec The spec of the table.
+     * @param outputStream The stream to write to.
+     * @param writeRowKey Whether to write the row key.
+     * @param compressionFormat The compression applied to the stream, not null.
+     * @throws IOException If the stream can't be initialized.
+     * @since 3.6
+     */
+    public DefaultTableStoreWriter(final DataTableSpec spec, final OutputStream outputStream,
+        final boolean writeRowKey, final CompressionFormat compressionFormat) throws IOException {
         super(spec, writeRowKey);
-        m_compressionFormat = DefaultTableStoreFormat.IS_USE_GZIP ? CompressionFormat.Gzip : CompressionFormat.None;
+        m_compressionFormat = CheckUtils.checkArgumentNotNull(compressionFormat, "Compression must not be null");
         m_outStream = initOutFile(new BufferedOutputStream(outputStream));
     }
 
@@ -107,6 +133,16 @@ public DefaultTableStoreWriter(final DataTableSpec spec, final OutputStream outp
      */
     @Override
     public void writeRow(final DataRow row) throws IOException {
+        if (m_rowOffsetIndex != null) {
+            if (m_lz4Out != null) {
+                m_rowOffsetIndex.addRow(m_lz4Out.getBlockOffset(), m_lz4Out.getOffsetInBlock());
+            } else {
+                m_rowOffsetIndex.addRow(m_countingOut.getByteCount(), 0);
+            }
+        }
+        if (m_rowCount++ % ROW_KEY_DELTA_RESET_INTERVAL == 0) {
+            m_outStream.resetRowKeyDelta();
+        }
         RowKey id = row.getKey();
         writeRowKey(id, m_outStream);
         for (int i = 0; i < row.getNumCells(); i++) {
@@ -176,25 +212,29 @@ void writeDataCell(final DataCell cell, final DCObjectOutputVersion2 outStream)
      * Creates short cut array and wraps the argument stream in a {@link DCObjectOutputVersion2}.
      */
     private DCObjectOutputVersion2 initOutFile(final OutputStream outStream) throws IOException {
-        OutputStream wrap;
-        switch (m_compressionFormat) {
-            case Gzip:
-                wrap = new GZIPOutputStream(outStream);
-                // buffering the input stream is important as the blockable
-                // stream, which will be put on top of it, reads bytes individually
-                // (had a table, on which a single read-scan took ~6min without
-                // and ~30s with buffering)
-                wrap = new BufferedOutputStream(wrap);
-                break;
-            case None:
-                wrap = outStream;
-                break;
-            default:
-                throw new IOException("Unsupported compression format: " + m_compressionFormat);
+        OutputStream wrap = m_compressionFormat.wrapOutputStream(outStream);
+        if (m_compressionFormat.supportsRowOffsetIndex()) {
+            // the streams below (blockable stream and data output) don't buffer, so the position in the
+            // compressed stream is a row boundary whenever a new row is started
+            if (wrap instanceof Lz4BlockOutputStream) {
+                m_lz4Out = (Lz4BlockOutputStream)wrap;
+            } else {
+                m_countingOut = new CountingOutputStream(wrap);
+                wrap = m_countingOut;
+            }
+            m_rowOffsetIndex = new RowOffsetIndex(RowOffsetIndex.DEFAULT_INTERVAL);
         }
         return new DCObjectOutputVersion2(wrap, this);
     }
 
+    /**
+     * @return the index of row positions in the written stream or null if the compression format doesn't allow
+     *         random access. Only complete after the writer has been closed.
+     */
+    RowOffsetIndex getRowOffsetIndex() {
+        return m_rowOffsetIndex;
+    }
+
     /**
      * Get the serializer object to be used for writing the argument cell or <code>null</code> if it needs to be
      * java-serialized.
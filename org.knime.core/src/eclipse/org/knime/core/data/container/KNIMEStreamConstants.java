@@ -79,5 +79,21 @@ interface KNIMEStreamConstants {
     /** Separator for different rows. */
     static final byte BYTE_ROW_SEPARATOR = BYTE_TYPE_MISSING + 3;
 
+    /** First stream version (as returned by {@link DefaultTableStoreReader#getReadVersion()}) that writes row keys
+     * with a leading {@link #BYTE_ROW_KEY_STRING} or {@link #BYTE_ROW_KEY_INDEX} byte; previous versions only
+     * contain the key string. */
+    static final int VERSION_TAGGED_ROW_KEY = 11;
+
+    /** Tag for a row key written as string. */
+    static final byte BYTE_ROW_KEY_STRING = 0;
+
+    /** Tag for a row key created by {@link RowKey#createRowKey(long)}, written as zig-zag variable length
+     * delta to the index of the previous such key. */
+    static final byte BYTE_ROW_KEY_INDEX = 1;
+
+    /** Number of rows after which the row index delta is reset (first row of each interval is written as delta
+     * to -1). Allows reading from any row that is a multiple of this number, so it needs to divide the
+     * {@link RowOffsetIndex#DEFAULT_INTERVAL} of the random access index. */
+    static final int ROW_KEY_DELTA_RESET_INTERVAL = 128;
 
 }
@@ -0,0 +1,187 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream reading data written by {@link Lz4BlockOutputStream}. The stream is buffered, no additional buffering
+ * is required on top of it.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class Lz4BlockInputStream extends InputStream {
+
+    private final InputStream m_in;
+    private final byte[] m_buffer;
+    private final byte[] m_compressed;
+    private final byte[] m_header;
+    private int m_pos;
+    private int m_limit;
+    private boolean m_isEOF;
+
+    /**
+     * @param in The underlying stream, not null.
+     */
+    Lz4BlockInputStream(final InputStream in) {
+        m_in = in;
+        m_buffer = new byte[Lz4BlockOutputStream.BLOCK_SIZE];
+        m_compressed = new byte[Lz4Codec.maxCompressedLength(Lz4BlockOutputStream.BLOCK_SIZE)];
+        m_header = new byte[Lz4BlockOutputStream.HEADER_LENGTH];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read() throws IOException {
+        if (m_pos == m_limit && !readBlock()) {
+            return -1;
+        }
+        return m_buffer[m_pos++] & 0xFF;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (m_pos == m_limit && !readBlock()) {
+            return -1;
+        }
+        final int count = Math.min(len, m_limit - m_pos);
+        System.arraycopy(m_buffer, m_pos, b, off, count);
+        m_pos += count;
+        return count;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long skip(final long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n) {
+            if (m_pos == m_limit && !readBlock()) {
+                break;
+            }
+            final int count = (int)Math.min(n - skipped, m_limit - m_pos);
+            m_pos += count;
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int available() {
+        return m_limit - m_pos;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        m_isEOF = true;
+        m_in.close();
+    }
+
+    /** Reads and decodes the next block, returns false on (regular) end of stream. */
+    private boolean readBlock() throws IOException {
+        if (m_isEOF) {
+            return false;
+        }
+        final int firstByte = m_in.read();
+        if (firstByte < 0) {
+            m_isEOF = true;
+            return false;
+        }
+        m_header[0] = (byte)firstByte;
+        readFully(m_header, 1, Lz4BlockOutputStream.HEADER_LENGTH - 1);
+        final int rawLength = readInt(m_header, 1);
+        final int storedLength = readInt(m_header, 5);
+        if (rawLength <= 0 || rawLength > m_buffer.length) {
+            throw new IOException("Corrupt LZ4 stream: invalid block length " + rawLength);
+        }
+        switch (m_header[0]) {
+            case Lz4BlockOutputStream.BLOCK_RAW:
+                if (storedLength != rawLength) {
+                    throw new IOException("Corrupt LZ4 stream: raw block with inconsistent lengths");
+                }
+                readFully(m_buffer, 0, rawLength);
+                break;
+            case Lz4BlockOutputStream.BLOCK_LZ4:
+                if (storedLength <= 0 || storedLength > m_compressed.length) {
+                    throw new IOException("Corrupt LZ4 stream: invalid compressed length " + storedLength);
+                }
+                readFully(m_compressed, 0, storedLength);
+                Lz4Codec.decompress(m_compressed, storedLength, m_buffer, rawLength);
+                break;
+            default:
+                throw new IOException("Corrupt LZ4 stream: unknown block type " + m_header[0]);
+        }
+        m_pos = 0;
+        m_limit = rawLength;
+        return true;
+    }
+
+    private void readFully(final byte[] b, final int off, final int len) throws IOException {
+        int pos = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int read = m_in.read(b, pos, remaining);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of LZ4 stream");
+            }
+            pos += read;
+            remaining -= read;
+        }
+    }
+
+    private static int readInt(final byte[] b, final int pos) {
+        return (b[pos] & 0xFF) << 24 | (b[pos + 1] & 0xFF) << 16 | (b[pos + 2] & 0xFF) << 8 | (b[pos + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream compressing its data in blocks of {@value #BLOCK_SIZE} bytes using {@link Lz4Codec}. Each block is
+ * prefixed by a header consisting of a type byte ({@link #BLOCK_RAW} or {@link #BLOCK_LZ4}), the uncompressed and
+ * the stored length (both big-endian ints). Blocks that don't compress are stored raw. The stream is buffered, no
+ * additional buffering is required on top of it.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @see Lz4BlockInputStream
+ */
+final class Lz4BlockOutputStream extends OutputStream {
+
+    /** Uncompressed size of a block. */
+    static final int BLOCK_SIZE = 1 << 16;
+
+    /** Length of the block header (type, raw length, stored length). */
+    static final int HEADER_LENGTH = 9;
+
+    /** Block type: stored uncompressed. */
+    static final byte BLOCK_RAW = 0;
+
+    /** Block type: compressed with {@link Lz4Codec}. */
+    static final byte BLOCK_LZ4 = 1;
+
+    private final OutputStream m_out;
+    private final byte[] m_buffer;
+    private final byte[] m_compressed;
+    private final byte[] m_header;
+    private final int[] m_hashTable;
+    private int m_count;
+    private long m_bytesWritten;
+    private boolean m_isClosed;
+
+    /**
+     * @param out The underlying stream, not null.
+     */
+    Lz4BlockOutputStream(final OutputStream out) {
+        m_out = out;
+        m_buffer = new byte[BLOCK_SIZE];
+        m_compressed = new byte[Lz4Codec.maxCompressedLength(BLOCK_SIZE)];
+        m_header = new byte[HEADER_LENGTH];
+        m_hashTable = Lz4Codec.newHashTable();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final int b) throws IOException {
+        m_buffer[m_count++] = (byte)b;
+        if (m_count == BLOCK_SIZE) {
+            flushBlock();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        int pos = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int chunk = Math.min(remaining, BLOCK_SIZE - m_count);
+            System.arraycopy(b, pos, m_buffer, m_count, chunk);
+            m_count += chunk;
+            pos += chunk;
+            remaining -= chunk;
+            if (m_count == BLOCK_SIZE) {
+                flushBlock();
+            }
+        }
+    }
+
+    /**
+     * @return The offset (relative to the start of the underlying stream) of the block that the next written byte
+     *         will be part of.
+     */
+    long getBlockOffset() {
+        return m_bytesWritten;
+    }
+
+    /** @return The number of uncompressed bytes in the current block that precede the next written byte. */
+    int getOffsetInBlock() {
+        return m_count;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush() throws IOException {
+        flushBlock();
+        m_out.flush();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        if (m_isClosed) {
+            return;
+        }
+        m_isClosed = true;
+        try {
+            flushBlock();
+        } finally {
+            m_out.close();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (m_count == 0) {
+            return;
+        }
+        final int compressedLength = Lz4Codec.compress(m_buffer, m_count, m_compressed, m_hashTable);
+        if (compressedLength < m_count) {
+            writeHeader(m_header, BLOCK_LZ4, m_count, compressedLength);
+            m_out.write(m_header);
+            m_out.write(m_compressed, 0, compressedLength);
+            m_bytesWritten += HEADER_LENGTH + compressedLength;
+        } else {
+            writeHeader(m_header, BLOCK_RAW, m_count, m_count);
+            m_out.write(m_header);
+            m_out.write(m_buffer, 0, m_count);
+            m_bytesWritten += HEADER_LENGTH + m_count;
+        }
+        m_count = 0;
+    }
+
+    private static void writeHeader(final byte[] dest, final byte type, final int rawLength,
+        final int storedLength) {
+        dest[0] = type;
+        writeInt(dest, 1, rawLength);
+        writeInt(dest, 5, storedLength);
+    }
+
+    private static void writeInt(final byte[] dest, final int pos, final int value) {
+        dest[pos] = (byte)(value >>> 24);
+        dest[pos + 1] = (byte)(value >>> 16);
+        dest[pos + 2] = (byte)(value >>> 8);
+        dest[pos + 3] = (byte)value;
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Pure java implementation of the LZ4 block compression scheme. It trades compression ratio for speed, which makes it
+ * a good fit for temporary table files that are written once and read a few times. The block layout follows the
+ * LZ4 block format (token, literals, little-endian offset, match length) but the framing around blocks is specific
+ * to {@link Lz4BlockOutputStream}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class Lz4Codec {
+
+    /** Minimum length of a match. */
+    private static final int MIN_MATCH = 4;
+
+    /** The last bytes of a block are always encoded as literals. */
+    private static final int LAST_LITERALS = 5;
+
+    /** A match must not start within the last bytes of a block. */
+    private static final int MF_LIMIT = 12;
+
+    /** Maximum backward distance of a match (offset is encoded in 2 bytes). */
+    private static final int MAX_DISTANCE = (1 << 16) - 1;
+
+    private static final int HASH_LOG = 12;
+
+    /** Number of entries in the hash table, see {@link #newHashTable()}. */
+    static final int HASH_TABLE_SIZE = 1 << HASH_LOG;
+
+    private Lz4Codec() {
+    }
+
+    /** @return a new hash table to be passed into {@link #compress(byte[], int, byte[], int[])}. */
+    static int[] newHashTable() {
+        return new int[HASH_TABLE_SIZE];
+    }
+
+    /**
+     * The size of the destination array required to compress an array of the given length.
+     * @param length The uncompressed length.
+     * @return The worst case compressed length.
+     */
+    static int maxCompressedLength(final int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses the first <code>srcLen</code> bytes of <code>src</code> into <code>dest</code>.
+     *
+     * @param src The data to compress.
+     * @param srcLen The number of bytes to compress.
+     * @param dest The destination, at least {@link #maxCompressedLength(int)} long.
+     * @param hashTable A scratch table created by {@link #newHashTable()}; its content is overwritten.
+     * @return The number of bytes written to <code>dest</code>.
+     */
+    static int compress(final byte[] src, final int srcLen, final byte[] dest, final int[] hashTable) {
+        Arrays.fill(hashTable, -1);
+        int anchor = 0;
+        int op = 0;
+        int ip = 0;
+        final int matchLimit = srcLen - MF_LIMIT;
+        final int extendLimit = srcLen - LAST_LITERALS;
+        while (ip < matchLimit) {
+            final int sequence = readInt(src, ip);
+            final int h = hash(sequence);
+            int ref = hashTable[h];
+            hashTable[h] = ip;
+            if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                // skip faster through incompressible data
+                ip += 1 + ((ip - anchor) >>> 6);
+                continue;
+            }
+            // extend the match backwards into pending literals
+            while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1]) {
+                ip--;
+                ref--;
+            }
+            int matchLen = MIN_MATCH;
+            while (ip + matchLen < extendLimit && src[ref + matchLen] == src[ip + matchLen]) {
+                matchLen++;
+            }
+            op = writeSequence(src, anchor, ip - anchor, ip - ref, matchLen, dest, op);
+            ip += matchLen;
+            anchor = ip;
+        }
+        return writeLastLiterals(src, anchor, srcLen - anchor, dest, op);
+    }
+
+    /**
+     * Decompresses a block written by {@link #compress(byte[], int, byte[], int[])}.
+     *
+     * @param src The compressed data.
+     * @param srcLen The number of compressed bytes.
+     * @param dest The destination array.
+     * @param destLen The expected number of uncompressed bytes.
+     * @throws IOException If the data is corrupt (never reads or writes out of bounds).
+     */
+    static void decompress(final byte[] src, final int srcLen, final byte[] dest, final int destLen)
+            throws IOException {
+        int ip = 0;
+        int op = 0;
+        while (ip < srcLen) {
+            final int token = src[ip++] & 0xFF;
+            int literalLen = token >>> 4;
+            if (literalLen == 15) {
+                int b;
+                do {
+                    if (ip >= srcLen) {
+                        throw corrupt("literal length exceeds input");
+                    }
+                    b = src[ip++] & 0xFF;
+                    literalLen += b;
+                } while (b == 255);
+            }
+            if (literalLen < 0 || literalLen > srcLen - ip || literalLen > destLen - op) {
+                throw corrupt("literal run out of bounds");
+            }
+            System.arraycopy(src, ip, dest, op, literalLen);
+            ip += literalLen;
+            op += literalLen;
+            if (ip == srcLen) {
+                break; // last sequence has no match
+            }
+            if (ip + 2 > srcLen) {
+                throw corrupt("truncated match offset");
+            }
+            final int offset = (src[ip] & 0xFF) | ((src[ip + 1] & 0xFF) << 8);
+            ip += 2;
+            if (offset == 0 || offset > op) {
+                throw corrupt("invalid match offset " + offset);
+            }
+            int matchLen = token & 0x0F;
+            if (matchLen == 15) {
+                int b;
+                do {
+                    if (ip >= srcLen) {
+                        throw corrupt("match length exceeds input");
+                    }
+                    b = src[ip++] & 0xFF;
+                    matchLen += b;
+                } while (b == 255);
+            }
+            matchLen += MIN_MATCH;
+            if (matchLen < 0 || matchLen > destLen - op) {
+                throw corrupt("match out of bounds");
+            }
+            final int ref = op - offset;
+            if (offset >= matchLen) {
+                System.arraycopy(dest, ref, dest, op, matchLen);
+            } else {
+                // overlapping match, e.g. run length encoding of a single byte
+                for (int i = 0; i < matchLen; i++) {
+                    dest[op + i] = dest[ref + i];
+                }
+            }
+            op += matchLen;
+        }
+        if (op != destLen) {
+            throw corrupt("expected " + destLen + " bytes but decoded " + op);
+        }
+    }
+
+    private static int writeSequence(final byte[] src, final int literalStart, final int literalLen,
+        final int offset, final int matchLen, final byte[] dest, final int destPos) {
+        int op = destPos;
+        final int matchCode = matchLen - MIN_MATCH;
+        final int tokenPos = op++;
+        int token = (Math.min(literalLen, 15) << 4) | Math.min(matchCode, 15);
+        dest[tokenPos] = (byte)token;
+        op = writeLength(literalLen, dest, op);
+        System.arraycopy(src, literalStart, dest, op, literalLen);
+        op += literalLen;
+        dest[op++] = (byte)offset;
+        dest[op++] = (byte)(offset >>> 8);
+        return writeLength(matchCode, dest, op);
+    }
+
+    private static int writeLastLiterals(final byte[] src, final int literalStart, final int literalLen,
+        final byte[] dest, final int destPos) {
+        int op = destPos;
+        dest[op++] = (byte)(Math.min(literalLen, 15) << 4);
+        op = writeLength(literalLen, dest, op);
+        System.arraycopy(src, literalStart, dest, op, literalLen);
+        return op + literalLen;
+    }
+
+    /** Writes the remainder of a length whose token nibble is saturated (>= 15). */
+    private static int writeLength(final int length, final byte[] dest, final int destPos) {
+        int op = destPos;
+        if (length >= 15) {
+            int remaining = length - 15;
+            while (remaining >= 255) {
+                dest[op++] = (byte)255;
+                remaining -= 255;
+            }
+            dest[op++] = (byte)remaining;
+        }
+        return op;
+    }
+
+    private static int readInt(final byte[] b, final int pos) {
+        return (b[pos] & 0xFF) | (b[pos + 1] & 0xFF) << 8 | (b[pos + 2] & 0xFF) << 16 | (b[pos + 3] & 0xFF) << 24;
+    }
+
+    private static int hash(final int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static IOException corrupt(final String detail) {
+        return new IOException("Corrupt LZ4 block: " + detail);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.core.runtime.Platform;
+
+/**
+ * Input stream reading a file from an arbitrary start position through memory mapped windows of
+ * {@value #WINDOW_SIZE} bytes, used for random access into table files (see {@link RowOffsetIndex}). Windows are
+ * mapped on demand so that seeking into large files doesn't read any of the preceding data.
+ *
+ * <p>On Windows a mapped file can't be deleted until the mapping is garbage collected, which conflicts with the
+ * deletion of temporary table files. There the windows are filled using plain channel reads instead.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class MappedFileInputStream extends InputStream {
+
+    /** Size of a mapped region. */
+    static final int WINDOW_SIZE = 1 << 23;
+
+    private static final boolean USE_MAPPING = !Platform.OS_WIN32.equals(Platform.getOS());
+
+    private final FileChannel m_channel;
+    private final long m_fileLength;
+    private final boolean m_useMapping;
+    private long m_windowStart;
+    private ByteBuffer m_window;
+
+    /**
+     * Opens the file and positions the stream.
+     * @param file The file to read.
+     * @param position The offset of the first byte to read.
+     * @throws IOException If the file can't be opened or the position is out of range.
+     */
+    MappedFileInputStream(final File file, final long position) throws IOException {
+        this(file, position, USE_MAPPING);
+    }
+
+    /** Constructor also used in test cases to test both modes. */
+    MappedFileInputStream(final File file, final long position, final boolean useMapping) throws IOException {
+        m_channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        m_fileLength = m_channel.size();
+        if (position < 0 || position > m_fileLength) {
+            m_channel.close();
+            throw new IOException("Position " + position + " out of range, file \"" + file.getName() + "\" has "
+                + m_fileLength + " bytes");
+        }
+        m_useMapping = useMapping;
+        m_windowStart = position;
+        m_window = ByteBuffer.allocate(0);
+    }
+
+    /** Maps the next window, returns false if at end of file. */
+    private boolean nextWindow() throws IOException {
+        m_windowStart += m_window.limit();
+        long length = Math.min(WINDOW_SIZE, m_fileLength - m_windowStart);
+        if (length <= 0) {
+            return false;
+        }
+        if (m_useMapping) {
+            m_window = m_channel.map(MapMode.READ_ONLY, m_windowStart, length);
+        } else {
+            ByteBuffer window = m_window.capacity() >= length ? m_window : ByteBuffer.allocate((int)length);
+            window.clear();
+            window.limit((int)length);
+            while (window.hasRemaining()) {
+                if (m_channel.read(window, m_windowStart + window.position()) < 0) {
+                    throw new IOException("Unexpected end of file");
+                }
+            }
+            window.flip();
+            m_window = window;
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read() throws IOException {
+        if (!m_window.hasRemaining() && !nextWindow()) {
+            return -1;
+        }
+        return m_window.get() & 0xFF;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!m_window.hasRemaining() && !nextWindow()) {
+            return -1;
+        }
+        int count = Math.min(len, m_window.remaining());
+        m_window.get(b, off, count);
+        return count;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int available() {
+        return m_window.remaining();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        m_window = ByteBuffer.allocate(0);
+        m_windowStart = m_fileLength;
+        m_channel.close();
+    }
+}
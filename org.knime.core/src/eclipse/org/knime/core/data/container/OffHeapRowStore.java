@@ -0,0 +1,485 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Keeps the serialized content of a {@link Buffer} (the same byte stream that is otherwise written to the temp file)
+ * in direct (off-heap) {@link ByteBuffer} slabs. All stores share a byte budget (see
+ * {@link KNIMEConstants#PROPERTY_OFF_HEAP_TABLE_CACHE_SIZE}, test cases may use a separate {@link Budget}); a store
+ * that can't get more memory copies its content to a file and continues writing to that file ("spill"), all other
+ * stores stay in memory.
+ *
+ * <p>
+ * The store is written once (via {@link #getOutputStream()}) and can be read concurrently after the output stream is
+ * closed (via {@link #newInputStream(long)}).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class OffHeapRowStore {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(OffHeapRowStore.class);
+
+    /** Size of the first slab, each following slab has twice the size until {@link #MAX_SLAB_SIZE} is reached. */
+    private static final int MIN_SLAB_SIZE = 1 << 16;
+
+    private static final int MAX_SLAB_SIZE = 1 << 22;
+
+    /** Default budget if {@link KNIMEConstants#PROPERTY_OFF_HEAP_TABLE_CACHE_SIZE} isn't set: a quarter of the heap. */
+    static final long DEF_MAX_BYTES = Runtime.getRuntime().maxMemory() / 4;
+
+    /** The budget of all stores not created with a separate budget. */
+    static final Budget DEFAULT_BUDGET;
+
+    /** Whether buffers use off-heap stores (instead of lists of rows) by default. */
+    static final boolean IS_DEFAULT;
+
+    static {
+        long maxBytes = DEF_MAX_BYTES;
+        String sizeString = System.getProperty(KNIMEConstants.PROPERTY_OFF_HEAP_TABLE_CACHE_SIZE);
+        if (sizeString != null) {
+            try {
+                long sizeInMB = Long.parseLong(sizeString.trim());
+                if (sizeInMB < 0) {
+                    throw new NumberFormatException("off-heap cache size < 0: " + sizeInMB);
+                }
+                maxBytes = sizeInMB << 20;
+                LOGGER.debug("Setting off-heap table cache to " + sizeInMB + "MB");
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Unable to parse property " + KNIMEConstants.PROPERTY_OFF_HEAP_TABLE_CACHE_SIZE
+                    + ", using default (" + (DEF_MAX_BYTES >> 20) + "MB)", e);
+            }
+        }
+        DEFAULT_BUDGET = new Budget(maxBytes);
+        String cacheString = System.getProperty(KNIMEConstants.PROPERTY_TABLE_CACHE);
+        boolean isOffHeap = false;
+        if ("offheap".equalsIgnoreCase(cacheString)) {
+            isOffHeap = true;
+            LOGGER.debug("Using off-heap table cache");
+        } else if (cacheString != null && !"heap".equalsIgnoreCase(cacheString)) {
+            LOGGER.warn("Unable to read property " + KNIMEConstants.PROPERTY_TABLE_CACHE + " (\"" + cacheString
+                + "\"); expected \"heap\" or \"offheap\", defaulting to \"heap\"");
+        }
+        IS_DEFAULT = isOffHeap;
+    }
+
+    /** Reservations of stores that were garbage collected without being released. */
+    private static final ReferenceQueue<OffHeapRowStore> COLLECTED_STORES = new ReferenceQueue<OffHeapRowStore>();
+
+    /** Keeps the reservations reachable until they are released. */
+    private static final Set<Reservation> RESERVATIONS = ConcurrentHashMap.newKeySet();
+
+    private final Reservation m_reservation;
+
+    private final List<ByteBuffer> m_slabs = new ArrayList<ByteBuffer>();
+
+    /** Number of bytes written to the slabs. */
+    private long m_size;
+
+    private final SlabOutputStream m_outputStream;
+
+    /** Provides the stream to write to once the budget is exhausted, called at most once. */
+    private final Callable<OutputStream> m_spillTarget;
+
+    /** The stream all content was copied to, null if the content is in memory. */
+    private OutputStream m_spillStream;
+
+    /**
+     * Creates a store using the {@link #DEFAULT_BUDGET}.
+     *
+     * @param spillTarget called when the budget is exhausted, provides the (file) stream the content is copied to.
+     */
+    OffHeapRowStore(final Callable<OutputStream> spillTarget) {
+        this(spillTarget, DEFAULT_BUDGET);
+    }
+
+    /**
+     * @param spillTarget called when the budget is exhausted, provides the (file) stream the content is copied to.
+     * @param budget the budget the memory is reserved from.
+     */
+    OffHeapRowStore(final Callable<OutputStream> spillTarget, final Budget budget) {
+        m_spillTarget = spillTarget;
+        m_reservation = new Reservation(this, budget);
+        RESERVATIONS.add(m_reservation);
+        m_outputStream = new SlabOutputStream();
+    }
+
+    /** @return the stream to write the content to, its content is copied to the spill target if memory runs out. */
+    OutputStream getOutputStream() {
+        return m_outputStream;
+    }
+
+    /** @return whether the content was copied to the spill target, i.e. it's not in memory */
+    synchronized boolean isSpilled() {
+        return m_spillStream != null;
+    }
+
+    /** @return the number of bytes kept in memory */
+    synchronized long size() {
+        return m_size;
+    }
+
+    /** @return the number of bytes reserved for this store (allocated slabs) */
+    long getReservedBytes() {
+        return m_reservation.m_bytes.get();
+    }
+
+    /**
+     * Opens a stream on the content starting at the given position. Must only be called after the output stream has
+     * been closed and if the content wasn't spilled.
+     *
+     * @param position the byte position to start at
+     * @return a new stream, closing it has no effect on the store
+     */
+    synchronized InputStream newInputStream(final long position) {
+        if (m_spillStream != null) {
+            throw new IllegalStateException("Content has been written to file");
+        }
+        if (position < 0 || position > m_size) {
+            throw new IndexOutOfBoundsException("Invalid position " + position + " (size is " + m_size + ")");
+        }
+        return new SlabInputStream(m_slabs.toArray(new ByteBuffer[m_slabs.size()]), m_size, position);
+    }
+
+    /**
+     * Copies the content to the spill target (if not done yet) and switches the output stream to that target. May
+     * be called while the output stream is still open.
+     *
+     * @throws IOException if writing to the target fails
+     */
+    synchronized void spill() throws IOException {
+        if (m_spillStream != null) {
+            return;
+        }
+        final OutputStream target;
+        try {
+            target = m_spillTarget.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        final byte[] chunk = new byte[1 << 16];
+        try (InputStream in = newInputStream(0L)) {
+            int read;
+            while ((read = in.read(chunk)) >= 0) {
+                target.write(chunk, 0, read);
+            }
+        }
+        m_spillStream = target;
+        LOGGER.debugWithFormat("Moved %,d bytes of table content from memory to file", m_size);
+        m_slabs.clear();
+        m_size = 0;
+        m_reservation.release();
+        if (m_outputStream.m_isClosed) {
+            target.close();
+        }
+    }
+
+    /** Gives the memory back to the budget, the content must no longer be read. */
+    synchronized void release() {
+        m_slabs.clear();
+        m_size = 0;
+        m_reservation.release();
+        RESERVATIONS.remove(m_reservation);
+    }
+
+    /** @return the number of bytes reserved by all stores using the {@link #DEFAULT_BUDGET} */
+    static long getTotalReservedBytes() {
+        return DEFAULT_BUDGET.getReservedBytes();
+    }
+
+    /** Called when the last slab is full, allocates a new one or spills if the budget is exhausted. */
+    private void allocateSlab() throws IOException {
+        releaseCollectedStores();
+        final int lastSize = m_slabs.isEmpty() ? 0 : m_slabs.get(m_slabs.size() - 1).capacity();
+        final int size = Math.min(MAX_SLAB_SIZE, Math.max(MIN_SLAB_SIZE, lastSize << 1));
+        if (!m_reservation.reserve(size)) {
+            spill();
+            return;
+        }
+        final ByteBuffer slab;
+        try {
+            slab = ByteBuffer.allocateDirect(size);
+        } catch (OutOfMemoryError oome) {
+            // direct memory limit of the VM is lower than the budget
+            m_reservation.unreserve(size);
+            LOGGER.debug("Unable to allocate off-heap memory for table: " + oome.getMessage());
+            spill();
+            return;
+        }
+        m_slabs.add(slab);
+    }
+
+    private static void releaseCollectedStores() {
+        Reservation r;
+        while ((r = (Reservation)COLLECTED_STORES.poll()) != null) {
+            r.release();
+            RESERVATIONS.remove(r);
+        }
+    }
+
+    /** Maximum number of bytes a group of stores holds in total. */
+    static final class Budget {
+
+        private final long m_maxBytes;
+
+        private final AtomicLong m_reservedBytes = new AtomicLong();
+
+        /**
+         * @param maxBytes the maximum number of bytes, must be &gt;= 0
+         */
+        Budget(final long maxBytes) {
+            if (maxBytes < 0) {
+                throw new IllegalArgumentException("Budget must not be negative: " + maxBytes);
+            }
+            m_maxBytes = maxBytes;
+        }
+
+        /** @return the maximum number of bytes */
+        long getMaxBytes() {
+            return m_maxBytes;
+        }
+
+        /** @return the number of bytes currently reserved by the stores */
+        long getReservedBytes() {
+            return m_reservedBytes.get();
+        }
+
+        private boolean reserve(final long bytes) {
+            long reserved;
+            do {
+                reserved = m_reservedBytes.get();
+                if (reserved + bytes > m_maxBytes) {
+                    return false;
+                }
+            } while (!m_reservedBytes.compareAndSet(reserved, reserved + bytes));
+            return true;
+        }
+
+        private void unreserve(final long bytes) {
+            m_reservedBytes.addAndGet(-bytes);
+        }
+    }
+
+    /**
+     * The bytes reserved by a store. Kept separately so that the budget can be released if the store is garbage
+     * collected without {@link OffHeapRowStore#release()} being called.
+     */
+    private static final class Reservation extends WeakReference<OffHeapRowStore> {
+
+        private final Budget m_budget;
+
+        private final AtomicLong m_bytes = new AtomicLong();
+
+        Reservation(final OffHeapRowStore store, final Budget budget) {
+            super(store, COLLECTED_STORES);
+            m_budget = budget;
+        }
+
+        boolean reserve(final long bytes) {
+            if (!m_budget.reserve(bytes)) {
+                return false;
+            }
+            m_bytes.addAndGet(bytes);
+            return true;
+        }
+
+        void unreserve(final long bytes) {
+            m_bytes.addAndGet(-bytes);
+            m_budget.unreserve(bytes);
+        }
+
+        void release() {
+            m_budget.unreserve(m_bytes.getAndSet(0));
+        }
+    }
+
+    /** Appends to the last slab, allocates slabs as needed; forwards to the spill stream once spilled. */
+    private final class SlabOutputStream extends OutputStream {
+
+        private boolean m_isClosed;
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte)b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            synchronized (OffHeapRowStore.this) {
+                int offset = off;
+                int remaining = len;
+                while (remaining > 0) {
+                    if (m_spillStream != null) {
+                        m_spillStream.write(b, offset, remaining);
+                        return;
+                    }
+                    if (m_slabs.isEmpty() || !m_slabs.get(m_slabs.size() - 1).hasRemaining()) {
+                        allocateSlab();
+                        continue;
+                    }
+                    final ByteBuffer slab = m_slabs.get(m_slabs.size() - 1);
+                    final int count = Math.min(remaining, slab.remaining());
+                    slab.put(b, offset, count);
+                    m_size += count;
+                    offset += count;
+                    remaining -= count;
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (OffHeapRowStore.this) {
+                if (m_spillStream != null) {
+                    m_spillStream.flush();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (OffHeapRowStore.this) {
+                if (!m_isClosed) {
+                    m_isClosed = true;
+                    if (m_spillStream != null) {
+                        m_spillStream.close();
+                    }
+                }
+            }
+        }
+    }
+
+    /** Reads from (views on) the slabs, independent of other streams. */
+    private static final class SlabInputStream extends InputStream {
+
+        private final ByteBuffer[] m_views;
+
+        private long m_remaining;
+
+        private int m_slabIndex;
+
+        SlabInputStream(final ByteBuffer[] slabs, final long size, final long position) {
+            m_views = new ByteBuffer[slabs.length];
+            long skip = position;
+            for (int i = 0; i < slabs.length; i++) {
+                // the slab's position is the number of bytes written to it
+                ByteBuffer view = slabs[i].duplicate();
+                view.flip();
+                int skipInSlab = (int)Math.min(skip, view.limit());
+                view.position(skipInSlab);
+                skip -= skipInSlab;
+                m_views[i] = view;
+            }
+            m_remaining = size - position;
+        }
+
+        @Override
+        public int read() {
+            if (m_remaining <= 0) {
+                return -1;
+            }
+            ByteBuffer view = currentView();
+            m_remaining--;
+            return view.get() & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (m_remaining <= 0) {
+                return -1;
+            }
+            ByteBuffer view = currentView();
+            int count = Math.min(len, view.remaining());
+            view.get(b, off, count);
+            m_remaining -= count;
+            return count;
+        }
+
+        @Override
+        public long skip(final long n) {
+            long skipped = 0;
+            while (skipped < n && m_remaining > 0) {
+                ByteBuffer view = currentView();
+                int count = (int)Math.min(n - skipped, view.remaining());
+                view.position(view.position() + count);
+                m_remaining -= count;
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int)Math.min(Integer.MAX_VALUE, m_remaining);
+        }
+
+        private ByteBuffer currentView() {
+            while (!m_views[m_slabIndex].hasRemaining()) {
+                m_slabIndex++;
+            }
+            return m_views[m_slabIndex];
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.util.NoSuchElementException;
+
+import org.knime.core.data.DataRow;
+
+/**
+ * Iterator restricting another iterator to a range of rows. Leading rows are skipped on construction (that is, the
+ * argument iterator is ideally already positioned close to the first row of interest) and the underlying iterator is
+ * closed when the end of the range is reached.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.6
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class RangeRowIterator extends CloseableRowIterator {
+
+    private final CloseableRowIterator m_delegate;
+
+    private long m_remaining;
+
+    /**
+     * Creates a new iterator.
+     * @param delegate The underlying iterator.
+     * @param skipCount The number of rows to skip in the underlying iterator.
+     * @param rowCount The maximum number of rows returned by this iterator.
+     */
+    public RangeRowIterator(final CloseableRowIterator delegate, final long skipCount, final long rowCount) {
+        if (skipCount < 0 || rowCount < 0) {
+            throw new IllegalArgumentException("Negative row count: " + skipCount + ", " + rowCount);
+        }
+        m_delegate = delegate;
+        for (long i = 0; i < skipCount && delegate.hasNext(); i++) {
+            delegate.next();
+        }
+        m_remaining = rowCount;
+        if (m_remaining == 0) {
+            close();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+        return m_remaining > 0 && m_delegate.hasNext();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DataRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more rows in range");
+        }
+        DataRow next = m_delegate.next();
+        if (--m_remaining == 0) {
+            m_delegate.close();
+        }
+        return next;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        m_remaining = 0;
+        m_delegate.close();
+    }
+}
@@ -61,6 +61,7 @@
 import java.util.Vector;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.IntStream;
 
 import javax.xml.bind.DatatypeConverter;
 
@@ -87,6 +88,7 @@
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.ProgressCounter;
 import org.knime.core.util.MultiThreadWorker;
 import org.knime.core.util.Pair;
 
@@ -274,13 +276,48 @@ public DataTableSpec getDataTableSpec() {
      */
     @Override
     public CloseableRowIterator iterator() {
+        return iteratorWithColumns(IntStream.range(0, m_map.length).toArray());
+    }
+
+    /**
+     * {@inheritDoc} Only the columns of the reference table that are used in this table (and requested by the
+     * argument) are read from the reference table.
+     * @since 3.6
+     */
+    @Override
+    public CloseableRowIterator iteratorWithColumns(final int... materializeColumnIndices) {
         CloseableRowIterator appendIt;
         if (m_appendTable != null) {
             appendIt = m_appendTable.iterator();
         } else {
             appendIt = EMPTY_ITERATOR;
         }
-        return new JoinTableIterator(m_reference.iterator(), appendIt, m_map, m_isFromRefTable);
+        int[] refColumns = IntStream.of(materializeColumnIndices).filter(i -> m_isFromRefTable[i])
+                .map(i -> m_map[i]).sorted().distinct().toArray();
+        CloseableRowIterator refIt;
+        if (refColumns.length == m_reference.getDataTableSpec().getNumColumns()) {
+            refIt = m_reference.iterator();
+        } else {
+            refIt = m_reference.iteratorWithColumns(refColumns);
+        }
+        return new JoinTableIterator(refIt, appendIt, m_map, m_isFromRefTable);
+    }
+
+    /**
+     * {@inheritDoc} Both, the reference table and the table containing the appended columns, are positioned
+     * individually.
+     * @since 3.6
+     */
+    @Override
+    public CloseableRowIterator iteratorForRange(final long fromIndex, final long toIndex) {
+        CloseableRowIterator appendIt;
+        if (m_appendTable != null) {
+            appendIt = m_appendTable.iteratorForRange(fromIndex, toIndex);
+        } else {
+            appendIt = EMPTY_ITERATOR;
+        }
+        CloseableRowIterator refIt = m_reference.iteratorForRange(fromIndex, toIndex);
+        return new JoinTableIterator(refIt, appendIt, m_map, m_isFromRefTable);
     }
 
     /**
@@ -460,9 +497,17 @@ private static void calcNewColsASynchronously(final BufferedDataTable table, fin
         assert facForProgress != null;
         assert workers > 0 : "Nr workers <= 0: " + workers;
         assert queueSize > 0 : "queue size <= 0: " + queueSize;
+        // count the rows lock-free unless the factory reports its own progress
+        final ProgressCounter progressCounter;
+        if (finalRowCount > 0 && ((AbstractCellFactory)facForProgress).isDefaultProgress()) {
+            progressCounter =
+                subProgress.createProgressCounter(finalRowCount, c -> "Processed row " + c + "/" + finalRowCount);
+        } else {
+            progressCounter = null;
+        }
         ConcurrentNewColCalculator calculator =
             new ConcurrentNewColCalculator(queueSize, workers, container, subProgress, finalRowCount,
-                newColsProducerMapping, facForProgress);
+                newColsProducerMapping, facForProgress, progressCounter);
         try {
             calculator.run(table);
         } catch (InterruptedException e) {
@@ -478,6 +523,10 @@ private static void calcNewColsASynchronously(final BufferedDataTable table, fin
                 throw (RuntimeException)cause;
             }
             throw new RuntimeException(cause);
+        } finally {
+            if (progressCounter != null) {
+                progressCounter.close();
+            }
         }
     }
 
@@ -706,6 +755,9 @@ private static final class ConcurrentNewColCalculator extends MultiThreadWorker<
 
         private final CellFactory m_facForProgress;
 
+        /** Counts the processed rows if the factory uses the default progress message, otherwise null. */
+        private final ProgressCounter m_progressCounter;
+
         /**
          * @param maxQueueSize
          * @param maxActiveInstanceSize
@@ -714,16 +766,19 @@ private static final class ConcurrentNewColCalculator extends MultiThreadWorker<
          * @param reducedList
          * @param newColCount
          * @param container
+         * @param progressCounter
          */
         private ConcurrentNewColCalculator(final int maxQueueSize, final int maxActiveInstanceSize,
             final DataContainer container, final ExecutionMonitor subProgress, final long totalRowCount,
-            final NewColumnsProducerMapping reducedList, final CellFactory facForProgress) {
+            final NewColumnsProducerMapping reducedList, final CellFactory facForProgress,
+            final ProgressCounter progressCounter) {
             super(maxQueueSize, maxActiveInstanceSize);
             m_container = container;
             m_subProgress = subProgress;
             m_totalRowCount = totalRowCount;
             m_reducedList = reducedList;
             m_facForProgress = facForProgress;
+            m_progressCounter = progressCounter;
         }
 
         /** {@inheritDoc} */
@@ -740,9 +795,14 @@ protected void processFinished(final ComputationTask task) throws ExecutionExcep
             RowKey key = task.getInput().getKey();
             DataRow append = task.get(); // exception falls through
             m_container.addRowToTable(append);
-            m_facForProgress.setProgress(r + 1, m_totalRowCount, key, m_subProgress);
             try {
-                m_subProgress.checkCanceled();
+                if (m_progressCounter != null) {
+                    m_progressCounter.increment();
+                    m_progressCounter.checkCanceled();
+                } else {
+                    m_facForProgress.setProgress(r + 1, m_totalRowCount, key, m_subProgress);
+                    m_subProgress.checkCanceled();
+                }
             } catch (CanceledExecutionException cee) {
                 throw new CancellationException();
             }
@@ -0,0 +1,209 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Sparse index of row positions in a table file written by the {@link DefaultTableStoreWriter}. For every
+ * {@link #getInterval() n-th} row it stores where decoding can start: the offset of the (compression) block in the
+ * file and the number of uncompressed bytes in that block preceding the row. It is only available for compression
+ * formats whose stream can be decoded from a block boundary, see
+ * {@link DefaultTableStoreFormat.CompressionFormat#supportsRowOffsetIndex()}.
+ *
+ * <p>The index is saved as separate entry ({@value Buffer#ZIP_ENTRY_ROW_INDEX}) next to the data file. It's optional,
+ * tables without index (e.g. written by previous versions) are read sequentially.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class RowOffsetIndex {
+
+    /** Default distance between two indexed rows. */
+    static final int DEFAULT_INTERVAL = 128;
+
+    private static final int MAGIC = 0x4B524958;
+
+    private static final int VERSION = 1;
+
+    private final int m_interval;
+
+    private long[] m_blockOffsets;
+
+    private int[] m_offsetsInBlock;
+
+    private int m_entryCount;
+
+    private long m_rowCount;
+
+    /**
+     * Creates an empty index to be filled by {@link #addRow(long, int)}.
+     * @param interval Distance between two indexed rows, &gt; 0.
+     */
+    RowOffsetIndex(final int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Interval must be positive: " + interval);
+        }
+        m_interval = interval;
+        m_blockOffsets = new long[16];
+        m_offsetsInBlock = new int[16];
+    }
+
+    /**
+     * Called before each row is written.
+     * @param blockOffset Offset of the block in the file, in which the row starts.
+     * @param offsetInBlock Number of (uncompressed) bytes in that block that precede the row.
+     */
+    void addRow(final long blockOffset, final int offsetInBlock) {
+        if (m_rowCount % m_interval == 0) {
+            if (m_entryCount == m_blockOffsets.length) {
+                int newLength = m_entryCount + (m_entryCount >> 1);
+                m_blockOffsets = Arrays.copyOf(m_blockOffsets, newLength);
+                m_offsetsInBlock = Arrays.copyOf(m_offsetsInBlock, newLength);
+            }
+            m_blockOffsets[m_entryCount] = blockOffset;
+            m_offsetsInBlock[m_entryCount] = offsetInBlock;
+            m_entryCount++;
+        }
+        m_rowCount++;
+    }
+
+    /** @return the number of rows in the indexed table. */
+    long getRowCount() {
+        return m_rowCount;
+    }
+
+    /** @return the distance between two indexed rows. */
+    int getInterval() {
+        return m_interval;
+    }
+
+    /**
+     * @param row A row index in [0, rowCount).
+     * @return The index of the closest indexed row at or before the argument.
+     */
+    long getIndexedRow(final long row) {
+        return (row / m_interval) * m_interval;
+    }
+
+    /**
+     * @param row A row index in [0, rowCount).
+     * @return The file offset of the block containing the row returned by {@link #getIndexedRow(long)}.
+     */
+    long getBlockOffset(final long row) {
+        return m_blockOffsets[entry(row)];
+    }
+
+    /**
+     * @param row A row index in [0, rowCount).
+     * @return The uncompressed offset within the block of the row returned by {@link #getIndexedRow(long)}.
+     */
+    int getOffsetInBlock(final long row) {
+        return m_offsetsInBlock[entry(row)];
+    }
+
+    private int entry(final long row) {
+        if (row < 0 || row >= m_rowCount) {
+            throw new IndexOutOfBoundsException("Row index " + row + " not in [0, " + m_rowCount + ")");
+        }
+        return (int)(row / m_interval);
+    }
+
+    /**
+     * Writes the index to the argument stream (which is not closed).
+     * @param out To write to.
+     * @throws IOException If that fails.
+     */
+    void save(final OutputStream out) throws IOException {
+        DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(VERSION);
+        dataOut.writeInt(m_interval);
+        dataOut.writeLong(m_rowCount);
+        dataOut.writeInt(m_entryCount);
+        for (int i = 0; i < m_entryCount; i++) {
+            dataOut.writeLong(m_blockOffsets[i]);
+            dataOut.writeInt(m_offsetsInBlock[i]);
+        }
+        dataOut.flush();
+    }
+
+    /**
+     * Reads an index written by {@link #save(OutputStream)}. The argument stream is not closed.
+     * @param in To read from.
+     * @return The index.
+     * @throws IOException If the stream is corrupt or of an unknown version.
+     */
+    static RowOffsetIndex load(final InputStream in) throws IOException {
+        DataInputStream dataIn = new DataInputStream(in);
+        if (dataIn.readInt() != MAGIC) {
+            throw new IOException("Invalid row offset index (wrong magic number)");
+        }
+        int version = dataIn.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported row offset index version " + version);
+        }
+        RowOffsetIndex index = new RowOffsetIndex(dataIn.readInt());
+        long rowCount = dataIn.readLong();
+        int entryCount = dataIn.readInt();
+        if (rowCount < 0 || entryCount != (rowCount + index.m_interval - 1) / index.m_interval) {
+            throw new IOException("Inconsistent row offset index (" + entryCount + " entries for "
+                + rowCount + " rows)");
+        }
+        index.m_rowCount = rowCount;
+        index.m_entryCount = entryCount;
+        index.m_blockOffsets = new long[entryCount];
+        index.m_offsetsInBlock = new int[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            index.m_blockOffsets[i] = dataIn.readLong();
+            index.m_offsetsInBlock[i] = dataIn.readInt();
+        }
+        return index;
+    }
+}
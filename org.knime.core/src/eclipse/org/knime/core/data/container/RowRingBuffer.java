@@ -0,0 +1,183 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free queue between exactly one producer thread (adding rows to a {@link DataContainer}) and one
+ * consumer (the write task, which runs on one I/O thread at a time). The producer waits by parking only if the queue
+ * is full, the consumer never waits but takes whatever is available, so rows are handed over without any lock or
+ * per-batch exchange.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class RowRingBuffer {
+
+    private final Object[] m_slots;
+
+    private final int m_mask;
+
+    /** Index of the next slot to read, only written by the consumer. */
+    private final AtomicLong m_head = new AtomicLong();
+
+    /** Index of the next slot to write, only written by the producer. */
+    private final AtomicLong m_tail = new AtomicLong();
+
+    /** The producer if it waits for free slots, otherwise null. */
+    private volatile Thread m_parkedProducer;
+
+    /**
+     * @param minCapacity the minimum number of objects the queue can hold, the actual capacity is the next power of
+     *            two (at least 2)
+     */
+    RowRingBuffer(final int minCapacity) {
+        final int bounded = Math.min(Math.max(minCapacity, 2), 1 << 30);
+        final int capacity = Integer.highestOneBit(bounded - 1) << 1;
+        m_slots = new Object[capacity];
+        m_mask = capacity - 1;
+    }
+
+    /** @return the number of objects the queue can hold */
+    int capacity() {
+        return m_slots.length;
+    }
+
+    /**
+     * Adds an object, waits if the queue is full. Only to be called by the producer.
+     *
+     * @param object the object to add
+     * @param timeout maximum time to wait for a free slot
+     * @param unit the unit of the timeout
+     * @return whether the object was added, false if the queue was still full after waiting (or the producer got
+     *         woken up by {@link #wakeUpProducer()} or interrupted)
+     */
+    boolean offer(final Object object, final long timeout, final TimeUnit unit) {
+        final long tail = m_tail.get();
+        if (!awaitFreeSlots(tail, timeout, unit)) {
+            return false;
+        }
+        m_slots[(int)tail & m_mask] = object;
+        m_tail.set(tail + 1);
+        return true;
+    }
+
+    /**
+     * Adds as many objects of the list (starting at the given index) as there are free slots and makes them visible to
+     * the consumer at once. Waits if the queue is full. Only to be called by the producer.
+     *
+     * @param objects the objects to add
+     * @param from index of the first object to add
+     * @param timeout maximum time to wait for a free slot
+     * @param unit the unit of the timeout
+     * @return the number of objects added, 0 if the queue was still full after waiting
+     */
+    int offerAll(final List<?> objects, final int from, final long timeout, final TimeUnit unit) {
+        final long tail = m_tail.get();
+        if (!awaitFreeSlots(tail, timeout, unit)) {
+            return 0;
+        }
+        final int count = (int)Math.min(objects.size() - from, m_slots.length - (tail - m_head.get()));
+        for (int i = 0; i < count; i++) {
+            m_slots[(int)(tail + i) & m_mask] = objects.get(from + i);
+        }
+        m_tail.set(tail + count);
+        return count;
+    }
+
+    private boolean awaitFreeSlots(final long tail, final long timeout, final TimeUnit unit) {
+        if (tail - m_head.get() < m_slots.length) {
+            return true;
+        }
+        m_parkedProducer = Thread.currentThread();
+        try {
+            // re-check after announcing, the consumer may have taken objects in between
+            if (tail - m_head.get() >= m_slots.length) {
+                LockSupport.parkNanos(this, unit.toNanos(timeout));
+            }
+        } finally {
+            m_parkedProducer = null;
+        }
+        return tail - m_head.get() < m_slots.length;
+    }
+
+    /** @return whether there are no objects to take, only meaningful if called by the consumer */
+    boolean isEmpty() {
+        return m_tail.get() == m_head.get();
+    }
+
+    /**
+     * Moves all available objects to the argument list, does not wait. Only to be called by the consumer.
+     *
+     * @param target the list to add the objects to
+     * @return the number of objects moved, 0 if the queue is empty
+     */
+    int drainTo(final List<Object> target) {
+        final long head = m_head.get();
+        final long tail = m_tail.get();
+        if (tail == head) {
+            return 0;
+        }
+        for (long i = head; i < tail; i++) {
+            final int index = (int)i & m_mask;
+            target.add(m_slots[index]);
+            m_slots[index] = null;
+        }
+        m_head.set(tail);
+        wakeUpProducer();
+        return (int)(tail - head);
+    }
+
+    /** Wakes up the producer if it waits for free slots, e.g. because the consumer failed. */
+    void wakeUpProducer() {
+        final Thread producer = m_parkedProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.collection.CollectionDataValue;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.workflow.NodeContext;
+
+/**
+ * Keeps track of all tables that are held in memory as lists of rows (across all nodes and workflows) and their
+ * estimated size in bytes. If the total size exceeds the budget ({@link KNIMEConstants#PROPERTY_HEAP_TABLE_CACHE_SIZE})
+ * the least recently used tables are written to disc (in the background). Also counts cache hits (iterations on
+ * in-memory tables), misses (iterations reading a table from disc) and evictions.
+ *
+ * <p>This complements the {@link org.knime.core.data.util.memory.MemoryAlertSystem}, which still flushes all
+ * tables when the heap is nearly exhausted.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @noreference This class is not intended to be referenced by clients.
+ * @since 3.6
+ */
+public final class TableCacheManager {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(TableCacheManager.class);
+
+    /** Default budget, half of the maximum heap size. */
+    static final long DEF_MAX_BYTES = Runtime.getRuntime().maxMemory() / 2;
+
+    /** Number of rows whose size is estimated to extrapolate the size of a table. */
+    private static final int SAMPLE_SIZE = 1000;
+
+    /** Estimated bytes of objects not sized in detail (object header plus some fields). */
+    private static final int OBJECT_BYTES = 32;
+
+    /** Estimated bytes of a reference (in an array). */
+    private static final int REFERENCE_BYTES = 8;
+
+    private static final TableCacheManager INSTANCE;
+
+    static {
+        long maxBytes = DEF_MAX_BYTES;
+        String sizeString = System.getProperty(KNIMEConstants.PROPERTY_HEAP_TABLE_CACHE_SIZE);
+        if (sizeString != null) {
+            try {
+                long sizeInMB = Long.parseLong(sizeString.trim());
+                if (sizeInMB < 0) {
+                    throw new NumberFormatException("heap table cache size < 0: " + sizeInMB);
+                }
+                maxBytes = sizeInMB << 20;
+                LOGGER.debug("Setting heap table cache to " + sizeInMB + "MB");
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Unable to parse property " + KNIMEConstants.PROPERTY_HEAP_TABLE_CACHE_SIZE
+                    + ", using default (" + (DEF_MAX_BYTES >> 20) + "MB)", e);
+            }
+        }
+        INSTANCE = new TableCacheManager(maxBytes);
+    }
+
+    /** Cached tables, in access order (least recently used first). Guarded by this. */
+    private final LinkedHashMap<CacheEntry, CacheEntry> m_entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Entries of buffers that were garbage collected without being cleared. */
+    private final ReferenceQueue<Buffer> m_collectedBuffers = new ReferenceQueue<>();
+
+    /** Guarded by this. */
+    private long m_maxBytes;
+
+    /** Sum of the sizes of all entries. Guarded by this. */
+    private long m_cachedBytes;
+
+    private final AtomicLong m_hitCount = new AtomicLong();
+
+    private final AtomicLong m_missCount = new AtomicLong();
+
+    private final AtomicLong m_evictionCount = new AtomicLong();
+
+    /**
+     * Writes evicted tables, one at a time. Separate from the {@link TableIOScheduler} so that evictions don't wait
+     * behind (or delay) the write tasks of the containers; the queue holds at most one task per cached table.
+     */
+    private final ThreadPoolExecutor m_evictionExecutor;
+
+    private TableCacheManager(final long maxBytes) {
+        m_maxBytes = maxBytes;
+        m_evictionExecutor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+            r -> {
+                Thread t = new Thread(r, "KNIME-TableCache-Eviction");
+                t.setDaemon(true);
+                return t;
+            });
+        m_evictionExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the singleton instance.
+     *
+     * @return the singleton instance
+     */
+    public static TableCacheManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds a buffer whose rows are (all) kept in memory. If this exceeds the budget, the least recently used buffers
+     * (possibly including the argument) are scheduled for eviction.
+     *
+     * @param buffer The buffer, not yet added.
+     * @param rows The rows of the buffer, used to estimate its size.
+     * @return The entry to pass to {@link #recordHit(CacheEntry)} and {@link #remove(CacheEntry)}.
+     */
+    CacheEntry add(final Buffer buffer, final List<? extends DataRow> rows) {
+        CacheEntry entry = new CacheEntry(buffer, estimateBytes(rows), NodeContext.getContext(), m_collectedBuffers);
+        List<CacheEntry> evicted;
+        synchronized (this) {
+            expungeCollectedBuffers();
+            m_entries.put(entry, entry);
+            m_cachedBytes += entry.m_bytes;
+            evicted = removeEldestEntries();
+        }
+        evict(evicted);
+        return entry;
+    }
+
+    /**
+     * Marks the entry as most recently used and counts a hit.
+     *
+     * @param entry The entry of the iterated buffer, may be <code>null</code> (no-op).
+     */
+    void recordHit(final CacheEntry entry) {
+        if (entry != null) {
+            synchronized (this) {
+                // moves the entry to the end of the access order
+                m_entries.get(entry);
+            }
+            m_hitCount.incrementAndGet();
+        }
+    }
+
+    /** Counts a miss, i.e. a table that is read from disc. */
+    void recordMiss() {
+        m_missCount.incrementAndGet();
+    }
+
+    /**
+     * Removes an entry, e.g. because the buffer was cleared or written to disc for other reasons. No-op if the
+     * entry was removed before.
+     *
+     * @param entry The entry to remove.
+     */
+    synchronized void remove(final CacheEntry entry) {
+        if (m_entries.remove(entry) != null) {
+            m_cachedBytes -= entry.m_bytes;
+        }
+        entry.clear();
+    }
+
+    /**
+     * Changes the budget and evicts tables if needed. Used in test cases.
+     *
+     * @param maxBytes The new budget in bytes.
+     */
+    void setMaxBytes(final long maxBytes) {
+        List<CacheEntry> evicted;
+        synchronized (this) {
+            m_maxBytes = maxBytes;
+            evicted = removeEldestEntries();
+        }
+        evict(evicted);
+    }
+
+    /** @return the budget in bytes. */
+    public synchronized long getMaxBytes() {
+        return m_maxBytes;
+    }
+
+    /** @return the estimated size of all tables currently in the cache, in bytes. */
+    public synchronized long getCachedBytes() {
+        expungeCollectedBuffers();
+        return m_cachedBytes;
+    }
+
+    /** @return the number of tables currently in the cache. */
+    public synchronized int getCachedTableCount() {
+        expungeCollectedBuffers();
+        return m_entries.size();
+    }
+
+    /** @return the number of iterations on tables held in the cache. */
+    public long getHitCount() {
+        return m_hitCount.get();
+    }
+
+    /** @return the number of iterations on tables that are read from disc. */
+    public long getMissCount() {
+        return m_missCount.get();
+    }
+
+    /** @return the number of tables that were written to disc because the budget was exceeded. */
+    public long getEvictionCount() {
+        return m_evictionCount.get();
+    }
+
+    /** @return the number of evicted tables waiting to be written to disc. */
+    public int getPendingEvictionCount() {
+        return m_evictionExecutor.getQueue().size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("Table cache: %d tables, %dMB of %dMB; %d hits, %d misses, %d evictions (%d pending)",
+            getCachedTableCount(), getCachedBytes() >> 20, getMaxBytes() >> 20, getHitCount(), getMissCount(),
+            getEvictionCount(), getPendingEvictionCount());
+    }
+
+    /** Removes the entries of garbage collected buffers. */
+    private void expungeCollectedBuffers() {
+        assert Thread.holdsLock(this);
+        Reference<? extends Buffer> ref;
+        while ((ref = m_collectedBuffers.poll()) != null) {
+            CacheEntry entry = (CacheEntry)ref;
+            if (m_entries.remove(entry) != null) {
+                m_cachedBytes -= entry.m_bytes;
+            }
+        }
+    }
+
+    /** Removes least recently used entries until the cache fits into the budget. */
+    private List<CacheEntry> removeEldestEntries() {
+        assert Thread.holdsLock(this);
+        List<CacheEntry> evicted = new ArrayList<>();
+        for (Iterator<CacheEntry> it = m_entries.keySet().iterator(); m_cachedBytes > m_maxBytes && it.hasNext();) {
+            CacheEntry entry = it.next();
+            it.remove();
+            m_cachedBytes -= entry.m_bytes;
+            evicted.add(entry);
+        }
+        return evicted;
+    }
+
+    /**
+     * Writes the buffers of the argument entries to disc, using the eviction thread. Must not be called while
+     * holding any buffer's lock other than the (possibly) evicted one.
+     */
+    private void evict(final List<CacheEntry> evicted) {
+        for (CacheEntry entry : evicted) {
+            final Buffer buffer = entry.get();
+            if (buffer == null) {
+                continue;
+            }
+            m_evictionCount.incrementAndGet();
+            LOGGER.debugWithFormat("Evicting table of %,d bytes (estimated) from memory; %s", entry.m_bytes, this);
+            final NodeContext context = entry.m_context;
+            NodeContext.pushContext(context);
+            try {
+                m_evictionExecutor.execute(() -> {
+                    NodeContext.pushContext(context);
+                    try {
+                        buffer.onTableCacheEviction(entry);
+                    } finally {
+                        NodeContext.removeLastContext();
+                    }
+                });
+            } finally {
+                NodeContext.removeLastContext();
+            }
+        }
+    }
+
+    /**
+     * Estimates the heap size of the argument rows, extrapolated from at most {@value #SAMPLE_SIZE} rows.
+     *
+     * @param rows The rows.
+     * @return The estimated size in bytes.
+     */
+    static long estimateBytes(final List<? extends DataRow> rows) {
+        final int size = rows.size();
+        if (size == 0) {
+            return 0L;
+        }
+        final int step = Math.max(1, size / SAMPLE_SIZE);
+        long sampleBytes = 0L;
+        int sampleCount = 0;
+        for (int i = 0; i < size; i += step) {
+            sampleBytes += estimateBytes(rows.get(i));
+            sampleCount += 1;
+        }
+        // list array plus the rows
+        return (long)size * REFERENCE_BYTES + (long)(sampleBytes / (double)sampleCount * size);
+    }
+
+    private static long estimateBytes(final DataRow row) {
+        final int cellCount = row.getNumCells();
+        // row, key (with string) and cell array
+        long bytes = 3 * OBJECT_BYTES + 2L * row.getKey().getString().length() + (long)cellCount * REFERENCE_BYTES;
+        for (int i = 0; i < cellCount; i++) {
+            bytes += estimateBytes(row instanceof BlobSupportDataRow
+                ? ((BlobSupportDataRow)row).getRawCell(i) : row.getCell(i));
+        }
+        return bytes;
+    }
+
+    private static long estimateBytes(final DataCell cell) {
+        if (cell instanceof IntCell || cell instanceof BooleanCell) {
+            return 16;
+        } else if (cell instanceof DoubleCell || cell instanceof LongCell) {
+            return 24;
+        } else if (cell instanceof StringCell) {
+            // cell, string and its array
+            return 2 * OBJECT_BYTES + 2L * ((StringCell)cell).getStringValue().length();
+        } else if (cell instanceof BlobWrapperDataCell) {
+            // the blob itself is written to disc and only cached softly
+            return OBJECT_BYTES;
+        } else if (cell instanceof CollectionDataValue) {
+            return OBJECT_BYTES + ((CollectionDataValue)cell).size() * (long)(OBJECT_BYTES + REFERENCE_BYTES);
+        } else {
+            return OBJECT_BYTES;
+        }
+    }
+
+    /** A cached buffer with its estimated size; identity equality. */
+    static final class CacheEntry extends WeakReference<Buffer> {
+
+        private final long m_bytes;
+
+        private final NodeContext m_context;
+
+        private CacheEntry(final Buffer buffer, final long bytes, final NodeContext context,
+            final ReferenceQueue<Buffer> queue) {
+            super(buffer, queue);
+            m_bytes = bytes;
+            m_context = context;
+        }
+
+        /** @return the estimated size of the buffer in bytes. */
+        long getBytes() {
+            return m_bytes;
+        }
+    }
+}
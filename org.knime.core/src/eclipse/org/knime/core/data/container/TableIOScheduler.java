@@ -0,0 +1,186 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Runs the asynchronous table write tasks with a bounded number of threads per disk (file store of the temp directory
+ * the tables are written to). Tasks beyond that limit wait in a queue, which needs no bound: each container has at
+ * most one write task queued or running, so the queue holds at most one task per open container. As each container
+ * only buffers a limited number of rows, a busy disk slows down the threads adding rows rather than creating more
+ * threads competing for the same disk; the rows are always written by the write threads.
+ *
+ * <p>The number of waiting and running tasks is available via {@link #getQueueDepth()} and
+ * {@link #getActiveCount()}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @noreference This class is not intended to be referenced by clients.
+ * @since 3.6
+ */
+public final class TableIOScheduler {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(TableIOScheduler.class);
+
+    private final int m_threadsPerDisk;
+
+    /** One executor per file store (or per directory if the file store can't be determined). */
+    private final ConcurrentMap<Object, ThreadPoolExecutor> m_diskExecutors =
+        new ConcurrentHashMap<Object, ThreadPoolExecutor>();
+
+    /** Caches the file store of each temp directory, determining it requires a file system call. */
+    private final ConcurrentMap<File, ThreadPoolExecutor> m_directoryExecutors =
+        new ConcurrentHashMap<File, ThreadPoolExecutor>();
+
+    private final AtomicInteger m_diskCount = new AtomicInteger();
+
+    /**
+     * @param threadsPerDisk maximum number of concurrent write threads per disk, must be &gt; 0
+     */
+    TableIOScheduler(final int threadsPerDisk) {
+        if (threadsPerDisk <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threadsPerDisk);
+        }
+        m_threadsPerDisk = threadsPerDisk;
+    }
+
+    /**
+     * Returns the scheduler used by all {@link DataContainer}s.
+     *
+     * @return the singleton instance
+     */
+    public static TableIOScheduler getInstance() {
+        return DataContainer.IO_SCHEDULER;
+    }
+
+    /**
+     * Get the executor for tasks writing to the given directory, it is shared by all directories on the same disk.
+     *
+     * @param directory the (temp) directory the task writes to
+     * @return the executor, not null
+     */
+    Executor getExecutor(final File directory) {
+        return m_directoryExecutors.computeIfAbsent(directory, d -> m_diskExecutors.computeIfAbsent(getDiskKey(d),
+            k -> createExecutor(k, m_diskCount.incrementAndGet())));
+    }
+
+    private static Object getDiskKey(final File directory) {
+        try {
+            return Files.getFileStore(directory.toPath());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Unable to determine file store of \"" + directory.getAbsolutePath()
+                + "\", using separate write threads for it: " + e.getMessage(), e);
+            return directory.getAbsoluteFile();
+        }
+    }
+
+    private ThreadPoolExecutor createExecutor(final Object diskKey, final int diskIndex) {
+        LOGGER.debug("Using up to " + m_threadsPerDisk + " table write thread(s) for \"" + diskKey + "\"");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(m_threadsPerDisk, m_threadsPerDisk, 60L,
+            TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new IOThreadFactory(diskIndex));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /** @return the number of write tasks waiting for a thread, summed over all disks */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (ThreadPoolExecutor executor : m_diskExecutors.values()) {
+            depth += executor.getQueue().size();
+        }
+        return depth;
+    }
+
+    /** @return the number of threads currently writing, summed over all disks */
+    public int getActiveCount() {
+        int count = 0;
+        for (ThreadPoolExecutor executor : m_diskExecutors.values()) {
+            count += executor.getActiveCount();
+        }
+        return count;
+    }
+
+    /** @return the maximum number of concurrent write threads per disk */
+    public int getThreadsPerDisk() {
+        return m_threadsPerDisk;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("Table I/O: %d disk(s), %d thread(s) per disk; %d active, %d queued",
+            m_diskExecutors.size(), getThreadsPerDisk(), getActiveCount(), getQueueDepth());
+    }
+
+    /** Names the threads "KNIME-TableIO-&lt;disk&gt;-&lt;thread&gt;". */
+    private static final class IOThreadFactory implements ThreadFactory {
+
+        private final int m_diskIndex;
+
+        private final AtomicInteger m_threadCount = new AtomicInteger();
+
+        IOThreadFactory(final int diskIndex) {
+            m_diskIndex = diskIndex;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Thread newThread(final Runnable r) {
+            return new Thread(r, "KNIME-TableIO-" + m_diskIndex + "-" + m_threadCount.incrementAndGet());
+        }
+    }
+}
@@ -124,6 +124,15 @@ public CloseableRowIterator iterator() {
         return m_table.iterator();
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 3.6
+     */
+    @Override
+    public CloseableRowIterator iteratorForRange(final long fromIndex, final long toIndex) {
+        return m_table.iteratorForRange(fromIndex, toIndex);
+    }
+
     /** {@inheritDoc} */
     @Override
     public DataTableSpec getDataTableSpec() {
@@ -78,6 +78,19 @@ public final void setFileStoreHandlerRepository(final FileStoreHandlerRepository
 
     public abstract TableStoreCloseableRowIterator iterator() throws IOException;
 
+    /**
+     * Creates an iterator that only needs to materialize the cells of the argument columns. Cells of all other columns
+     * may be returned as missing cells. Formats that store data column-wise override this method to skip reading
+     * columns that are not needed; the default implementation returns a full {@link #iterator()}.
+     *
+     * @param materializeColumnIndices the (sorted) indices of the columns whose cells need to be read, not null
+     * @return a new iterator
+     * @throws IOException Any type of I/O problem.
+     */
+    public TableStoreCloseableRowIterator iterator(final int[] materializeColumnIndices) throws IOException {
+        return iterator();
+    }
+
     public static abstract class TableStoreCloseableRowIterator extends CloseableRowIterator {
 
         private Buffer m_buffer;
@@ -51,9 +51,11 @@
 import java.text.NumberFormat;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -62,6 +64,8 @@
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataColumnSpec;
@@ -78,7 +82,9 @@
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
+import org.knime.core.util.ThreadPool;
 
 /**
  * Class to sort a table. See <a href="package.html">package description</a> for details.
@@ -98,6 +104,12 @@ abstract class AbstractTableSorter {
      */
     public static final int DEF_MAX_OPENCONTAINER = 40;
 
+    /** Minimum number of rows in a slice that is sorted by a separate thread in parallel mode. */
+    private static final int MIN_ROWS_PER_SLICE = 10000;
+
+    /** Number of rows read ahead from each temporary table during a merge in parallel mode. */
+    private static final int READ_AHEAD_ROWS = 1024;
+
     private MemoryAlertSystem m_memService = MemoryAlertSystem.getInstance();
 
     private final DataTable m_inputTable;
@@ -118,6 +130,16 @@ abstract class AbstractTableSorter {
 
     private boolean m_sortInMemory = false;
 
+    /** See {@link #setParallel(boolean)}. */
+    private boolean m_parallel = false;
+
+    /** Pool to run concurrent sort, write and read tasks, only non-null during a sort in parallel mode. */
+    private ThreadPool m_threadPool;
+
+    /** Guards creation, closing and clearing of containers as they register in the (non thread-safe) table
+     * repositories of the node. */
+    private final Object m_containerLock = new Object();
+
     /** The RowComparator to compare two DataRows (inner class). */
     private Comparator<DataRow> m_rowComparator;
 
@@ -405,6 +427,31 @@ public void setSortInMemory(final boolean sortInMemory) {
         m_sortInMemory = sortInMemory;
     }
 
+    /**
+     * @return the parallel field, see {@link #setParallel(boolean)} for details.
+     * @since 3.6
+     */
+    public boolean isParallel() {
+        return m_parallel;
+    }
+
+    /**
+     * Enables the parallel mode for sorting on disk. If set, chunks of the input table are sorted concurrently
+     * on the {@link KNIMEConstants#GLOBAL_THREAD_POOL global thread pool} and written to disk asynchronously while
+     * the input is still being read. Temporary tables are merged using a loser tree with read-ahead buffers and
+     * intermediate merges (if there are more temporary tables than {@link #getMaxOpenContainers() open containers})
+     * run concurrently. The sort result is identical to the one in sequential mode.
+     *
+     * <p>
+     * The default value for this option is <b>false</b>.
+     *
+     * @param parallel <code>true</code> to use multiple threads.
+     * @since 3.6
+     */
+    public void setParallel(final boolean parallel) {
+        m_parallel = parallel;
+    }
+
     /**
      * Sorts the table passed in the constructor according to the settings and returns the sorted output table.
      *
@@ -451,7 +498,7 @@ private DataTable sortInMemory(final ExecutionMonitor exec) throws CanceledExecu
         }
 
         exec.setMessage("Sorting");
-        Collections.sort(rowList, m_rowComparator);
+        sortRows(rowList);
 
         exec.setMessage("Creating sorted table");
 
@@ -472,6 +519,33 @@ private DataTable sortInMemory(final ExecutionMonitor exec) throws CanceledExecu
         return dc.getTable();
     }
 
+    /**
+     * Sorts the argument rows (stable). If sorted according to {@link #setSortColumns(Collection, boolean[], boolean)
+     * columns} that can be {@link SortKeyEncoder#isEncodable(DataTableSpec, int[]) encoded}, the rows are compared by
+     * their binary sort keys, otherwise by the row comparator.
+     *
+     * @param rows The rows to sort in place.
+     */
+    private void sortRows(final DataRow[] rows) {
+        // new encoder for each call as encoders are not thread-safe
+        SortKeyEncoder encoder = m_rowComparator instanceof RowComparator
+            ? ((RowComparator)m_rowComparator).createSortKeyEncoder() : null;
+        if (encoder != null) {
+            encoder.sort(rows);
+        } else {
+            Arrays.sort(rows, m_rowComparator);
+        }
+    }
+
+    /** List version of {@link #sortRows(DataRow[])}. */
+    private void sortRows(final List<DataRow> rows) {
+        DataRow[] array = rows.toArray(new DataRow[rows.size()]);
+        sortRows(array);
+        for (int i = 0; i < array.length; i++) {
+            rows.set(i, array[i]);
+        }
+    }
+
     /**
      * Creates data container, either a buffered data container or a plain one.
      *
@@ -501,27 +575,41 @@ private DataTable sortOnDisk(final ExecutionMonitor exec) throws CanceledExecuti
 
         m_progress = 0.0;
         m_incProgress = m_rowsInInputTable <= 0 ? -1.0 : 1.0 / (2.0 * m_rowsInInputTable);
-        long counter = createInitialChunks(exec, dataTable);
-        // no or one row only in input table, can exit immediately
-        // (can't rely on global rowCount - might not be set)
-        if (counter <= 1) {
-            return m_inputTable;
+        if (m_parallel) {
+            m_threadPool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(getParallelism());
         }
+        try {
+            long counter = m_threadPool != null
+                ? createInitialChunksConcurrently(exec, dataTable) : createInitialChunks(exec, dataTable);
+            // no or one row only in input table, can exit immediately
+            // (can't rely on global rowCount - might not be set)
+            if (counter <= 1) {
+                return m_inputTable;
+            }
 
-        exec.setMessage("Merging temporary tables");
-        // The final output container
-        // merge chunks until there are only so much left, as m_maxopencontainers
-        Iterator<DataRow> result = mergeChunks(exec, false);
-
-        // add results to the final container
-        // The final output container, leave it to the
-        // system to do the caching (bug 1809)
-        DataContainer resultContainer = createDataContainer(dataTable.getDataTableSpec(), false);
-        while (result.hasNext()) {
-            resultContainer.addRowToTable(result.next());
+            exec.setMessage("Merging temporary tables");
+            // The final output container
+            // merge chunks until there are only so much left, as m_maxopencontainers
+            Iterator<DataRow> result = mergeChunks(exec, false);
+
+            // add results to the final container
+            // The final output container, leave it to the
+            // system to do the caching (bug 1809)
+            DataContainer resultContainer = createDataContainer(dataTable.getDataTableSpec(), false);
+            while (result.hasNext()) {
+                resultContainer.addRowToTable(result.next());
+            }
+            resultContainer.close();
+            return resultContainer.getTable();
+        } finally {
+            m_threadPool = null;
         }
-        resultContainer.close();
-        return resultContainer.getTable();
+    }
+
+    /** @return number of threads used in parallel mode. */
+    private static int getParallelism() {
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+            KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads()));
     }
 
     /**
@@ -535,6 +623,10 @@ Iterator<DataRow> mergeChunks(final ExecutionMonitor exec, final boolean mergeCo
         throws CanceledExecutionException {
         while (!m_chunksContainer.isEmpty()) {
             exec.setMessage("Merging temporary tables, " + m_chunksContainer.size() + " remaining");
+            if (m_threadPool != null && m_chunksContainer.size() > m_maxOpenContainers) {
+                mergeChunksConcurrently(exec);
+                continue;
+            }
             if (m_chunksContainer.size() < m_maxOpenContainers) {
                 if (m_rowsInInputTable > 0) {
                     m_incProgress = (1.0 - m_progress) / m_rowsInInputTable;
@@ -547,15 +639,14 @@ Iterator<DataRow> mergeChunks(final ExecutionMonitor exec, final boolean mergeCo
                 }
             }
 
-            Queue<MergeEntry> containersToMerge = new ArrayDeque<>();
-
+            List<Iterable<DataRow>> chunksToMerge = new ArrayList<>();
             for (int i = 0; !m_chunksContainer.isEmpty() && i < m_maxOpenContainers; i++) {
-                containersToMerge.add(new MergeEntry(m_chunksContainer.poll(), i, m_rowComparator));
+                chunksToMerge.add(m_chunksContainer.poll());
             }
 
-            MergingIterator mergingIterator = new MergingIterator(containersToMerge);
+            Iterator<DataRow> mergingIterator = createMergingIterator(chunksToMerge);
 
-            if (m_chunksContainer.isEmpty() && (!mergeCompletely || containersToMerge.size() == 1)) {
+            if (m_chunksContainer.isEmpty() && (!mergeCompletely || chunksToMerge.size() == 1)) {
                 return mergingIterator;
             } else {
                 if (m_rowsInInputTable > 0) {
@@ -578,6 +669,220 @@ Iterator<DataRow> mergeChunks(final ExecutionMonitor exec, final boolean mergeCo
         return Collections.<DataRow>emptyList().iterator();
     }
 
+    /**
+     * Creates an iterator that merges the argument (sorted) chunks. Ties are resolved by the position of the chunk
+     * in the argument list. Temporary tables are cleared once all their rows are returned.
+     *
+     * @param chunks The chunks to merge, tables or in-memory lists.
+     * @return A new iterator over all rows in the chunks.
+     */
+    private Iterator<DataRow> createMergingIterator(final List<Iterable<DataRow>> chunks) {
+        if (m_threadPool == null) {
+            Queue<MergeEntry> containersToMerge = new ArrayDeque<>();
+            for (int i = 0; i < chunks.size(); i++) {
+                containersToMerge.add(new MergeEntry(chunks.get(i), i, m_rowComparator));
+            }
+            return new MergingIterator(containersToMerge);
+        }
+        List<Iterator<DataRow>> sources = new ArrayList<>(chunks.size());
+        for (Iterable<DataRow> chunk : chunks) {
+            // in-memory chunks don't need to be read ahead
+            sources.add(chunk instanceof DataTable ? new ReadAheadIterator((DataTable)chunk) : chunk.iterator());
+        }
+        return new LoserTreeIterator(sources, m_rowComparator);
+    }
+
+    /**
+     * Parallel mode only: merges all chunks in groups of {@link #m_maxOpenContainers}, each group in a separate
+     * thread. The merged tables are put back into the chunk queue in the order of the groups.
+     */
+    private void mergeChunksConcurrently(final ExecutionMonitor exec) throws CanceledExecutionException {
+        Deque<Future<DataTable>> mergeFutures = new ArrayDeque<>();
+        try {
+            while (!m_chunksContainer.isEmpty()) {
+                final List<Iterable<DataRow>> chunksToMerge = new ArrayList<>();
+                for (int i = 0; !m_chunksContainer.isEmpty() && i < m_maxOpenContainers; i++) {
+                    chunksToMerge.add(m_chunksContainer.poll());
+                }
+                mergeFutures.add(m_threadPool.enqueue(() -> writeChunk(createMergingIterator(chunksToMerge), exec)));
+            }
+            while (!mergeFutures.isEmpty()) {
+                m_chunksContainer.add(waitFor(mergeFutures.peek()));
+                mergeFutures.poll();
+                if (m_rowsInInputTable > 0) {
+                    m_progress += m_incProgress;
+                    exec.setProgress(m_progress);
+                }
+            }
+        } finally {
+            for (Future<DataTable> f : mergeFutures) {
+                f.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Parallel mode counterpart of {@link #createInitialChunks(ExecutionMonitor, DataTable)}. Chunks are sorted by
+     * multiple threads and written asynchronously while the next chunk is read. The number of chunks being written
+     * is bounded by the {@link #getParallelism() parallelism} and, if memory is low, the reader waits for all pending
+     * chunks to be written (which releases their memory) before handing over the next chunk.
+     */
+    private long createInitialChunksConcurrently(final ExecutionMonitor exec, final DataTable dataTable)
+        throws CanceledExecutionException {
+        long counter = 0;
+        ArrayList<DataRow> buffer = new ArrayList<DataRow>();
+        long chunkStartRow = 0;
+        int rowsInCurrentChunk = 0;
+        // futures of chunks being written, in order of the input
+        Deque<Future<DataTable>> pendingChunks = new ArrayDeque<>();
+
+        MemoryActionIndicator memObservable = m_memService.newIndicator();
+
+        exec.setMessage("Reading table");
+        try {
+            for (Iterator<DataRow> iter = dataTable.iterator(); iter.hasNext();) {
+                counter++;
+                rowsInCurrentChunk++;
+                exec.checkCanceled();
+                String message = "Reading table, " + counter + " rows read";
+                if (m_rowsInInputTable > 0) {
+                    m_progress += m_incProgress;
+                    exec.setProgress(m_progress, message);
+                } else {
+                    exec.setMessage(message);
+                }
+                buffer.add(iter.next());
+                final boolean isLowMemory =
+                    memObservable.lowMemoryActionRequired() && (rowsInCurrentChunk >= m_maxOpenContainers);
+                if (isLowMemory || (counter % m_maxRowsPerChunk == 0)) {
+                    LOGGER.debug("Writing chunk [" + chunkStartRow + ":" + counter + "] asynchronously - mem usage: "
+                        + getMemUsage());
+                    while (!pendingChunks.isEmpty() && (isLowMemory || pendingChunks.size() >= getParallelism())) {
+                        m_chunksContainer.add(waitFor(pendingChunks.peek()));
+                        pendingChunks.poll();
+                    }
+                    final List<DataRow> chunk = buffer;
+                    pendingChunks.add(m_threadPool.enqueue(() -> writeChunk(sortConcurrently(chunk), exec)));
+                    buffer = new ArrayList<DataRow>();
+                    chunkStartRow = counter + 1;
+                    rowsInCurrentChunk = 0;
+                }
+            }
+            exec.setMessage("Writing temporary tables");
+            while (!pendingChunks.isEmpty()) {
+                m_chunksContainer.add(waitFor(pendingChunks.peek()));
+                pendingChunks.poll();
+            }
+        } finally {
+            for (Future<DataTable> f : pendingChunks) {
+                f.cancel(true);
+            }
+        }
+        // Add buffer to the chunks
+        if (!buffer.isEmpty()) {
+            exec.setMessage("Sorting in-memory buffer");
+            ArrayList<DataRow> sortedBuffer = new ArrayList<DataRow>(buffer.size());
+            sortConcurrently(buffer).forEachRemaining(sortedBuffer::add);
+            m_chunksContainer.add(sortedBuffer);
+        }
+        return counter;
+    }
+
+    /**
+     * Parallel mode only: sorts the argument rows by splitting them into slices, which are sorted concurrently. The
+     * argument list is cleared.
+     *
+     * @param rows The rows to sort.
+     * @return An iterator merging the sorted slices (stable with regard to the input order).
+     * @throws CanceledExecutionException If interrupted.
+     */
+    private Iterator<DataRow> sortConcurrently(final List<DataRow> rows) throws CanceledExecutionException {
+        final int size = rows.size();
+        final int sliceCount = Math.max(1, Math.min(getParallelism(), size / MIN_ROWS_PER_SLICE));
+        final DataRow[][] slices = new DataRow[sliceCount][];
+        for (int s = 0; s < sliceCount; s++) {
+            slices[s] = rows.subList((int)((long)size * s / sliceCount), (int)((long)size * (s + 1) / sliceCount))
+                .toArray(new DataRow[0]);
+        }
+        rows.clear();
+        List<Future<?>> sliceFutures = new ArrayList<>(sliceCount - 1);
+        try {
+            // all but the last slice are sorted by other threads
+            for (int s = 0; s < sliceCount - 1; s++) {
+                final DataRow[] slice = slices[s];
+                sliceFutures.add(m_threadPool.enqueue(() -> sortRows(slice)));
+            }
+            sortRows(slices[sliceCount - 1]);
+            for (Future<?> f : sliceFutures) {
+                waitFor(f);
+            }
+        } finally {
+            for (Future<?> f : sliceFutures) {
+                f.cancel(true);
+            }
+        }
+        List<Iterator<DataRow>> sortedSlices = new ArrayList<>(sliceCount);
+        for (DataRow[] slice : slices) {
+            sortedSlices.add(Arrays.asList(slice).iterator());
+        }
+        return new LoserTreeIterator(sortedSlices, m_rowComparator);
+    }
+
+    /**
+     * Parallel mode only: writes the argument rows into a new temporary table. Called by the worker threads.
+     *
+     * @param rows The (sorted) rows to write, not empty.
+     * @param exec To check for cancelation.
+     * @return The closed table.
+     * @throws CanceledExecutionException If canceled.
+     */
+    private DataTable writeChunk(final Iterator<DataRow> rows, final ExecutionMonitor exec)
+        throws CanceledExecutionException {
+        DataContainer container;
+        synchronized (m_containerLock) {
+            container = createDataContainer(m_dataTableSpec, true);
+        }
+        container.setMaxPossibleValues(0);
+        boolean success = false;
+        try {
+            while (rows.hasNext()) {
+                container.addRowToTable(rows.next());
+                exec.checkCanceled();
+            }
+            success = true;
+        } finally {
+            synchronized (m_containerLock) {
+                container.close();
+                if (!success) {
+                    clearTable(container.getTable());
+                }
+            }
+        }
+        return container.getTable();
+    }
+
+    /**
+     * Waits for a task submitted in parallel mode and unwraps its exception, if any.
+     */
+    private static <T> T waitFor(final Future<T> future) throws CanceledExecutionException {
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new CanceledExecutionException("Interrupted while waiting for sort task");
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof CanceledExecutionException) {
+                throw (CanceledExecutionException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+
     private long createInitialChunks(final ExecutionMonitor exec, final DataTable dataTable)
         throws CanceledExecutionException {
         long outerCounter;
@@ -611,7 +916,7 @@ private long createInitialChunks(final ExecutionMonitor exec, final DataTable da
                 }
                 exec.setMessage("Sorting temporary buffer");
                 // sort buffer
-                Collections.sort(buffer, m_rowComparator);
+                sortRows(buffer);
                 // write buffer to disk
                 openChunk();
                 final int totalBufferSize = buffer.size();
@@ -638,7 +943,7 @@ private long createInitialChunks(final ExecutionMonitor exec, final DataTable da
         // Add buffer to the chunks
         if (!buffer.isEmpty()) {
             // sort buffer
-            Collections.sort(buffer, m_rowComparator);
+            sortRows(buffer);
             m_chunksContainer.add(buffer);
         }
         outerCounter = counter;
@@ -866,6 +1171,180 @@ public void remove() {
         }
     }
 
+    /**
+     * Merges a list of sorted iterators using a tournament (loser) tree, which takes only log(k) comparisons per
+     * row for k inputs. Ties are resolved by the position of the input in the list, so that the merge is stable.
+     */
+    static final class LoserTreeIterator implements Iterator<DataRow> {
+
+        private final List<Iterator<DataRow>> m_sources;
+
+        private final Comparator<DataRow> m_comparator;
+
+        /** Current head of each source, null if the source is exhausted. */
+        private final DataRow[] m_heads;
+
+        /** Index of the overall winner at position 0, the losers of the matches at the inner nodes 1..k-1. */
+        private final int[] m_tree;
+
+        /**
+         * @param sources Sorted iterators.
+         * @param comparator The comparator according to which the sources are sorted.
+         */
+        LoserTreeIterator(final List<Iterator<DataRow>> sources, final Comparator<DataRow> comparator) {
+            final int k = sources.size();
+            m_sources = sources;
+            m_comparator = comparator;
+            m_heads = new DataRow[k];
+            m_tree = new int[Math.max(k, 1)];
+            // -1 marks an inner node that hasn't seen a player yet
+            Arrays.fill(m_tree, -1);
+            for (int i = k - 1; i >= 0; i--) {
+                Iterator<DataRow> source = sources.get(i);
+                m_heads[i] = source.hasNext() ? source.next() : null;
+                int winner = i;
+                int node = (i + k) >> 1;
+                while (node > 0 && m_tree[node] != -1) {
+                    if (beats(m_tree[node], winner)) {
+                        int loser = winner;
+                        winner = m_tree[node];
+                        m_tree[node] = loser;
+                    }
+                    node >>= 1;
+                }
+                if (node > 0) {
+                    // wait for the winner of the sibling sub-tree
+                    m_tree[node] = winner;
+                } else {
+                    m_tree[0] = winner;
+                }
+            }
+        }
+
+        /** Whether source a wins against source b (its head is smaller, exhausted sources always lose). */
+        private boolean beats(final int a, final int b) {
+            final DataRow rowA = m_heads[a];
+            final DataRow rowB = m_heads[b];
+            if (rowA == null || rowB == null) {
+                return rowB == null && (rowA != null || a < b);
+            }
+            final int c = m_comparator.compare(rowA, rowB);
+            return c < 0 || (c == 0 && a < b);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean hasNext() {
+            return m_tree[0] >= 0 && m_heads[m_tree[0]] != null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public DataRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final int k = m_heads.length;
+            int winner = m_tree[0];
+            final DataRow result = m_heads[winner];
+            Iterator<DataRow> source = m_sources.get(winner);
+            m_heads[winner] = source.hasNext() ? source.next() : null;
+            for (int node = (winner + k) >> 1; node > 0; node >>= 1) {
+                if (beats(m_tree[node], winner)) {
+                    int loser = winner;
+                    winner = m_tree[node];
+                    m_tree[node] = loser;
+                }
+            }
+            m_tree[0] = winner;
+            return result;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Parallel mode only: iterates a temporary table while the next block of rows is read by a separate thread. The
+     * table's iterator is only accessed by one thread at a time (the next read is scheduled after the previous one has
+     * completed). The table is cleared once all rows are returned.
+     */
+    private final class ReadAheadIterator implements Iterator<DataRow> {
+
+        private final DataTable m_table;
+
+        private Iterator<DataRow> m_source;
+
+        private Future<DataRow[]> m_nextBlock;
+
+        private DataRow[] m_block = new DataRow[0];
+
+        private int m_index;
+
+        ReadAheadIterator(final DataTable table) {
+            m_table = table;
+            m_nextBlock = m_threadPool.enqueue(this::readBlock);
+        }
+
+        private DataRow[] readBlock() {
+            if (m_source == null) {
+                m_source = m_table.iterator();
+            }
+            DataRow[] block = new DataRow[READ_AHEAD_ROWS];
+            int length = 0;
+            while (length < block.length && m_source.hasNext()) {
+                block[length++] = m_source.next();
+            }
+            return length == block.length ? block : Arrays.copyOf(block, length);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean hasNext() {
+            if (m_index < m_block.length) {
+                return true;
+            }
+            if (m_nextBlock == null) {
+                return false;
+            }
+            try {
+                m_block = waitFor(m_nextBlock);
+            } catch (CanceledExecutionException cee) {
+                throw new IllegalStateException(cee.getMessage(), cee);
+            }
+            m_index = 0;
+            if (m_block.length == READ_AHEAD_ROWS) {
+                m_nextBlock = m_threadPool.enqueue(this::readBlock);
+            } else {
+                m_nextBlock = null;
+                synchronized (m_containerLock) {
+                    clearTable(m_table);
+                }
+            }
+            return m_block.length > 0;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public DataRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            DataRow row = m_block[m_index];
+            m_block[m_index++] = null;
+            return row;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     /**
      * The private class RowComparator is used to compare two DataRows. It implements the Comparator-interface, so we
      * can use the Arrays.sort method to sort an array of DataRows.
@@ -893,6 +1372,9 @@ private static final class RowComparator implements Comparator<DataRow> {
          */
         private final boolean m_sortMissingsToEnd;
 
+        /** The spec of the table, used to create a {@link SortKeyEncoder}. */
+        private final DataTableSpec m_spec;
+
         /**
          * @param indices Array of sort column indices.
          * @param sortAscending Sort order.
@@ -914,6 +1396,17 @@ private static final class RowComparator implements Comparator<DataRow> {
             }
             m_sortAscending = sortAscending;
             m_sortMissingsToEnd = sortMissingsToEnd;
+            m_spec = spec;
+        }
+
+        /**
+         * @return a new encoder for the sort columns or null if any of the columns can't be encoded.
+         */
+        SortKeyEncoder createSortKeyEncoder() {
+            if (!SortKeyEncoder.isEncodable(m_spec, m_indices)) {
+                return null;
+            }
+            return new SortKeyEncoder(m_spec, m_indices, m_sortAscending, m_sortMissingsToEnd);
         }
 
         /** {@inheritDoc} */
@@ -0,0 +1,322 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.data.sort;
+
+import java.util.Arrays;
+
+import org.knime.core.data.BooleanValue;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DataValueComparator;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.DoubleValueComparator;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.IntValueComparator;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.LongValueComparator;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.StringValueComparator;
+import org.knime.core.data.def.BooleanCell;
+
+/**
+ * Encodes the sort columns of a row into a byte array, whose unsigned lexicographic order is the same as the order
+ * defined by the columns' {@link DataType#getComparator() comparators} (including sort direction and placement of
+ * missing values). Comparing two keys with {@link #compare(byte[], byte[])} is a single loop over bytes and avoids the
+ * cell lookups, casts and virtual calls of a comparator based on {@link DataValueComparator}s.
+ *
+ * <p>
+ * Only columns whose comparator is the one of {@link IntValue}, {@link LongValue}, {@link DoubleValue},
+ * {@link BooleanValue} or {@link StringValue} (and the row key) can be encoded, see
+ * {@link #isEncodable(DataTableSpec, int[])}. Each column is encoded as a marker byte (missing or not) followed by
+ * <ul>
+ * <li>int, long: big endian two's complement with flipped sign bit,</li>
+ * <li>double: the IEEE 754 bits, all bits flipped for negative and the sign bit flipped for positive values (same
+ * order as {@link Double#compare(double, double)}),</li>
+ * <li>boolean: a single byte,</li>
+ * <li>string (and row key): the UTF-16 code units in big endian, a 0 byte escaped as <code>0x00 0xFF</code> and
+ * terminated by <code>0x00 0x00</code> (same order as {@link String#compareTo(String)}).</li>
+ * </ul>
+ * The value bytes are inverted for descending columns.
+ *
+ * <p>
+ * Instances are not thread-safe as they reuse an internal buffer.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.6
+ */
+public final class SortKeyEncoder {
+
+    private static final byte PRESENT = 0x01;
+
+    private enum Kind {
+        ROWKEY, INT, LONG, DOUBLE, BOOLEAN, STRING
+    }
+
+    private final int[] m_columns;
+
+    private final Kind[] m_kinds;
+
+    private final boolean[] m_ascending;
+
+    private final byte[] m_missingMarkers;
+
+    /** Reused buffer, grown as needed. */
+    private byte[] m_buffer = new byte[64];
+
+    private int m_length;
+
+    /**
+     * Creates a new encoder.
+     *
+     * @param spec The spec of the rows to encode.
+     * @param columns The indices of the sort columns, -1 representing the row key.
+     * @param ascending The sort order for each column.
+     * @param missingsToEnd Whether missing values are always sorted to the end (independent of the sort order). If
+     *            false they are smaller than any non-missing value.
+     * @throws IllegalArgumentException If the arguments differ in length or any of the columns can't be encoded.
+     */
+    public SortKeyEncoder(final DataTableSpec spec, final int[] columns, final boolean[] ascending,
+        final boolean missingsToEnd) {
+        if (columns.length != ascending.length) {
+            throw new IllegalArgumentException(
+                "Length of arguments vary: " + columns.length + " vs. " + ascending.length);
+        }
+        m_columns = columns.clone();
+        m_ascending = ascending.clone();
+        m_kinds = new Kind[columns.length];
+        m_missingMarkers = new byte[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            m_kinds[i] = getKind(spec, columns[i]);
+            if (m_kinds[i] == null) {
+                throw new IllegalArgumentException("Column \"" + spec.getColumnSpec(columns[i]).getName()
+                    + "\" of type \"" + spec.getColumnSpec(columns[i]).getType() + "\" can't be encoded");
+            }
+            // missing cells are the smallest values (which become largest in descending order) unless moved to end
+            m_missingMarkers[i] = (byte)(missingsToEnd || !ascending[i] ? PRESENT + 1 : PRESENT - 1);
+        }
+    }
+
+    /**
+     * Whether all argument columns can be encoded.
+     *
+     * @param spec The spec of the rows.
+     * @param columns The indices of the sort columns, -1 representing the row key.
+     * @return true if a {@link SortKeyEncoder} can be created for the columns.
+     */
+    public static boolean isEncodable(final DataTableSpec spec, final int[] columns) {
+        for (int column : columns) {
+            if (getKind(spec, column) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Kind getKind(final DataTableSpec spec, final int column) {
+        if (column == -1) {
+            return Kind.ROWKEY;
+        }
+        // the comparator defines the order, the cells implement the value interface it expects
+        final Class<?> comparatorClass = spec.getColumnSpec(column).getType().getComparator().getClass();
+        if (comparatorClass == IntValueComparator.class) {
+            return Kind.INT;
+        } else if (comparatorClass == LongValueComparator.class) {
+            return Kind.LONG;
+        } else if (comparatorClass == DoubleValueComparator.class) {
+            return Kind.DOUBLE;
+        } else if (comparatorClass == StringValueComparator.class) {
+            return Kind.STRING;
+        } else if (comparatorClass == BooleanCell.TYPE.getComparator().getClass()) {
+            return Kind.BOOLEAN;
+        }
+        return null;
+    }
+
+    /**
+     * Encodes the sort columns of the argument row.
+     *
+     * @param row The row to encode.
+     * @return A new array containing the key.
+     */
+    public byte[] encode(final DataRow row) {
+        m_length = 0;
+        for (int i = 0; i < m_columns.length; i++) {
+            final int start = m_length;
+            if (m_kinds[i] == Kind.ROWKEY) {
+                ensureCapacity(1);
+                m_buffer[m_length++] = PRESENT;
+                writeString(row.getKey().getString());
+            } else {
+                final DataCell cell = row.getCell(m_columns[i]);
+                ensureCapacity(1);
+                if (cell.isMissing()) {
+                    m_buffer[m_length++] = m_missingMarkers[i];
+                    continue;
+                }
+                m_buffer[m_length++] = PRESENT;
+                switch (m_kinds[i]) {
+                    case INT:
+                        writeInt(((IntValue)cell).getIntValue() ^ Integer.MIN_VALUE);
+                        break;
+                    case LONG:
+                        writeLong(((LongValue)cell).getLongValue() ^ Long.MIN_VALUE);
+                        break;
+                    case DOUBLE:
+                        long bits = Double.doubleToLongBits(((DoubleValue)cell).getDoubleValue());
+                        writeLong(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE);
+                        break;
+                    case BOOLEAN:
+                        ensureCapacity(1);
+                        m_buffer[m_length++] = (byte)(((BooleanValue)cell).getBooleanValue() ? 1 : 0);
+                        break;
+                    case STRING:
+                        writeString(((StringValue)cell).getStringValue());
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown kind: " + m_kinds[i]);
+                }
+            }
+            if (!m_ascending[i]) {
+                // invert value bytes, not the marker
+                for (int b = start + 1; b < m_length; b++) {
+                    m_buffer[b] = (byte)~m_buffer[b];
+                }
+            }
+        }
+        return Arrays.copyOf(m_buffer, m_length);
+    }
+
+    private void ensureCapacity(final int additionalBytes) {
+        if (m_length + additionalBytes > m_buffer.length) {
+            m_buffer = Arrays.copyOf(m_buffer, Math.max(m_buffer.length * 2, m_length + additionalBytes));
+        }
+    }
+
+    private void writeInt(final int value) {
+        ensureCapacity(4);
+        m_buffer[m_length++] = (byte)(value >>> 24);
+        m_buffer[m_length++] = (byte)(value >>> 16);
+        m_buffer[m_length++] = (byte)(value >>> 8);
+        m_buffer[m_length++] = (byte)value;
+    }
+
+    private void writeLong(final long value) {
+        writeInt((int)(value >>> 32));
+        writeInt((int)value);
+    }
+
+    private void writeString(final String value) {
+        final int length = value.length();
+        // worst case: each byte escaped, plus terminator
+        ensureCapacity(4 * length + 2);
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            writeEscapedByte((byte)(c >>> 8));
+            writeEscapedByte((byte)c);
+        }
+        m_buffer[m_length++] = 0;
+        m_buffer[m_length++] = 0;
+    }
+
+    private void writeEscapedByte(final byte b) {
+        m_buffer[m_length++] = b;
+        if (b == 0) {
+            m_buffer[m_length++] = (byte)0xFF;
+        }
+    }
+
+    /**
+     * Compares two keys created by the same encoder (unsigned lexicographic order).
+     *
+     * @param key1 First key.
+     * @param key2 Second key.
+     * @return A negative number, zero or a positive number if the first key is smaller, equal or larger than the
+     *         second one.
+     */
+    public static int compare(final byte[] key1, final byte[] key2) {
+        final int length = Math.min(key1.length, key2.length);
+        for (int i = 0; i < length; i++) {
+            if (key1[i] != key2[i]) {
+                return (key1[i] & 0xFF) - (key2[i] & 0xFF);
+            }
+        }
+        return key1.length - key2.length;
+    }
+
+    /**
+     * Sorts the argument rows according to their keys. The sort is stable.
+     *
+     * @param rows The rows to sort, sorted in place.
+     */
+    public void sort(final DataRow[] rows) {
+        final KeyedRow[] keyedRows = new KeyedRow[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            keyedRows[i] = new KeyedRow(encode(rows[i]), rows[i]);
+        }
+        Arrays.sort(keyedRows);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = keyedRows[i].m_row;
+        }
+    }
+
+    /** A row along with its key, sorted by key. */
+    private static final class KeyedRow implements Comparable<KeyedRow> {
+        private final byte[] m_key;
+
+        private final DataRow m_row;
+
+        KeyedRow(final byte[] key, final DataRow row) {
+            m_key = key;
+            m_row = row;
+        }
+
+        @Override
+        public int compareTo(final KeyedRow o) {
+            return compare(m_key, o.m_key);
+        }
+    }
+}
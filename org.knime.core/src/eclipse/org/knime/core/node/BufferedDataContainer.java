@@ -52,6 +52,7 @@
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.container.ContainerTable;
 import org.knime.core.data.container.DataContainer;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
 import org.knime.core.data.filestore.internal.FileStoreHandlerRepository;
 import org.knime.core.data.filestore.internal.IWriteFileStoreHandler;
 import org.knime.core.internal.ReferencedFile;
@@ -121,6 +122,9 @@ public class BufferedDataContainer extends DataContainer {
      * @param initDomain Whether or not the spec's domain shall be used for
      * initialization.
      * @param node The owner of the outcome table.
+     * @param policy The memory policy of the node.
+     * @param tableCompression The compression of the table if written to disc
+     * or null to use the installation default.
      * @param forceCopyOfBlobs The property whether to copy any blob cell
      * @param maxCellsInMemory Number of cells to be kept in memory, if negative
      * use user settings (according to node)
@@ -132,7 +136,7 @@ public class BufferedDataContainer extends DataContainer {
      * @see DataContainer#DataContainer(DataTableSpec, boolean)
      */
     BufferedDataContainer(final DataTableSpec spec, final boolean initDomain,
-            final Node node, final MemoryPolicy policy,
+            final Node node, final MemoryPolicy policy, final CompressionFormat tableCompression,
             final boolean forceCopyOfBlobs, final int maxCellsInMemory,
             final Map<Integer, ContainerTable> globalTableRepository,
             final Map<Integer, ContainerTable> localTableRepository,
@@ -148,6 +152,7 @@ public class BufferedDataContainer extends DataContainer {
         m_localTableRepository = localTableRepository;
         super.setFileStoreHandler(fileStoreHandler);
         super.setForceCopyOfBlobs(forceCopyOfBlobs);
+        super.setCompressionFormat(tableCompression);
     }
 
     /**
@@ -77,6 +77,7 @@
 import org.knime.core.data.container.ContainerTable;
 import org.knime.core.data.container.DataContainer;
 import org.knime.core.data.container.JoinedTable;
+import org.knime.core.data.container.RangeRowIterator;
 import org.knime.core.data.container.RearrangeColumnsTable;
 import org.knime.core.data.container.TableSpecReplacerTable;
 import org.knime.core.data.container.VoidTable;
@@ -325,6 +326,41 @@ public CloseableRowIterator iterator() {
         return m_delegate.iterator();
     }
 
+    /**
+     * Get an iterator that only needs to read the cells of the argument columns. Cells in all other columns of the
+     * returned rows may be missing cells (though they don't need to be). Tables that are stored column-wise use this
+     * to skip reading and decoding the remaining columns, which is considerably faster for wide tables when only few
+     * columns are accessed.
+     *
+     * @param materializeColumnIndices the indices of the columns whose cells will be accessed
+     * @return A new iterator instance.
+     * @since 3.6
+     */
+    public CloseableRowIterator iteratorWithColumns(final int... materializeColumnIndices) {
+        return m_delegate.iteratorWithColumns(materializeColumnIndices);
+    }
+
+    /**
+     * Get an iterator over the rows in the range [<code>fromIndex</code>, <code>toIndex</code>). Tables that were
+     * written to disc with a row offset index (the default for uncompressed or LZ4 compressed tables) start reading
+     * right at the requested position, independent of the number of preceding rows. For all other tables the
+     * preceding rows are read and skipped.
+     *
+     * @param fromIndex the index of the first row (inclusive)
+     * @param toIndex the index after the last row (exclusive)
+     * @return A new iterator instance.
+     * @throws IndexOutOfBoundsException if <code>fromIndex &lt; 0</code>, <code>toIndex &gt; size()</code> or
+     *             <code>fromIndex &gt; toIndex</code>
+     * @since 3.6
+     */
+    public CloseableRowIterator iteratorForRange(final long fromIndex, final long toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException(
+                "Invalid row range [" + fromIndex + ", " + toIndex + ") for table with " + size() + " rows");
+        }
+        return m_delegate.iteratorForRange(fromIndex, toIndex);
+    }
+
     /**
      * Get an iterator instance that will return missing values when the table
      * is cleared as part of a node reset.
@@ -357,11 +393,33 @@ public CloseableRowIterator iteratorFailProve() {
             } else {
                 baseIterator = iterator();
             }
-            return new CloseableFailProveRowIterator(baseIterator);
+            return new CloseableFailProveRowIterator(baseIterator, 0L, size());
         }
 
     }
 
+    /**
+     * Fail prove counterpart of {@link #iteratorForRange(long, long)}, see {@link #iteratorFailProve()} for details.
+     *
+     * @param fromIndex the index of the first row to return (inclusive)
+     * @param toIndex the index after the last row to return (exclusive)
+     * @return A new iterator instance that will return missing values and fake row ids in case the table is cleared.
+     * @throws IndexOutOfBoundsException if the range is invalid
+     * @since 3.6
+     * @noreference This method is not intended to be referenced by clients.
+     */
+    public CloseableRowIterator iteratorFailProve(final long fromIndex, final long toIndex) {
+        synchronized (m_isCleared) {
+            CloseableRowIterator baseIterator;
+            if (m_isCleared.booleanValue()) {
+                baseIterator = null;
+            } else {
+                baseIterator = iteratorForRange(fromIndex, toIndex);
+            }
+            return new CloseableFailProveRowIterator(baseIterator, fromIndex, toIndex);
+        }
+    }
+
     /**
      * Get the row count of the this table.
      * @return Number of rows in the table.
@@ -401,10 +459,12 @@ public Integer getBufferedTableId() {
         private final CloseableRowIterator m_it;
         private long m_rowIndex;
 
-        private CloseableFailProveRowIterator(final CloseableRowIterator it) {
+        private CloseableFailProveRowIterator(final CloseableRowIterator it, final long fromIndex,
+            final long toIndex) {
             m_it = it;
             m_cellCount = getDataTableSpec().getNumColumns();
-            m_maxRows = size();
+            m_rowIndex = fromIndex;
+            m_maxRows = toIndex;
         }
 
         @Override
@@ -859,6 +919,27 @@ void saveToFile(final File f, final NodeSettingsWO settings,
         @Override
         public CloseableRowIterator iterator();
 
+        /** Implementation of {@link BufferedDataTable#iteratorWithColumns(int...)}. The default implementation
+         * returns a full {@link #iterator()}.
+         * @param materializeColumnIndices the indices of the columns whose cells will be accessed
+         * @return A new iterator instance.
+         * @since 3.6
+         */
+        default CloseableRowIterator iteratorWithColumns(final int... materializeColumnIndices) {
+            return iterator();
+        }
+
+        /** Implementation of {@link BufferedDataTable#iteratorForRange(long, long)}. The default implementation
+         * skips the leading rows of a full {@link #iterator()}. The arguments are validated by the caller.
+         * @param fromIndex the index of the first row (inclusive)
+         * @param toIndex the index after the last row (exclusive)
+         * @return A new iterator instance.
+         * @since 3.6
+         */
+        default CloseableRowIterator iteratorForRange(final long fromIndex, final long toIndex) {
+            return new RangeRowIterator(iterator(), fromIndex, toIndex - fromIndex);
+        }
+
         /** Reference to the underlying tables, if any. A reference
          * table exists if this object is just a wrapper, such as a
          * RearrangeColumnsTable or if this table concatenates a set of
@@ -77,8 +77,8 @@ public class DefaultNodeProgressMonitor implements NodeProgressMonitor {
 
     private static final Supplier<String> NULL_SUPPLIER = () -> null;
 
-    /** The cancel requested flag. */
-    private boolean m_cancelExecute;
+    /** The cancel requested flag, volatile so that worker threads can poll it without taking the monitor lock. */
+    private volatile boolean m_cancelExecute;
 
     /** Progress of the execution between 0 and 1, or null if not available. */
     private Double m_progress;
@@ -101,8 +101,14 @@ public class DefaultNodeProgressMonitor implements NodeProgressMonitor {
      */
     private static final List<WeakReference<DefaultNodeProgressMonitor>> PROGMONS = new CopyOnWriteArrayList<>();
 
-    /** If progress has changed. */
-    private boolean m_changed = false;
+    /**
+     * Counters created via {@link ExecutionMonitor#createProgressCounter(long, java.util.function.LongFunction)}. They
+     * are sampled by the timer task, which then reports their progress to the associated monitor.
+     */
+    private static final List<WeakReference<ProgressCounter>> COUNTERS = new CopyOnWriteArrayList<>();
+
+    /** If progress has changed, read by the timer task. */
+    private volatile boolean m_changed = false;
 
     private static final ScheduledExecutorService NOTIFICATION_SERVICE =
             Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "KNIME Progress Updater"));
@@ -112,6 +118,24 @@ public class DefaultNodeProgressMonitor implements NodeProgressMonitor {
         NOTIFICATION_SERVICE.scheduleWithFixedDelay(new Runnable() {
             @Override
             public void run() {
+                // sample the concurrent counters first so that their progress is reported in this very round
+                List<WeakReference<ProgressCounter>> deadCounters = new LinkedList<>();
+                for (WeakReference<ProgressCounter> next : COUNTERS) {
+                    ProgressCounter c = next.get();
+                    if (c == null) {
+                        deadCounters.add(next);
+                    } else {
+                        try {
+                            c.update();
+                        } catch (Exception e) {
+                            LOGGER.warn("Exception (\"" + e.getClass().getSimpleName() + "\") "
+                                + " during progress counter update.", e);
+                        }
+                    }
+                }
+                if (!deadCounters.isEmpty()) {
+                    COUNTERS.removeAll(deadCounters);
+                }
                 // for maintenance only
                 List<WeakReference<DefaultNodeProgressMonitor>> deadList = new LinkedList<>();
                 for (Iterator<WeakReference<DefaultNodeProgressMonitor>> it = PROGMONS.iterator(); it.hasNext();) {
@@ -177,6 +201,27 @@ public synchronized void reset() {
     }
 
     /**
+     * Adds a counter to the list of counters sampled by the timer task.
+     *
+     * @param counter the counter to add
+     */
+    static void registerCounter(final ProgressCounter counter) {
+        COUNTERS.add(new WeakReference<ProgressCounter>(counter));
+    }
+
+    /**
+     * Removes a counter from the list of counters sampled by the timer task.
+     *
+     * @param counter the counter to remove
+     */
+    static void unregisterCounter(final ProgressCounter counter) {
+        COUNTERS.removeIf(r -> r.get() == counter || r.get() == null);
+    }
+
+    /**
+     * The check is lock-free (it only reads a volatile flag and the interrupted state of the current thread), so it
+     * is cheap enough to be called per row from multiple worker threads.
+     *
      * @return <code>true</code> if the execution of the <code>NodeModel</code> has been canceled.
      */
     protected boolean isCanceled() {
@@ -59,6 +59,7 @@
 import org.knime.core.data.container.ColumnRearranger;
 import org.knime.core.data.container.ConcatenateTable;
 import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
 import org.knime.core.data.container.JoinedTable;
 import org.knime.core.data.container.RearrangeColumnsTable;
 import org.knime.core.data.container.TableSpecReplacerTable;
@@ -122,6 +123,7 @@ public class ExecutionContext extends ExecutionMonitor {
 
     private final Node m_node;
     private final MemoryPolicy m_memoryPolicy;
+    private final CompressionFormat m_tableCompression;
     private final HashMap<Integer, ContainerTable> m_globalTableRepository;
     private final HashMap<Integer, ContainerTable> m_localTableRepository;
     private final IWriteFileStoreHandler m_fileStoreHandler;
@@ -157,7 +159,29 @@ public ExecutionContext(final NodeProgressMonitor progMon, final Node node) {
     public ExecutionContext(final NodeProgressMonitor progMon, final Node node,
             final MemoryPolicy policy,
             final HashMap<Integer, ContainerTable> tableRepository) {
-        this(progMon, node, policy, tableRepository, new HashMap<Integer, ContainerTable>(),
+        this(progMon, node, policy, null, tableRepository);
+    }
+
+    /**
+     * Creates new object based on a progress monitor and a node as parent of
+     * any created buffered data table.
+     *
+     * @param progMon To report progress to.
+     * @param node The parent of any BufferedDataTable being created.
+     * @param policy the policy according to which created BufferedDataTables
+     *            behave
+     * @param tableCompression the compression of tables that are written to
+     *            disc or <code>null</code> to use the installation default.
+     * @param tableRepository A map to which BufferedDataTables register
+     *            themselves; used internally to identify tables that serialize
+     *            blob cells.
+     * @since 3.6
+     * @noreference This constructor is not intended to be referenced by clients.
+     */
+    public ExecutionContext(final NodeProgressMonitor progMon, final Node node,
+            final MemoryPolicy policy, final CompressionFormat tableCompression,
+            final HashMap<Integer, ContainerTable> tableRepository) {
+        this(progMon, node, policy, tableCompression, tableRepository, new HashMap<Integer, ContainerTable>(),
                 (node.getFileStoreHandler() instanceof IWriteFileStoreHandler ?
                         (IWriteFileStoreHandler)node.getFileStoreHandler() : null));
     }
@@ -168,13 +192,14 @@ public ExecutionContext(final NodeProgressMonitor progMon, final Node node,
      * @param progMon see other constructor.
      * @param node see other constructor.
      * @param policy see other constructor.
+     * @param tableCompression see other constructor.
      * @param tableRepository see other constructor.
      * @param localTableRepository execution context local table. This argument
      * is non-null only if this is a sub execution context (inheriting table
      * repository from parent).
      */
     private ExecutionContext(final NodeProgressMonitor progMon, final Node node,
-            final MemoryPolicy policy,
+            final MemoryPolicy policy, final CompressionFormat tableCompression,
             final HashMap<Integer, ContainerTable> tableRepository,
             final HashMap<Integer, ContainerTable> localTableRepository,
             final IWriteFileStoreHandler fileStoreHandler) {
@@ -193,6 +218,7 @@ private ExecutionContext(final NodeProgressMonitor progMon, final Node node,
             m_fileStoreHandler = fileStoreHandler;
         }
         m_memoryPolicy = policy;
+        m_tableCompression = tableCompression;
         m_globalTableRepository = tableRepository;
         m_localTableRepository = localTableRepository;
     }
@@ -346,7 +372,7 @@ public BufferedDataContainer createDataContainer(final DataTableSpec spec,
         boolean forceCopyOfBlobs = m_node.isModelCompatibleTo(LoopEndNode.class)
                 || m_node.isModelCompatibleTo(VirtualSubNodeOutputNodeModel.class);
         return new BufferedDataContainer(spec, initDomain, m_node,
-                m_memoryPolicy, forceCopyOfBlobs, maxCellsInMemory,
+                m_memoryPolicy, m_tableCompression, forceCopyOfBlobs, maxCellsInMemory,
                 m_globalTableRepository, m_localTableRepository, m_fileStoreHandler);
     }
 
@@ -614,7 +640,7 @@ public void clearTable(final BufferedDataTable table) {
      */
     public ExecutionContext createSubExecutionContext(final double maxProg) {
         NodeProgressMonitor subProgress = createSubProgressMonitor(maxProg);
-        return new ExecutionContext(subProgress, m_node, m_memoryPolicy,
+        return new ExecutionContext(subProgress, m_node, m_memoryPolicy, m_tableCompression,
                 m_globalTableRepository, m_localTableRepository, m_fileStoreHandler);
     }
 
@@ -635,7 +661,7 @@ public ExecutionContext createSubExecutionContext(final double maxProg) {
     public ExecutionContext createSilentSubExecutionContext(
             final double maxProg) {
         NodeProgressMonitor subProgress = createSilentSubProgressMonitor(maxProg);
-        return new ExecutionContext(subProgress, m_node, m_memoryPolicy,
+        return new ExecutionContext(subProgress, m_node, m_memoryPolicy, m_tableCompression,
                 m_globalTableRepository, m_localTableRepository, m_fileStoreHandler);
     }
 
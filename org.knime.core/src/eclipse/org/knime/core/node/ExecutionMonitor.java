@@ -44,6 +44,7 @@
  */
 package org.knime.core.node;
 
+import java.util.function.LongFunction;
 import java.util.function.Supplier;
 
 import org.knime.core.node.DefaultNodeProgressMonitor.SilentSubNodeProgressMonitor;
@@ -173,6 +174,26 @@ public void setProgress(final String message) {
         m_progress.setProgress(message);
     }
 
+    /**
+     * Creates a counter for reporting progress from multiple threads without lock contention. The workers call
+     * {@link ProgressCounter#increment()} (e.g. once per processed row), which only updates a lock-free counter. The
+     * progress of this monitor is set to the ratio of the count and the given total by the progress updater thread,
+     * which samples the counter periodically. Use a {@linkplain #createSubProgress(double) sub progress} if the
+     * counted work only contributes to part of the progress. The returned counter should be closed once done.
+     *
+     * @param total The expected final count, e.g. the number of rows to process, must be positive.
+     * @param messageFunction Creates the progress message for a given count, only evaluated when the progress is
+     *            reported; may be <code>null</code>, in which case only the progress value is set.
+     * @return A new counter, which is sampled until it is closed.
+     * @throws IllegalArgumentException If the total is not positive.
+     * @since 3.6
+     */
+    public ProgressCounter createProgressCounter(final long total, final LongFunction<String> messageFunction) {
+        final ProgressCounter counter = new ProgressCounter(m_progress, total, messageFunction);
+        DefaultNodeProgressMonitor.registerCounter(counter);
+        return counter;
+    }
+
     /** Creates an execution monitor with a partial progress range.
      * Classes that use a progress monitor and report in the range of [0,1]
      * should get such a sub-progress monitor when their job is only partially
@@ -116,12 +116,11 @@ public final class KNIMEConstants {
     public static final String PROPERTY_SYNCHRONOUS_IO = "knime.synchronous.io";
 
     /** Java property to customize the write cache for asynchronous
-     * table writing. It specifies the size of a temporary buffer for data rows
-     * that is used during table creating. Once this buffer is full (or there
-     * are no more rows to write), this buffer is handed over to the writing
-     * routines to write the data output stream. The larger the buffer, the
-     * smaller the synchronization overhead but the larger the memory
-     * requirements.
+     * table writing. It specifies the number of data rows that can be queued
+     * between the thread adding rows to a table and the writing routines
+     * (rounded up to the next power of two). The thread adding rows only
+     * waits once this queue is full. The larger the queue, the smaller the
+     * synchronization overhead but the larger the memory requirements.
      * <p>
      * The default value is {@value
      * org.knime.core.data.container.DataContainer#DEF_ASYNC_CACHE_SIZE}. This
@@ -130,6 +129,19 @@ public final class KNIMEConstants {
     public static final String PROPERTY_ASYNC_WRITE_CACHE_SIZE =
         "knime.async.io.cachesize";
 
+    /** Java property to customize the number of threads writing tables
+     * asynchronously to the same disk (the file store of the temp directory).
+     * Write tasks of further tables are queued, the nodes adding rows to
+     * these tables are slowed down once their write cache is full.
+     * <p>
+     * The default value is {@value
+     * org.knime.core.data.container.DataContainer#DEF_ASYNC_WRITE_THREADS}
+     * (2 on 32bit architectures). This property has no effect if tables are
+     * written synchronously (see {@link #PROPERTY_SYNCHRONOUS_IO}).
+     * @since 3.6 */
+    public static final String PROPERTY_ASYNC_WRITE_THREADS_PER_DISK =
+        "knime.async.io.threadsperdisk";
+
     /** The number of nominal values kept in the domain when adding rows to a table. This is only the default and
      * may be overruled by individual node implementations. If not specified the default is {@value
      * org.knime.core.data.container.DataContainer#DEF_MAX_POSSIBLE_VALUES}.
@@ -156,12 +168,47 @@ public final class KNIMEConstants {
      * results in smaller temp-file sizes but also (sometimes significant)
      * longer runtime. The default is {@value
      * org.knime.core.data.container.DataContainer#DEF_GZIP_COMPRESSION}.
-     * <p><strong>Warning:</strong> Changing this property will result in KNIME
-     * not being able to read workflows written previously (with a
-     * different compression property). */
+     * <p>Besides "true" (gzip) and "false" (no compression) the property also
+     * accepts the name of a compression format, i.e. "gzip", "lz4" or "none"
+     * (since 3.6). The compression is stored with each table so that tables
+     * written with a different setting can still be read. */
     public static final String PROPERTY_TABLE_GZIP_COMPRESSION =
         "knime.compress.io";
 
+    /** Java property to select how tables that fit into memory are kept:
+     * "heap" (default) keeps up to {@link #PROPERTY_CELLS_IN_MEMORY} cells
+     * as row objects on the Java heap; "offheap" keeps the rows in their
+     * serialized form in off-heap memory, limited by
+     * {@link #PROPERTY_OFF_HEAP_TABLE_CACHE_SIZE}.
+     * @since 3.6 */
+    public static final String PROPERTY_TABLE_CACHE = "knime.table.cache";
+
+    /** Java property to set the amount of off-heap memory (in MB) used by
+     * all tables if {@link #PROPERTY_TABLE_CACHE} is "offheap". A table that
+     * doesn't fit into the remaining memory is written to disc, all others
+     * stay in memory. Defaults to a quarter of the maximum heap size (note
+     * that the VM's direct memory limit, -XX:MaxDirectMemorySize, must be at
+     * least as large).
+     * @since 3.6 */
+    public static final String PROPERTY_OFF_HEAP_TABLE_CACHE_SIZE =
+        "knime.table.cache.offheap.size";
+
+    /** Java property to set the amount of heap memory (in MB) that all
+     * tables kept in memory as row objects may occupy (estimated). If
+     * exceeded, the least recently used tables are written to disc.
+     * Defaults to half of the maximum heap size.
+     * @since 3.6 */
+    public static final String PROPERTY_HEAP_TABLE_CACHE_SIZE =
+        "knime.table.cache.heap.size";
+
+    /** Java property to set the amount of heap memory (in MB) used to cache
+     * blob cells read from disc, shared by all tables. The size of a blob is
+     * estimated by the size of its file. Defaults to a sixteenth of the
+     * maximum heap size.
+     * @since 3.6 */
+    public static final String PROPERTY_BLOB_CACHE_SIZE =
+        "knime.table.cache.blob.size";
+
     /** Java property to enable/disable row ID duplicate checks on tables.
      * Tables in KNIME are supposed to have unique IDs, whereby the uniqueness
      * is asserted using a duplicate checker. This property will disable this
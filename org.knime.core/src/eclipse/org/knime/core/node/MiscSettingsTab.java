@@ -54,11 +54,14 @@
 
 import javax.swing.AbstractButton;
 import javax.swing.ButtonGroup;
+import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JRadioButton;
 
 import org.knime.core.data.container.DataContainer;
+import org.knime.core.data.container.DefaultTableStoreFormat;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
 import org.knime.core.node.workflow.SingleNodeContainer.MemoryPolicy;
 
 /**
@@ -71,6 +74,10 @@
 class MiscSettingsTab extends JPanel {
     public static final String MEMORY_POLICY = "Memory Policy";
 	private final ButtonGroup m_group;
+    /** Item representing the installation default in the compression combo box. */
+    private static final String DEFAULT_COMPRESSION = "Default ("
+            + DefaultTableStoreFormat.getDefaultCompressionFormat() + ")";
+    private final JComboBox<Object> m_compressionCombo;
 
     /** Inits GUI. */
     public MiscSettingsTab() {
@@ -108,6 +115,35 @@ public MiscSettingsTab() {
         center.add(cacheOnDisc);
         bigCenter.add(center);
         add(bigCenter, BorderLayout.CENTER);
+        m_compressionCombo = new JComboBox<Object>();
+        m_compressionCombo.addItem(DEFAULT_COMPRESSION);
+        for (CompressionFormat f : CompressionFormat.values()) {
+            m_compressionCombo.addItem(f);
+        }
+        m_compressionCombo.setToolTipText("Compression of output tables that "
+                + "are written to disc - Lz4 is much faster than Gzip but "
+                + "creates larger files.");
+        JPanel south = new JPanel(new FlowLayout(FlowLayout.LEFT, s, s));
+        south.add(new JLabel("Table compression"));
+        south.add(m_compressionCombo);
+        add(south, BorderLayout.SOUTH);
+    }
+
+    /** @return The selected table compression or null if the installation
+     * default is selected. */
+    CompressionFormat getTableCompression() {
+        Object selected = m_compressionCombo.getSelectedItem();
+        return selected instanceof CompressionFormat
+            ? (CompressionFormat)selected : null;
+    }
+
+    /** Select the table compression.
+     * @param compression The compression or null for the installation
+     * default.
+     */
+    void setTableCompression(final CompressionFormat compression) {
+        m_compressionCombo.setSelectedItem(
+                compression == null ? DEFAULT_COMPRESSION : compression);
     }
 
     /** Get the memory policy for the currently selected radio button.
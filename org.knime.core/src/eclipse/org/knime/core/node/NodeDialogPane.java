@@ -416,6 +416,7 @@ final void internalLoadSettingsFrom(final NodeSettingsRO settings,
                 memoryPolicy = MemoryPolicy.CacheSmallInMemory;
             }
             m_memPolicyTab.setStatus(memoryPolicy);
+            m_memPolicyTab.setTableCompression(sncSettings.getTableCompression());
         }
 
         final AtomicReference<Throwable> exRef = new AtomicReference<Throwable>();
@@ -509,6 +510,7 @@ void internalSaveSettingsTo(final NodeSettingsWO settings) throws InvalidSetting
         s.setVariablesSettings(variables);
         if (m_memPolicyTab != null) {
             s.setMemoryPolicy(m_memPolicyTab.getStatus());
+            s.setTableCompression(m_memPolicyTab.getTableCompression());
         }
 
         NodeContainerSettings ncSet = new NodeContainerSettings();
@@ -0,0 +1,147 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.core.node;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * A progress counter that can be incremented concurrently by many worker threads without any locking, for instance
+ * once per processed row in a multi-threaded node. The workers only bump a {@link LongAdder}; the progress updater
+ * thread of {@link DefaultNodeProgressMonitor} periodically samples the count and reports the fraction of the
+ * expected total (and an optional message) to the progress monitor the counter was created for. This avoids the
+ * lock contention caused by calling {@link ExecutionMonitor#setProgress(double)} from many threads.
+ *
+ * <p>
+ * Instances are created via {@link ExecutionMonitor#createProgressCounter(long, LongFunction)} and should be
+ * {@linkplain #close() closed} once all work is done; closing reports the final count.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.6
+ */
+public final class ProgressCounter implements AutoCloseable {
+
+    private final NodeProgressMonitor m_monitor;
+
+    private final long m_total;
+
+    private final LongFunction<String> m_messageFunction;
+
+    private final LongAdder m_count = new LongAdder();
+
+    /** Count reported in the last update, only accessed in {@link #update()}. */
+    private long m_lastReported = -1;
+
+    /**
+     * @param monitor the monitor to report the progress to
+     * @param total the expected final count, must be positive
+     * @param messageFunction creates the progress message for a given count, may be <code>null</code>
+     */
+    ProgressCounter(final NodeProgressMonitor monitor, final long total, final LongFunction<String> messageFunction) {
+        if (total <= 0) {
+            throw new IllegalArgumentException("Total must be positive: " + total);
+        }
+        m_monitor = monitor;
+        m_total = total;
+        m_messageFunction = messageFunction;
+    }
+
+    /** Increments the count by one. Lock-free, may be called concurrently. */
+    public void increment() {
+        m_count.increment();
+    }
+
+    /**
+     * Adds the given number to the count. Lock-free, may be called concurrently.
+     *
+     * @param n the number to add
+     */
+    public void add(final long n) {
+        m_count.add(n);
+    }
+
+    /** @return the current count (not an atomic snapshot while other threads are incrementing) */
+    public long getCount() {
+        return m_count.sum();
+    }
+
+    /** @return the expected final count */
+    public long getTotal() {
+        return m_total;
+    }
+
+    /**
+     * Checks if the execution was canceled. The check does not acquire any lock on the progress monitors and is
+     * therefore cheap enough to be called by the workers along with {@link #increment()}.
+     *
+     * @throws CanceledExecutionException If the execution has been canceled.
+     */
+    public void checkCanceled() throws CanceledExecutionException {
+        m_monitor.checkCanceled();
+    }
+
+    /** Reports the current count to the monitor if it has changed since the last call. */
+    synchronized void update() {
+        final long count = m_count.sum();
+        if (count == m_lastReported) {
+            return;
+        }
+        m_lastReported = count;
+        final double progress = Math.min(1.0, count / (double)m_total);
+        if (m_messageFunction == null) {
+            m_monitor.setProgress(progress);
+        } else {
+            m_monitor.setProgress(progress, () -> m_messageFunction.apply(count));
+        }
+    }
+
+    /** Stops the periodic sampling and reports the final count to the monitor. */
+    @Override
+    public void close() {
+        DefaultNodeProgressMonitor.unregisterCounter(this);
+        update();
+    }
+
+}
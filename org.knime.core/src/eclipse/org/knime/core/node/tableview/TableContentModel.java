@@ -1077,6 +1077,16 @@ protected DataRow getRow(final int row) {
         }
 
         /* row is not in cache */
+        if (!pushIterator && canPositionIterator()) {
+            // first row that survives in the ring buffer once the iterator
+            // has been pushed to row + m_chunkSize
+            final int firstCachedRow = Math.max(0, row + m_chunkSize - cacheSize + 1);
+            if (row < (m_rowCountOfInterestInIterator - cacheSize)
+                    ? firstCachedRow > 0 : firstCachedRow - m_rowCountOfInterestInIterator > cacheSize) {
+                // far jump - seek instead of iterating all rows in between
+                clearCache(firstCachedRow);
+            }
+        }
         // row already released from cache
         if (row < (m_rowCountOfInterestInIterator - cacheSize)) {
             // clear cache, init new iterator
@@ -1173,6 +1183,33 @@ protected void clearCache() {
         m_hilitSet.clear();
     } // clearCache()
 
+    /** Whether the iterator can be placed directly on an arbitrary row, i.e. the data is a
+     * {@link BufferedDataTable} with known row count and no rows are filtered (row index in iterator
+     * and row index of interest are the same). */
+    private boolean canPositionIterator() {
+        return m_data instanceof BufferedDataTable && m_isMaxRowCountFinal
+            && TableContentFilter.All.equals(m_tableFilter);
+    }
+
+    /**
+     * Clears cache and instantiates a new iterator that starts at the argument row, using
+     * {@link BufferedDataTable#iteratorFailProve(long, long)}.
+     * Only to be called if {@link #canPositionIterator()} holds.
+     *
+     * @param firstRow index of the first row to be returned by the new iterator
+     */
+    private void clearCache(final int firstRow) {
+        assert canPositionIterator();
+        if (m_iterator instanceof CloseableRowIterator) {
+            ((CloseableRowIterator)m_iterator).close();
+        }
+        m_iterator = ((BufferedDataTable)m_data).iteratorFailProve(firstRow, m_maxRowCount);
+        m_rowCountInIterator = firstRow;
+        m_rowCountOfInterestInIterator = firstRow;
+        Arrays.fill(m_cachedRows, null);
+        m_hilitSet.clear();
+    }
+
     /**
      * Returns a row with a given index from the cache. It is mandatory to give
      * a row index which is certainly in the cache, i.e.
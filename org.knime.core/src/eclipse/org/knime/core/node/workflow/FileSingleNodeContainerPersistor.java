@@ -60,6 +60,7 @@
 import java.util.Map;
 
 import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
 import org.knime.core.data.filestore.internal.WorkflowFileStoreHandlerRepository;
 import org.knime.core.internal.ReferencedFile;
 import org.knime.core.node.BufferedDataTable;
@@ -247,6 +248,7 @@ public void loadNodeContainer(final Map<Integer, BufferedDataTable> tblRep, fina
         exec.checkCanceled();
         try {
             m_sncSettings.setMemoryPolicy(loadMemoryPolicySettings(m_nodeSettings));
+            m_sncSettings.setTableCompression(loadTableCompressionSettings(m_nodeSettings));
         } catch (InvalidSettingsException e) {
             String error = "Unable to load SNC settings: " + e.getMessage();
             result.addError(error);
@@ -418,6 +420,21 @@ MemoryPolicy loadMemoryPolicySettings(final NodeSettingsRO nodeSettings) throws
         }
     }
 
+    /**
+     * Load the (optional) compression of output tables, added in 3.6.
+     *
+     * @param nodeSettings to load from
+     * @return the compression or null if the installation default is used
+     * @throws InvalidSettingsException if the value is invalid
+     */
+    CompressionFormat loadTableCompressionSettings(final NodeSettingsRO nodeSettings)
+        throws InvalidSettingsException {
+        if (!nodeSettings.containsKey(Node.CFG_MISC_SETTINGS)) {
+            return null;
+        }
+        return SingleNodeContainerSettings.loadTableCompression(nodeSettings.getNodeSettings(Node.CFG_MISC_SETTINGS));
+    }
+
     /** The settings passed to the NodeModel's validate and load method.
      * @param settings The whole settings tree.
      * @return the settings child {@link SingleNodeContainer#CFG_MODEL}.
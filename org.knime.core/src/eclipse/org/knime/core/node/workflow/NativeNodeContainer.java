@@ -375,7 +375,7 @@ void setJobManager(final NodeExecutionJobManager je) {
     public ExecutionContext createExecutionContext() {
         NodeProgressMonitor progressMonitor = getProgressMonitor();
         return new ExecutionContext(progressMonitor, getNode(),
-                getOutDataMemoryPolicy(),
+                getOutDataMemoryPolicy(), getOutDataTableCompression(),
                 getParent().getGlobalTableRepository());
     }
 
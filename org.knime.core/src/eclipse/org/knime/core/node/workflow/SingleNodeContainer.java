@@ -50,6 +50,7 @@
 import java.util.List;
 import java.util.Map;
 
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
@@ -103,6 +104,8 @@ public static enum MemoryPolicy {
 
     /** Config key: What memory policy to use for a node outport. */
     static final String CFG_MEMORY_POLICY = "memory_policy";
+    /** Config key: Compression of tables written to disc (not present if installation default is used). */
+    static final String CFG_TABLE_COMPRESSION = "table_compression";
     /** The sub settings entry where the model can save its setup. */
     static final String CFG_MODEL = "model";
     /** The sub settings entry containing the flow variable settings. These
@@ -1056,6 +1059,7 @@ protected final boolean isLocalWFM() {
     public static final class SingleNodeContainerSettings implements Cloneable {
 
         private MemoryPolicy m_memoryPolicy = MemoryPolicy.CacheSmallInMemory;
+        private CompressionFormat m_tableCompression;
         private NodeSettingsRO m_modelSettings;
         private NodeSettingsRO m_variablesSettings;
 
@@ -1084,6 +1088,7 @@ public SingleNodeContainerSettings(final NodeSettingsRO settings) throws Invalid
                     throw new InvalidSettingsException("Invalid memory policy: " + memPolStr);
                 }
             }
+            m_tableCompression = loadTableCompression(sncSettings);
             // in versions before KNIME 1.2.0, there were no misc settings
             // in the dialog, we must use caution here: if they are not present
             // we use the default.
@@ -1103,6 +1108,9 @@ public SingleNodeContainerSettings(final NodeSettingsRO settings) throws Invalid
         public void save(final NodeSettingsWO settings) {
             NodeSettingsWO sncSettings = settings.addNodeSettings(Node.CFG_MISC_SETTINGS);
             sncSettings.addString(CFG_MEMORY_POLICY, m_memoryPolicy.name());
+            if (m_tableCompression != null) {
+                sncSettings.addString(CFG_TABLE_COMPRESSION, m_tableCompression.name());
+            }
             if (m_modelSettings != null) {
                 NodeSettingsWO model = settings.addNodeSettings(CFG_MODEL);
                 m_modelSettings.copyTo(model);
@@ -1132,6 +1140,46 @@ public MemoryPolicy getMemoryPolicy() {
             return m_memoryPolicy;
         }
 
+        /**
+         * Store the compression of the output tables (if written to disc).
+         *
+         * @param tableCompression the compression or <code>null</code> to use the installation default
+         * @since 3.6
+         */
+        public void setTableCompression(final CompressionFormat tableCompression) {
+            m_tableCompression = tableCompression;
+        }
+
+        /**
+         * Returns the compression of the output tables.
+         *
+         * @return the compression or <code>null</code> if the installation default is used.
+         * @since 3.6
+         */
+        public CompressionFormat getTableCompression() {
+            return m_tableCompression;
+        }
+
+        /**
+         * Reads the (optional) table compression from the misc settings.
+         *
+         * @param miscSettings the {@link Node#CFG_MISC_SETTINGS} sub settings
+         * @return the compression or <code>null</code> if not set
+         * @throws InvalidSettingsException if the value is not a valid compression
+         */
+        static CompressionFormat loadTableCompression(final NodeSettingsRO miscSettings)
+                throws InvalidSettingsException {
+            String compression = miscSettings.getString(CFG_TABLE_COMPRESSION, null);
+            if (compression == null) {
+                return null;
+            }
+            try {
+                return CompressionFormat.valueOf(compression);
+            } catch (IllegalArgumentException iae) {
+                throw new InvalidSettingsException("Invalid table compression: " + compression);
+            }
+        }
+
         /**
          * @return the modelSettings
          */
@@ -1196,6 +1244,18 @@ public final MemoryPolicy getOutDataMemoryPolicy() {
         return m_settings.getMemoryPolicy();
     }
 
+    /**
+     * Get the compression of output tables that are written to disc. This method is used from within the
+     * ExecutionContext when the derived NodeModel is executing.
+     *
+     * @return The compression or <code>null</code> if the installation default is used.
+     * @since 3.6
+     * @noreference This method is not intended to be referenced by clients.
+     */
+    public final CompressionFormat getOutDataTableCompression() {
+        return m_settings.getTableCompression();
+    }
+
     /* ------------------ Port Information ------------------- */
 
     /**
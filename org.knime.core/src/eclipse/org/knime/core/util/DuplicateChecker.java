@@ -59,11 +59,16 @@
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
+import org.knime.core.data.RowKey;
 import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.util.CheckUtils;
 
 /**
  * This class checks for duplicates in an (almost) arbitrary number of strings.
@@ -75,6 +80,21 @@
  * and sorted by a merge sort like algorithm. If any duplicate keys are detected
  * during this process an exception is thrown.
  *
+ * <p>Keys of the form <code>"Row" + index</code> (in particular row keys created by
+ * {@link RowKey#createRowKey(long)}) are not stored as strings but as ranges of consecutive indices, so that
+ * sequentially generated keys require almost no memory and no disk space. If these ranges get too fragmented
+ * (more ranges than the maximum chunk size) they are written to disk as sorted chunks of ranges, which are checked
+ * for overlaps by merging them as described above.
+ *
+ * <p>If created with a source of all keys (see {@link #DuplicateChecker(Supplier)}), the checker keeps only 64 bit
+ * hashes of string keys in memory instead of chunks. Additionally, the most recent keys (at most the maximum chunk
+ * size) are kept as strings, so a duplicate among them is reported by {@link #addKey(String)} right away, which
+ * matches the detection within the current chunk above. Other keys whose hash has been seen before are recorded as
+ * suspects and are verified in a second pass over all keys in {@link #checkForDuplicates()}. As hash collisions of
+ * distinct keys are very unlikely, this pass is usually only done if there is a duplicate, which then is reported
+ * by {@link #checkForDuplicates()} as it is for keys in different chunks. Only if the hashes exceed their memory
+ * budget, further keys are added to chunks as described above.
+ *
  * <p>Note: This implementation is not thread-safe, it's supposed to be used
  * by a single thread only.
  *
@@ -114,6 +134,17 @@ public void addKey(final String key) throws IOException {
             m_count++;
         }
 
+        /** Adds a range of row indices, ranges must be added in ascending order. */
+        public void addRange(final long first, final long last) throws IOException {
+            if (m_out == null) {
+                throw new IllegalStateException("Chunck has already been closed");
+            }
+
+            m_out.writeLong(first);
+            m_out.writeLong(last);
+            m_count++;
+        }
+
         public void close() throws IOException {
             if (m_out == null) {
                 throw new IllegalStateException("Chunck has already been closed");
@@ -123,10 +154,19 @@ public void close() throws IOException {
         }
 
         public Iterator<String> iterator() throws FileNotFoundException {
+            return iterator(in -> in.readUTF());
+        }
+
+        /** @return the ranges of a chunk written by {@link #addRange(long, long)} as arrays {first, last} */
+        public Iterator<long[]> rangeIterator() throws FileNotFoundException {
+            return iterator(in -> new long[]{in.readLong(), in.readLong()});
+        }
+
+        private <T> Iterator<T> iterator(final EntryReader<T> reader) throws FileNotFoundException {
             if (m_out != null) {
                 throw new IllegalStateException("Bucket has not been closed yet");
             }
-            return new Iterator<String>() {
+            return new Iterator<T>() {
                 private DataInputStream m_in;
                 private long m_read;
 
@@ -149,13 +189,13 @@ public boolean hasNext() {
                 }
 
                 @Override
-                public String next() {
+                public T next() {
                     if (!hasNext()) {
                         throw new NoSuchElementException();
                     }
                     try {
                         m_read++;
-                        return m_in.readUTF();
+                        return reader.read(m_in);
                     } catch (IOException ex) {
                         throw new RuntimeException(ex);
                     }
@@ -177,6 +217,12 @@ public boolean dispose() {
         }
     }
 
+    /** Reads an entry of a chunk. */
+    @FunctionalInterface
+    private interface EntryReader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
     /** The default chunk size. */
     public static final int MAX_CHUNK_SIZE = 100000;
 
@@ -191,6 +237,42 @@ public boolean dispose() {
 
     private List<Chunk> m_storedChunks = new ArrayList<Chunk>();
 
+    /** Disjoint, non-adjacent ranges of indices of <code>"Row" + index</code> keys added since the last range
+     * chunk was written, mapping the first to the last index of each range. */
+    private TreeMap<Long, Long> m_indexRanges = new TreeMap<Long, Long>();
+
+    /** Chunks of sorted index ranges written to disk because the ranges got too fragmented. */
+    private final List<Chunk> m_rangeChunks = new ArrayList<Chunk>();
+
+    /** First and last index of the range with the largest indices, which is not part of {@link #m_indexRanges}
+     * (and separated by at least one index from its ranges). Allows to add sequential keys without any lookup.
+     * The range is empty if m_tailLast &lt; m_tailFirst. */
+    private long m_tailFirst = 0L;
+
+    private long m_tailLast = -1L;
+
+    /** Prefix of keys that are stored as ranges of indices. */
+    private static final String ROW_PREFIX = "Row";
+
+    /** Source of all keys for the verification of suspects, <code>null</code> if keys are kept in chunks only. */
+    private final Supplier<? extends Iterator<String>> m_keySource;
+
+    /** Hashes of the string keys added so far, created on first string key. */
+    private HashSet64 m_hashes;
+
+    /** Whether the hashes reached {@link #MAX_HASH_BYTES}, new keys then go to chunks. */
+    private boolean m_isHashesFrozen;
+
+    /** Keys whose hash has been added before. */
+    private final Set<String> m_suspects = new HashSet<String>();
+
+    /** The most recently added string keys (at most the maximum chunk size) while only hashes are kept, so that
+     * duplicates among them are reported by the add method as without a key source. */
+    private final Set<String> m_recentKeys = new HashSet<String>();
+
+    /** Memory budget for the hashes of one checker. */
+    private static final long MAX_HASH_BYTES = 64L << 20;
+
     private static final boolean DISABLE_DUPLICATE_CHECK =
         Boolean.getBoolean(
                 KNIMEConstants.PROPERTY_DISABLE_ROWID_DUPLICATE_CHECK);
@@ -238,11 +320,29 @@ public DuplicateChecker() {
      *            the merge process, must be at least 2
      */
     public DuplicateChecker(final int maxChunkSize, final int maxStreams) {
+        this(maxChunkSize, maxStreams, null);
+    }
+
+    /**
+     * Creates a new duplicate checker that keeps hashes of the keys in memory (see class description) and verifies
+     * suspected duplicates by iterating all keys once more.
+     *
+     * @param keySource supplies an iterator over all keys that were added, in any order. It's called at most once
+     *            in {@link #checkForDuplicates()}; if the returned iterator is {@link AutoCloseable} it gets closed.
+     * @since 3.6
+     */
+    public DuplicateChecker(final Supplier<? extends Iterator<String>> keySource) {
+        this(MAX_CHUNK_SIZE, MAX_STREAMS, CheckUtils.checkArgumentNotNull(keySource, "Key source must not be null"));
+    }
+
+    private DuplicateChecker(final int maxChunkSize, final int maxStreams,
+        final Supplier<? extends Iterator<String>> keySource) {
         if (maxStreams < 2) {
             throw new IllegalArgumentException("The number of streams must be at least 2");
         }
         m_maxChunkSize = maxChunkSize;
         m_maxStreams = maxStreams;
+        m_keySource = keySource;
     }
 
     /**
@@ -259,6 +359,172 @@ public void addKey(final String s) throws DuplicateKeyException,
         if (DISABLE_DUPLICATE_CHECK) {
             return;
         }
+        final long index = parseRowIndex(s);
+        if (index >= 0) {
+            addIndex(index);
+            return;
+        }
+        addStringKey(s);
+    }
+
+    /**
+     * Adds a new row key to the duplicate checker. Keys created by {@link RowKey#createRowKey(long)} are added
+     * without creating their string representation.
+     *
+     * @param key the key
+     * @throws DuplicateKeyException if a duplicate within the current chunk has
+     *             been detected
+     * @throws IOException if an I/O error occurs while writing the chunk to
+     *             disk
+     * @since 3.6
+     */
+    public void addKey(final RowKey key) throws DuplicateKeyException, IOException {
+        if (DISABLE_DUPLICATE_CHECK) {
+            return;
+        }
+        if (key.hasRowIndex()) {
+            addIndex(key.getRowIndex());
+        } else {
+            addKey(key.getString());
+        }
+    }
+
+    /**
+     * Adds the index of a key <code>"Row" + index</code> to the index ranges, possibly joining neighboring ranges.
+     * Writes the ranges to disk if there are too many of them.
+     */
+    private void addIndex(final long index) throws DuplicateKeyException, IOException {
+        if (index == m_tailLast + 1 && m_tailLast >= m_tailFirst) {
+            // sequential keys, e.g. the generated keys of a data container
+            m_tailLast = index;
+            return;
+        }
+        if (m_tailLast < m_tailFirst) {
+            m_tailFirst = index;
+            m_tailLast = index;
+            return;
+        }
+        if (index >= m_tailFirst && index <= m_tailLast) {
+            throw new DuplicateKeyException(ROW_PREFIX + index);
+        }
+        if (index > m_tailLast) {
+            m_indexRanges.put(m_tailFirst, m_tailLast);
+            m_tailFirst = index;
+            m_tailLast = index;
+            checkIndexRangeCount();
+            return;
+        }
+        if (index == m_tailFirst - 1) {
+            final Map.Entry<Long, Long> floor = m_indexRanges.floorEntry(index);
+            if (floor != null && floor.getValue() == index - 1) {
+                m_indexRanges.remove(floor.getKey());
+                m_tailFirst = floor.getKey();
+            } else {
+                m_tailFirst = index;
+            }
+            return;
+        }
+        final Map.Entry<Long, Long> floor = m_indexRanges.floorEntry(index);
+        if (floor != null && floor.getValue() >= index) {
+            throw new DuplicateKeyException(ROW_PREFIX + index);
+        }
+        final Map.Entry<Long, Long> next = m_indexRanges.higherEntry(index);
+        final boolean joinsFloor = floor != null && floor.getValue() == index - 1;
+        final boolean joinsNext = next != null && next.getKey() == index + 1;
+        if (joinsFloor && joinsNext) {
+            m_indexRanges.remove(next.getKey());
+            m_indexRanges.put(floor.getKey(), next.getValue());
+        } else if (joinsFloor) {
+            m_indexRanges.put(floor.getKey(), index);
+        } else if (joinsNext) {
+            m_indexRanges.remove(next.getKey());
+            m_indexRanges.put(index, next.getValue());
+        } else {
+            m_indexRanges.put(index, index);
+            checkIndexRangeCount();
+        }
+    }
+
+    /**
+     * Writes the index ranges (except for the tail range) to a chunk if there are too many of them. Overlaps with
+     * ranges added afterwards are found in {@link #checkForDuplicates()}, as for keys in chunks of strings.
+     */
+    private void checkIndexRangeCount() throws IOException {
+        if (m_indexRanges.size() >= m_maxChunkSize) {
+            writeRangeChunk();
+        }
+    }
+
+    /** Writes the index ranges (except for the tail range) to a new chunk and clears them. */
+    private void writeRangeChunk() throws IOException {
+        if (m_indexRanges.isEmpty()) {
+            return;
+        }
+        final Chunk c = new Chunk();
+        synchronized (ALL_CHUNKS) { ALL_CHUNKS.add(c); }
+        m_rangeChunks.add(c);
+        for (Map.Entry<Long, Long> e : m_indexRanges.entrySet()) {
+            c.addRange(e.getKey(), e.getValue());
+        }
+        c.close();
+        m_indexRanges.clear();
+    }
+
+    /**
+     * Parses keys of the form <code>"Row" + index</code> where index is a non-negative long without leading zeros.
+     *
+     * @return the index or -1 if the key has a different form
+     */
+    private static long parseRowIndex(final String s) {
+        final int length = s.length();
+        final int start = ROW_PREFIX.length();
+        if (length <= start || length > start + 19 || !s.startsWith(ROW_PREFIX)
+            || (s.charAt(start) == '0' && length > start + 1)) {
+            return -1L;
+        }
+        long index = 0L;
+        for (int i = start; i < length; i++) {
+            final char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1L;
+            }
+            index = 10 * index + (c - '0');
+            if (index < 0) { // overflow
+                return -1L;
+            }
+        }
+        return index;
+    }
+
+    /** Adds a key to the hashes or the current chunk of strings. */
+    private void addStringKey(final String s) throws DuplicateKeyException, IOException {
+        if (m_keySource != null) {
+            if (m_hashes == null) {
+                m_hashes = new HashSet64();
+            }
+            final long hash = HashSet64.hash(s);
+            if (!m_isHashesFrozen && m_hashes.isFull() && m_hashes.getGrownBytes() > MAX_HASH_BYTES) {
+                m_isHashesFrozen = true;
+            }
+            final boolean isNew = m_isHashesFrozen ? !m_hashes.contains(hash) : m_hashes.add(hash);
+            // see bug fix #1737 below
+            if (!isNew && (m_recentKeys.contains(s) || !m_suspects.add(new String(s)))) {
+                // a recent key or suspected twice, so it has been added (at least) twice
+                throw new DuplicateKeyException(s);
+            }
+            if (!m_isHashesFrozen) {
+                if (m_recentKeys.size() >= m_maxChunkSize) {
+                    m_recentKeys.clear();
+                }
+                m_recentKeys.add(new String(s));
+                return;
+            }
+            m_recentKeys.clear();
+            if (!isNew) {
+                // frozen: suspects are verified, need to add all others to chunks
+                return;
+            }
+        }
         // bug fix #1737: keys may be just wrappers of very large strings ...
         // we make a copy, which consist of the important characters only
         if (!m_currentChunk.add(new String(s))) {
@@ -277,6 +543,18 @@ public void addKey(final String s) throws DuplicateKeyException,
      * @throws IOException if an I/O error occurs
      */
     public void checkForDuplicates() throws DuplicateKeyException, IOException {
+        if (!m_suspects.isEmpty()) {
+            verifySuspects();
+        }
+        if (!m_rangeChunks.isEmpty()) {
+            if (m_tailLast >= m_tailFirst) {
+                m_indexRanges.put(m_tailFirst, m_tailLast);
+                m_tailFirst = 0L;
+                m_tailLast = -1L;
+            }
+            writeRangeChunk();
+            checkForDuplicateRanges(m_rangeChunks);
+        }
         if (m_storedChunks.size() == 0) {
             // less than MAX_CHUNK_SIZE keys, no need to write
             // a file because the check for duplicates has already
@@ -297,7 +575,48 @@ public void clear() {
         }
         synchronized (ALL_CHUNKS) { ALL_CHUNKS.removeAll(m_storedChunks); }
         m_storedChunks.clear();
+        for (Chunk c : m_rangeChunks) {
+            c.dispose();
+        }
+        synchronized (ALL_CHUNKS) { ALL_CHUNKS.removeAll(m_rangeChunks); }
+        m_rangeChunks.clear();
         m_currentChunk.clear();
+        m_indexRanges = new TreeMap<Long, Long>();
+        m_tailFirst = 0L;
+        m_tailLast = -1L;
+        m_hashes = null;
+        m_isHashesFrozen = false;
+        m_suspects.clear();
+        m_recentKeys.clear();
+    }
+
+    /**
+     * Iterates all keys as given by the key source and checks whether any of the suspects occurs twice.
+     *
+     * @throws DuplicateKeyException if so
+     * @throws IOException if closing the iterator fails
+     */
+    private void verifySuspects() throws DuplicateKeyException, IOException {
+        final Set<String> seen = new HashSet<String>();
+        final Iterator<String> it = m_keySource.get();
+        try {
+            while (it.hasNext()) {
+                final String s = it.next();
+                if (m_suspects.contains(s) && !seen.add(s)) {
+                    throw new DuplicateKeyException(s);
+                }
+            }
+        } finally {
+            if (it instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable)it).close();
+                } catch (IOException | RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+            }
+        }
     }
 
     /**
@@ -373,6 +692,72 @@ private void checkForDuplicates(final List<Chunk> storedChunks)
         synchronized (ALL_CHUNKS) { ALL_CHUNKS.removeAll(newChunks); }
     }
 
+    /**
+     * Checks chunks of sorted index ranges for overlapping ranges by merging them, in the same way as
+     * {@link #checkForDuplicates(List)} merges chunks of strings.
+     *
+     * @param rangeChunks the list of chunk files to process
+     * @throws IOException if an I/O error occurs
+     * @throws DuplicateKeyException if two ranges overlap
+     */
+    private void checkForDuplicateRanges(final List<Chunk> rangeChunks) throws IOException, DuplicateKeyException {
+        final int nrChunks = (int)Math.ceil(rangeChunks.size() / (double)m_maxStreams);
+        final List<Chunk> newChunks = new ArrayList<Chunk>(nrChunks);
+        try {
+            int chunkCount = 0;
+            for (int i = 0; i < nrChunks; i++) {
+                final int nrStreams = Math.min(m_maxStreams, rangeChunks.size() - chunkCount);
+                if (nrStreams == 1) {
+                    // only one (remaining) chunk => no need to merge anything
+                    newChunks.add(rangeChunks.get(chunkCount++));
+                    break;
+                }
+                @SuppressWarnings("unchecked")
+                final Iterator<long[]>[] in = new Iterator[nrStreams];
+                final PriorityQueue<RangeHelper> heap = new PriorityQueue<RangeHelper>(nrStreams);
+                for (int j = 0; j < nrStreams; j++) {
+                    in[j] = rangeChunks.get(chunkCount++).rangeIterator();
+                    if (in[j].hasNext()) {
+                        heap.add(new RangeHelper(in[j].next(), j));
+                    }
+                }
+
+                final Chunk chunk = new Chunk();
+                synchronized (ALL_CHUNKS) { ALL_CHUNKS.add(chunk); }
+                newChunks.add(chunk);
+                try {
+                    long lastIndex = -1L;
+                    while (!heap.isEmpty()) {
+                        final RangeHelper top = heap.poll();
+                        final long first = top.m_range[0];
+                        final long last = top.m_range[1];
+                        if (first <= lastIndex) {
+                            throw new DuplicateKeyException(ROW_PREFIX + first);
+                        }
+                        lastIndex = last;
+                        if (nrChunks > 1) {
+                            chunk.addRange(first, last);
+                        }
+                        if (in[top.m_streamIndex].hasNext()) {
+                            top.m_range = in[top.m_streamIndex].next();
+                            heap.add(top);
+                        }
+                    }
+                } finally {
+                    chunk.close();
+                }
+            }
+            if (newChunks.size() > 1) {
+                checkForDuplicateRanges(newChunks);
+            }
+        } finally {
+            for (Chunk c : newChunks) {
+                c.dispose();
+            }
+            synchronized (ALL_CHUNKS) { ALL_CHUNKS.removeAll(newChunks); }
+        }
+    }
+
     /**
      * Writes the current chunk to disk and clears the set.
      *
@@ -389,6 +774,100 @@ private void writeChunk() throws IOException {
         m_currentChunk.clear();
     }
 
+    /** Open addressing hash set of (non-zero) 64 bit hashes. */
+    private static final class HashSet64 {
+        private long[] m_table = new long[1 << 12];
+
+        private int m_size;
+
+        /** @return whether the hash was not contained before */
+        boolean add(final long hash) {
+            if (isFull()) {
+                grow();
+            }
+            final long h = hash == 0L ? 1L : hash;
+            final int mask = m_table.length - 1;
+            int i = (int)h & mask;
+            while (m_table[i] != 0L) {
+                if (m_table[i] == h) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            m_table[i] = h;
+            m_size++;
+            return true;
+        }
+
+        boolean contains(final long hash) {
+            final long h = hash == 0L ? 1L : hash;
+            final int mask = m_table.length - 1;
+            for (int i = (int)h & mask; m_table[i] != 0L; i = (i + 1) & mask) {
+                if (m_table[i] == h) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** @return whether the next {@link #add(long)} grows the table */
+        boolean isFull() {
+            return m_size >= m_table.length / 4 * 3;
+        }
+
+        /** @return the memory of the table after the next growth */
+        long getGrownBytes() {
+            return 16L * m_table.length;
+        }
+
+        private void grow() {
+            final long[] old = m_table;
+            m_table = new long[old.length * 2];
+            final int mask = m_table.length - 1;
+            for (long h : old) {
+                if (h != 0L) {
+                    int i = (int)h & mask;
+                    while (m_table[i] != 0L) {
+                        i = (i + 1) & mask;
+                    }
+                    m_table[i] = h;
+                }
+            }
+        }
+
+        /** 64 bit hash of a string (FNV-1a over the chars followed by a final mix). */
+        static long hash(final String s) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < s.length(); i++) {
+                h = (h ^ s.charAt(i)) * 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+
+    /** The current range of a stream of ranges during merging. */
+    private static final class RangeHelper implements Comparable<RangeHelper> {
+        private long[] m_range;
+
+        private final int m_streamIndex;
+
+        private RangeHelper(final long[] range, final int streamIdx) {
+            m_range = range;
+            m_streamIndex = streamIdx;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int compareTo(final RangeHelper o) {
+            return Long.compare(m_range[0], o.m_range[0]);
+        }
+    }
+
     /**
      * Container to hold a string and the stream index where the string
      * was read from.
@@ -155,6 +155,22 @@ public class Tokenizer {
      */
     private static final int BUFFER_LENGTH = 31;
 
+    /**
+     * The number of characters read from the source at once in block mode.
+     *
+     * @since 3.6
+     */
+    public static final int BLOCK_SIZE = 1 << 16;
+
+    /* the block of characters read from the source in block mode, null otherwise */
+    private final char[] m_block;
+
+    /* the index of the next character in the block to read */
+    private int m_blockIdx;
+
+    /* the number of valid characters in the block */
+    private int m_blockLength;
+
     /* our read buffer, realized as ring buffer with the following pointers */
     private int[] m_readBuffer;
 
@@ -165,7 +181,7 @@ public class Tokenizer {
     private int m_eobIdx;
 
     /* we build the token in here */
-    private StringBuffer m_newToken;
+    private StringBuilder m_newToken;
 
     /* the token returned by the last call to next() */
     private String m_lastToken;
@@ -214,8 +230,30 @@ public class Tokenizer {
      * @see #resetToDefault() for what's the default behaviour.
      */
     public Tokenizer(final Reader source) {
+        this(source, false);
+    }
+
+    /**
+     * Creates a new tokenizer with the default behaviour, which optionally
+     * reads the source in blocks. In block mode {@link #BLOCK_SIZE} characters
+     * are read from the source at once, and runs of characters that don't
+     * start a delimiter, quote, or comment pattern are added to the token in
+     * one go, instead of reading them one by one from the source. As the
+     * tokenizer reads ahead in block mode, the source must not be read by
+     * anyone else.
+     *
+     * @param source A reader the tokens are read from.
+     * @param blockMode if true, the source is read in blocks.
+     *
+     * @see #resetToDefault() for what's the default behaviour.
+     * @since 3.6
+     */
+    public Tokenizer(final Reader source, final boolean blockMode) {
 
         m_source = source;
+        m_block = blockMode ? new char[BLOCK_SIZE] : null;
+        m_blockIdx = 0;
+        m_blockLength = 0;
         m_readBuffer = new int[BUFFER_LENGTH];
         m_currIdx = 0;
         m_eobIdx = 0;
@@ -235,7 +273,7 @@ public Tokenizer(final Reader source) {
         m_linesSkipped = 0;
         m_allowLFinQuotes = false;
 
-        m_newToken = new StringBuffer();
+        m_newToken = new StringBuilder();
         m_lastToken = null;
         m_pushedBack = false;
         m_lastQuotes = null;
@@ -346,6 +384,10 @@ public String nextToken() throws TokenizerException {
             if (ctype == 0) {
                 // it's an ordinary character - just add it to the result
                 m_newToken.append((char)c);
+                if (m_block != null) {
+                    // and all ordinary characters following it
+                    appendOrdinaryChars(m_newToken);
+                }
                 c = getNextChar();
                 continue;
             }
@@ -484,7 +526,7 @@ private int getNextChar() {
             // m_currIdx points to the last char read from the buffer
             if (m_eobIdx == m_currIdx) {
                 // we need to read a new character from the stream
-                if ((m_readBuffer[m_currIdx] = m_source.read()) == -1) {
+                if ((m_readBuffer[m_currIdx] = readChar()) == -1) {
                     // seen the EOF. Any further read will cause IOException.
                     m_source.close();
                 }
@@ -492,7 +534,7 @@ private int getNextChar() {
                 if (m_readBuffer[m_currIdx] == CR) {
                     // read the next char to see if we need to swallow the CR
                     m_eobIdx = (m_eobIdx + 1) % BUFFER_LENGTH;
-                    if ((m_readBuffer[m_eobIdx] = m_source.read()) == LF) {
+                    if ((m_readBuffer[m_eobIdx] = readChar()) == LF) {
                         m_currIdx = m_eobIdx;
                         // incr currIdx as well, which makes them equal again...
                     }
@@ -511,6 +553,93 @@ private int getNextChar() {
         }
     }
 
+    /*
+     * Reads the next character from the source - or from the current block in
+     * block mode. @return The next character or -1 at the EOF. @throws
+     * IOException if reading from the source fails.
+     */
+    private int readChar() throws IOException {
+        if (m_block == null) {
+            return m_source.read();
+        }
+        if (m_blockIdx == m_blockLength) {
+            int length = m_source.read(m_block, 0, m_block.length);
+            if (length <= 0) {
+                return EOF;
+            }
+            m_blockIdx = 0;
+            m_blockLength = length;
+        }
+        return m_block[m_blockIdx++];
+    }
+
+    /*
+     * In block mode, appends the characters of the current block to the
+     * string as long as they are ordinary characters (no CR or LF and not
+     * starting any pattern). Does nothing if characters were pushed back into
+     * the read buffer, as those must be returned first. @param str The string
+     * to append the characters to.
+     */
+    private void appendOrdinaryChars(final StringBuilder str) {
+        if (m_eobIdx != m_currIdx) {
+            return;
+        }
+        final char[] block = m_block;
+        final int[] charType = m_charType;
+        final int start = m_blockIdx;
+        final int end = m_blockLength;
+        int idx = start;
+        while (idx < end) {
+            char c = block[idx];
+            if (c == LF || c == CR || charType[c & MAX_CHAR] != 0) {
+                break;
+            }
+            idx++;
+        }
+        if (idx > start) {
+            str.append(block, start, idx - start);
+            m_readBytes += idx - start;
+            m_blockIdx = idx;
+        }
+    }
+
+    /*
+     * In block mode, appends the characters of the current block to the
+     * quoted string as long as they can't be part of the end quote pattern
+     * and are no escape, line continuation, CR or LF characters. Does nothing
+     * if characters were pushed back into the read buffer. @param str The
+     * quoted string to append the characters to. @param quote The quote
+     * patterns. @return The number of characters appended.
+     */
+    private int appendQuotedChars(final StringBuilder str, final Quote quote) {
+        if (m_eobIdx != m_currIdx) {
+            return 0;
+        }
+        final char[] block = m_block;
+        final String endPattern = quote.getRight();
+        final boolean hasEscape = quote.hasEscapeChar();
+        final char escChar = quote.getEscape();
+        final int start = m_blockIdx;
+        final int end = m_blockLength;
+        int idx = start;
+        while (idx < end) {
+            char c = block[idx];
+            if (c == LF || c == CR || (hasEscape && c == escChar)
+                    || endPattern.indexOf(c) >= 0
+                    || (c <= MAX_CHAR && (m_charType[c] & LINECONT) != 0)) {
+                break;
+            }
+            idx++;
+        }
+        int count = idx - start;
+        if (count > 0) {
+            str.append(block, start, count);
+            m_readBytes += count;
+            m_blockIdx = idx;
+        }
+        return count;
+    }
+
     /*
      * Stores the character in c in the read buffer. The next call to <code>
      * getNextChar() </code> will return it then. Can be called several times -
@@ -585,7 +714,7 @@ public boolean isWhiteSpace(final char c) {
      * @param str the stringbuffer to modify
      * @param index the lowest index we may modify
      */
-    private void cutOffWhiteSpaces(final StringBuffer str, final int index) {
+    private void cutOffWhiteSpaces(final StringBuilder str, final int index) {
 
         if (str.length() == 0) {
             return;
@@ -998,6 +1127,11 @@ private String readQuotedString(final Quote quote)
             }
             result.append((char)nextChar);
             endPatternIdx++;
+            if (m_block != null && endPattern.indexOf((char)nextChar) < 0) {
+                // neither this nor the appended chars can complete the end
+                // pattern
+                endPatternIdx += appendQuotedChars(result, quote);
+            }
             if (searchIdx < endPatternIdx) {
                 searchIdx = endPatternIdx;
             }
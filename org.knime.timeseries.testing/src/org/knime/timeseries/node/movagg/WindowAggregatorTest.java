@@ -0,0 +1,276 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.timeseries.node.movagg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.knime.base.data.aggregation.AggregationOperator;
+import org.knime.base.data.aggregation.GlobalSettings;
+import org.knime.base.data.aggregation.OperatorColumnSettings;
+import org.knime.base.data.aggregation.general.CountOperator;
+import org.knime.base.data.aggregation.general.MaxOperator;
+import org.knime.base.data.aggregation.general.MinOperator;
+import org.knime.base.data.aggregation.numerical.MeanOperator;
+import org.knime.base.data.aggregation.numerical.StdDeviationOperator;
+import org.knime.base.data.aggregation.numerical.SumOperator;
+import org.knime.base.data.aggregation.numerical.VarianceOperator;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+
+/**
+ * Compares the incremental results of the {@link WindowAggregator}s with the results computed from all rows of the
+ * window.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class WindowAggregatorTest {
+
+    private static final DataColumnSpec DOUBLE_COL =
+        new DataColumnSpecCreator("value", DoubleCell.TYPE).createSpec();
+
+    private static final DataCell MISSING = DataType.getMissingCell();
+
+    /** Relative tolerance of the compensated incremental sums compared to the recomputed ones. */
+    private static final double EPSILON = 1E-9;
+
+    private static AggregationOperator[] createOperators(final DataColumnSpec spec, final boolean inclMissing) {
+        final GlobalSettings settings = GlobalSettings.DEFAULT;
+        final OperatorColumnSettings colSettings = new OperatorColumnSettings(inclMissing, spec);
+        final List<AggregationOperator> ops = new ArrayList<>();
+        ops.add(new CountOperator(settings, colSettings));
+        ops.add(new MinOperator(settings, colSettings));
+        ops.add(new MaxOperator(settings, colSettings));
+        if (!inclMissing) {
+            //the numerical operators do not support missing cells
+            ops.add(new SumOperator(settings, colSettings));
+            ops.add(new MeanOperator(settings, colSettings));
+            ops.add(new VarianceOperator(settings, colSettings));
+            ops.add(new StdDeviationOperator(settings, colSettings));
+        }
+        return ops.toArray(new AggregationOperator[ops.size()]);
+    }
+
+    /**
+     * Slides a window over the given values and compares the incremental result of each aggregator with the
+     * recomputed result.
+     *
+     * @param values the values of the single column
+     * @param windowLength the length of the window
+     * @param inclMissing if missing cells are included in the aggregation
+     * @param checkEvery the number of rows between two comparisons
+     */
+    private static void assertIncremental(final DataCell[] values, final int windowLength, final boolean inclMissing,
+        final int checkEvery) {
+        final AggregationOperator[] ops = createOperators(DOUBLE_COL, inclMissing);
+        final WindowAggregator[] aggregators = new WindowAggregator[ops.length];
+        for (int i = 0; i < ops.length; i++) {
+            aggregators[i] = WindowAggregator.create(ops[i], 0, DoubleCell.TYPE);
+        }
+        final AggregationWindow window = new AggregationWindow(aggregators, windowLength);
+        for (int r = 0; r < values.length; r++) {
+            window.add(new DefaultRow(RowKey.createRowKey((long)r), values[r]));
+            if (window.size() > windowLength) {
+                window.removeFirst();
+            }
+            if (r % checkEvery != 0 && r != values.length - 1) {
+                continue;
+            }
+            for (int i = 0; i < ops.length; i++) {
+                final DataCell actual = window.getResult(i);
+                final DataCell expected = aggregators[i].recompute(window);
+                assertCellEquals(ops[i].getClass().getSimpleName() + ", window " + windowLength + ", row " + r,
+                    expected, actual);
+            }
+        }
+    }
+
+    private static void assertCellEquals(final String msg, final DataCell expected, final DataCell actual) {
+        if (expected.isMissing() || !(expected instanceof DoubleCell)) {
+            assertEquals(msg, expected, actual);
+            return;
+        }
+        assertTrue(msg + ": " + actual, actual instanceof DoubleCell);
+        final double e = ((DoubleValue)expected).getDoubleValue();
+        final double a = ((DoubleValue)actual).getDoubleValue();
+        //NaN and infinite values are only equal to themselves
+        assertEquals(msg, e, a, Double.isFinite(e) ? EPSILON * Math.max(1, Math.abs(e)) : 0);
+    }
+
+    private static DataCell[] cells(final double... values) {
+        final DataCell[] cells = new DataCell[values.length];
+        for (int i = 0; i < values.length; i++) {
+            cells[i] = new DoubleCell(values[i]);
+        }
+        return cells;
+    }
+
+    private static DataCell[] concat(final DataCell[]... parts) {
+        final List<DataCell> cells = new ArrayList<>();
+        for (final DataCell[] part : parts) {
+            cells.addAll(Arrays.asList(part));
+        }
+        return cells.toArray(new DataCell[cells.size()]);
+    }
+
+    private static DataCell[] missing(final int count) {
+        final DataCell[] cells = new DataCell[count];
+        Arrays.fill(cells, MISSING);
+        return cells;
+    }
+
+    /** Random values with some missing cells for different window lengths. */
+    @Test
+    public void testRandomValues() {
+        final Random random = new Random(42);
+        final DataCell[] values = new DataCell[5000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(10) == 0 ? MISSING : new DoubleCell(random.nextInt(2000) - 1000.5);
+        }
+        for (final int windowLength : new int[]{1, 2, 5, 50}) {
+            assertIncremental(values, windowLength, false, 1);
+            assertIncremental(values, windowLength, true, 1);
+        }
+    }
+
+    /** Runs of missing cells that are as long as the window empty the incremental state. */
+    @Test
+    public void testWindowWithOnlyMissingValues() {
+        final int windowLength = 4;
+        final DataCell[] values = concat(cells(3, 7, 11), missing(windowLength), cells(1, 2, 2.5),
+            missing(windowLength + 2), cells(-4, 8), missing(windowLength), cells(6, 6, 6, 6, 5));
+        assertIncremental(values, windowLength, false, 1);
+        assertIncremental(values, windowLength, true, 1);
+    }
+
+    /** NaN and infinite values entering and leaving the window, also followed by a window of missing cells. */
+    @Test
+    public void testNonFiniteValues() {
+        final double nan = Double.NaN;
+        final double posInf = Double.POSITIVE_INFINITY;
+        final double negInf = Double.NEGATIVE_INFINITY;
+        final int windowLength = 3;
+        final DataCell[] values = concat(cells(1, nan, 2, 3, 4, posInf, 5, 6, 7, negInf, 8, posInf, negInf, 9, 10, 11),
+            cells(nan), missing(windowLength), cells(1, 2, 3), cells(posInf), missing(windowLength), cells(4, 5),
+            cells(negInf), missing(windowLength + 1), cells(6, 7, 8, 9));
+        for (final int length : new int[]{1, windowLength, 10}) {
+            assertIncremental(values, length, false, 1);
+            assertIncremental(values, length, true, 1);
+        }
+    }
+
+    /** Random NaN and infinite values between finite ones. */
+    @Test
+    public void testRandomNonFiniteValues() {
+        final Random random = new Random(7);
+        final double[] special = {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        final DataCell[] values = new DataCell[3000];
+        for (int i = 0; i < values.length; i++) {
+            final int r = random.nextInt(20);
+            if (r < special.length) {
+                values[i] = new DoubleCell(special[r]);
+            } else if (r < 5) {
+                values[i] = MISSING;
+            } else {
+                values[i] = new DoubleCell(random.nextGaussian() * 100);
+            }
+        }
+        for (final int windowLength : new int[]{2, 7, 30}) {
+            assertIncremental(values, windowLength, false, 1);
+        }
+    }
+
+    /** Many values passing a long window must not accumulate rounding errors, even if huge values pass by. */
+    @Test
+    public void testLongWindowDrift() {
+        final Random random = new Random(13);
+        final DataCell[] values = new DataCell[100000];
+        for (int i = 0; i < values.length; i++) {
+            final double d = random.nextDouble() * 1000;
+            values[i] = new DoubleCell(i % 10007 == 0 ? d * 1E9 : d);
+        }
+        assertIncremental(values, 1000, false, 97);
+    }
+
+    /** Int and long sums are computed by the operator, which sums as double and checks the result range. */
+    @Test
+    public void testIntegerSum() {
+        final GlobalSettings settings = GlobalSettings.DEFAULT;
+        final DataColumnSpec intCol = new DataColumnSpecCreator("int", IntCell.TYPE).createSpec();
+        final WindowAggregator intSum = WindowAggregator.create(
+            new SumOperator(settings, new OperatorColumnSettings(false, intCol)), 0, IntCell.TYPE);
+        final AggregationWindow intWindow = new AggregationWindow(new WindowAggregator[]{intSum}, 2);
+        intWindow.add(new DefaultRow(RowKey.createRowKey(0L), new IntCell(Integer.MAX_VALUE)));
+        assertEquals(new IntCell(Integer.MAX_VALUE), intWindow.getResult(0));
+        intWindow.add(new DefaultRow(RowKey.createRowKey(1L), new IntCell(1)));
+        assertTrue("Sum exceeding the int range must be missing", intWindow.getResult(0).isMissing());
+        intWindow.removeFirst();
+        assertEquals(new IntCell(1), intWindow.getResult(0));
+
+        final DataColumnSpec longCol = new DataColumnSpecCreator("long", LongCell.TYPE).createSpec();
+        final WindowAggregator longSum = WindowAggregator.create(
+            new SumOperator(settings, new OperatorColumnSettings(false, longCol)), 0, LongCell.TYPE);
+        final AggregationWindow longWindow = new AggregationWindow(new WindowAggregator[]{longSum}, 2);
+        final long big = (1L << 53) + 1;
+        longWindow.add(new DefaultRow(RowKey.createRowKey(0L), new LongCell(big)));
+        longWindow.add(new DefaultRow(RowKey.createRowKey(1L), new LongCell(1)));
+        //same result as the operator which sums the values as double
+        assertEquals(new LongCell((long)((double)big + 1)), longWindow.getResult(0));
+    }
+}
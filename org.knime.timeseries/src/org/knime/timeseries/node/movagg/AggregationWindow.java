@@ -0,0 +1,174 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.timeseries.node.movagg;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+
+/**
+ * The rows of a sliding window together with the {@link WindowAggregator}s that compute the aggregation results of
+ * the window. The rows are kept in a ring buffer which supports constant time access by index.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class AggregationWindow implements Iterable<DataRow> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final WindowAggregator[] m_aggregators;
+
+    private DataRow[] m_rows;
+
+    private int m_first;
+
+    private int m_size;
+
+    /**
+     * @param aggregators the {@link WindowAggregator}s to update
+     * @param windowLength the length of the window used to size the ring buffer
+     */
+    AggregationWindow(final WindowAggregator[] aggregators, final int windowLength) {
+        m_aggregators = aggregators;
+        m_rows = new DataRow[Math.max(1, Math.min(windowLength, INITIAL_CAPACITY))];
+    }
+
+    /**
+     * @param row the row to append to the end of the window
+     */
+    void add(final DataRow row) {
+        if (m_size == m_rows.length) {
+            final DataRow[] rows = new DataRow[m_rows.length * 2];
+            for (int i = 0; i < m_size; i++) {
+                rows[i] = get(i);
+            }
+            m_rows = rows;
+            m_first = 0;
+        }
+        m_rows[(m_first + m_size) % m_rows.length] = row;
+        m_size++;
+        for (final WindowAggregator aggregator : m_aggregators) {
+            aggregator.add(row);
+        }
+    }
+
+    /**
+     * Removes the first row of the window.
+     */
+    void removeFirst() {
+        final DataRow row = getFirst();
+        m_rows[m_first] = null;
+        m_first = (m_first + 1) % m_rows.length;
+        m_size--;
+        for (final WindowAggregator aggregator : m_aggregators) {
+            aggregator.remove(row);
+        }
+    }
+
+    /**
+     * @return the first row of the window
+     */
+    DataRow getFirst() {
+        return get(0);
+    }
+
+    /**
+     * @param index the index of the row within the window
+     * @return the row at the given index
+     */
+    DataRow get(final int index) {
+        if (index < 0 || index >= m_size) {
+            throw new NoSuchElementException("Index " + index + " out of window of size " + m_size);
+        }
+        return m_rows[(m_first + index) % m_rows.length];
+    }
+
+    /**
+     * @return the number of rows in the window
+     */
+    int size() {
+        return m_size;
+    }
+
+    /**
+     * @return <code>true</code> if the window contains no rows
+     */
+    boolean isEmpty() {
+        return m_size == 0;
+    }
+
+    /**
+     * @param aggregatorIdx the index of the {@link WindowAggregator}
+     * @return the aggregation result of the current window
+     */
+    DataCell getResult(final int aggregatorIdx) {
+        return m_aggregators[aggregatorIdx].getResult(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<DataRow> iterator() {
+        return new Iterator<DataRow>() {
+            private int m_idx = 0;
+
+            @Override
+            public boolean hasNext() {
+                return m_idx < m_size;
+            }
+
+            @Override
+            public DataRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(m_idx++);
+            }
+        };
+    }
+}
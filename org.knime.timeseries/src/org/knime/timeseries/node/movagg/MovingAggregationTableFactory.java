@@ -218,7 +218,7 @@ private BufferedDataTable getCumulativeTable(final ExecutionContext exec, final
     private BufferedDataTable getForwardTable(final ExecutionMonitor exec, final BufferedDataTable table,
         final BufferedDataContainer dc) throws CanceledExecutionException {
         final int rowCount = table.getRowCount();
-        final LinkedList<DataRow> window = new LinkedList<>();
+        final AggregationWindow window = createWindow();
         int rowIdx = 0;
         for (final DataRow row : table) {
             exec.setProgress(rowIdx / (double) rowCount, "Processing row " + rowIdx++ + " of " + rowCount);
@@ -237,13 +237,7 @@ private BufferedDataTable getForwardTable(final ExecutionMonitor exec, final Buf
                 cells[idx++] = firstRow.getCell(colIdx);
             }
             for (int i = 0, length = m_ops.length; i < length; i++) {
-                final int colIdx = m_aggrColIdxs[i];
-                final AggregationOperator op = m_ops[i];
-                for (final DataRow windowRow : window) {
-                    op.compute(windowRow, colIdx);
-                }
-                cells[idx++] = op.getResult();
-                op.reset();
+                cells[idx++] = window.getResult(i);
             }
             dc.addRowToTable(new DefaultRow(firstRow.getKey(), cells));
             //remove the first row only when the window is full
@@ -262,13 +256,7 @@ private BufferedDataTable getForwardTable(final ExecutionMonitor exec, final Buf
             }
             for (int i = 0, length = m_ops.length; i < length; i++) {
                 if (m_handleMissings) {
-                    final int colIdx = m_aggrColIdxs[i];
-                    final AggregationOperator op = m_ops[i];
-                    for (final DataRow windowRow : window) {
-                        op.compute(windowRow, colIdx);
-                    }
-                    cells[idx++] = op.getResult();
-                    op.reset();
+                    cells[idx++] = window.getResult(i);
                 } else {
                     //the window is not yet full return missing cells
                     cells[idx++] = DataType.getMissingCell();
@@ -283,7 +271,7 @@ private BufferedDataTable getForwardTable(final ExecutionMonitor exec, final Buf
     private BufferedDataTable getCenterTable(final ExecutionMonitor exec, final BufferedDataTable table,
         final BufferedDataContainer dc) throws CanceledExecutionException {
         final int rowCount = table.getRowCount();
-        final LinkedList<DataRow> window = new LinkedList<>();
+        final AggregationWindow window = createWindow();
         int rowIdx = 0;
         int centerIdx = -1;
         for (final DataRow row : table) {
@@ -306,13 +294,7 @@ private BufferedDataTable getCenterTable(final ExecutionMonitor exec, final Buff
             final boolean windowFull = window.size() >= m_windowLength;
             for (int i = 0, length = m_ops.length; i < length; i++) {
                 if (windowFull || m_handleMissings) {
-                    final int colIdx = m_aggrColIdxs[i];
-                    final AggregationOperator op = m_ops[i];
-                    for (final DataRow windowRow : window) {
-                        op.compute(windowRow, colIdx);
-                    }
-                    cells[idx++] = op.getResult();
-                    op.reset();
+                    cells[idx++] = window.getResult(i);
                 } else {
                     //the window is not yet full return missing cells
                     cells[idx++] = DataType.getMissingCell();
@@ -337,13 +319,7 @@ private BufferedDataTable getCenterTable(final ExecutionMonitor exec, final Buff
             }
             for (int i = 0, length = m_ops.length; i < length; i++) {
                 if (m_handleMissings) {
-                    final int colIdx = m_aggrColIdxs[i];
-                    final AggregationOperator op = m_ops[i];
-                    for (final DataRow windowRow : window) {
-                        op.compute(windowRow, colIdx);
-                    }
-                    cells[idx++] = op.getResult();
-                    op.reset();
+                    cells[idx++] = window.getResult(i);
                 } else {
                     //the window is not yet full return missing cells
                     cells[idx++] = DataType.getMissingCell();
@@ -361,7 +337,7 @@ private BufferedDataTable getCenterTable(final ExecutionMonitor exec, final Buff
     private BufferedDataTable getBackwardTable(final ExecutionMonitor exec, final BufferedDataTable table,
         final BufferedDataContainer dc) throws CanceledExecutionException {
         final int rowCount = table.getRowCount();
-        final LinkedList<DataRow> window = new LinkedList<>();
+        final AggregationWindow window = createWindow();
         int rowIdx = 0;
         for (final DataRow row : table) {
             exec.setProgress(rowIdx / (double) rowCount, "Processing row " + rowIdx++ + " of " + rowCount);
@@ -376,14 +352,7 @@ private BufferedDataTable getBackwardTable(final ExecutionMonitor exec, final Bu
             final boolean windowFull = window.size() >= m_windowLength;
             for (int i = 0, length = m_ops.length; i < length; i++) {
                 if (windowFull || m_handleMissings) {
-                    final int colIdx = m_aggrColIdxs[i];
-                    final AggregationOperator op = m_ops[i];
-
-                    for (final DataRow windowRow : window) {
-                        op.compute(windowRow, colIdx);
-                    }
-                    cells[idx++] = op.getResult();
-                    op.reset();
+                    cells[idx++] = window.getResult(i);
                 } else {
                     //the window is not yet full return missing cells
                     cells[idx++] = DataType.getMissingCell();
@@ -402,6 +371,20 @@ private BufferedDataTable getBackwardTable(final ExecutionMonitor exec, final Bu
 
 
 
+    /**
+     * @return a new empty {@link AggregationWindow} that aggregates the selected columns incrementally if supported
+     * by the respective {@link AggregationOperator}
+     */
+    private AggregationWindow createWindow() {
+        final WindowAggregator[] aggregators = new WindowAggregator[m_ops.length];
+        for (int i = 0, length = m_ops.length; i < length; i++) {
+            final int colIdx = m_aggrColIdxs[i];
+            aggregators[i] =
+                WindowAggregator.create(m_ops[i], colIdx, m_inputSpec.getColumnSpec(colIdx).getType());
+        }
+        return new AggregationWindow(aggregators, m_windowLength);
+    }
+
     /**
      * @return the name of all columns from the input table that are aggregated
      */
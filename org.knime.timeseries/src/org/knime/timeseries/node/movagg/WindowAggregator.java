@@ -0,0 +1,458 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * -------------------------------------------------------------------
+ */
+package org.knime.timeseries.node.movagg;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+
+import org.knime.base.data.aggregation.AggregationOperator;
+import org.knime.base.data.aggregation.general.CountOperator;
+import org.knime.base.data.aggregation.general.MaxOperator;
+import org.knime.base.data.aggregation.general.MinOperator;
+import org.knime.base.data.aggregation.numerical.MeanOperator;
+import org.knime.base.data.aggregation.numerical.StdDeviationOperator;
+import org.knime.base.data.aggregation.numerical.SumOperator;
+import org.knime.base.data.aggregation.numerical.VarianceOperator;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+
+/**
+ * Computes the result of an {@link AggregationOperator} for the rows of a sliding window. Rows are added to the end
+ * and removed from the beginning of the window. The sum of double values, the mean, count, variance and standard
+ * deviation are updated incrementally whenever a row enters or leaves the window, the minimum and maximum are kept
+ * in a monotonic deque. All other operators are not invertible and compute their result from all rows of the window.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+abstract class WindowAggregator {
+
+    private final AggregationOperator m_op;
+
+    private final int m_colIdx;
+
+    /** The sequence number of the next row added to the window. */
+    private long m_nextSeq;
+
+    /** The sequence number of the first row of the window. */
+    private long m_firstSeq;
+
+    private WindowAggregator(final AggregationOperator op, final int colIdx) {
+        m_op = op;
+        m_colIdx = colIdx;
+    }
+
+    /**
+     * @param op the {@link AggregationOperator} to compute
+     * @param colIdx the index of the column to aggregate
+     * @param type the {@link DataType} of the column to aggregate
+     * @return the {@link WindowAggregator} for the given operator
+     */
+    static WindowAggregator create(final AggregationOperator op, final int colIdx, final DataType type) {
+        //only the exact classes are supported since sub classes might compute a different result
+        final Class<?> opClass = op.getClass();
+        if (opClass == SumOperator.class) {
+            //the operator sums int and long values as double and checks the result range, which also marks the
+            //operator as skipped, so only double sums are updated incrementally
+            if (type.isCompatible(IntValue.class) || type.isCompatible(LongValue.class)) {
+                return new Recompute(op, colIdx);
+            }
+            return new DoubleSum(op, colIdx);
+        } else if (opClass == MeanOperator.class) {
+            return new Mean(op, colIdx);
+        } else if (opClass == CountOperator.class) {
+            return new Count(op, colIdx);
+        } else if (opClass == VarianceOperator.class) {
+            return new Variance(op, colIdx, false);
+        } else if (opClass == StdDeviationOperator.class) {
+            return new Variance(op, colIdx, true);
+        } else if (opClass == MinOperator.class) {
+            return new MinMax(op, colIdx, type.getComparator());
+        } else if (opClass == MaxOperator.class) {
+            return new MinMax(op, colIdx, type.getComparator().reversed());
+        }
+        return new Recompute(op, colIdx);
+    }
+
+    /**
+     * @param row the row that is appended to the end of the window
+     */
+    final void add(final DataRow row) {
+        final DataCell cell = row.getCell(m_colIdx);
+        if (m_op.inclMissingCells() || !cell.isMissing()) {
+            addInternal(cell, m_nextSeq);
+        }
+        m_nextSeq++;
+    }
+
+    /**
+     * @param row the first row of the window that is removed
+     */
+    final void remove(final DataRow row) {
+        final DataCell cell = row.getCell(m_colIdx);
+        if (m_op.inclMissingCells() || !cell.isMissing()) {
+            removeInternal(cell, m_firstSeq);
+        }
+        m_firstSeq++;
+    }
+
+    /**
+     * @param window all rows of the window
+     * @return the aggregation result of the current window
+     */
+    abstract DataCell getResult(Iterable<DataRow> window);
+
+    /**
+     * @param cell the cell to add
+     * @param seq the sequence number of the row the cell belongs to
+     */
+    abstract void addInternal(DataCell cell, long seq);
+
+    /**
+     * @param cell the cell to remove, which was added before any other cell of the window
+     * @param seq the sequence number of the row the cell belongs to
+     */
+    abstract void removeInternal(DataCell cell, long seq);
+
+    /**
+     * Computes the result by passing all rows of the window to the operator.
+     * @param window all rows of the window
+     * @return the aggregation result of the window
+     */
+    final DataCell recompute(final Iterable<DataRow> window) {
+        for (final DataRow windowRow : window) {
+            m_op.compute(windowRow, m_colIdx);
+        }
+        final DataCell result = m_op.getResult();
+        m_op.reset();
+        return result;
+    }
+
+    /** Operators that can not be updated incrementally. */
+    private static final class Recompute extends WindowAggregator {
+
+        Recompute(final AggregationOperator op, final int colIdx) {
+            super(op, colIdx);
+        }
+
+        @Override
+        DataCell getResult(final Iterable<DataRow> window) {
+            return recompute(window);
+        }
+
+        @Override
+        void addInternal(final DataCell cell, final long seq) {
+            //nothing to do
+        }
+
+        @Override
+        void removeInternal(final DataCell cell, final long seq) {
+            //nothing to do
+        }
+    }
+
+    /** Counts the cells of the window. */
+    private static final class Count extends WindowAggregator {
+
+        private int m_count;
+
+        Count(final AggregationOperator op, final int colIdx) {
+            super(op, colIdx);
+        }
+
+        @Override
+        DataCell getResult(final Iterable<DataRow> window) {
+            return new IntCell(m_count);
+        }
+
+        @Override
+        void addInternal(final DataCell cell, final long seq) {
+            m_count++;
+        }
+
+        @Override
+        void removeInternal(final DataCell cell, final long seq) {
+            m_count--;
+        }
+    }
+
+    /**
+     * Sums up the double values of the window. The sum of the finite values is compensated to avoid the accumulation
+     * of rounding errors while values are added and removed. Infinite and NaN values are counted separately since
+     * they can not be removed from a sum.
+     */
+    private static class DoubleSum extends WindowAggregator {
+
+        private int m_count;
+
+        private double m_sum;
+
+        private double m_compensation;
+
+        private int m_nan;
+
+        private int m_posInf;
+
+        private int m_negInf;
+
+        DoubleSum(final AggregationOperator op, final int colIdx) {
+            super(op, colIdx);
+        }
+
+        @Override
+        DataCell getResult(final Iterable<DataRow> window) {
+            if (m_count == 0) {
+                return DataType.getMissingCell();
+            }
+            return new DoubleCell(getSum());
+        }
+
+        /** @return the number of values in the window */
+        final int getCount() {
+            return m_count;
+        }
+
+        /** @return <code>true</code> if the window contains infinite or NaN values */
+        final boolean hasNonFinite() {
+            return m_nan + m_posInf + m_negInf > 0;
+        }
+
+        /** @return the sum of all values in the window */
+        final double getSum() {
+            if (m_nan > 0 || (m_posInf > 0 && m_negInf > 0)) {
+                return Double.NaN;
+            } else if (m_posInf > 0) {
+                return Double.POSITIVE_INFINITY;
+            } else if (m_negInf > 0) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            return m_sum + m_compensation;
+        }
+
+        @Override
+        void addInternal(final DataCell cell, final long seq) {
+            m_count++;
+            update(((DoubleValue)cell).getDoubleValue(), 1);
+        }
+
+        @Override
+        void removeInternal(final DataCell cell, final long seq) {
+            m_count--;
+            if (m_count == 0) {
+                clear();
+            } else {
+                update(((DoubleValue)cell).getDoubleValue(), -1);
+            }
+        }
+
+        /** Resets the sum once the last value has left the window, which also discards accumulated round-off. */
+        void clear() {
+            m_sum = 0;
+            m_compensation = 0;
+            m_nan = 0;
+            m_posInf = 0;
+            m_negInf = 0;
+        }
+
+        /**
+         * @param d the value to add or remove
+         * @param sign 1 to add the value or -1 to remove it
+         */
+        void update(final double d, final int sign) {
+            if (Double.isNaN(d)) {
+                m_nan += sign;
+            } else if (d == Double.POSITIVE_INFINITY) {
+                m_posInf += sign;
+            } else if (d == Double.NEGATIVE_INFINITY) {
+                m_negInf += sign;
+            } else {
+                m_compensation += compensatedAdd(sign * d);
+            }
+        }
+
+        /**
+         * Adds the value to the sum using Neumaier's summation.
+         * @param d the value to add
+         * @return the lost low-order bits
+         */
+        private double compensatedAdd(final double d) {
+            final double t = m_sum + d;
+            final double lost;
+            if (Math.abs(m_sum) >= Math.abs(d)) {
+                lost = (m_sum - t) + d;
+            } else {
+                lost = (d - t) + m_sum;
+            }
+            m_sum = t;
+            return lost;
+        }
+    }
+
+    /** Computes the mean of the window. */
+    private static final class Mean extends DoubleSum {
+
+        Mean(final AggregationOperator op, final int colIdx) {
+            super(op, colIdx);
+        }
+
+        @Override
+        DataCell getResult(final Iterable<DataRow> window) {
+            if (getCount() == 0) {
+                return DataType.getMissingCell();
+            }
+            return new DoubleCell(getSum() / getCount());
+        }
+    }
+
+    /** Computes the variance or standard deviation of the window from the sum and the sum of squares. */
+    private static final class Variance extends DoubleSum {
+
+        private final boolean m_stdDeviation;
+
+        private final DoubleSum m_sumSquare;
+
+        Variance(final AggregationOperator op, final int colIdx, final boolean stdDeviation) {
+            super(op, colIdx);
+            m_stdDeviation = stdDeviation;
+            m_sumSquare = new DoubleSum(op, colIdx);
+        }
+
+        @Override
+        DataCell getResult(final Iterable<DataRow> window) {
+            final int count = getCount();
+            if (count <= 0) {
+                return DataType.getMissingCell();
+            }
+            if (count == 1) {
+                return new DoubleCell(0);
+            }
+            double variance;
+            if (hasNonFinite()) {
+                variance = Double.NaN;
+            } else {
+                final double sum = getSum();
+                variance = (m_sumSquare.getSum() - ((sum * sum) / count)) / (count - 1);
+                //same round-off handling as the VarianceOperator
+                if (variance < 0.0 && variance > -1.0E8) {
+                    variance = 0.0;
+                }
+            }
+            return new DoubleCell(m_stdDeviation ? Math.sqrt(Math.abs(variance)) : variance);
+        }
+
+        @Override
+        void update(final double d, final int sign) {
+            super.update(d, sign);
+            m_sumSquare.update(d * d, sign);
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            m_sumSquare.clear();
+        }
+    }
+
+    /**
+     * Keeps the minimum of the window in a deque whose values are increasing with respect to the given comparator.
+     * Equal values are kept so that the first of them is returned as the original operators do. The maximum is
+     * computed with the reversed comparator.
+     */
+    private static final class MinMax extends WindowAggregator {
+
+        private final Comparator<DataCell> m_comparator;
+
+        private final Deque<Entry> m_deque = new ArrayDeque<>();
+
+        MinMax(final AggregationOperator op, final int colIdx, final Comparator<DataCell> comparator) {
+            super(op, colIdx);
+            m_comparator = comparator;
+        }
+
+        @Override
+        DataCell getResult(final Iterable<DataRow> window) {
+            if (m_deque.isEmpty()) {
+                return DataType.getMissingCell();
+            }
+            return m_deque.peekFirst().m_cell;
+        }
+
+        @Override
+        void addInternal(final DataCell cell, final long seq) {
+            if (cell.isMissing()) {
+                //missing cells are ignored by the min and max operator
+                return;
+            }
+            while (!m_deque.isEmpty() && m_comparator.compare(m_deque.peekLast().m_cell, cell) > 0) {
+                m_deque.pollLast();
+            }
+            m_deque.addLast(new Entry(cell, seq));
+        }
+
+        @Override
+        void removeInternal(final DataCell cell, final long seq) {
+            if (!m_deque.isEmpty() && m_deque.peekFirst().m_seq == seq) {
+                m_deque.pollFirst();
+            }
+        }
+
+        private static final class Entry {
+            private final DataCell m_cell;
+
+            private final long m_seq;
+
+            Entry(final DataCell cell, final long seq) {
+                m_cell = cell;
+                m_seq = seq;
+            }
+        }
+    }
+}